@@ -1,9 +1,11 @@
 package org.tron.core.vm;
 
 import java.math.BigInteger;
+import java.util.function.Function;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.core.vm.config.VMConfig;
 import org.tron.core.vm.program.Program;
+import org.tron.core.vm.program.ProgramPrecompile;
 import org.tron.core.vm.program.Stack;
 
 import static org.tron.core.Constant.DYNAMIC_ENERGY_FACTOR_DECIMAL;
@@ -58,6 +60,15 @@ public class EnergyCost {
   private static final long STOP = 0;
   private static final long CREATE_DATA = 200;
 
+  public static final StaticCost ZERO_TIER_COST = new StaticCost(ZERO_TIER);
+  public static final StaticCost BASE_TIER_COST = new StaticCost(BASE_TIER);
+  public static final StaticCost VERY_LOW_TIER_COST = new StaticCost(VERY_LOW_TIER);
+  public static final StaticCost LOW_TIER_COST = new StaticCost(LOW_TIER);
+  public static final StaticCost MID_TIER_COST = new StaticCost(MID_TIER);
+  public static final StaticCost HIGH_TIER_COST = new StaticCost(HIGH_TIER);
+  public static final StaticCost EXT_TIER_COST = new StaticCost(EXT_TIER);
+  public static final StaticCost SPECIAL_TIER_COST = new StaticCost(SPECIAL_TIER);
+
   public static long getZeroTierCost(Program ignored) {
     return ZERO_TIER;
   }
@@ -522,4 +533,26 @@ public class EnergyCost {
   private static boolean isDeadAccount(Program program, DataWord address) {
     return program.getContractState().getAccount(address.toTronAddress()) == null;
   }
+
+  /**
+   * Cost that does not depend on the program state, operations priced by it can be charged
+   * ahead of execution for a whole basic block, see {@link ProgramPrecompile}.
+   */
+  public static final class StaticCost implements Function<Program, Long> {
+
+    private final long cost;
+
+    private StaticCost(long cost) {
+      this.cost = cost;
+    }
+
+    public long getCost() {
+      return cost;
+    }
+
+    @Override
+    public Long apply(Program ignored) {
+      return cost;
+    }
+  }
 }
@@ -12,6 +12,8 @@ public class JumpTable {
           () -> false);
 
   private final Operation[] table = new Operation[256];
+  // bumped when the static cost of an op changes, invalidates the block costs built on it
+  private volatile int version;
 
   public JumpTable() {
     // fill all op slots to undefined
@@ -23,6 +25,13 @@ public class JumpTable {
   }
 
   public void set(Operation op) {
+    if (table[op.getOpcode()].getStaticCost() != op.getStaticCost()) {
+      version++;
+    }
     table[op.getOpcode()] = op;
   }
+
+  public int getVersion() {
+    return version;
+  }
 }
@@ -13,6 +13,8 @@ public class Operation {
   private final Function<Program, Long> cost;
   private final Consumer<Program> action;
   private final BooleanSupplier enabled;
+  // -1 when the cost depends on the program state
+  private final long staticCost;
 
   public Operation(int opcode, int require, int ret,
                       Function<Program, Long> cost, Consumer<Program> action) {
@@ -27,6 +29,8 @@ public class Operation {
     this.cost = cost;
     this.action = action;
     this.enabled = enabled;
+    this.staticCost = cost instanceof EnergyCost.StaticCost
+        ? ((EnergyCost.StaticCost) cost).getCost() : -1;
   }
 
   public int getOpcode() {
@@ -45,6 +49,10 @@ public class Operation {
     return this.cost.apply(program);
   }
 
+  public long getStaticCost() {
+    return staticCost;
+  }
+
   public void execute(Program program) {
     this.action.accept(program);
   }
@@ -1,6 +1,5 @@
 package org.tron.core.vm;
 
-import static org.tron.common.crypto.Hash.sha3;
 import static org.tron.common.utils.ByteUtil.EMPTY_BYTE_ARRAY;
 
 import java.math.BigInteger;
@@ -22,38 +21,22 @@ public class OperationActions {
   }
 
   public static void addAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    word1.add(word2);
-    program.stackPush(word1);
+    program.getStack().add();
     program.step();
   }
 
   public static void mulAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    word1.mul(word2);
-    program.stackPush(word1);
+    program.getStack().mul();
     program.step();
   }
 
   public static void subAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    word1.sub(word2);
-    program.stackPush(word1);
+    program.getStack().sub();
     program.step();
   }
 
   public static void divAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    word1.div(word2);
-    program.stackPush(word1);
+    program.getStack().div();
     program.step();
   }
 
@@ -67,11 +50,7 @@ public class OperationActions {
   }
 
   public static void modAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    word1.mod(word2);
-    program.stackPush(word1);
+    program.getStack().mod();
     program.step();
   }
 
@@ -126,177 +105,82 @@ public class OperationActions {
   }
 
   public static void ltAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    if (word1.value().compareTo(word2.value()) < 0) {
-      word1.and(DataWord.ZERO);
-      word1.getData()[31] = 1;
-    } else {
-      word1.and(DataWord.ZERO);
-    }
-    program.stackPush(word1);
+    program.getStack().lt();
     program.step();
   }
 
   public static void gtAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    if (word1.value().compareTo(word2.value()) > 0) {
-      word1.and(DataWord.ZERO);
-      word1.getData()[31] = 1;
-    } else {
-      word1.and(DataWord.ZERO);
-    }
-    program.stackPush(word1);
+    program.getStack().gt();
     program.step();
   }
 
   public static void sltAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    if (word1.sValue().compareTo(word2.sValue()) < 0) {
-      word1.and(DataWord.ZERO);
-      word1.getData()[31] = 1;
-    } else {
-      word1.and(DataWord.ZERO);
-    }
-    program.stackPush(word1);
+    program.getStack().slt();
     program.step();
   }
 
   public static void sgtAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    if (word1.sValue().compareTo(word2.sValue()) > 0) {
-      word1.and(DataWord.ZERO);
-      word1.getData()[31] = 1;
-    } else {
-      word1.and(DataWord.ZERO);
-    }
-    program.stackPush(word1);
+    program.getStack().sgt();
     program.step();
   }
 
   public static void eqAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    if (word1.xor(word2).isZero()) {
-      word1.and(DataWord.ZERO);
-      word1.getData()[31] = 1;
-    } else {
-      word1.and(DataWord.ZERO);
-    }
-    program.stackPush(word1);
+    program.getStack().eq();
     program.step();
   }
 
   public static void isZeroAction(Program program) {
-    DataWord word1 = program.stackPop();
-    if (word1.isZero()) {
-      word1.getData()[31] = 1;
-    } else {
-      word1.and(DataWord.ZERO);
-    }
-
-    program.stackPush(word1);
+    program.getStack().isZero();
     program.step();
   }
 
   public static void andAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    word1.and(word2);
-    program.stackPush(word1);
+    program.getStack().and();
     program.step();
   }
 
   public static void orAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    word1.or(word2);
-    program.stackPush(word1);
+    program.getStack().or();
     program.step();
   }
 
   public static void xorAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    word1.xor(word2);
-    program.stackPush(word1);
+    program.getStack().xor();
     program.step();
   }
 
   public static void notAction(Program program) {
-    DataWord word1 = program.stackPop();
-    word1.bnot();
-
-    program.stackPush(word1);
+    program.getStack().not();
     program.step();
   }
 
   public static void byteAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    final DataWord result;
-    if (word1.value().compareTo(_32_) < 0) {
-      byte tmp = word2.getData()[word1.intValue()];
-      word2.and(DataWord.ZERO);
-      word2.getData()[31] = tmp;
-      result = word2;
-    } else {
-      result = new DataWord();
-    }
-
-    program.stackPush(result);
+    program.getStack().byteOf();
     program.step();
   }
 
   public static void shlAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    final DataWord result = word2.shiftLeft(word1);
-    program.stackPush(result);
+    program.getStack().shl();
     program.step();
   }
 
   public static void shrAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    final DataWord result = word2.shiftRight(word1);
-    program.stackPush(result);
+    program.getStack().shr();
     program.step();
   }
 
   public static void sarAction(Program program) {
-    DataWord word1 = program.stackPop();
-    DataWord word2 = program.stackPop();
-
-    final DataWord result = word2.shiftRightSigned(word1);
-    program.stackPush(result);
+    program.getStack().sar();
     program.step();
   }
 
   public static void sha3Action(Program program) {
-    DataWord memOffsetData = program.stackPop();
-    DataWord lengthData = program.stackPop();
-    byte[] buffer = program
-        .memoryChunk(memOffsetData.intValueSafe(), lengthData.intValueSafe());
-
-    byte[] encoded = sha3(buffer);
-    DataWord word = new DataWord(encoded);
+    Stack stack = program.getStack();
+    int memOffset = stack.popIntSafe();
+    int length = stack.popIntSafe();
+    byte[] encoded = program.memorySha3(memOffset, length);
 
-    program.stackPush(word);
+    stack.pushBytes(encoded, 0, encoded.length);
     program.step();
   }
 
@@ -544,23 +428,19 @@ public class OperationActions {
   }
 
   public static void popAction(Program program) {
-    program.stackPop();
+    program.getStack().drop();
     program.step();
   }
 
   public static void mLoadAction(Program program) {
-    DataWord addr = program.stackPop();
-    DataWord data = program.memoryLoad(addr);
-
-    program.stackPush(data);
+    int addr = program.getStack().popInt();
+    program.memoryLoadToStack(addr);
     program.step();
   }
 
   public static void mStoreAction(Program program) {
-    DataWord addr = program.stackPop();
-    DataWord value = program.stackPop();
-
-    program.memorySave(addr, value);
+    int addr = program.getStack().popInt();
+    program.memorySaveFromStack(addr);
     program.step();
   }
 
@@ -617,18 +497,12 @@ public class OperationActions {
   }
 
   public static void pcAction(Program program) {
-    int pc = program.getPC();
-    DataWord pcWord = new DataWord(pc);
-
-    program.stackPush(pcWord);
+    program.getStack().pushLong(program.getPC());
     program.step();
   }
 
   public static void mSizeAction(Program program) {
-    int memSize = program.getMemSize();
-    DataWord wordMemSize = new DataWord(memSize);
-
-    program.stackPush(wordMemSize);
+    program.getStack().pushLong(program.getMemSize());
     program.step();
   }
 
@@ -644,24 +518,19 @@ public class OperationActions {
   }
 
   public static void push0Action(Program program) {
-    program.stackPush(DataWord.ZERO());
+    program.getStack().pushZero();
     program.step();
   }
 
   public static void pushAction(Program program) {
     int n = program.getCurrentOpIntValue() - Op.PUSH1 + 1;
     program.step();
-    byte[] data = program.sweep(n);
-
-    program.stackPush(new DataWord(data));
+    program.stackPushImmediate(n);
   }
 
   public static void dupAction(Program program) {
-    Stack stack = program.getStack();
     int n = program.getCurrentOpIntValue() - Op.DUP1 + 1;
-    DataWord word_1 = stack.get(stack.size() - n);
-
-    program.stackPush(word_1.clone());
+    program.getStack().dup(n);
     program.step();
   }
 
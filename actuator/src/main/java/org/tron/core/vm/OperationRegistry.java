@@ -79,52 +79,52 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.STOP, 0, 0,
-        EnergyCost::getZeroTierCost,
+        EnergyCost.ZERO_TIER_COST,
         OperationActions::stopAction));
 
     table.set(new Operation(
         Op.ADD, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::addAction));
 
     table.set(new Operation(
         Op.MUL, 2, 1,
-        EnergyCost::getLowTierCost,
+        EnergyCost.LOW_TIER_COST,
         OperationActions::mulAction));
 
     table.set(new Operation(
         Op.SUB, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::subAction));
 
     table.set(new Operation(
         Op.DIV, 2, 1,
-        EnergyCost::getLowTierCost,
+        EnergyCost.LOW_TIER_COST,
         OperationActions::divAction));
 
     table.set(new Operation(
         Op.SDIV, 2, 1,
-        EnergyCost::getLowTierCost,
+        EnergyCost.LOW_TIER_COST,
         OperationActions::sdivAction));
 
     table.set(new Operation(
         Op.MOD, 2, 1,
-        EnergyCost::getLowTierCost,
+        EnergyCost.LOW_TIER_COST,
         OperationActions::modAction));
 
     table.set(new Operation(
         Op.SMOD, 2, 1,
-        EnergyCost::getLowTierCost,
+        EnergyCost.LOW_TIER_COST,
         OperationActions::sModAction));
 
     table.set(new Operation(
         Op.ADDMOD, 3, 1,
-        EnergyCost::getMidTierCost,
+        EnergyCost.MID_TIER_COST,
         OperationActions::addModAction));
 
     table.set(new Operation(
         Op.MULMOD, 3, 1,
-        EnergyCost::getMidTierCost,
+        EnergyCost.MID_TIER_COST,
         OperationActions::mulModAction));
 
     table.set(new Operation(
@@ -134,62 +134,62 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.SIGNEXTEND, 2, 1,
-        EnergyCost::getLowTierCost,
+        EnergyCost.LOW_TIER_COST,
         OperationActions::signExtendAction));
 
     table.set(new Operation(
         Op.LT, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::ltAction));
 
     table.set(new Operation(
         Op.GT, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::gtAction));
 
     table.set(new Operation(
         Op.SLT, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::sltAction));
 
     table.set(new Operation(
         Op.SGT, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::sgtAction));
 
     table.set(new Operation(
         Op.EQ, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::eqAction));
 
     table.set(new Operation(
         Op.ISZERO, 1, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::isZeroAction));
 
     table.set(new Operation(
         Op.AND, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::andAction));
 
     table.set(new Operation(
         Op.OR, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::orAction));
 
     table.set(new Operation(
         Op.XOR, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::xorAction));
 
     table.set(new Operation(
         Op.NOT, 1, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::notAction));
 
     table.set(new Operation(
         Op.BYTE, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::byteAction));
 
     table.set(new Operation(
@@ -199,7 +199,7 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.ADDRESS, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::addressAction));
 
     table.set(new Operation(
@@ -209,27 +209,27 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.ORIGIN, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::originAction));
 
     table.set(new Operation(
         Op.CALLER, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::callerAction));
 
     table.set(new Operation(
         Op.CALLVALUE, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::callValueAction));
 
     table.set(new Operation(
         Op.CALLDATALOAD, 1, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::callDataLoadAction));
 
     table.set(new Operation(
         Op.CALLDATASIZE, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::callDataSizeAction));
 
     table.set(new Operation(
@@ -239,7 +239,7 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.CODESIZE, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::codeSizeAction));
 
     table.set(new Operation(
@@ -249,7 +249,7 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.RETURNDATASIZE, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::returnDataSizeAction));
 
     table.set(new Operation(
@@ -259,7 +259,7 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.GASPRICE, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::gasPriceAction));
 
     table.set(new Operation(
@@ -274,37 +274,37 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.BLOCKHASH, 1, 1,
-        EnergyCost::getExtTierCost,
+        EnergyCost.EXT_TIER_COST,
         OperationActions::blockHashAction));
 
     table.set(new Operation(
         Op.COINBASE, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::coinBaseAction));
 
     table.set(new Operation(
         Op.TIMESTAMP, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::timeStampAction));
 
     table.set(new Operation(
         Op.NUMBER, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::numberAction));
 
     table.set(new Operation(
         Op.DIFFICULTY, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::difficultyAction));
 
     table.set(new Operation(
         Op.GASLIMIT, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::gasLimitAction));
 
     table.set(new Operation(
         Op.POP, 1, 0,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::popAction));
 
     table.set(new Operation(
@@ -334,52 +334,53 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.JUMP, 1, 0,
-        EnergyCost::getMidTierCost,
+        EnergyCost.MID_TIER_COST,
         OperationActions::jumpAction));
 
     table.set(new Operation(
         Op.JUMPI, 2, 0,
-        EnergyCost::getHighTierCost,
+        EnergyCost.HIGH_TIER_COST,
         OperationActions::jumpIAction));
 
     table.set(new Operation(
         Op.PC, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::pcAction));
 
     table.set(new Operation(
         Op.MSIZE, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::mSizeAction));
 
     table.set(new Operation(
         Op.GAS, 0, 1,
+        // reads the energy left, so it is never charged ahead with its block
         EnergyCost::getBaseTierCost,
         OperationActions::gasAction));
 
     table.set(new Operation(
         Op.JUMPDEST, 0, 0,
-        EnergyCost::getSpecialTierCost,
+        EnergyCost.SPECIAL_TIER_COST,
         OperationActions::jumpDestAction));
 
     for (int i = 0; i < 32; i++) {
       table.set(new Operation(
           Op.PUSH1 + i, 0, 1,
-          EnergyCost::getVeryLowTierCost,
+          EnergyCost.VERY_LOW_TIER_COST,
           OperationActions::pushAction));
     }
 
     for (int i = 0; i < 16; i++) {
       table.set(new Operation(
           Op.DUP1 + i, 1 + i, 2 + i,
-          EnergyCost::getVeryLowTierCost,
+          EnergyCost.VERY_LOW_TIER_COST,
           OperationActions::dupAction));
     }
 
     for (int i = 0; i < 16; i++) {
       table.set(new Operation(
           Op.SWAP1 + i, 2 + i, 2 + i,
-          EnergyCost::getVeryLowTierCost,
+          EnergyCost.VERY_LOW_TIER_COST,
           OperationActions::swapAction));
     }
 
@@ -450,13 +451,13 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.CALLTOKENVALUE, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::callTokenValueAction,
         proposal));
 
     table.set(new Operation(
         Op.CALLTOKENID, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::callTokenIdAction,
         proposal));
   }
@@ -466,19 +467,19 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.SHL, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::shlAction,
         proposal));
 
     table.set(new Operation(
         Op.SHR, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::shrAction,
         proposal));
 
     table.set(new Operation(
         Op.SAR, 2, 1,
-        EnergyCost::getVeryLowTierCost,
+        EnergyCost.VERY_LOW_TIER_COST,
         OperationActions::sarAction,
         proposal));
 
@@ -510,13 +511,13 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.CHAINID, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::chainIdAction,
         proposal));
 
     table.set(new Operation(
         Op.SELFBALANCE, 0, 1,
-        EnergyCost::getLowTierCost,
+        EnergyCost.LOW_TIER_COST,
         OperationActions::selfBalanceAction,
         proposal));
   }
@@ -564,7 +565,7 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.BASEFEE, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::baseFeeAction,
         proposal));
   }
@@ -635,7 +636,7 @@ public class OperationRegistry {
 
     table.set(new Operation(
         Op.PUSH0, 0, 1,
-        EnergyCost::getBaseTierCost,
+        EnergyCost.BASE_TIER_COST,
         OperationActions::push0Action,
         proposal));
   }
@@ -28,12 +28,23 @@ public class VM {
         factor = program.updateContextContractFactor();
       }
 
+      // static energy is charged once per basic block, unless traced or penalized per op. The
+      // block costs come with the jump destinations of the code, analysed on its first jump, so
+      // code that never jumps is charged op by op
+      boolean chargeBlocks = !VMConfig.vmTrace() && factor == DYNAMIC_ENERGY_FACTOR_DECIMAL;
+      int[] blockCosts = null;
+      // energy already charged for the rest of the current block
+      long prepaid = 0;
+
       while (!program.isStopped()) {
         if (VMConfig.vmTrace()) {
           program.saveOpTrace();
         }
 
         try {
+          if (chargeBlocks && blockCosts == null && program.isPrecompiled()) {
+            blockCosts = program.getBlockCosts(jumpTable);
+          }
           Operation op = jumpTable.get(program.getCurrentOpIntValue());
           if (!op.isEnabled()) {
             throw Program.Exception.invalidOpCode(program.getCurrentOp());
@@ -46,8 +57,26 @@ public class VM {
 
           String opName = Op.getNameOf(op.getOpcode());
           /* spend energy before execution */
-          long energy = op.getEnergyCost(program);
-          if (VMConfig.allowDynamicEnergy()) {
+          long energy;
+          if (blockCosts != null && op.getStaticCost() >= 0) {
+            energy = op.getStaticCost();
+            if (prepaid > 0) {
+              prepaid -= energy;
+            } else {
+              long blockCost = blockCosts[program.getPC()];
+              // short of energy for the block, charge op by op to fail on the same op
+              if (program.getEnergylimitLeftLong() >= blockCost) {
+                program.spendEnergy(blockCost, opName);
+                prepaid = blockCost - energy;
+              } else {
+                program.spendEnergy(energy, opName);
+              }
+            }
+            if (VMConfig.allowDynamicEnergy()) {
+              energyUsage += energy;
+            }
+          } else if (VMConfig.allowDynamicEnergy()) {
+            energy = op.getEnergyCost(program);
             long actualEnergy = energy;
             // CALL Ops have special calculation on energy.
             if (CALL_OPS.contains(op.getOpcode())) {
@@ -77,6 +106,7 @@ public class VM {
             }
 
           } else {
+            energy = op.getEnergyCost(program);
             program.spendEnergy(energy, opName);
           }
 
@@ -90,6 +120,10 @@ public class VM {
           program.setPreviouslyExecutedOp((byte) op.getOpcode());
         } catch (RuntimeException e) {
           logger.info("VM halted: [{}]", e.getMessage());
+          if (prepaid > 0) {
+            program.refundEnergy(prepaid, "halted in a prepaid block");
+            prepaid = 0;
+          }
           if (!(e instanceof TransferException)) {
             program.spendAllEnergy();
           }
@@ -101,6 +135,10 @@ public class VM {
         }
       }
 
+      if (prepaid > 0) {
+        program.refundEnergy(prepaid, "stopped in a prepaid block");
+      }
+
       if (VMConfig.allowDynamicEnergy()) {
         program.addContextContractUsage(energyUsage);
       }
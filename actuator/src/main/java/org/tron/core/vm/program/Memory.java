@@ -1,23 +1,31 @@
 package org.tron.core.vm.program;
 
-import static java.lang.Math.ceil;
-import static java.lang.Math.min;
 import static java.lang.String.format;
 import static org.tron.common.utils.ByteUtil.EMPTY_BYTE_ARRAY;
 import static org.tron.common.utils.ByteUtil.oneByteToHexString;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import org.tron.common.crypto.Hash;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.core.vm.program.listener.ProgramListener;
 import org.tron.core.vm.program.listener.ProgramListenerAware;
 
+/**
+ * Memory of a program frame.
+ *
+ * <p>Kept as one contiguous array grown geometrically, so an access is a single array copy
+ * whatever the offset. {@link #internalSize()} still reports the reserved size in 1 KB chunks.
+ */
 public class Memory implements ProgramListenerAware {
 
   private static final int CHUNK_SIZE = 1024;
   private static final int WORD_SIZE = 32;
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
 
-  private List<byte[]> chunks = new LinkedList<>();
+  private byte[] buffer = EMPTY_BYTE_ARRAY;
+  private int internalSize;
   private int softSize;
   private ProgramListener programListener;
 
@@ -32,27 +40,7 @@ public class Memory implements ProgramListenerAware {
     }
 
     extend(address, size);
-    byte[] data = new byte[size];
-
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
-
-    int toGrab = data.length;
-    int start = 0;
-
-    while (toGrab > 0) {
-      int copied = grabMax(chunkIndex, chunkOffset, toGrab, data, start);
-
-      // read next chunk from the start
-      ++chunkIndex;
-      chunkOffset = 0;
-
-      // mark remind
-      toGrab -= copied;
-      start += copied;
-    }
-
-    return data;
+    return Arrays.copyOfRange(buffer, address, address + size);
   }
 
   public void write(int address, byte[] data, int dataSize, boolean limited) {
@@ -65,27 +53,15 @@ public class Memory implements ProgramListenerAware {
       extend(address, dataSize);
     }
 
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
-
-    int toCapture = 0;
+    int toCapture;
     if (limited) {
       toCapture = (address + dataSize > softSize) ? softSize - address : dataSize;
     } else {
       toCapture = dataSize;
     }
 
-    int start = 0;
-    while (toCapture > 0) {
-      int captured = captureMax(chunkIndex, chunkOffset, toCapture, data, start);
-
-      // capture next chunk
-      ++chunkIndex;
-      chunkOffset = 0;
-
-      // mark remind
-      toCapture -= captured;
-      start += captured;
+    if (toCapture > 0) {
+      System.arraycopy(data, 0, buffer, address, toCapture);
     }
 
     if (programListener != null) {
@@ -105,14 +81,17 @@ public class Memory implements ProgramListenerAware {
     }
 
     final int newSize = Math.addExact(address, size);
-    int toAllocate = newSize - internalSize();
-    if (toAllocate > 0) {
-      addChunks((int) ceil((double) toAllocate / CHUNK_SIZE));
+    if (newSize > internalSize) {
+      internalSize = (int) Math.min(ceil(newSize, CHUNK_SIZE), MAX_CAPACITY);
+      if (internalSize > buffer.length) {
+        long capacity = Math.max(internalSize, (long) buffer.length * 2);
+        buffer = Arrays.copyOf(buffer, (int) Math.min(capacity, MAX_CAPACITY));
+      }
     }
 
-    toAllocate = newSize - softSize;
+    int toAllocate = newSize - softSize;
     if (toAllocate > 0) {
-      toAllocate = (int) ceil((double) toAllocate / WORD_SIZE) * WORD_SIZE;
+      toAllocate = (int) ceil(toAllocate, WORD_SIZE);
       softSize = Math.addExact(softSize, toAllocate);
 
       if (programListener != null) {
@@ -121,19 +100,48 @@ public class Memory implements ProgramListenerAware {
     }
   }
 
+  private static long ceil(long size, int unit) {
+    return (size + unit - 1) / unit * unit;
+  }
+
   public DataWord readWord(int address) {
     return new DataWord(read(address, 32));
   }
 
-  // just access expecting all data valid
-  public byte readByte(int address) {
+  /**
+   * MLOAD: pushes the word at {@code address} without going through a {@link DataWord}.
+   */
+  public void loadWord(int address, Stack stack) {
+    extend(address, WORD_SIZE);
+    stack.pushBytes(buffer, address, WORD_SIZE);
+  }
 
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
+  /**
+   * MSTORE: pops the top word of the stack into {@code address}.
+   */
+  public void storeWord(int address, Stack stack) {
+    extend(address, WORD_SIZE);
+    stack.popTo(buffer, address);
+    if (programListener != null) {
+      programListener.onMemoryWrite(address,
+          Arrays.copyOfRange(buffer, address, address + WORD_SIZE), WORD_SIZE);
+    }
+  }
 
-    byte[] chunk = chunks.get(chunkIndex);
+  /**
+   * Keccak-256 of a region, hashed in place.
+   */
+  public byte[] sha3(int address, int size) {
+    if (size <= 0) {
+      return Hash.sha3(EMPTY_BYTE_ARRAY);
+    }
+    extend(address, size);
+    return Hash.sha3(buffer, address, size);
+  }
 
-    return chunk[chunkOffset];
+  // just access expecting all data valid
+  public byte readByte(int address) {
+    return buffer[address];
   }
 
   @Override
@@ -174,35 +182,17 @@ public class Memory implements ProgramListenerAware {
   }
 
   public int internalSize() {
-    return chunks.size() * CHUNK_SIZE;
+    return internalSize;
   }
 
+  /**
+   * Copy of the reserved memory as 1 KB chunks.
+   */
   public List<byte[]> getChunks() {
-    return new LinkedList<>(chunks);
-  }
-
-  private int captureMax(int chunkIndex, int chunkOffset, int size, byte[] src, int srcPos) {
-
-    byte[] chunk = chunks.get(chunkIndex);
-    int toCapture = min(size, chunk.length - chunkOffset);
-
-    System.arraycopy(src, srcPos, chunk, chunkOffset, toCapture);
-    return toCapture;
-  }
-
-  private int grabMax(int chunkIndex, int chunkOffset, int size, byte[] dest, int destPos) {
-
-    byte[] chunk = chunks.get(chunkIndex);
-    int toGrab = min(size, chunk.length - chunkOffset);
-
-    System.arraycopy(chunk, chunkOffset, dest, destPos, toGrab);
-
-    return toGrab;
-  }
-
-  private void addChunks(int num) {
-    for (int i = 0; i < num; ++i) {
-      chunks.add(new byte[CHUNK_SIZE]);
+    List<byte[]> chunks = new ArrayList<>();
+    for (int i = 0; i < internalSize; i += CHUNK_SIZE) {
+      chunks.add(Arrays.copyOfRange(buffer, i, i + CHUNK_SIZE));
     }
+    return chunks;
   }
 }
@@ -31,6 +31,9 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.bouncycastle.util.encoders.Hex;
 import org.tron.common.crypto.Hash;
 import org.tron.common.parameter.CommonParameter;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
 import org.tron.common.runtime.InternalTransaction;
 import org.tron.common.runtime.ProgramResult;
 import org.tron.common.runtime.vm.DataWord;
@@ -55,6 +58,7 @@ import org.tron.core.exception.ContractValidateException;
 import org.tron.core.exception.TronException;
 import org.tron.core.utils.TransactionUtil;
 import org.tron.core.vm.EnergyCost;
+import org.tron.core.vm.JumpTable;
 import org.tron.core.vm.MessageCall;
 import org.tron.core.vm.Op;
 import org.tron.core.vm.OperationRegistry;
@@ -152,8 +156,10 @@ public class Program {
     this.codeAddress = codeAddress;
 
     traceListener = new ProgramTraceListener(VMConfig.vmTrace());
-    this.memory = setupProgramListener(new Memory());
-    this.stack = setupProgramListener(new Stack());
+    // only the trace listens to the memory and the stack, they would otherwise copy every
+    // word written for a listener that ignores it
+    this.memory = VMConfig.vmTrace() ? setupProgramListener(new Memory()) : new Memory();
+    this.stack = VMConfig.vmTrace() ? setupProgramListener(new Stack()) : new Stack();
     this.contractState = setupProgramListener(new ContractState(programInvoke));
     this.trace = new ProgramTrace(programInvoke);
     this.nonce = internalTransaction.getNonce();
@@ -209,16 +215,42 @@ public class Program {
     }
     if (programPrecompile == null) {
       Key key = getJumpDestAnalysisCacheKey();
-      if (programPrecompileLRUMap.containsKey(key)) {
+      // LRUMap reorders on get, guard it for transactions executed in parallel
+      synchronized (programPrecompileLRUMap) {
         programPrecompile = programPrecompileLRUMap.get(key);
-      } else {
+      }
+      if (programPrecompile == null) {
+        Metrics.counterInc(MetricKeys.Counter.VM_CODE_CACHE, 1,
+            MetricLabels.Counter.CODE_CACHE_MISS);
         programPrecompile = ProgramPrecompile.compile(ops);
-        programPrecompileLRUMap.put(key, programPrecompile);
+        int size;
+        synchronized (programPrecompileLRUMap) {
+          programPrecompileLRUMap.put(key, programPrecompile);
+          size = programPrecompileLRUMap.size();
+        }
+        Metrics.gaugeSet(MetricKeys.Gauge.VM_CODE_CACHE_SIZE, size);
+      } else {
+        Metrics.counterInc(MetricKeys.Counter.VM_CODE_CACHE, 1,
+            MetricLabels.Counter.CODE_CACHE_HIT);
       }
     }
     return programPrecompile;
   }
 
+  /**
+   * @return true once the jump destinations of the code were analysed, on its first jump.
+   */
+  public boolean isPrecompiled() {
+    return programPrecompile != null;
+  }
+
+  /**
+   * Static energy of the basic block from every pc, see {@link ProgramPrecompile#getBlockCosts}.
+   */
+  public int[] getBlockCosts(JumpTable table) {
+    return getProgramPrecompile().getBlockCosts(ops, table);
+  }
+
   public int getCallDeep() {
     return invoke.getCallDeep();
   }
@@ -361,6 +393,24 @@ public class Program {
     return data;
   }
 
+  /**
+   * Pushes the {@code n} bytes of code following a PUSH op and moves over them, as
+   * {@link #sweep(int)} does, reading the code in place unless the immediate is cut off by the end
+   * of the code.
+   */
+  public void stackPushImmediate(int n) {
+    if (pc + n > ops.length) {
+      byte[] data = sweep(n);
+      stack.pushBytes(data, 0, data.length);
+      return;
+    }
+    stack.pushBytes(ops, pc, n);
+    pc += n;
+    if (pc >= ops.length) {
+      stop();
+    }
+  }
+
   public DataWord stackPop() {
     return stack.pop();
   }
@@ -429,6 +479,24 @@ public class Program {
     return memory.read(offset, size);
   }
 
+  /**
+   * Pushes the memory word at {@code address} onto the stack.
+   */
+  public void memoryLoadToStack(int address) {
+    memory.loadWord(address, stack);
+  }
+
+  /**
+   * Pops the top of the stack into the memory word at {@code address}.
+   */
+  public void memorySaveFromStack(int address) {
+    memory.storeWord(address, stack);
+  }
+
+  public byte[] memorySha3(int offset, int size) {
+    return memory.sha3(offset, size);
+  }
+
   /**
    * . Allocates extra memory in the program for a specified size, calculated from a given offset
    *
@@ -4,6 +4,7 @@ import java.util.HashSet;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.tron.common.runtime.vm.DataWord;
+import org.tron.core.vm.JumpTable;
 import org.tron.core.vm.Op;
 import org.tron.core.vm.config.VMConfig;
 
@@ -11,6 +12,7 @@ import org.tron.core.vm.config.VMConfig;
 public class ProgramPrecompile {
 
   private final Set<Integer> jumpDest = new HashSet<>();
+  private volatile BlockCosts blockCosts;
 
   public static ProgramPrecompile compile(byte[] ops) {
     ProgramPrecompile ret = new ProgramPrecompile();
@@ -56,4 +58,65 @@ public class ProgramPrecompile {
   public boolean hasJumpDest(int pc) {
     return jumpDest.contains(pc);
   }
+
+  /**
+   * Returns, for every pc an instruction starts at, the static energy of the instructions from
+   * there to the end of its basic block. A block ends after JUMP, JUMPI and STOP, before a
+   * JUMPDEST, and before any op whose cost is not static. The value is 0 for such ops.
+   *
+   * <p>The result is built once per jump table and kept as long as the static costs of the table
+   * do not change.
+   */
+  public int[] getBlockCosts(byte[] ops, JumpTable table) {
+    BlockCosts costs = blockCosts;
+    if (costs == null || costs.table != table || costs.version != table.getVersion()) {
+      int version = table.getVersion();
+      costs = new BlockCosts(table, version, buildBlockCosts(ops, table));
+      blockCosts = costs;
+    }
+    return costs.costs;
+  }
+
+  private static int[] buildBlockCosts(byte[] ops, JumpTable table) {
+    int[] starts = new int[ops.length];
+    int count = 0;
+    for (int i = 0; i < ops.length; ++i) {
+      starts[count++] = i;
+      int op = ops[i] & 0xff;
+      if (op >= Op.PUSH1 && op <= Op.PUSH32) {
+        i += op - Op.PUSH1 + 1;
+      }
+    }
+
+    int[] costs = new int[ops.length];
+    long next = 0;
+    for (int k = count - 1; k >= 0; --k) {
+      int pc = starts[k];
+      int op = ops[pc] & 0xff;
+      long cost = table.get(op).getStaticCost();
+      if (cost < 0) {
+        next = 0;
+        continue;
+      }
+      if (op == Op.JUMP || op == Op.JUMPI || op == Op.STOP) {
+        next = 0;
+      }
+      costs[pc] = (int) (cost + next);
+      next = op == Op.JUMPDEST ? 0 : costs[pc];
+    }
+    return costs;
+  }
+
+  private static class BlockCosts {
+
+    private final JumpTable table;
+    private final int version;
+    private final int[] costs;
+
+    private BlockCosts(JumpTable table, int version, int[] costs) {
+      this.table = table;
+      this.version = version;
+      this.costs = costs;
+    }
+  }
 }
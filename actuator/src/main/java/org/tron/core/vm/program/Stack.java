@@ -1,35 +1,148 @@
 package org.tron.core.vm.program;
 
-import java.util.Objects;
+import java.util.Arrays;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.core.vm.program.listener.ProgramListener;
 import org.tron.core.vm.program.listener.ProgramListenerAware;
 
-public class Stack extends java.util.Stack<DataWord> implements ProgramListenerAware {
+/**
+ * Operand stack of the VM.
+ *
+ * <p>Words are stored as four 64-bit limbs per slot in a single {@code long[]}, the most
+ * significant limb first, and the arithmetic, comparison, bitwise and shift opcodes run in place
+ * on the limbs. A {@link DataWord} is only created when a word leaves the stack by {@link #pop()},
+ * {@link #peek()} or {@link #get(int)}. The depth limit is checked by the {@link Program}, the
+ * array grows on demand up to it.
+ */
+public class Stack implements ProgramListenerAware {
 
-  private static final long serialVersionUID = 1;
+  private static final int LIMBS = 4;
+  private static final int INITIAL_SLOTS = 64;
+  private static final long MASK = 0xffffffffL;
 
-  private transient ProgramListener programListener;
+  private long[] words = new long[INITIAL_SLOTS * LIMBS];
+  private int size;
+  // scratch 32-bit digits for mul, div and mod, least significant first
+  private final int[] u = new int[9];
+  private final int[] v = new int[8];
+  private final int[] q = new int[8];
+
+  private ProgramListener programListener;
 
   @Override
   public void setProgramListener(ProgramListener listener) {
     this.programListener = listener;
   }
 
-  @Override
-  public synchronized DataWord pop() {
-    if (programListener != null) {
-      programListener.onStackPop();
-    }
-    return super.pop();
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
   }
 
-  @Override
   public DataWord push(DataWord item) {
-    if (programListener != null) {
-      programListener.onStackPush(item);
+    byte[] data = item.getData();
+    pushBytes(data, 0, data.length);
+    return item;
+  }
+
+  /**
+   * Pushes {@code length} big-endian bytes, as the immediate of a PUSH, right aligned.
+   */
+  public void pushBytes(byte[] data, int offset, int length) {
+    int base = grow();
+    Arrays.fill(words, base, base + LIMBS, 0L);
+    for (int i = 0; i < length; i++) {
+      int bit = (length - 1 - i) * 8;
+      words[base + LIMBS - 1 - bit / 64] |= (data[offset + i] & 0xffL) << (bit % 64);
+    }
+    onPush();
+  }
+
+  public void pushLong(long value) {
+    int base = grow();
+    words[base] = 0;
+    words[base + 1] = 0;
+    words[base + 2] = 0;
+    words[base + 3] = value;
+    onPush();
+  }
+
+  public void pushZero() {
+    pushLong(0);
+  }
+
+  public DataWord pop() {
+    DataWord word = toDataWord(size - 1);
+    drop();
+    return word;
+  }
+
+  /**
+   * Removes the top word without creating a {@link DataWord} for it.
+   */
+  public void drop() {
+    if (size == 0) {
+      throw new java.util.EmptyStackException();
+    }
+    onPop();
+    size--;
+  }
+
+  /**
+   * Pops the top word into 32 big-endian bytes of {@code dest}.
+   */
+  public void popTo(byte[] dest, int offset) {
+    toBytes((size - 1) * LIMBS, dest, offset);
+    drop();
+  }
+
+  /**
+   * Pops the top word as {@link DataWord#intValue()} does, keeping the low 32 bits.
+   */
+  public int popInt() {
+    int value = (int) words[(size - 1) * LIMBS + LIMBS - 1];
+    drop();
+    return value;
+  }
+
+  /**
+   * Pops the top word as {@link DataWord#intValueSafe()} does, capping it to
+   * {@link Integer#MAX_VALUE}.
+   */
+  public int popIntSafe() {
+    int value = smallValue((size - 1) * LIMBS, Integer.MAX_VALUE);
+    drop();
+    return value;
+  }
+
+  public DataWord peek() {
+    if (size == 0) {
+      throw new java.util.EmptyStackException();
+    }
+    return toDataWord(size - 1);
+  }
+
+  /**
+   * @param index position from the bottom of the stack.
+   */
+  public DataWord get(int index) {
+    if (index < 0 || index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index);
     }
-    return super.push(item);
+    return toDataWord(index);
+  }
+
+  /**
+   * Pushes a copy of the n-th word from the top, DUP1 being n = 1.
+   */
+  public void dup(int n) {
+    int from = (size - n) * LIMBS;
+    int base = grow();
+    System.arraycopy(words, from, words, base, LIMBS);
+    onPush();
   }
 
   public void swap(int from, int to) {
@@ -37,8 +150,13 @@ public class Stack extends java.util.Stack<DataWord> implements ProgramListenerA
       if (programListener != null) {
         programListener.onStackSwap(from, to);
       }
-      DataWord tmp = get(from);
-      set(from, set(to, tmp));
+      int a = from * LIMBS;
+      int b = to * LIMBS;
+      for (int i = 0; i < LIMBS; i++) {
+        long tmp = words[a + i];
+        words[a + i] = words[b + i];
+        words[b + i] = tmp;
+      }
     }
   }
 
@@ -46,27 +164,451 @@ public class Stack extends java.util.Stack<DataWord> implements ProgramListenerA
     return from >= 0 && from < size();
   }
 
+  // the binary operations below pop a (top) and b, and push a op b in place of b
+
+  public void add() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    long carry = 0;
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      long x = words[a + i];
+      long sum = x + words[b + i];
+      long c = Long.compareUnsigned(sum, x) < 0 ? 1 : 0;
+      if (carry != 0 && ++sum == 0) {
+        c = 1;
+      }
+      words[b + i] = sum;
+      carry = c;
+    }
+    onBinary();
+  }
+
+  public void sub() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    long borrow = 0;
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      long x = words[a + i];
+      long y = words[b + i];
+      long diff = x - y;
+      long c = Long.compareUnsigned(x, y) < 0 ? 1 : 0;
+      if (borrow != 0 && diff-- == 0) {
+        c = 1;
+      }
+      words[b + i] = diff;
+      borrow = c;
+    }
+    onBinary();
+  }
+
+  public void mul() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    toDigits(a, u);
+    toDigits(b, v);
+    Arrays.fill(q, 0);
+    for (int i = 0; i < 8; i++) {
+      long x = u[i] & MASK;
+      if (x == 0) {
+        continue;
+      }
+      long carry = 0;
+      for (int j = 0; i + j < 8; j++) {
+        long t = x * (v[j] & MASK) + (q[i + j] & MASK) + carry;
+        q[i + j] = (int) t;
+        carry = t >>> 32;
+      }
+    }
+    fromDigits(q, b);
+    onBinary();
+  }
+
+  public void div() {
+    divMod(true);
+  }
+
+  public void mod() {
+    divMod(false);
+  }
+
+  public void lt() {
+    setBool(compareUnsigned() < 0);
+  }
+
+  public void gt() {
+    setBool(compareUnsigned() > 0);
+  }
+
+  public void slt() {
+    setBool(compareSigned() < 0);
+  }
+
+  public void sgt() {
+    setBool(compareSigned() > 0);
+  }
+
+  public void eq() {
+    setBool(compareUnsigned() == 0);
+  }
+
+  public void isZero() {
+    int a = (size - 1) * LIMBS;
+    boolean zero = (words[a] | words[a + 1] | words[a + 2] | words[a + 3]) == 0;
+    words[a] = 0;
+    words[a + 1] = 0;
+    words[a + 2] = 0;
+    words[a + 3] = zero ? 1 : 0;
+    onUnary();
+  }
+
+  public void and() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      words[b + i] &= words[a + i];
+    }
+    onBinary();
+  }
+
+  public void or() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      words[b + i] |= words[a + i];
+    }
+    onBinary();
+  }
+
+  public void xor() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      words[b + i] ^= words[a + i];
+    }
+    onBinary();
+  }
+
+  public void not() {
+    int a = (size - 1) * LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      words[a + i] = ~words[a + i];
+    }
+    onUnary();
+  }
+
+  /**
+   * BYTE: the byte of b at index a, counted from the most significant one.
+   */
+  public void byteOf() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    int index = smallValue(a, 32);
+    long result = 0;
+    if (index < 32) {
+      result = (words[b + index / 8] >>> ((7 - index % 8) * 8)) & 0xff;
+    }
+    words[b] = 0;
+    words[b + 1] = 0;
+    words[b + 2] = 0;
+    words[b + 3] = result;
+    onBinary();
+  }
+
+  /**
+   * SHL: b shifted left by a bits.
+   */
+  public void shl() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    int shift = smallValue(a, 256);
+    shiftLeft(b, shift);
+    onBinary();
+  }
+
+  /**
+   * SHR: b shifted right by a bits, b treated as unsigned.
+   */
+  public void shr() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    shiftRight(b, smallValue(a, 256), 0L);
+    onBinary();
+  }
+
+  /**
+   * SAR: b shifted right by a bits, b treated as signed.
+   */
+  public void sar() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    shiftRight(b, smallValue(a, 256), words[b] < 0 ? -1L : 0L);
+    onBinary();
+  }
+
+  private void shiftLeft(int base, int shift) {
+    int limbs = shift / 64;
+    int bits = shift % 64;
+    for (int i = 0; i < LIMBS; i++) {
+      int src = i + limbs;
+      long hi = src < LIMBS ? words[base + src] : 0L;
+      long lo = src + 1 < LIMBS ? words[base + src + 1] : 0L;
+      words[base + i] = bits == 0 ? hi : (hi << bits) | (lo >>> (64 - bits));
+    }
+  }
+
+  private void shiftRight(int base, int shift, long fill) {
+    int limbs = shift / 64;
+    int bits = shift % 64;
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      int src = i - limbs;
+      long lo = src >= 0 ? words[base + src] : fill;
+      long hi = src - 1 >= 0 ? words[base + src - 1] : fill;
+      words[base + i] = bits == 0 ? lo : (lo >>> bits) | (hi << (64 - bits));
+    }
+  }
+
+  /**
+   * Value of the word at {@code base}, capped to {@code limit} when it is larger.
+   */
+  private int smallValue(int base, int limit) {
+    if ((words[base] | words[base + 1] | words[base + 2]) != 0
+        || Long.compareUnsigned(words[base + 3], limit) > 0) {
+      return limit;
+    }
+    return (int) words[base + 3];
+  }
+
+  private int compareUnsigned() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      int ret = Long.compareUnsigned(words[a + i], words[b + i]);
+      if (ret != 0) {
+        return ret;
+      }
+    }
+    return 0;
+  }
+
+  private int compareSigned() {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    int ret = Long.compare(words[a], words[b]);
+    return ret != 0 ? ret : compareUnsigned();
+  }
+
+  private void setBool(boolean value) {
+    int b = (size - 2) * LIMBS;
+    words[b] = 0;
+    words[b + 1] = 0;
+    words[b + 2] = 0;
+    words[b + 3] = value ? 1 : 0;
+    onBinary();
+  }
+
+  /**
+   * Long division of 32-bit digits, Knuth's algorithm D. Division by zero gives zero, as for
+   * {@link DataWord#div(DataWord)} and {@link DataWord#mod(DataWord)}.
+   */
+  private void divMod(boolean quotient) {
+    int a = (size - 1) * LIMBS;
+    int b = a - LIMBS;
+    toDigits(a, u);
+    u[8] = 0;
+    toDigits(b, v);
+    int n = length(v);
+    int m = length(u);
+    Arrays.fill(q, 0);
+    if (n == 0) {
+      Arrays.fill(u, 0);
+    } else if (m < n) {
+      // quotient is zero and the remainder is the dividend
+    } else if (n == 1) {
+      long d = v[0] & MASK;
+      long r = 0;
+      for (int j = m - 1; j >= 0; j--) {
+        long num = (r << 32) | (u[j] & MASK);
+        q[j] = (int) Long.divideUnsigned(num, d);
+        r = Long.remainderUnsigned(num, d);
+      }
+      Arrays.fill(u, 0);
+      u[0] = (int) r;
+    } else {
+      divideKnuth(m, n);
+    }
+    fromDigits(quotient ? q : u, b);
+    onBinary();
+  }
+
+  private void divideKnuth(int m, int n) {
+    // normalize so that the top digit of the divisor has its high bit set
+    int s = Integer.numberOfLeadingZeros(v[n - 1]);
+    if (s > 0) {
+      for (int i = n - 1; i > 0; i--) {
+        v[i] = (v[i] << s) | (v[i - 1] >>> (32 - s));
+      }
+      v[0] <<= s;
+      u[m] = u[m - 1] >>> (32 - s);
+      for (int i = m - 1; i > 0; i--) {
+        u[i] = (u[i] << s) | (u[i - 1] >>> (32 - s));
+      }
+      u[0] <<= s;
+    } else {
+      u[m] = 0;
+    }
+
+    long vTop = v[n - 1] & MASK;
+    long vNext = v[n - 2] & MASK;
+    for (int j = m - n; j >= 0; j--) {
+      long num = ((u[j + n] & MASK) << 32) | (u[j + n - 1] & MASK);
+      long qhat = Long.divideUnsigned(num, vTop);
+      long rhat = Long.remainderUnsigned(num, vTop);
+      while (qhat > MASK
+          || Long.compareUnsigned(qhat * vNext, (rhat << 32) | (u[j + n - 2] & MASK)) > 0) {
+        qhat--;
+        rhat += vTop;
+        if (rhat > MASK) {
+          break;
+        }
+      }
+
+      // multiply and subtract
+      long k = 0;
+      long t;
+      for (int i = 0; i < n; i++) {
+        long p = qhat * (v[i] & MASK);
+        t = (u[i + j] & MASK) - k - (p & MASK);
+        u[i + j] = (int) t;
+        k = (p >>> 32) - (t >> 32);
+      }
+      t = (u[j + n] & MASK) - k;
+      u[j + n] = (int) t;
+
+      q[j] = (int) qhat;
+      if (t < 0) {
+        // subtracted too much, add back
+        q[j]--;
+        k = 0;
+        for (int i = 0; i < n; i++) {
+          t = (u[i + j] & MASK) + (v[i] & MASK) + k;
+          u[i + j] = (int) t;
+          k = t >>> 32;
+        }
+        u[j + n] += (int) k;
+      }
+    }
+
+    // unnormalize the remainder
+    for (int i = 0; i < n; i++) {
+      u[i] = s == 0 ? u[i] : (u[i] >>> s) | (u[i + 1] << (32 - s));
+    }
+    Arrays.fill(u, n, u.length, 0);
+  }
+
+  private static int length(int[] digits) {
+    int n = 8;
+    while (n > 0 && digits[n - 1] == 0) {
+      n--;
+    }
+    return n;
+  }
+
+  private void toDigits(int base, int[] digits) {
+    for (int i = 0; i < LIMBS; i++) {
+      long limb = words[base + LIMBS - 1 - i];
+      digits[2 * i] = (int) limb;
+      digits[2 * i + 1] = (int) (limb >>> 32);
+    }
+  }
+
+  private void fromDigits(int[] digits, int base) {
+    for (int i = 0; i < LIMBS; i++) {
+      words[base + LIMBS - 1 - i] = (digits[2 * i] & MASK) | ((long) digits[2 * i + 1] << 32);
+    }
+  }
+
+  private DataWord toDataWord(int index) {
+    byte[] data = new byte[DataWord.WORD_SIZE];
+    toBytes(index * LIMBS, data, 0);
+    return new DataWord(data);
+  }
+
+  private void toBytes(int base, byte[] dest, int offset) {
+    for (int i = 0; i < LIMBS; i++) {
+      long limb = words[base + i];
+      for (int j = 7; j >= 0; j--) {
+        dest[offset + i * 8 + j] = (byte) limb;
+        limb >>>= 8;
+      }
+    }
+  }
+
+  /**
+   * Adds a slot on top and returns its offset in the limbs.
+   */
+  private int grow() {
+    if ((size + 1) * LIMBS > words.length) {
+      words = Arrays.copyOf(words, words.length * 2);
+    }
+    return size++ * LIMBS;
+  }
+
+  private void onPush() {
+    if (programListener != null) {
+      programListener.onStackPush(toDataWord(size - 1));
+    }
+  }
+
+  private void onPop() {
+    if (programListener != null) {
+      programListener.onStackPop();
+    }
+  }
+
+  private void onUnary() {
+    if (programListener != null) {
+      programListener.onStackPop();
+      programListener.onStackPush(toDataWord(size - 1));
+    }
+  }
+
+  private void onBinary() {
+    if (programListener != null) {
+      programListener.onStackPop();
+      programListener.onStackPop();
+    }
+    size--;
+    if (programListener != null) {
+      programListener.onStackPush(toDataWord(size - 1));
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
-    if (o == null) {
-      return false;
-    }
     if (this == o) {
       return true;
     }
-    if (o.getClass() != this.getClass()) {
+    if (o == null || o.getClass() != this.getClass()) {
       return false;
     }
-    if (!super.equals(o)) {
+    Stack other = (Stack) o;
+    if (size != other.size) {
       return false;
     }
-    Stack dataWords = (Stack) o;
-    return Objects.equals(programListener, dataWords.programListener);
+    for (int i = 0; i < size * LIMBS; i++) {
+      if (words[i] != other.words[i]) {
+        return false;
+      }
+    }
+    return true;
   }
 
-
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), programListener);
+    int result = 1;
+    for (int i = 0; i < size * LIMBS; i++) {
+      result = 31 * result + Long.hashCode(words[i]);
+    }
+    return result;
   }
 }
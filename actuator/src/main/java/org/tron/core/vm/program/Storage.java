@@ -83,6 +83,13 @@ public class Storage {
     }
   }
 
+  /**
+   * @return the key of the row holding {@code key} in the storage row store.
+   */
+  public byte[] rowKey(DataWord key) {
+    return compose(key.getData(), addrHash);
+  }
+
   public void put(DataWord key, DataWord value) {
     if (rowCache.containsKey(key)) {
       rowCache.get(key).setValue(value.getData());
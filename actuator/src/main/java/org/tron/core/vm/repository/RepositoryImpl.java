@@ -48,6 +48,7 @@ import org.tron.core.store.AccountStore;
 import org.tron.core.store.AssetIssueStore;
 import org.tron.core.store.AssetIssueV2Store;
 import org.tron.core.store.CodeStore;
+import org.tron.core.store.ContractCache;
 import org.tron.core.store.ContractStateStore;
 import org.tron.core.store.ContractStore;
 import org.tron.core.store.DelegatedResourceAccountIndexStore;
@@ -133,6 +134,7 @@ public class RepositoryImpl implements Repository {
   private final HashMap<Key, Value<DelegatedResourceAccountIndex>> delegatedResourceAccountIndexCache = new HashMap<>();
 
   public static void removeLruCache(byte[] address) {
+    ContractCache.invalidate(address);
   }
 
   public RepositoryImpl(StoreFactory storeFactory, RepositoryImpl repository) {
@@ -467,7 +469,7 @@ public class RepositoryImpl implements Repository {
     if (parent != null) {
       contractCapsule = parent.getContract(address);
     } else {
-      contractCapsule = getContractStore().get(address);
+      contractCapsule = ContractCache.getContract(getContractStore(), address);
     }
 
     if (contractCapsule != null) {
@@ -588,7 +590,13 @@ public class RepositoryImpl implements Repository {
     if (parent != null) {
       code = parent.getCode(address);
     } else {
-      if (null == getCodeStore().get(address)) {
+      Value<SmartContract> contract = contractCache.get(key);
+      // the code hash of a contract already read keys the shared code cache
+      ByteString codeHash = contract == null || contract.getValue() == null ? ByteString.EMPTY
+          : contract.getValue().getCodeHash();
+      if (!codeHash.isEmpty()) {
+        code = ContractCache.getCode(getCodeStore(), address, codeHash.toByteArray());
+      } else if (null == getCodeStore().get(address)) {
         code = null;
       } else {
         code = getCodeStore().get(address).getData();
@@ -0,0 +1,65 @@
+package org.tron.benchmark;
+
+import java.security.SignatureException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.tron.common.crypto.ECKey;
+import org.tron.common.crypto.ECKey.ECDSASignature;
+import org.tron.common.crypto.Hash;
+import org.tron.common.utils.Sha256Hash;
+
+/**
+ * Hashing of a transaction sized payload and recovery of the signer address, one signature at a
+ * time and as a batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CryptoBenchmark {
+
+  // signatures recovered per batch
+  private static final int BATCH = 64;
+
+  private final byte[] payload = new byte[256];
+  private byte[][] hashes;
+  private ECDSASignature[] signatures;
+
+  @Setup
+  public void init() {
+    hashes = new byte[BATCH][];
+    signatures = new ECDSASignature[BATCH];
+    for (int i = 0; i < BATCH; i++) {
+      ECKey key = new ECKey();
+      hashes[i] = Sha256Hash.hash(true, ("trx-" + i).getBytes());
+      signatures[i] = key.sign(hashes[i]);
+    }
+  }
+
+  @Benchmark
+  public byte[] sha256() {
+    return Sha256Hash.hash(true, payload);
+  }
+
+  @Benchmark
+  public byte[] keccak256() {
+    return Hash.sha3(payload);
+  }
+
+  @Benchmark
+  public byte[] recover() throws SignatureException {
+    return ECKey.signatureToAddress(hashes[0], signatures[0]);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public byte[][] recoverBatch() {
+    return ECKey.signaturesToAddresses(hashes, signatures);
+  }
+}
@@ -0,0 +1,101 @@
+package org.tron.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.tron.common.setting.RocksDbSettings;
+import org.tron.common.storage.leveldb.LevelDbDataSourceImpl;
+import org.tron.common.storage.rocksdb.RocksDbDataSourceImpl;
+import org.tron.common.utils.FileUtil;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.Constant;
+import org.tron.core.config.args.Args;
+import org.tron.core.db.common.DbSourceInter;
+
+/**
+ * Point reads and batch writes against the leveldb and rocksdb data sources, with 32-byte hashed
+ * keys as most of the stores use.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataSourceBenchmark {
+
+  private static final int KEYS = 100_000;
+  private static final int BATCH = 256;
+
+  @Param({"LEVELDB", "ROCKSDB"})
+  public String engine;
+
+  private final Random random = new Random(7);
+  private File dir;
+  private DbSourceInter<byte[]> dataSource;
+  private final byte[] value = new byte[128];
+  private int next;
+
+  @Setup
+  public void init() throws IOException {
+    dir = Files.createTempDirectory("datasource-benchmark").toFile();
+    Args.setParam(new String[] {"--output-directory", dir.getPath()}, Constant.TESTNET_CONF);
+    if ("ROCKSDB".equals(engine)) {
+      dataSource = new RocksDbDataSourceImpl(dir.getPath(), "datasource",
+          RocksDbSettings.getDefaultSettings());
+    } else {
+      LevelDbDataSourceImpl levelDb = new LevelDbDataSourceImpl(dir.getPath(), "datasource");
+      levelDb.initDB();
+      dataSource = levelDb;
+    }
+    Map<byte[], byte[]> rows = new HashMap<>();
+    for (int i = 0; i < KEYS; i++) {
+      rows.put(key(i), value);
+      if (rows.size() == 10_000) {
+        dataSource.updateByBatch(rows);
+        rows.clear();
+      }
+    }
+    dataSource.updateByBatch(rows);
+  }
+
+  @TearDown
+  public void destroy() {
+    dataSource.closeDB();
+    Args.clearParam();
+    FileUtil.deleteDir(dir);
+  }
+
+  private static byte[] key(int i) {
+    return Sha256Hash.hash(true, Integer.toString(i).getBytes());
+  }
+
+  @Benchmark
+  public byte[] get() {
+    return dataSource.getData(key(random.nextInt(KEYS)));
+  }
+
+  @Benchmark
+  public byte[] getMissing() {
+    return dataSource.getData(key(KEYS + random.nextInt(KEYS)));
+  }
+
+  @Benchmark
+  public void updateByBatch() {
+    Map<byte[], byte[]> rows = new HashMap<>();
+    for (int i = 0; i < BATCH; i++) {
+      rows.put(key(next++ % KEYS), value);
+    }
+    dataSource.updateByBatch(rows);
+  }
+}
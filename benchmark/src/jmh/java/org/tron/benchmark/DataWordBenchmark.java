@@ -0,0 +1,71 @@
+package org.tron.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.tron.common.runtime.vm.DataWord;
+
+/**
+ * 256-bit arithmetic of the VM stack words.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataWordBenchmark {
+
+  private final DataWord a = new DataWord(
+      "0f4240000000000000000000000000000000000000000000000de0b6b3a7640000");
+  private final DataWord b = new DataWord(
+      "00000000000000000000000000000000000000000000000000000000000f4240");
+  private final DataWord m = new DataWord(
+      "fffffffffffffffffffffffffffffffffffffffffffffffffffffffefffffc2f");
+
+  @Benchmark
+  public DataWord add() {
+    DataWord word = a.clone();
+    word.add(b);
+    return word;
+  }
+
+  @Benchmark
+  public DataWord sub() {
+    DataWord word = a.clone();
+    word.sub(b);
+    return word;
+  }
+
+  @Benchmark
+  public DataWord mul() {
+    DataWord word = a.clone();
+    word.mul(b);
+    return word;
+  }
+
+  @Benchmark
+  public DataWord div() {
+    DataWord word = a.clone();
+    word.div(b);
+    return word;
+  }
+
+  @Benchmark
+  public DataWord mulmod() {
+    DataWord word = a.clone();
+    word.mulmod(b, m);
+    return word;
+  }
+
+  @Benchmark
+  public DataWord and() {
+    return a.and(b);
+  }
+
+  @Benchmark
+  public int compare() {
+    return a.compareTo(b);
+  }
+}
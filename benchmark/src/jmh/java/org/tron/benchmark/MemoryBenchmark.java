@@ -0,0 +1,66 @@
+package org.tron.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.tron.common.runtime.vm.DataWord;
+import org.tron.core.vm.program.Memory;
+
+/**
+ * Word and block access to the VM memory, at an offset where the memory is already expanded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemoryBenchmark {
+
+  // memory size in bytes
+  @Param({"1024", "65536"})
+  public int size;
+
+  private final byte[] word = new DataWord(0x5a5a5a5aL).getData();
+  private final byte[] block = new byte[256];
+  private Memory memory;
+  private int offset;
+
+  @Setup
+  public void init() {
+    memory = new Memory();
+    memory.extend(0, size);
+    // crosses a chunk boundary of the memory
+    offset = size / 2 - 16;
+  }
+
+  @Benchmark
+  public DataWord readWord() {
+    return memory.readWord(offset);
+  }
+
+  @Benchmark
+  public void writeWord() {
+    memory.write(offset, word, word.length, false);
+  }
+
+  @Benchmark
+  public byte[] read() {
+    return memory.read(offset, block.length);
+  }
+
+  @Benchmark
+  public void write() {
+    memory.write(offset, block, block.length, false);
+  }
+
+  @Benchmark
+  public Memory expand() {
+    Memory fresh = new Memory();
+    fresh.extendAndWrite(size - word.length, word.length, word);
+    return fresh;
+  }
+}
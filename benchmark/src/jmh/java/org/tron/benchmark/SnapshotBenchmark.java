@@ -0,0 +1,138 @@
+package org.tron.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.tron.common.storage.leveldb.LevelDbDataSourceImpl;
+import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.FileUtil;
+import org.tron.core.Constant;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.common.LevelDB;
+import org.tron.core.db2.core.Chainbase;
+import org.tron.core.db2.core.SnapshotRoot;
+
+/**
+ * Reads and writes through a chainbase with {@code depth} in-memory snapshots over a leveldb root,
+ * as the head of the chain sees them between two flushes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SnapshotBenchmark {
+
+  private static final int KEYS_PER_LAYER = 64;
+
+  @Param({"1", "16", "64"})
+  public int depth;
+
+  private final byte[] value = new byte[128];
+  private File dir;
+  private Chainbase chainbase;
+  private byte[] rootKey;
+  private byte[] bottomKey;
+  private byte[] headKey;
+  private byte[] missingKey;
+
+  @Setup(Level.Trial)
+  public void init() throws IOException {
+    dir = Files.createTempDirectory("snapshot-benchmark").toFile();
+    Args.setParam(new String[] {"--output-directory", dir.getPath()}, Constant.TESTNET_CONF);
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "snapshot");
+    dataSource.initDB();
+    SnapshotRoot root = new SnapshotRoot(new LevelDB(dataSource));
+    chainbase = new Chainbase(root);
+    for (int i = 0; i < KEYS_PER_LAYER; i++) {
+      root.put(key(0, i), value);
+    }
+    for (int layer = 1; layer <= depth; layer++) {
+      chainbase.setHead(chainbase.getHead().advance());
+      for (int i = 0; i < KEYS_PER_LAYER; i++) {
+        chainbase.put(key(layer, i), value);
+      }
+    }
+    rootKey = key(0, KEYS_PER_LAYER / 2);
+    bottomKey = key(1, KEYS_PER_LAYER / 2);
+    headKey = key(depth, KEYS_PER_LAYER / 2);
+    missingKey = key(depth + 1, 0);
+  }
+
+  @TearDown(Level.Trial)
+  public void destroy() {
+    chainbase.reset();
+    chainbase.close();
+    Args.clearParam();
+    FileUtil.deleteDir(dir);
+  }
+
+  private static byte[] key(int layer, int i) {
+    return ByteArray.fromString("key-" + layer + "-" + i);
+  }
+
+  @Benchmark
+  public byte[] getHead() {
+    return chainbase.getUnchecked(headKey);
+  }
+
+  @Benchmark
+  public byte[] getBottom() {
+    return chainbase.getUnchecked(bottomKey);
+  }
+
+  @Benchmark
+  public byte[] getRoot() {
+    return chainbase.getUnchecked(rootKey);
+  }
+
+  @Benchmark
+  public byte[] getMissing() {
+    return chainbase.getUnchecked(missingKey);
+  }
+
+  @Benchmark
+  public void put() {
+    chainbase.put(bottomKey, value);
+  }
+
+  /**
+   * Merges a freshly written snapshot into the one below it, as done when blocks get solidified.
+   */
+  @State(Scope.Thread)
+  public static class MergeState {
+
+    private SnapshotBenchmark base;
+
+    @Setup(Level.Invocation)
+    public void advance(SnapshotBenchmark benchmark) {
+      base = benchmark;
+      Chainbase chainbase = benchmark.chainbase;
+      chainbase.setHead(chainbase.getHead().advance());
+      for (int i = 0; i < KEYS_PER_LAYER; i++) {
+        chainbase.put(key(benchmark.depth + 1, i), benchmark.value);
+      }
+    }
+
+    @TearDown(Level.Invocation)
+    public void retreat() {
+      Chainbase chainbase = base.chainbase;
+      chainbase.setHead(chainbase.getHead().retreat());
+    }
+  }
+
+  @Benchmark
+  public void merge(MergeState state) {
+    chainbase.getHead().getPrevious().merge(chainbase.getHead());
+  }
+}
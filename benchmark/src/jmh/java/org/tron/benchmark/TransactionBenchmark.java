@@ -0,0 +1,65 @@
+package org.tron.benchmark;
+
+import com.google.protobuf.ByteString;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.tron.common.crypto.ECKey;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.exception.BadItemException;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+/**
+ * Decoding, encoding and id of a signed TRC20 transfer as received from the network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionBenchmark {
+
+  private byte[] data;
+  private TransactionCapsule trx;
+
+  @Setup
+  public void init() throws BadItemException {
+    ECKey owner = new ECKey();
+    // transfer(address,uint256)
+    byte[] call = new byte[68];
+    System.arraycopy(new byte[] {(byte) 0xa9, 0x05, (byte) 0x9c, (byte) 0xbb}, 0, call, 0, 4);
+    call[67] = 0x64;
+    TriggerSmartContract contract = TriggerSmartContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(owner.getAddress()))
+        .setContractAddress(ByteString.copyFrom(new ECKey().getAddress()))
+        .setData(ByteString.copyFrom(call))
+        .build();
+    TransactionCapsule capsule = new TransactionCapsule(contract,
+        ContractType.TriggerSmartContract);
+    capsule.setReference(1L, Sha256Hash.ZERO_HASH.getBytes());
+    capsule.setExpiration(System.currentTimeMillis() + 60_000L);
+    capsule.sign(owner.getPrivKeyBytes());
+    data = capsule.getData();
+    trx = new TransactionCapsule(data);
+  }
+
+  @Benchmark
+  public TransactionCapsule parse() throws BadItemException {
+    return new TransactionCapsule(data);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return trx.getInstance().toByteArray();
+  }
+
+  @Benchmark
+  public Sha256Hash transactionId() {
+    return new TransactionCapsule(trx.getInstance()).getTransactionId();
+  }
+}
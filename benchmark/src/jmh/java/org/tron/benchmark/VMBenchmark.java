@@ -0,0 +1,75 @@
+package org.tron.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.util.encoders.Hex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.runtime.InternalTransaction;
+import org.tron.common.runtime.InternalTransaction.TrxType;
+import org.tron.core.vm.JumpTable;
+import org.tron.core.vm.OperationRegistry;
+import org.tron.core.vm.VM;
+import org.tron.core.vm.program.Program;
+import org.tron.core.vm.program.invoke.ProgramInvokeMockImpl;
+import org.tron.protos.Protocol.Transaction;
+
+/**
+ * Interpreter loop on the stateless part of a TRC20 transfer: the balance slot of the caller is
+ * derived with SHA3 over memory, the amount is added with the SafeMath overflow check, and the
+ * result goes through memory again. Storage is left out so the suite measures the VM only.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VMBenchmark {
+
+  //     PUSH1 0x10                          loop counter
+  // 02: JUMPDEST
+  //     CALLER PUSH1 0x00 MSTORE            mem[0x00] = caller
+  //     PUSH1 0x01 PUSH1 0x20 MSTORE        mem[0x20] = balances slot
+  //     PUSH1 0x40 PUSH1 0x00 SHA3          keccak(caller . slot)
+  //     PUSH1 0x64 ADD DUP1                 balance + amount
+  //     PUSH1 0x40 MSTORE PUSH1 0x40 MLOAD  round trip through memory
+  //     LT POP                              overflow check
+  //     PUSH1 0x01 SWAP1 SUB DUP1           counter - 1
+  //     PUSH1 0x02 JUMPI STOP
+  private static final byte[] TRANSFER_LOOP = Hex.decode(
+      "60105b3360005260016020526040600020606401806040526040511050600190038060025700");
+
+  private final JumpTable jumpTable = OperationRegistry.newBaseOperationSet();
+  private InternalTransaction internalTransaction;
+  private boolean debug;
+
+  @Setup
+  public void init() {
+    debug = CommonParameter.getInstance().isDebug();
+    // no cpu time limit
+    CommonParameter.getInstance().setDebug(true);
+    internalTransaction = new InternalTransaction(Transaction.getDefaultInstance(),
+        TrxType.TRX_UNKNOWN_TYPE);
+  }
+
+  @TearDown
+  public void destroy() {
+    CommonParameter.getInstance().setDebug(debug);
+  }
+
+  @Benchmark
+  public Program play() {
+    ProgramInvokeMockImpl invoke = new ProgramInvokeMockImpl(TRANSFER_LOOP, TRANSFER_LOOP);
+    invoke.setEnergyLimit(100_000_000L);
+    Program program = new Program(TRANSFER_LOOP, TRANSFER_LOOP, invoke, internalTransaction);
+    VM.play(program, jumpTable);
+    if (program.getResult().getException() != null) {
+      throw program.getResult().getException();
+    }
+    return program;
+  }
+}
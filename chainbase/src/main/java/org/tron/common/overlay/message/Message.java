@@ -2,7 +2,9 @@ package org.tron.common.overlay.message;
 
 import static org.tron.core.exception.P2pException.TypeEnum.PROTOBUF_ERROR;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.MessageLite;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import java.lang.reflect.Field;
@@ -48,7 +50,19 @@ public abstract class Message {
   }
 
   public static void compareBytes(byte[] src, byte[] dest) throws P2pException {
-    if (src.length != dest.length) {
+    compareBytes(src.length, dest.length);
+  }
+
+  /**
+   * Same as {@link #compareBytes(byte[], byte[])} without encoding {@code dest} again, its size
+   * is computed from the parsed fields.
+   */
+  public static void compareBytes(byte[] src, MessageLite dest) throws P2pException {
+    compareBytes(src.length, dest.getSerializedSize());
+  }
+
+  public static void compareBytes(int srcSize, int destSize) throws P2pException {
+    if (srcSize != destSize) {
       throw new P2pException(PROTOBUF_ERROR, PROTOBUF_ERROR.getDesc());
     }
   }
@@ -61,6 +75,24 @@ public abstract class Message {
     return codedInputStream;
   }
 
+  public static CodedInputStream getCodedInputStream(ByteString data) {
+    CodedInputStream codedInputStream = data.newCodedInput();
+    if (isFilter()) {
+      ReflectionUtils.setField(field, codedInputStream, true);
+    }
+    return codedInputStream;
+  }
+
+  /**
+   * @return a stream over a received message whose bytes fields are parsed as views of
+   *     {@code data} instead of copies, {@code data} must not be modified afterwards.
+   */
+  public static CodedInputStream getAliasedInputStream(byte[] data) {
+    CodedInputStream codedInputStream = getCodedInputStream(data);
+    codedInputStream.enableAliasing(true);
+    return codedInputStream;
+  }
+
   public static boolean isFilter() {
     return dynamicPropertiesStore.getAllowProtoFilterNum() == 1;
   }
@@ -95,7 +127,7 @@ public abstract class Message {
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(data);
+    return Arrays.hashCode(getData());
   }
 
   @Override
@@ -107,7 +139,7 @@ public abstract class Message {
       return false;
     }
     Message message = (Message) o;
-    return Arrays.equals(data, message.data);
+    return Arrays.equals(getData(), message.getData());
   }
 
 }
\ No newline at end of file
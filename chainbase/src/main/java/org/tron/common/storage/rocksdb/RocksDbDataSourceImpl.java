@@ -18,11 +18,13 @@ import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.rocksdb.BlockBasedTableConfig;
 import org.rocksdb.BloomFilter;
 import org.rocksdb.Checkpoint;
+import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.DirectComparator;
 import org.rocksdb.InfoLogLevel;
 import org.rocksdb.Logger;
@@ -62,12 +64,24 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
   private static final String ROCKSDB = "ROCKSDB";
   private DirectComparator comparator;
   private static final org.slf4j.Logger rocksDbLogger = LoggerFactory.getLogger(ROCKSDB);
+  // a column family of the shared instance of parentPath rather than an instance of its own
+  private boolean columnFamily;
+  @Getter
+  private SharedRocksDb shared;
+  private ColumnFamilyHandle handle;
+  private RocksDbProfile profile;
 
   public RocksDbDataSourceImpl(String parentPath, String name, RocksDbSettings settings,
       DirectComparator comparator) {
+    this(parentPath, name, settings, comparator, false);
+  }
+
+  public RocksDbDataSourceImpl(String parentPath, String name, RocksDbSettings settings,
+      DirectComparator comparator, boolean columnFamily) {
     this.dataBaseName = name;
     this.parentPath = parentPath;
     this.comparator = comparator;
+    this.columnFamily = columnFamily;
     RocksDbSettings.setRocksDbSettings(settings);
     initDB();
   }
@@ -85,7 +99,7 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
   }
 
   public Path getDbPath() {
-    return Paths.get(parentPath, dataBaseName);
+    return Paths.get(parentPath, columnFamily ? SharedRocksDb.NAME : dataBaseName);
   }
 
   public RocksDB getDatabase() {
@@ -103,8 +117,13 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
       if (!isAlive()) {
         return;
       }
-      database.close();
       alive = false;
+      if (shared != null) {
+        shared.release();
+        shared = null;
+        return;
+      }
+      database.close();
     } catch (Exception e) {
       logger.error("Failed to find the dbStore file on the closeDB: {}.", dataBaseName, e);
     } finally {
@@ -116,8 +135,15 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
   public void resetDb() {
     resetDbLock.writeLock().lock();
     try {
-      closeDB();
-      FileUtil.recursiveDelete(getDbPath().toString());
+      if (columnFamily) {
+        if (isAlive()) {
+          shared.drop(dataBaseName);
+        }
+        closeDB();
+      } else {
+        closeDB();
+        FileUtil.recursiveDelete(getDbPath().toString());
+      }
       initDB();
     } finally {
       resetDbLock.writeLock().unlock();
@@ -208,6 +234,17 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
       if (dataBaseName == null) {
         throw new IllegalArgumentException("No name set to the dbStore");
       }
+      if (columnFamily) {
+        // the comparator of a column family is set by the shared instance that opens it
+        shared = SharedRocksDb.open(parentPath, settings);
+        database = shared.getDatabase();
+        handle = shared.handle(dataBaseName);
+        profile = RocksDbProfile.of(dataBaseName);
+        readOpts = new ReadOptions().setPrefixSameAsStart(true).setVerifyChecksums(false);
+        alive = true;
+        logger.debug("Init DB {} as a column family done.", dataBaseName);
+        return;
+      }
 
       try (Options options = new Options()) {
 
@@ -249,6 +286,12 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
         tableCfg.setCacheIndexAndFilterBlocks(true);
         tableCfg.setPinL0FilterAndIndexBlocksInCache(true);
         tableCfg.setFilter(new BloomFilter(10, false));
+        profile = RocksDbProfile.of(dataBaseName);
+        profile.apply(options, tableCfg, settings);
+        if (RocksDbProfile.isEnabled()) {
+          // the table options are copied when set, the ones above are applied from here on
+          options.setTableFormatConfig(tableCfg);
+        }
 
         // read options
         readOpts = new ReadOptions();
@@ -275,6 +318,7 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
             System.exit(1);
           }
 
+          handle = database.getDefaultColumnFamily();
           alive = true;
         } catch (IOException ioe) {
           throw new RuntimeException(
@@ -295,7 +339,7 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
       if (quitIfNotAlive()) {
         return;
       }
-      database.put(key, value);
+      database.put(handle, key, value);
     } catch (RocksDBException e) {
       throw new RuntimeException(dataBaseName, e);
     } finally {
@@ -310,7 +354,7 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
       if (quitIfNotAlive()) {
         return null;
       }
-      return database.get(key);
+      return database.get(handle, key);
     } catch (RocksDBException e) {
       throw new RuntimeException(dataBaseName, e);
     } finally {
@@ -325,7 +369,7 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
       if (quitIfNotAlive()) {
         return;
       }
-      database.delete(key);
+      database.delete(handle, key);
     } catch (RocksDBException e) {
       throw new RuntimeException(dataBaseName, e);
     } finally {
@@ -344,19 +388,7 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
   }
 
   private void updateByBatchInner(Map<byte[], byte[]> rows) throws Exception {
-    if (quitIfNotAlive()) {
-      return;
-    }
-    try (WriteBatch batch = new WriteBatch()) {
-      for (Map.Entry<byte[], byte[]> entry : rows.entrySet()) {
-        if (entry.getValue() == null) {
-          batch.delete(entry.getKey());
-        } else {
-          batch.put(entry.getKey(), entry.getValue());
-        }
-      }
-      database.write(new WriteOptions(), batch);
-    }
+    updateByBatchInner(rows, new WriteOptions());
   }
 
   private void updateByBatchInner(Map<byte[], byte[]> rows, WriteOptions options)
@@ -364,12 +396,16 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
     if (quitIfNotAlive()) {
       return;
     }
+    if (shared != null) {
+      shared.write(handle, rows, options);
+      return;
+    }
     try (WriteBatch batch = new WriteBatch()) {
       for (Map.Entry<byte[], byte[]> entry : rows.entrySet()) {
         if (entry.getValue() == null) {
-          batch.delete(entry.getKey());
+          batch.delete(handle, entry.getKey());
         } else {
-          batch.put(entry.getKey(), entry.getValue());
+          batch.put(handle, entry.getKey(), entry.getValue());
         }
       }
       database.write(options, batch);
@@ -466,7 +502,7 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
       if (quitIfNotAlive()) {
         return null;
       }
-      try (RocksIterator iterator = getRocksIterator()) {
+      try (RocksIterator iterator = getPrefixIterator(key)) {
         Map<WrappedByteArray, byte[]> result = new HashMap<>();
         for (iterator.seek(key); iterator.isValid(); iterator.next()) {
           if (Bytes.indexOf(iterator.key(), key) == 0) {
@@ -528,23 +564,41 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
   }
 
   public void backup(String dir) throws RocksDBException {
+    if (shared != null) {
+      shared.backup(dir);
+      return;
+    }
     Checkpoint cp = Checkpoint.create(database);
     cp.createCheckpoint(dir + this.getDBName());
   }
 
   private RocksIterator getRocksIterator() {
-    try ( ReadOptions readOptions = new ReadOptions().setFillCache(false)) {
-      return  database.newIterator(readOptions);
+    try ( ReadOptions readOptions = new ReadOptions().setFillCache(false)
+        .setTotalOrderSeek(true)) {
+      return  database.newIterator(handle, readOptions);
+    }
+  }
+
+  // only sees the keys sharing the extracted prefix of key, filtered by the prefix blooms
+  private RocksIterator getPrefixIterator(byte[] key) {
+    if (profile == null || !profile.hasPrefix() || key.length < profile.getPrefixLength()) {
+      return getRocksIterator();
+    }
+    try (ReadOptions readOptions = new ReadOptions().setFillCache(false)
+        .setPrefixSameAsStart(true)) {
+      return database.newIterator(handle, readOptions);
     }
   }
 
   public boolean deleteDbBakPath(String dir) {
-    return FileUtil.deleteDir(new File(dir + this.getDBName()));
+    return FileUtil.deleteDir(new File(dir + (columnFamily ? SharedRocksDb.NAME
+        : this.getDBName())));
   }
 
   @Override
   public RocksDbDataSourceImpl newInstance() {
-    return new RocksDbDataSourceImpl(parentPath, dataBaseName, RocksDbSettings.getSettings());
+    return new RocksDbDataSourceImpl(parentPath, dataBaseName, RocksDbSettings.getSettings(),
+        comparator, columnFamily);
   }
 
 
@@ -567,7 +621,7 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
       if (!isAlive()) {
         return Collections.emptyList();
       }
-      String stat = database.getProperty("rocksdb.levelstats");
+      String stat = database.getProperty(handle, "rocksdb.levelstats");
       String[] stats = stat.split("\n");
       return Arrays.stream(stats).skip(2).collect(Collectors.toList());
     } finally {
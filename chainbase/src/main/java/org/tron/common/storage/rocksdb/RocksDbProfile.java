@@ -0,0 +1,112 @@
+package org.tron.common.storage.rocksdb;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.ColumnFamilyOptionsInterface;
+import org.rocksdb.CompressionType;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.setting.RocksDbSettings;
+
+/**
+ * RocksDB tuning of a store, chosen by its name after the layout of its keys and the way it
+ * is read.
+ */
+@Getter
+public class RocksDbProfile {
+
+  private static final RocksDbProfile DEFAULT = new RocksDbProfile();
+
+  private static final Map<String, RocksDbProfile> PROFILES =
+      ImmutableMap.<String, RocksDbProfile>builder()
+          // hash of the contract address + slot, random point reads
+          .put("storage-row", new RocksDbProfile().prefix(16).blockSize(16 * 1024)
+              .uncompressedLevels(2))
+          // address + token id, prefix queries by address
+          .put("account-asset", new RocksDbProfile().prefix(21).blockSize(16 * 1024))
+          // direction byte + address + address, prefix queries by the first two
+          .put("DelegatedResourceAccountIndex", new RocksDbProfile().prefix(22))
+          // from + to, point reads
+          .put("DelegatedResource", new RocksDbProfile().blockSize(16 * 1024))
+          // the values are compressed already
+          .put("section-bloom", new RocksDbProfile().uncompressedLevels(Integer.MAX_VALUE)
+              .optimizeFiltersForHits(true))
+          // read by the ids of existing blocks
+          .put("block", new RocksDbProfile().optimizeFiltersForHits(true))
+          .put("block-index", new RocksDbProfile().optimizeFiltersForHits(true))
+          .build();
+
+  // length of the key prefixes that get a bloom filter and bound the prefix queries, 0 for none
+  private int prefixLength;
+  private boolean wholeKeyFiltering = true;
+  // 0 for the one of the settings
+  private long blockSize;
+  // the levels above stay uncompressed, the others are compressed with LZ4
+  private int uncompressedLevels;
+  private boolean optimizeFiltersForHits;
+
+  /**
+   * @return the profile of {@code dbName} if the store profiles are enabled, the default one
+   *     otherwise.
+   */
+  public static RocksDbProfile of(String dbName) {
+    if (!isEnabled()) {
+      return DEFAULT;
+    }
+    return PROFILES.getOrDefault(dbName, DEFAULT);
+  }
+
+  public static boolean isEnabled() {
+    return CommonParameter.getInstance().getStorage().isDbProfiles();
+  }
+
+  public boolean hasPrefix() {
+    return prefixLength > 0;
+  }
+
+  /**
+   * Applies the profile on top of the options built from {@code settings}.
+   */
+  public <T extends ColumnFamilyOptionsInterface<T>> void apply(T options,
+      BlockBasedTableConfig tableCfg, RocksDbSettings settings) {
+    if (hasPrefix()) {
+      options.useFixedLengthPrefixExtractor(prefixLength);
+    }
+    if (uncompressedLevels > 0) {
+      List<CompressionType> compression = new ArrayList<>();
+      for (int i = 0; i < settings.getLevelNumber(); i++) {
+        compression.add(i < uncompressedLevels ? CompressionType.NO_COMPRESSION
+            : CompressionType.LZ4_COMPRESSION);
+      }
+      options.setCompressionPerLevel(compression);
+    }
+    options.setOptimizeFiltersForHits(optimizeFiltersForHits);
+    tableCfg.setWholeKeyFiltering(wholeKeyFiltering);
+    if (blockSize > 0) {
+      tableCfg.setBlockSize(blockSize);
+    }
+  }
+
+  private RocksDbProfile prefix(int length) {
+    this.prefixLength = length;
+    return this;
+  }
+
+  private RocksDbProfile blockSize(long blockSize) {
+    this.blockSize = blockSize;
+    return this;
+  }
+
+  private RocksDbProfile uncompressedLevels(int levels) {
+    this.uncompressedLevels = levels;
+    return this;
+  }
+
+  private RocksDbProfile optimizeFiltersForHits(boolean optimize) {
+    this.optimizeFiltersForHits = optimize;
+    return this;
+  }
+}
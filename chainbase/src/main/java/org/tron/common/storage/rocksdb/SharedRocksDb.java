@@ -0,0 +1,306 @@
+package org.tron.common.storage.rocksdb;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.rocksdb.AbstractComparator;
+import org.rocksdb.AbstractSlice;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Checkpoint;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.ComparatorOptions;
+import org.rocksdb.DBOptions;
+import org.rocksdb.InfoLogLevel;
+import org.rocksdb.Logger;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.Statistics;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+import org.slf4j.LoggerFactory;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.setting.RocksDbSettings;
+import org.tron.common.utils.MarketOrderPriceComparatorForRockDB;
+
+/**
+ * A RocksDB instance whose column families are the stores of a directory.
+ *
+ * <p>The stores share the instance's WAL, background threads and memtable budget on top of the
+ * block cache, and their writes can be collected into one batch that is committed atomically.
+ */
+@Slf4j(topic = "DB")
+public class SharedRocksDb {
+
+  public static final String NAME = "chainbase";
+  private static final String MARKET_PAIR_PRICE_TO_ORDER = "market_pair_price_to_order";
+  private static final org.slf4j.Logger rocksDbLogger = LoggerFactory.getLogger("ROCKSDB");
+  private static final Map<String, SharedRocksDb> INSTANCES = new HashMap<>();
+
+  @Getter
+  private final Path path;
+  private final RocksDbSettings settings;
+  private final DBOptions options;
+  @Getter
+  private final RocksDB database;
+  private final Map<String, ColumnFamilyHandle> handles = new HashMap<>();
+  private int references;
+  // the writes collected for an atomic commit, guarded by this
+  private WriteBatch pending;
+  // the threads whose writes are collected, guarded by this
+  private final Set<Thread> batchWriters = new HashSet<>();
+
+  private SharedRocksDb(Path path, RocksDbSettings settings) throws RocksDBException {
+    this.path = path;
+    this.settings = settings;
+    this.options = new DBOptions();
+    if (settings.isEnableStatistics()) {
+      options.setStatistics(new Statistics());
+      options.setStatsDumpPeriodSec(60);
+    }
+    options.setCreateIfMissing(true);
+    options.setCreateMissingColumnFamilies(true);
+    options.setIncreaseParallelism(1);
+    options.setMaxOpenFiles(settings.getMaxOpenFiles());
+    options.setMaxBackgroundCompactions(settings.getCompactThreads());
+    long writeBufferSize = CommonParameter.getInstance().getStorage().getDbWriteBufferSize();
+    if (writeBufferSize > 0) {
+      // enforced by a write buffer manager over all the column families
+      options.setDbWriteBufferSize(writeBufferSize);
+    }
+    options.setLogger(new Logger(options) {
+      @Override
+      protected void log(InfoLogLevel infoLogLevel, String logMsg) {
+        rocksDbLogger.info("{} {}", NAME, logMsg);
+      }
+    });
+
+    List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+    for (byte[] name : existingColumnFamilies(path)) {
+      descriptors.add(new ColumnFamilyDescriptor(name,
+          columnFamilyOptions(new String(name, StandardCharsets.UTF_8))));
+    }
+    if (descriptors.isEmpty()) {
+      descriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY,
+          columnFamilyOptions(null)));
+    }
+    List<ColumnFamilyHandle> opened = new ArrayList<>();
+    this.database = RocksDB.open(options, path.toString(), descriptors, opened);
+    for (int i = 0; i < descriptors.size(); i++) {
+      handles.put(new String(descriptors.get(i).columnFamilyName(), StandardCharsets.UTF_8),
+          opened.get(i));
+    }
+    logger.info("Open shared database {}, column families: {}.", path, handles.size());
+  }
+
+  private static List<byte[]> existingColumnFamilies(Path path) throws RocksDBException {
+    if (!Files.exists(Paths.get(path.toString(), "CURRENT"))) {
+      return new ArrayList<>();
+    }
+    try (Options listOptions = new Options()) {
+      return RocksDB.listColumnFamilies(listOptions, path.toString());
+    }
+  }
+
+  /**
+   * @return the instance of the stores under {@code parentPath}, opening it on first use.
+   */
+  public static synchronized SharedRocksDb open(String parentPath, RocksDbSettings settings) {
+    Path path = Paths.get(parentPath, NAME);
+    SharedRocksDb db = INSTANCES.get(path.toString());
+    if (db == null) {
+      try {
+        Files.createDirectories(path);
+        db = new SharedRocksDb(path, settings);
+      } catch (IOException | RocksDBException e) {
+        throw new RuntimeException(String.format("failed to init database: %s", path), e);
+      }
+      INSTANCES.put(path.toString(), db);
+    }
+    db.references++;
+    return db;
+  }
+
+  /**
+   * Drops a reference taken by {@link #open}, the instance is closed with the last one.
+   */
+  public void release() {
+    synchronized (SharedRocksDb.class) {
+      if (--references > 0) {
+        return;
+      }
+      INSTANCES.remove(path.toString());
+    }
+    synchronized (this) {
+      handles.values().forEach(ColumnFamilyHandle::close);
+      handles.clear();
+      database.close();
+      options.close();
+    }
+  }
+
+  public synchronized ColumnFamilyHandle handle(String name) {
+    ColumnFamilyHandle handle = handles.get(name);
+    if (handle == null) {
+      try {
+        handle = database.createColumnFamily(new ColumnFamilyDescriptor(
+            name.getBytes(StandardCharsets.UTF_8), columnFamilyOptions(name)));
+      } catch (RocksDBException e) {
+        throw new RuntimeException(name, e);
+      }
+      handles.put(name, handle);
+    }
+    return handle;
+  }
+
+  /**
+   * Removes the column family and everything in it, the next {@link #handle} creates it again.
+   */
+  public synchronized void drop(String name) {
+    ColumnFamilyHandle handle = handles.remove(name);
+    if (handle == null) {
+      return;
+    }
+    try {
+      database.dropColumnFamily(handle);
+    } catch (RocksDBException e) {
+      throw new RuntimeException(name, e);
+    } finally {
+      handle.close();
+    }
+  }
+
+  private ColumnFamilyOptions columnFamilyOptions(String name) {
+    ColumnFamilyOptions cfOptions = new ColumnFamilyOptions();
+    cfOptions.setLevelCompactionDynamicLevelBytes(true);
+    cfOptions.setNumLevels(settings.getLevelNumber());
+    cfOptions.setMaxBytesForLevelMultiplier(settings.getMaxBytesForLevelMultiplier());
+    cfOptions.setMaxBytesForLevelBase(settings.getMaxBytesForLevelBase());
+    cfOptions.setLevel0FileNumCompactionTrigger(settings.getLevel0FileNumCompactionTrigger());
+    cfOptions.setTargetFileSizeMultiplier(settings.getTargetFileSizeMultiplier());
+    cfOptions.setTargetFileSizeBase(settings.getTargetFileSizeBase());
+    AbstractComparator<? extends AbstractSlice<?>> comparator = comparator(name);
+    if (comparator != null) {
+      cfOptions.setComparator(comparator);
+    }
+    BlockBasedTableConfig tableCfg = new BlockBasedTableConfig();
+    tableCfg.setBlockSize(settings.getBlockSize());
+    tableCfg.setBlockCache(RocksDbSettings.getCache());
+    tableCfg.setCacheIndexAndFilterBlocks(true);
+    tableCfg.setPinL0FilterAndIndexBlocksInCache(true);
+    tableCfg.setFilter(new BloomFilter(10, false));
+    if (name != null) {
+      RocksDbProfile.of(name).apply(cfOptions, tableCfg, settings);
+    }
+    cfOptions.setTableFormatConfig(tableCfg);
+    return cfOptions;
+  }
+
+  // every column family is opened with the instance, before its store asks for it
+  private static AbstractComparator<? extends AbstractSlice<?>> comparator(String name) {
+    if (MARKET_PAIR_PRICE_TO_ORDER.equals(name)) {
+      return new MarketOrderPriceComparatorForRockDB(new ComparatorOptions());
+    }
+    return null;
+  }
+
+  /**
+   * Writes {@code rows} to a column family, or adds them to the batch being collected if the
+   * current thread joined it.
+   */
+  public void write(ColumnFamilyHandle handle, Map<byte[], byte[]> rows, WriteOptions options)
+      throws RocksDBException {
+    synchronized (this) {
+      if (pending != null && batchWriters.contains(Thread.currentThread())) {
+        add(pending, handle, rows);
+        return;
+      }
+    }
+    try (WriteBatch batch = new WriteBatch()) {
+      add(batch, handle, rows);
+      database.write(options, batch);
+    }
+  }
+
+  private static void add(WriteBatch batch, ColumnFamilyHandle handle, Map<byte[], byte[]> rows)
+      throws RocksDBException {
+    for (Map.Entry<byte[], byte[]> entry : rows.entrySet()) {
+      if (entry.getValue() == null) {
+        batch.delete(handle, entry.getKey());
+      } else {
+        batch.put(handle, entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Starts collecting, until {@link #commitBatch}, the writes of the threads that join the
+   * batch, the writes of the other threads go to the instance as usual.
+   */
+  public synchronized void beginBatch() {
+    if (pending != null) {
+      throw new IllegalStateException("a batch is already being collected");
+    }
+    pending = new WriteBatch();
+  }
+
+  /**
+   * Adds the writes of the current thread to the batch being collected, until
+   * {@link #leaveBatch}.
+   */
+  public synchronized void joinBatch() {
+    if (pending == null) {
+      throw new IllegalStateException("no batch is being collected");
+    }
+    batchWriters.add(Thread.currentThread());
+  }
+
+  public synchronized void leaveBatch() {
+    batchWriters.remove(Thread.currentThread());
+  }
+
+  public synchronized void commitBatch(boolean sync) throws RocksDBException {
+    try (WriteBatch batch = pending; WriteOptions writeOptions = new WriteOptions().setSync(sync)) {
+      pending = null;
+      batchWriters.clear();
+      database.write(writeOptions, batch);
+    }
+  }
+
+  /**
+   * Discards the writes collected, if they were not committed.
+   */
+  public synchronized void abortBatch() {
+    batchWriters.clear();
+    if (pending != null) {
+      pending.close();
+      pending = null;
+    }
+  }
+
+  /**
+   * Copies the whole instance under {@code dir}, once for all its stores.
+   */
+  public synchronized void backup(String dir) throws RocksDBException {
+    if (new File(dir + NAME).exists()) {
+      return;
+    }
+    try (Checkpoint cp = Checkpoint.create(database)) {
+      cp.createCheckpoint(dir + NAME);
+    }
+  }
+}
@@ -39,6 +39,7 @@ import org.tron.core.store.AccountIdIndexStore;
 import org.tron.core.store.AccountIndexStore;
 import org.tron.core.store.AccountStore;
 import org.tron.core.store.AccountTraceStore;
+import org.tron.core.store.ArchiveStore;
 import org.tron.core.store.AssetIssueStore;
 import org.tron.core.store.AssetIssueV2Store;
 import org.tron.core.store.BalanceTraceStore;
@@ -221,6 +222,10 @@ public class ChainBaseManager {
   @Getter
   private AccountTraceStore accountTraceStore;
 
+  @Autowired
+  @Getter
+  private ArchiveStore archiveStore;
+
   @Getter
   private ForkController forkController = ForkController.instance();
 
@@ -56,6 +56,9 @@ public class BlockCapsule implements ProtoCapsule<Block> {
 
   private Block block;
   private List<TransactionCapsule> transactions = new ArrayList<>();
+  // computed ahead of the import of a received block, see precompute()
+  private volatile Sha256Hash txMerkleRoot;
+  private volatile byte[] witnessSigner;
   private boolean isSwitch;
   @Getter
   @Setter
@@ -138,11 +141,13 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   }
 
   public void addTransaction(TransactionCapsule pendingTrx) {
+    txMerkleRoot = null;
     this.block = this.block.toBuilder().addTransactions(pendingTrx.getInstance()).build();
     getTransactions().add(pendingTrx);
   }
 
   public void addAllTransactions(List<TransactionCapsule> pendingTrxs) {
+    txMerkleRoot = null;
     List<Transaction> list = pendingTrxs.stream().map(TransactionCapsule::getInstance).collect(
         Collectors.toList());
     this.block = this.block.toBuilder().addAllTransactions(list).build();
@@ -181,10 +186,7 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   public boolean validateSignature(DynamicPropertiesStore dynamicPropertiesStore,
       AccountStore accountStore) throws ValidateSignatureException {
     try {
-      byte[] sigAddress = SignUtils.signatureToAddress(getRawHash().getBytes(),
-          TransactionCapsule.getBase64FromByteString(
-              block.getBlockHeader().getWitnessSignature()),
-          CommonParameter.getInstance().isECKeyCryptoEngine());
+      byte[] sigAddress = witnessSigner != null ? witnessSigner : recoverWitnessSigner();
       byte[] witnessAccountAddress = block.getBlockHeader().getRawData().getWitnessAddress()
           .toByteArray();
 
@@ -201,6 +203,28 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     }
   }
 
+  private byte[] recoverWitnessSigner() throws SignatureException {
+    return SignUtils.signatureToAddress(getRawHash().getBytes(),
+        TransactionCapsule.getBase64FromByteString(block.getBlockHeader().getWitnessSignature()),
+        CommonParameter.getInstance().isECKeyCryptoEngine());
+  }
+
+  /**
+   * Computes the parts of the validation of a received block that do not depend on the state:
+   * block id, merkle root and the signer addresses of the block and of its transactions. It runs
+   * on worker threads while previous blocks are executed, the block must not be modified after.
+   */
+  public void precompute() {
+    getBlockId();
+    try {
+      witnessSigner = recoverWitnessSigner();
+    } catch (SignatureException | RuntimeException e) {
+      logger.debug("Recover witness signer of block {} failed, {}.", getNum(), e.getMessage());
+    }
+    TransactionCapsule.recoverSigners(getTransactions());
+    txMerkleRoot = computeMerkleRoot();
+  }
+
   public BlockId getBlockId() {
     if (blockId.equals(Sha256Hash.ZERO_HASH)) {
       blockId =
@@ -211,6 +235,11 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   }
 
   public Sha256Hash calcMerkleRoot() {
+    Sha256Hash root = txMerkleRoot;
+    return root != null ? root : computeMerkleRoot();
+  }
+
+  private Sha256Hash computeMerkleRoot() {
     List<Transaction> transactionsList = this.block.getTransactionsList();
 
     if (CollectionUtils.isEmpty(transactionsList)) {
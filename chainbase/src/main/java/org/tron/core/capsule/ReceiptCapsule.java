@@ -272,9 +272,7 @@ public class ReceiptCapsule {
 
       if (forkController.pass(ForkBlockVersionEnum.VERSION_3_6_5) &&
           dynamicPropertiesStore.getAllowAdaptiveEnergy() == 1) {
-        long blockEnergyUsage =
-            dynamicPropertiesStore.getBlockEnergyUsage() + (usage - accountEnergyLeft);
-        dynamicPropertiesStore.saveBlockEnergyUsage(blockEnergyUsage);
+        dynamicPropertiesStore.addBlockEnergyUsage(usage - accountEnergyLeft);
       }
 
       long sunPerEnergy = Constant.SUN_PER_ENERGY;
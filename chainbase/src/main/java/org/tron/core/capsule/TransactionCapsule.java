@@ -31,8 +31,11 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import java.io.IOException;
 import java.security.SignatureException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -43,6 +46,7 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.tron.common.crypto.ECKey.ECDSASignature;
 import org.tron.common.crypto.SignInterface;
 import org.tron.common.crypto.SignUtils;
+import org.tron.common.crypto.SignatureInterface;
 import org.tron.common.es.ExecutorServiceManager;
 import org.tron.common.overlay.message.Message;
 import org.tron.common.parameter.CommonParameter;
@@ -51,9 +55,11 @@ import org.tron.common.utils.ForkController;
 import org.tron.common.utils.ReflectUtils;
 import org.tron.common.utils.Sha256Hash;
 import org.tron.core.actuator.TransactionFactory;
+import org.tron.core.capsule.utils.SignatureCache;
 import org.tron.core.config.Parameter;
 import org.tron.core.db.TransactionContext;
 import org.tron.core.db.TransactionTrace;
+import org.tron.core.db2.core.AccessSet;
 import org.tron.core.exception.BadItemException;
 import org.tron.core.exception.ContractValidateException;
 import org.tron.core.exception.P2pException;
@@ -96,12 +102,18 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   private Transaction transaction;
   @Setter
   private boolean isVerified = false;
+  // signer address of every signature, recovered ahead of the validation
+  private volatile byte[][] signers;
   @Setter
   @Getter
   private long blockNum = -1;
   @Getter
   @Setter
   private TransactionTrace trxTrace;
+  // keys read and written when executed into the pending state
+  @Getter
+  @Setter
+  private AccessSet pendingAccess;
 
   @Getter
   @Setter
@@ -227,6 +239,15 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   public static long checkWeight(Permission permission, List<ByteString> sigs, byte[] hash,
       List<ByteString> approveList)
       throws SignatureException, PermissionException, SignatureFormatException {
+    return checkWeight(permission, sigs, hash, approveList, null);
+  }
+
+  /**
+   * @param signers the addresses already recovered from {@code sigs}, null to recover them.
+   */
+  public static long checkWeight(Permission permission, List<ByteString> sigs, byte[] hash,
+      List<ByteString> approveList, byte[][] signers)
+      throws SignatureException, PermissionException, SignatureFormatException {
     long currentWeight = 0;
     if (sigs.size() > permission.getKeysCount()) {
       throw new PermissionException(
@@ -234,13 +255,14 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
               + permission.getKeysCount());
     }
     HashMap addMap = new HashMap();
-    for (ByteString sig : sigs) {
+    for (int i = 0; i < sigs.size(); i++) {
+      ByteString sig = sigs.get(i);
       if (sig.size() < 65) {
         throw new SignatureFormatException(
             "Signature size is " + sig.size());
       }
       String base64 = TransactionCapsule.getBase64FromByteString(sig);
-      byte[] address = SignUtils
+      byte[] address = signers != null ? signers[i] : SignUtils
           .signatureToAddress(hash, base64, CommonParameter.getInstance().isECKeyCryptoEngine());
       long weight = getWeight(permission, address);
       if (weight == 0) {
@@ -402,10 +424,11 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       throw new P2pException(PROTOBUF_ERROR, PROTOBUF_ERROR.getDesc());
     }
     com.google.protobuf.Message src = contractParameter.unpack(clazz);
+    // parsing the packed bytes gives the same fields as parsing src encoded again
     com.google.protobuf.Message contractMessage = parse(clazz,
-        Message.getCodedInputStream(src.toByteArray()));
+        Message.getCodedInputStream(contractParameter.getValue()));
 
-    Message.compareBytes(src.toByteArray(), contractMessage.toByteArray());
+    Message.compareBytes(src.getSerializedSize(), contractMessage.getSerializedSize());
   }
 
   // todo mv this static function to capsule util
@@ -468,6 +491,13 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   public static boolean validateSignature(Transaction transaction,
       byte[] hash, AccountStore accountStore, DynamicPropertiesStore dynamicPropertiesStore)
       throws PermissionException, SignatureException, SignatureFormatException {
+    return validateSignature(transaction, hash, accountStore, dynamicPropertiesStore, null);
+  }
+
+  private static boolean validateSignature(Transaction transaction,
+      byte[] hash, AccountStore accountStore, DynamicPropertiesStore dynamicPropertiesStore,
+      byte[][] signers)
+      throws PermissionException, SignatureException, SignatureFormatException {
     Transaction.Contract contract = transaction.getRawData().getContractList().get(0);
     int permissionId = contract.getPermissionId();
     byte[] owner = getOwner(contract);
@@ -488,7 +518,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       throw new PermissionException("permission isn't exit");
     }
     checkPermission(permissionId, permission, contract);
-    long weight = checkWeight(permission, transaction.getSignatureList(), hash, null);
+    long weight = checkWeight(permission, transaction.getSignatureList(), hash, null, signers);
     if (weight >= permission.getThreshold()) {
       return true;
     }
@@ -634,6 +664,76 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     }
   }
 
+  /**
+   * Recovers the signer addresses of the signatures, the costly part of the signature validation
+   * which does not depend on the state, so that it can run before the transaction is executed.
+   * Malformed signatures are left to the validation to report.
+   */
+  public void recoverSigners() {
+    recoverSigners(Collections.singletonList(this));
+  }
+
+  /**
+   * Recovers the signer addresses of all the transactions at once, from the signature cache or
+   * as a single batch.
+   */
+  public static void recoverSigners(List<TransactionCapsule> trxs) {
+    boolean isECKey = CommonParameter.getInstance().isECKeyCryptoEngine();
+    List<TransactionCapsule> targets = new ArrayList<>();
+    List<byte[][]> results = new ArrayList<>();
+    // signatures missing in the cache, with their {target, signature} index
+    List<byte[]> missHashes = new ArrayList<>();
+    List<SignatureInterface> missSigs = new ArrayList<>();
+    List<int[]> missSlots = new ArrayList<>();
+    for (TransactionCapsule trx : trxs) {
+      List<ByteString> sigs = trx.transaction.getSignatureList();
+      if (trx.isVerified || trx.signers != null
+          || sigs.stream().anyMatch(sig -> sig.size() < 65)) {
+        continue;
+      }
+      byte[] hash = trx.getTransactionId().getBytes();
+      byte[][] addresses = new byte[sigs.size()][];
+      for (int i = 0; i < sigs.size(); i++) {
+        addresses[i] = SignatureCache.get(hash, sigs.get(i));
+        if (addresses[i] == null) {
+          missHashes.add(hash);
+          missSigs.add(toSignature(sigs.get(i), isECKey));
+          missSlots.add(new int[] {targets.size(), i});
+        }
+      }
+      targets.add(trx);
+      results.add(addresses);
+    }
+
+    if (!missSigs.isEmpty()) {
+      byte[][] recovered = SignUtils.signaturesToAddresses(missHashes.toArray(new byte[0][]),
+          missSigs.toArray(new SignatureInterface[0]), isECKey);
+      for (int k = 0; k < recovered.length; k++) {
+        int[] slot = missSlots.get(k);
+        results.get(slot[0])[slot[1]] = recovered[k];
+        if (recovered[k] != null) {
+          SignatureCache.put(missHashes.get(k),
+              targets.get(slot[0]).transaction.getSignature(slot[1]), recovered[k]);
+        }
+      }
+    }
+
+    for (int i = 0; i < targets.size(); i++) {
+      if (Arrays.stream(results.get(i)).allMatch(Objects::nonNull)) {
+        targets.get(i).signers = results.get(i);
+      }
+    }
+  }
+
+  private static SignatureInterface toSignature(ByteString sig, boolean isECKey) {
+    byte v = sig.byteAt(64);
+    if (v < 27) {
+      v += 27; //revId -> v
+    }
+    return SignUtils.fromComponents(sig.substring(0, 32).toByteArray(),
+        sig.substring(32, 64).toByteArray(), v, isECKey);
+  }
+
   /**
    * validate signature
    */
@@ -651,9 +751,11 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       }
 
       byte[] hash = getTransactionId().getBytes();
+      recoverSigners();
 
       try {
-        if (!validateSignature(this.transaction, hash, accountStore, dynamicPropertiesStore)) {
+        if (!validateSignature(this.transaction, hash, accountStore, dynamicPropertiesStore,
+            signers)) {
           isVerified = false;
           throw new ValidateSignatureException("sig error");
         }
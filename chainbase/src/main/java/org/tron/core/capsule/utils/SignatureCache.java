@@ -0,0 +1,39 @@
+package org.tron.core.capsule.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Bytes;
+import com.google.protobuf.ByteString;
+import org.tron.common.cache.SizedCache;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.core.db2.common.WrappedByteArray;
+
+/**
+ * Signer addresses recovered from transaction signatures, keyed by transaction id and signature.
+ *
+ * <p>Recovering the signer is the costly part of the signature validation and does not depend on
+ * the state, so a transaction admitted to the pending pool is not recovered again when it comes
+ * back in a block. The permission check is still done against the current state.
+ */
+public class SignatureCache {
+
+  private static final SizedCache<Cache<WrappedByteArray, byte[]>> cache = new SizedCache<>(
+      () -> CommonParameter.getInstance().getSignatureCacheSize(),
+      size -> CacheBuilder.newBuilder().maximumSize(size).build());
+
+  private SignatureCache() {
+    throw new IllegalStateException("SignatureCache");
+  }
+
+  public static byte[] get(byte[] hash, ByteString sig) {
+    return cache.get().getIfPresent(key(hash, sig));
+  }
+
+  public static void put(byte[] hash, ByteString sig, byte[] address) {
+    cache.get().put(key(hash, sig), address);
+  }
+
+  private static WrappedByteArray key(byte[] hash, ByteString sig) {
+    return WrappedByteArray.of(Bytes.concat(hash, sig.toByteArray()));
+  }
+}
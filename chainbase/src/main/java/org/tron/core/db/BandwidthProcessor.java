@@ -10,6 +10,7 @@ import com.google.protobuf.ByteString;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
 import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.Commons;
@@ -19,10 +20,12 @@ import org.tron.core.Constant;
 import org.tron.core.capsule.AccountCapsule;
 import org.tron.core.capsule.AssetIssueCapsule;
 import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.db2.core.Delta;
 import org.tron.core.exception.AccountResourceInsufficientException;
 import org.tron.core.exception.ContractValidateException;
 import org.tron.core.exception.TooBigTransactionException;
 import org.tron.core.exception.TooBigTransactionResultException;
+import org.tron.core.store.DynamicPropertiesStore;
 import org.tron.protos.Protocol.Transaction.Contract;
 import org.tron.protos.contract.AssetIssueContractOuterClass.TransferAssetContract;
 import org.tron.protos.contract.BalanceContract.TransferContract;
@@ -509,35 +512,107 @@ public class BandwidthProcessor extends ResourceProcessor {
       return false;
     }
 
-    long publicNetLimit = chainBaseManager.getDynamicPropertiesStore().getPublicNetLimit();
-    long publicNetUsage = chainBaseManager.getDynamicPropertiesStore().getPublicNetUsage();
-    long publicNetTime = chainBaseManager.getDynamicPropertiesStore().getPublicNetTime();
-
-    long newPublicNetUsage = increase(publicNetUsage, 0, publicNetTime, now);
-
-    if (bytes > (publicNetLimit - newPublicNetUsage)) {
-      logger.debug("Free public net usage is running out."
-              + " Bytes: {}, publicNetLimit: {}, newPublicNetUsage: {}.",
-          bytes, publicNetLimit, newPublicNetUsage);
+    DynamicPropertiesStore dynamicStore = chainBaseManager.getDynamicPropertiesStore();
+    PublicNetUsage publicNetUsage = new PublicNetUsage(bytes, dynamicStore.getPublicNetLimit(),
+        now, null);
+    if (!dynamicStore.takePublicNet(publicNetUsage, () -> publicNetUsage.take(dynamicStore))) {
       return false;
     }
 
     latestConsumeFreeTime = now;
     long latestOperationTime = chainBaseManager.getHeadBlockTimeStamp();
-    publicNetTime = now;
     newFreeNetUsage = increase(newFreeNetUsage, bytes, latestConsumeFreeTime, now);
-    newPublicNetUsage = increase(newPublicNetUsage, bytes, publicNetTime, now);
     accountCapsule.setFreeNetUsage(newFreeNetUsage);
     accountCapsule.setLatestConsumeFreeTime(latestConsumeFreeTime);
     accountCapsule.setLatestOperationTime(latestOperationTime);
 
-    chainBaseManager.getDynamicPropertiesStore().savePublicNetUsage(newPublicNetUsage);
-    chainBaseManager.getDynamicPropertiesStore().savePublicNetTime(publicNetTime);
     chainBaseManager.getAccountStore().put(accountCapsule.createDbKey(), accountCapsule);
     return true;
 
   }
 
+
+  /**
+   * Free public net taken by a transaction. Transactions taking free net commute as long as the
+   * bytes fit, so the usage is merged at the head as a {@link Delta}, decaying from the time of
+   * the head as {@link #useFreeNet} does.
+   */
+  private class PublicNetUsage implements Delta {
+
+    private final long bytes;
+    private final long limit;
+    private final long now;
+    // time of the usage the delta applies to, null for the time at the head
+    private final Long lastTime;
+
+    private PublicNetUsage(long bytes, long limit, long now, Long lastTime) {
+      this.bytes = bytes;
+      this.limit = limit;
+      this.now = now;
+      this.lastTime = lastTime;
+    }
+
+    /**
+     * @return the usage after taking the bytes from {@code usage} of {@code time}, -1 if they
+     *     do not fit.
+     */
+    private long take(long usage, long time) {
+      long newUsage = increase(usage, 0, time, now);
+      if (bytes > (limit - newUsage)) {
+        logger.debug("Free public net usage is running out."
+            + " Bytes: {}, publicNetLimit: {}, newPublicNetUsage: {}.", bytes, limit, newUsage);
+        return -1;
+      }
+      return increase(newUsage, bytes, now, now);
+    }
+
+    private boolean take(DynamicPropertiesStore dynamicStore) {
+      long usage = take(dynamicStore.getPublicNetUsage(), dynamicStore.getPublicNetTime());
+      if (usage < 0) {
+        return false;
+      }
+      dynamicStore.savePublicNetUsage(usage);
+      dynamicStore.savePublicNetTime(now);
+      return true;
+    }
+
+    @Override
+    public byte[] apply(byte[] current) {
+      long time = lastTime != null ? lastTime
+          : chainBaseManager.getDynamicPropertiesStore().getPublicNetTime();
+      if (current == null || time > now) {
+        return null;
+      }
+      long usage = take(ByteArray.toLong(current), time);
+      return usage < 0 ? null : ByteArray.fromLong(usage);
+    }
+
+    @Override
+    public Delta andThen(Delta next) {
+      if (next instanceof PublicNetUsage) {
+        // the next usage decays from the time this one was taken
+        PublicNetUsage following = (PublicNetUsage) next;
+        return Delta.super.andThen(new PublicNetUsage(following.bytes, following.limit,
+            following.now, now));
+      }
+      return Delta.super.andThen(next);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof PublicNetUsage)) {
+        return false;
+      }
+      PublicNetUsage that = (PublicNetUsage) o;
+      return bytes == that.bytes && limit == that.limit && now == that.now
+          && Objects.equals(lastTime, that.lastTime);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(bytes, limit, now, lastTime);
+    }
+  }
 }
 
 
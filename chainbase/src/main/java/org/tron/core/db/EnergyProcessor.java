@@ -132,8 +132,7 @@ public class EnergyProcessor extends ResourceProcessor {
     accountStore.put(accountCapsule.createDbKey(), accountCapsule);
 
     if (dynamicPropertiesStore.getAllowAdaptiveEnergy() == 1) {
-      long blockEnergyUsage = dynamicPropertiesStore.getBlockEnergyUsage() + energy;
-      dynamicPropertiesStore.saveBlockEnergyUsage(blockEnergyUsage);
+      dynamicPropertiesStore.addBlockEnergyUsage(energy);
     }
 
     return true;
@@ -1,7 +1,11 @@
 package org.tron.core.db;
 
+import java.util.Collection;
+import java.util.Map;
 import org.tron.core.db2.ISession;
 import org.tron.core.db2.common.IRevokingDB;
+import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.core.db2.core.AccessSet;
 import org.tron.core.db2.core.Chainbase;
 import org.tron.core.exception.RevokingStoreIllegalStateException;
 
@@ -17,6 +21,14 @@ public interface RevokingDatabase {
 
   void add(IRevokingDB revokingDB);
 
+  AccessSet headWrites();
+
+  Map<String, Map<WrappedByteArray, WrappedByteArray>> headUndo(Collection<String> dbNames);
+
+  boolean apply(AccessSet accessSet);
+
+  AccessSet pinHead();
+
   void merge() throws RevokingStoreIllegalStateException;
 
   void revoke() throws RevokingStoreIllegalStateException;
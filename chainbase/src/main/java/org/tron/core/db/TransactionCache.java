@@ -22,4 +22,8 @@ public class TransactionCache extends TronStoreWithRevoking<BytesCapsule> {
   public void initCache() {
     ((TxCacheDB) getDb()).init();
   }
+
+  public boolean isExact() {
+    return ((TxCacheDB) getDb()).isExact();
+  }
 }
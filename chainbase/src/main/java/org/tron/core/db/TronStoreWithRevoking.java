@@ -4,6 +4,7 @@ import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
 import com.google.common.reflect.TypeToken;
+import java.io.Closeable;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -24,7 +25,6 @@ import org.tron.common.storage.metric.DbStatService;
 import org.tron.common.storage.rocksdb.RocksDbDataSourceImpl;
 import org.tron.common.utils.StorageUtils;
 import org.tron.core.capsule.ProtoCapsule;
-import org.tron.core.db.common.iterator.DBIterator;
 import org.tron.core.db2.common.DB;
 import org.tron.core.db2.common.IRevokingDB;
 import org.tron.core.db2.common.LevelDB;
@@ -70,7 +70,7 @@ public abstract class TronStoreWithRevoking<T extends ProtoCapsule> implements I
       this.db =  new RocksDB(
           new RocksDbDataSourceImpl(parentPath,
               dbName, CommonParameter.getInstance()
-              .getRocksDBCustomSettings(), getDirectComparator()));
+              .getRocksDBCustomSettings(), getDirectComparator(), isColumnFamily(dbName)));
     } else {
       throw new RuntimeException(String.format("db engine %s is error", dbEngine));
     }
@@ -85,6 +85,13 @@ public abstract class TronStoreWithRevoking<T extends ProtoCapsule> implements I
     return null;
   }
 
+  // a store with a path of its own keeps an instance of its own
+  private static boolean isColumnFamily(String dbName) {
+    return CommonParameter.getInstance().getStorage().isDbColumnFamilies()
+        && StorageUtils.getOutputDirectoryByDbName(dbName)
+        .equals(StorageUtils.getOutputDirectory());
+  }
+
   protected TronStoreWithRevoking(DB<byte[], byte[]> db) {
     this.db = db;
     this.revokingDB = new Chainbase(new SnapshotRoot(db));
@@ -166,9 +173,9 @@ public abstract class TronStoreWithRevoking<T extends ProtoCapsule> implements I
   }
 
   private void closeJniIterator(Iterator iterator) {
-    if (iterator instanceof DBIterator) {
+    if (iterator instanceof Closeable) {
       try {
-        ((DBIterator) iterator).close();
+        ((Closeable) iterator).close();
       } catch (IOException e) {
         logger.error("Close jni iterator.", e);
       }
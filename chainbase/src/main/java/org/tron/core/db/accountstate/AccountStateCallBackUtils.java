@@ -3,6 +3,7 @@ package org.tron.core.db.accountstate;
 import java.util.ArrayList;
 import java.util.List;
 import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.db2.core.AccessSet;
 
 public class AccountStateCallBackUtils {
 
@@ -22,6 +23,10 @@ public class AccountStateCallBackUtils {
   }
 
   protected boolean exe() {
+    if (AccessSet.isSpeculating()) {
+      // speculative execution must not touch the account state trie of the block
+      return false;
+    }
     if (!execute || !allowGenerateRoot) {
       //Agreement same block high to generate account state root
       execute = false;
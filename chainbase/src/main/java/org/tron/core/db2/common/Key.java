@@ -28,4 +28,9 @@ public final class Key {
 
     return Arrays.copyOf(key, key.length);
   }
+
+  public int length() {
+    byte[] key = data.getBytes();
+    return key == null ? 0 : key.length;
+  }
 }
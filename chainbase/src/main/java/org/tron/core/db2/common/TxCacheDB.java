@@ -19,7 +19,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -63,6 +66,8 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
 
   // a pair of bloom filters record the recent transactions
   private BloomFilter<byte[]>[] bloomFilters = new BloomFilter[2];
+  // exact index of the recent transactions, used instead of the bloom filters when set
+  private TxIdIndex index;
   // filterStartBlock record the start block of the active filter
   private volatile long filterStartBlock = INVALID_BLOCK;
   // currentFilterIndex records the index of the active filter
@@ -121,11 +126,12 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     } else {
       throw new RuntimeException(String.format("db type: %s is not supported", dbEngine));
     }
-    this.bloomFilters[0] = BloomFilter.create(Funnels.byteArrayFunnel(),
-        MAX_BLOCK_SIZE * TRANSACTION_COUNT);
-    this.bloomFilters[1] = BloomFilter.create(Funnels.byteArrayFunnel(),
-        MAX_BLOCK_SIZE * TRANSACTION_COUNT);
     cacheDir = Paths.get(CommonParameter.getInstance().getOutputDirectory(), ".cache");
+    if (CommonParameter.getInstance().getStorage().isTxCacheExactIndex()) {
+      this.index = new TxIdIndex(cacheDir, MAX_BLOCK_SIZE);
+    } else {
+      createBloomFilters();
+    }
     this.cacheFile0 = Paths.get(cacheDir.toString(), "bloomFilters_0");
     this.cacheFile1 = Paths.get(cacheDir.toString(), "bloomFilters_1");
     this.cacheProperties = Paths.get(cacheDir.toString(), "txCache.properties");
@@ -134,6 +140,21 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
 
   }
 
+  private void createBloomFilters() {
+    this.bloomFilters[0] = BloomFilter.create(Funnels.byteArrayFunnel(),
+        MAX_BLOCK_SIZE * TRANSACTION_COUNT);
+    this.bloomFilters[1] = BloomFilter.create(Funnels.byteArrayFunnel(),
+        MAX_BLOCK_SIZE * TRANSACTION_COUNT);
+  }
+
+  /**
+   * @return true if the recent transactions are known exactly, so that a transaction not found
+   *     here is not a duplicate and one found here is.
+   */
+  public boolean isExact() {
+    return index != null;
+  }
+
   /**
    * this method only used for init, put all data in tran-cache into the two maps.
    */
@@ -156,6 +177,11 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
   }
 
   public void init() {
+    if (index != null && initIndex()) {
+      isValid.set(true);
+      setAlive(true);
+      return;
+    }
     if (recovery()) {
       isValid.set(true);
       setAlive(true);
@@ -184,8 +210,44 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     setAlive(true);
   }
 
+  /**
+   * Opens the exact index left by the last shutdown, or rebuilds it from recentTransactionStore.
+   *
+   * @return false if recentTransactionStore does not cover the window, as after an upgrade from
+   *     the persistent store, the bloom filters are used instead.
+   */
+  private boolean initIndex() {
+    long currentBlockNum = dynamicPropertiesStore.getLatestBlockHeaderNumberFromDB();
+    if (recentTransactionStore.size() < Math.min(MAX_BLOCK_SIZE, currentBlockNum)) {
+      logger.warn("RecentTransactionStore does not cover the last {} blocks, "
+          + "fall back to bloomFilters.", MAX_BLOCK_SIZE);
+      index = null;
+      createBloomFilters();
+      return false;
+    }
+    if (index.open(currentBlockNum)) {
+      return true;
+    }
+    long start = System.currentTimeMillis();
+    List<RecentTransactionItem> items = new ArrayList<>();
+    for (Entry<byte[], BytesCapsule> bytesCapsuleEntry : recentTransactionStore) {
+      byte[] data = bytesCapsuleEntry.getValue().getData();
+      items.add(JsonUtil.json2Obj(new String(data), RecentTransactionItem.class));
+    }
+    // the store is keyed by the low bytes of the block number, the rings need the block order
+    items.sort(Comparator.comparingLong(RecentTransactionItem::getNum));
+    items.forEach(trx -> trx.getTransactionIds()
+        .forEach(tid -> index.put(Hex.decode(tid), trx.getNum())));
+    logger.info("Rebuild tx id index from recentTransactionStore, size: {}, cost: {} ms.",
+        index.size(), System.currentTimeMillis() - start);
+    return true;
+  }
+
   @Override
   public byte[] get(byte[] key) {
+    if (index != null) {
+      return index.contains(key) ? FAKE_TRANSACTION : null;
+    }
     if (!bloomFilters[0].mightContain(key) && !bloomFilters[1].mightContain(key)) {
       return null;
     }
@@ -200,6 +262,14 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     }
 
     long blockNum = Longs.fromByteArray(value);
+    if (index != null) {
+      index.put(key, blockNum);
+      if (lastMetricBlock != blockNum) {
+        lastMetricBlock = blockNum;
+        Metrics.gaugeSet(MetricKeys.Gauge.TX_CACHE, index.size(), "count");
+      }
+      return;
+    }
     if (filterStartBlock == INVALID_BLOCK) {
       // init active filter start block
       filterStartBlock = blockNum;
@@ -271,9 +341,13 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     if (!isAlive()) {
       return;
     }
-    dump();
-    bloomFilters[0] = null;
-    bloomFilters[1] = null;
+    if (index != null) {
+      index.close(dynamicPropertiesStore.getLatestBlockHeaderNumberFromDB());
+    } else {
+      dump();
+      bloomFilters[0] = null;
+      bloomFilters[1] = null;
+    }
     persistentStore.close();
     setAlive(false);
   }
@@ -0,0 +1,381 @@
+package org.tron.core.db2.common;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.utils.FileUtil;
+import org.tron.common.utils.Sha256Hash;
+
+/**
+ * Exact set of the recent transaction ids, kept in memory-mapped open-addressing hash tables.
+ *
+ * <p>There are two rings, each one holding the ids of a span of blocks. When a block falls
+ * outside the span of the active ring, the other ring is emptied and becomes the active one, so
+ * the ids of at least the last {@code span} blocks are always present.
+ *
+ * <p>The tables live in files that are only trusted on open if they were closed at the block the
+ * database is at, a node that stopped abruptly has to rebuild them. A table that replaces another
+ * one is written to a new file rather than over a file that is still mapped, the replaced file is
+ * deleted after the swap.
+ */
+@Slf4j(topic = "DB")
+public class TxIdIndex {
+
+  private static final long INVALID_BLOCK = -1;
+  private static final int ID_SIZE = 32;
+  // id, then block number + 1, zero for an empty slot
+  private static final int SLOT_SIZE = ID_SIZE + 8;
+  private static final int HEADER_SIZE = 64;
+  private static final long MAGIC = 0x7478496478303031L;
+  private static final int CHUNK_BITS = 20;
+  private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+  private static final long MIN_CAPACITY = 1L << 16;
+  private static final String PREFIX = "txIds_";
+  // each ring alternates between its file and the file of this suffix
+  private static final String ALTERNATE = ".alt";
+
+  private final Path dir;
+  private final long span;
+  private final Path properties;
+  private final Ring[] rings = new Ring[2];
+  private int active;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  public TxIdIndex(Path dir, long span) {
+    this.dir = dir;
+    this.span = span;
+    this.properties = Paths.get(dir.toString(), "txIds.properties");
+  }
+
+  /**
+   * Maps the tables left by the last close.
+   *
+   * @return false if they do not match {@code currentBlockNum} and were emptied instead.
+   */
+  public boolean open(long currentBlockNum) {
+    FileUtil.createDirIfNotExists(dir.toString());
+    try {
+      Properties p = load(currentBlockNum);
+      active = Integer.parseInt(p.getProperty("activeRing"));
+      for (int i = 0; i < rings.length; i++) {
+        rings[i] = Ring.load(Paths.get(dir.toString(), p.getProperty("ring" + i, PREFIX + i)));
+      }
+      logger.info("Load tx id index at {}, active ring: {}, size: {}.", currentBlockNum, active,
+          size());
+      deleteStale();
+      return true;
+    } catch (Exception e) {
+      logger.info("Load tx id index failed, {}.", e.getMessage());
+    }
+    try {
+      for (int i = 0; i < rings.length; i++) {
+        if (rings[i] == null) {
+          rings[i] = Ring.create(Paths.get(dir.toString(), PREFIX + i), MIN_CAPACITY,
+              INVALID_BLOCK);
+        } else {
+          rings[i] = rings[i].replace(MIN_CAPACITY, INVALID_BLOCK);
+        }
+      }
+      active = 0;
+    } catch (IOException e) {
+      throw new IllegalStateException("create tx id index failed", e);
+    }
+    deleteStale();
+    return false;
+  }
+
+  // the properties are removed once read, a crash before the next close leaves none
+  private Properties load(long currentBlockNum) throws IOException {
+    try (Reader r = new InputStreamReader(new BufferedInputStream(Files.newInputStream(
+        properties, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE)),
+        StandardCharsets.UTF_8)) {
+      Properties p = new Properties();
+      p.load(r);
+      long blockNum = Long.parseLong(p.getProperty("currentBlockNum"));
+      if (blockNum != currentBlockNum) {
+        throw new IllegalStateException(String.format(
+            "currentBlockNum not match. index: %d, db: %d", blockNum, currentBlockNum));
+      }
+      return p;
+    }
+  }
+
+  // left by a crash, or by a replaced table whose file could not be deleted while mapped
+  private void deleteStale() {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*")) {
+      for (Path file : files) {
+        if (!file.getFileName().equals(rings[0].file.getFileName())
+            && !file.getFileName().equals(rings[1].file.getFileName())) {
+          Files.deleteIfExists(file);
+        }
+      }
+    } catch (IOException e) {
+      logger.warn("Delete stale tx id index files failed, {}.", e.getMessage());
+    }
+  }
+
+  public boolean contains(byte[] key) {
+    long[] id = id(key);
+    lock.readLock().lock();
+    try {
+      return rings[active].find(id) >= 0 || rings[1 - active].find(id) >= 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public void put(byte[] key, long blockNum) {
+    long[] id = id(key);
+    lock.writeLock().lock();
+    try {
+      Ring ring = rings[active];
+      if (ring.startBlock == INVALID_BLOCK) {
+        ring.setStartBlock(blockNum);
+      } else if (blockNum - ring.startBlock > span) {
+        // sized for as many ids as the ring it replaces
+        rings[1 - active] = rings[1 - active].replace(capacityFor(ring.count), blockNum);
+        active = 1 - active;
+        logger.info("Tx id index ring is full (size = {}), rotate at {}.", ring.count, blockNum);
+        ring = rings[active];
+      }
+      if (ring.find(id) >= 0 || rings[1 - active].find(id) >= 0) {
+        return;
+      }
+      if ((ring.count + 1) * 4 > ring.capacity * 3) {
+        ring = ring.grow();
+        rings[active] = ring;
+      }
+      ring.add(id, blockNum);
+    } catch (IOException e) {
+      throw new IllegalStateException("write tx id index failed", e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public long size() {
+    lock.readLock().lock();
+    try {
+      return rings[0].count + rings[1].count;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Syncs the tables and records that they hold every id up to {@code currentBlockNum}.
+   */
+  public void close(long currentBlockNum) {
+    lock.writeLock().lock();
+    try {
+      for (Ring ring : rings) {
+        ring.force();
+        ring.close();
+      }
+      try (Writer w = Files.newBufferedWriter(properties, StandardCharsets.UTF_8)) {
+        Properties p = new Properties();
+        p.setProperty("currentBlockNum", String.valueOf(currentBlockNum));
+        p.setProperty("activeRing", String.valueOf(active));
+        for (int i = 0; i < rings.length; i++) {
+          p.setProperty("ring" + i, rings[i].file.getFileName().toString());
+        }
+        p.store(w, "Generated by the application.  PLEASE DO NOT EDIT! ");
+      }
+      logger.info("Close tx id index at {}, active ring: {}.", currentBlockNum, active);
+    } catch (IOException e) {
+      logger.warn("Close tx id index failed, {}.", e.getMessage());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static long capacityFor(long count) {
+    long capacity = MIN_CAPACITY;
+    while (capacity * 3 / 4 <= count) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  // transaction ids are hashes already, any other key is hashed to the same size
+  private static long[] id(byte[] key) {
+    ByteBuffer buffer = ByteBuffer.wrap(key.length == ID_SIZE ? key : Sha256Hash.hash(true, key));
+    long[] id = new long[ID_SIZE / 8];
+    for (int i = 0; i < id.length; i++) {
+      id[i] = buffer.getLong();
+    }
+    return id;
+  }
+
+  private static class Ring {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] chunks;
+    private final long capacity;
+    private long startBlock;
+    private long count;
+
+    private Ring(Path file, FileChannel channel, long capacity) throws IOException {
+      this.file = file;
+      this.channel = channel;
+      this.capacity = capacity;
+      this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+      this.chunks = new MappedByteBuffer[(int) ((capacity + CHUNK_MASK) >>> CHUNK_BITS)];
+      for (int i = 0; i < chunks.length; i++) {
+        long slots = Math.min(CHUNK_MASK + 1, capacity - ((long) i << CHUNK_BITS));
+        chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+            HEADER_SIZE + ((long) i << CHUNK_BITS) * SLOT_SIZE, slots * SLOT_SIZE);
+      }
+    }
+
+    static Ring create(Path file, long capacity, long startBlock) throws IOException {
+      Files.deleteIfExists(file);
+      try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+        raf.setLength(HEADER_SIZE + capacity * SLOT_SIZE);
+      }
+      Ring ring = new Ring(file, FileChannel.open(file, StandardOpenOption.READ,
+          StandardOpenOption.WRITE), capacity);
+      ring.header.putLong(0, MAGIC);
+      ring.header.putLong(8, capacity);
+      ring.setStartBlock(startBlock);
+      ring.setCount(0);
+      return ring;
+    }
+
+    static Ring load(Path file) throws IOException {
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+      channel.read(buffer, 0);
+      long capacity = buffer.getLong(8);
+      if (buffer.getLong(0) != MAGIC || Long.bitCount(capacity) != 1
+          || channel.size() != HEADER_SIZE + capacity * SLOT_SIZE) {
+        channel.close();
+        throw new IllegalStateException("invalid tx id index file " + file);
+      }
+      Ring ring = new Ring(file, channel, capacity);
+      ring.startBlock = buffer.getLong(16);
+      ring.count = buffer.getLong(24);
+      return ring;
+    }
+
+    void setStartBlock(long startBlock) {
+      this.startBlock = startBlock;
+      header.putLong(16, startBlock);
+    }
+
+    void setCount(long count) {
+      this.count = count;
+      header.putLong(24, count);
+    }
+
+    /**
+     * @return the slot holding {@code id}, or -1 - the empty slot it would go to.
+     */
+    long find(long[] id) {
+      long mask = capacity - 1;
+      for (long i = id[0] & mask; ; i = (i + 1) & mask) {
+        MappedByteBuffer chunk = chunks[(int) (i >>> CHUNK_BITS)];
+        int pos = (int) (i & CHUNK_MASK) * SLOT_SIZE;
+        if (chunk.getLong(pos + ID_SIZE) == 0) {
+          return -1 - i;
+        }
+        if (chunk.getLong(pos) == id[0] && chunk.getLong(pos + 8) == id[1]
+            && chunk.getLong(pos + 16) == id[2] && chunk.getLong(pos + 24) == id[3]) {
+          return i;
+        }
+      }
+    }
+
+    // the caller checked that id is absent and that there is room
+    void add(long[] id, long blockNum) {
+      long i = -1 - find(id);
+      MappedByteBuffer chunk = chunks[(int) (i >>> CHUNK_BITS)];
+      int pos = (int) (i & CHUNK_MASK) * SLOT_SIZE;
+      for (int k = 0; k < id.length; k++) {
+        chunk.putLong(pos + k * 8, id[k]);
+      }
+      chunk.putLong(pos + ID_SIZE, blockNum + 1);
+      setCount(count + 1);
+    }
+
+    /**
+     * @return an empty table of {@code capacity} that replaces this one.
+     */
+    Ring replace(long capacity, long startBlock) throws IOException {
+      Ring next = create(alternate(), capacity, startBlock);
+      delete();
+      return next;
+    }
+
+    /**
+     * Rehashes the ids into a table twice as large that replaces this one.
+     */
+    Ring grow() throws IOException {
+      Ring bigger = create(alternate(), capacity << 1, startBlock);
+      long[] id = new long[ID_SIZE / 8];
+      for (long i = 0; i < capacity; i++) {
+        MappedByteBuffer chunk = chunks[(int) (i >>> CHUNK_BITS)];
+        int pos = (int) (i & CHUNK_MASK) * SLOT_SIZE;
+        long block = chunk.getLong(pos + ID_SIZE);
+        if (block != 0) {
+          for (int k = 0; k < id.length; k++) {
+            id[k] = chunk.getLong(pos + k * 8);
+          }
+          bigger.add(id, block - 1);
+        }
+      }
+      bigger.force();
+      delete();
+      return bigger;
+    }
+
+    private Path alternate() {
+      String name = file.getFileName().toString();
+      return file.resolveSibling(name.endsWith(ALTERNATE)
+          ? name.substring(0, name.length() - ALTERNATE.length()) : name + ALTERNATE);
+    }
+
+    /**
+     * Closes the table and deletes its file. The mappings are released once the ring is no longer
+     * referenced, where a mapped file cannot be deleted it is left to the next open.
+     */
+    private void delete() throws IOException {
+      close();
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        logger.warn("Delete tx id index file {} failed, {}.", file, e.getMessage());
+      }
+    }
+
+    void force() {
+      header.force();
+      for (MappedByteBuffer chunk : chunks) {
+        chunk.force();
+      }
+    }
+
+    void close() throws IOException {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,301 @@
+package org.tron.core.db2.core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import lombok.Getter;
+import org.tron.core.db2.common.WrappedByteArray;
+
+/**
+ * Read/write set of one transaction across all chainbase stores.
+ *
+ * <p>While an access set is bound to the current thread, every {@link Chainbase} records the keys
+ * it serves. A speculative access set additionally redirects the thread's reads and writes to a
+ * private {@link SnapshotImpl} layer per store, so a transaction can run against the shared head
+ * without publishing anything to it.
+ *
+ * <p>Shared counters updated by most transactions are recorded through {@link #commute} as
+ * {@link Delta}s instead of reads, so such updates do not conflict with each other and are
+ * merged into the value at the head when the set is applied.
+ */
+public class AccessSet {
+
+  private static final ThreadLocal<AccessSet> CURRENT = new ThreadLocal<>();
+
+  @Getter
+  private final boolean speculative;
+  // set whose layers the layers of this set are stacked on
+  private final AccessSet parent;
+  // layers are built on a state pinned by SnapshotManager#pinHead rather than on the head
+  private final boolean pinned;
+  // dbName -> keys read from shared state
+  private final Map<String, Set<WrappedByteArray>> reads = new HashMap<>();
+  // dbName -> key -> value written, a null value means delete
+  private final Map<String, Map<WrappedByteArray, WrappedByteArray>> writes = new HashMap<>();
+  // dbName -> key -> update of the shared value, for the written keys that were not read
+  private final Map<String, Map<WrappedByteArray, Delta>> deltas = new HashMap<>();
+  // stores that were scanned by iterator or range query
+  private final Set<String> rangeReads = new HashSet<>();
+  private final Map<Chainbase, Snapshot> layers = new IdentityHashMap<>();
+  // keys whose reads are not recorded, while a commutative update of them runs
+  private String commuteDb;
+  private Set<WrappedByteArray> commuteKeys = Collections.emptySet();
+
+  public AccessSet(boolean speculative) {
+    this(speculative, null, false);
+  }
+
+  /**
+   * A speculative set stacked on {@code parent}, it sees the writes of the parent and is
+   * discarded, or moved into the parent by {@link #publish()}.
+   */
+  public AccessSet(AccessSet parent) {
+    this(true, parent, false);
+  }
+
+  private AccessSet(boolean speculative, AccessSet parent, boolean pinned) {
+    this.speculative = speculative;
+    this.parent = parent;
+    this.pinned = pinned;
+  }
+
+  static AccessSet pinned() {
+    return new AccessSet(true, null, true);
+  }
+
+  public static AccessSet current() {
+    return CURRENT.get();
+  }
+
+  public static boolean isSpeculating() {
+    AccessSet accessSet = CURRENT.get();
+    return accessSet != null && accessSet.speculative;
+  }
+
+  public void bind() {
+    CURRENT.set(this);
+  }
+
+  public static void unbind() {
+    CURRENT.remove();
+  }
+
+  Snapshot layer(Chainbase chainbase, Snapshot head) {
+    return layers.computeIfAbsent(chainbase, c -> parent == null
+        ? new SnapshotImpl(head, false, !pinned)
+        : new SnapshotImpl(parent.layer(c, head), false, false));
+  }
+
+  /**
+   * Moves the writes of this set into the layers of its parent.
+   */
+  public void publish() {
+    layers.forEach((chainbase, layer) ->
+        parent.layer(chainbase, layer.getPrevious()).merge(layer));
+    parent.mergeWrites(this);
+  }
+
+  /**
+   * Runs {@code update} of the value of {@code key} in {@code dbName} as the commutative update
+   * {@code delta}: the reads of {@code key} and of the {@code related} keys the update needs
+   * are not recorded, and the write of {@code key} is merged at the head by {@code delta} when
+   * the set is applied. {@code update} returns false when it did not hold, its reads are then
+   * recorded as usual.
+   */
+  public static boolean commute(String dbName, byte[] key, Delta delta, BooleanSupplier update,
+      byte[]... related) {
+    AccessSet accessSet = CURRENT.get();
+    if (accessSet == null) {
+      return update.getAsBoolean();
+    }
+    WrappedByteArray k = WrappedByteArray.copyOf(key);
+    Map<WrappedByteArray, WrappedByteArray> own = accessSet.writes.get(dbName);
+    Map<WrappedByteArray, Delta> ownDeltas = accessSet.deltas.get(dbName);
+    // a value written absolutely before stays absolute
+    boolean absolute = own != null && own.containsKey(k)
+        && (ownDeltas == null || !ownDeltas.containsKey(k));
+    Set<WrappedByteArray> keys = new HashSet<>();
+    keys.add(k);
+    for (byte[] r : related) {
+      keys.add(WrappedByteArray.copyOf(r));
+    }
+    accessSet.commuteDb = dbName;
+    accessSet.commuteKeys = keys;
+    boolean updated;
+    try {
+      updated = update.getAsBoolean();
+    } finally {
+      accessSet.commuteDb = null;
+      accessSet.commuteKeys = Collections.emptySet();
+    }
+    if (!updated) {
+      keys.forEach(r -> accessSet.recordRead(dbName, r.getBytes()));
+    } else if (!absolute) {
+      accessSet.deltas.computeIfAbsent(dbName, n -> new HashMap<>()).merge(k, delta,
+          Delta::andThen);
+    }
+    return updated;
+  }
+
+  private boolean commuting(String dbName, WrappedByteArray key) {
+    return dbName.equals(commuteDb) && commuteKeys.contains(key);
+  }
+
+  public void recordRead(String dbName, byte[] key) {
+    WrappedByteArray k = WrappedByteArray.of(key);
+    if (commuting(dbName, k)) {
+      return;
+    }
+    Map<WrappedByteArray, WrappedByteArray> own = writes.get(dbName);
+    Map<WrappedByteArray, Delta> ownDeltas = deltas.get(dbName);
+    if (own != null && own.containsKey(k) && (ownDeltas == null || !ownDeltas.containsKey(k))) {
+      // served by our own write, nothing outside this transaction was observed
+      return;
+    }
+    reads.computeIfAbsent(dbName, n -> new HashSet<>()).add(WrappedByteArray.copyOf(key));
+  }
+
+  void recordRangeRead(String dbName) {
+    rangeReads.add(dbName);
+  }
+
+  void recordWrite(String dbName, byte[] key, byte[] value) {
+    WrappedByteArray k = WrappedByteArray.copyOf(key);
+    if (!commuting(dbName, k)) {
+      Map<WrappedByteArray, Delta> ownDeltas = deltas.get(dbName);
+      if (ownDeltas != null) {
+        ownDeltas.remove(k);
+      }
+    }
+    writes.computeIfAbsent(dbName, n -> new HashMap<>())
+        .put(k, value == null ? null : WrappedByteArray.copyOf(value));
+  }
+
+  public Map<String, Map<WrappedByteArray, WrappedByteArray>> getWrites() {
+    return Collections.unmodifiableMap(writes);
+  }
+
+  /**
+   * Adds the keys written by {@code other} to this set's write keys, used to accumulate the
+   * writes of every transaction already committed in a block.
+   */
+  public void mergeWrites(AccessSet other) {
+    other.writes.forEach((db, kv) -> {
+      Map<WrappedByteArray, WrappedByteArray> own = writes.computeIfAbsent(db,
+          n -> new HashMap<>());
+      Map<WrappedByteArray, Delta> ownDeltas = deltas.computeIfAbsent(db, n -> new HashMap<>());
+      Map<WrappedByteArray, Delta> otherDeltas = other.deltas.getOrDefault(db,
+          Collections.emptyMap());
+      kv.keySet().forEach(k -> {
+        Delta delta = otherDeltas.get(k);
+        if (delta == null) {
+          ownDeltas.remove(k);
+        } else if (!own.containsKey(k) || ownDeltas.containsKey(k)) {
+          ownDeltas.merge(k, delta, Delta::andThen);
+        }
+      });
+      own.putAll(kv);
+    });
+  }
+
+  /**
+   * Drops the writes of {@code keys} to {@code dbName}.
+   */
+  public void removeWrites(String dbName, Collection<byte[]> keys) {
+    Map<WrappedByteArray, WrappedByteArray> written = writes.get(dbName);
+    if (written != null) {
+      keys.forEach(key -> written.remove(WrappedByteArray.of(key)));
+    }
+    Map<WrappedByteArray, Delta> updated = deltas.get(dbName);
+    if (updated != null) {
+      keys.forEach(key -> updated.remove(WrappedByteArray.of(key)));
+    }
+  }
+
+  /**
+   * @return true if this transaction observed any key that {@code committed} has written, i.e.
+   *     its speculative result is stale and it has to be re-executed.
+   */
+  public boolean conflictsWith(AccessSet committed) {
+    for (Map.Entry<String, Map<WrappedByteArray, WrappedByteArray>> e
+        : committed.writes.entrySet()) {
+      if (e.getValue().isEmpty()) {
+        continue;
+      }
+      if (rangeReads.contains(e.getKey())) {
+        return true;
+      }
+      Set<WrappedByteArray> read = reads.get(e.getKey());
+      if (read == null) {
+        continue;
+      }
+      Set<WrappedByteArray> small = read.size() < e.getValue().size()
+          ? read : e.getValue().keySet();
+      Set<WrappedByteArray> large = small == read ? e.getValue().keySet() : read;
+      for (WrappedByteArray key : small) {
+        if (large.contains(key)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if both sets wrote exactly the same values to every store in {@code dbNames},
+   *     and updated the same shared values by the same deltas.
+   */
+  public boolean sameWrites(AccessSet other, Set<String> dbNames) {
+    for (String dbName : dbNames) {
+      Map<WrappedByteArray, Delta> updated = deltas.getOrDefault(dbName, Collections.emptyMap());
+      if (!Objects.equals(updated,
+          other.deltas.getOrDefault(dbName, Collections.emptyMap()))) {
+        return false;
+      }
+      // the values written for the deltas depend on the state each set ran on
+      Map<WrappedByteArray, WrappedByteArray> written = new HashMap<>(
+          writes.getOrDefault(dbName, Collections.emptyMap()));
+      Map<WrappedByteArray, WrappedByteArray> otherWritten = new HashMap<>(
+          other.writes.getOrDefault(dbName, Collections.emptyMap()));
+      written.keySet().removeAll(updated.keySet());
+      otherWritten.keySet().removeAll(updated.keySet());
+      if (!written.equals(otherWritten)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the values to write for this set by store, with the deltas merged into the values
+   *     {@code current} gives for them at the head, or null if a delta no longer holds.
+   */
+  Map<String, Map<WrappedByteArray, WrappedByteArray>> resolve(
+      BiFunction<String, byte[], byte[]> current) {
+    Map<String, Map<WrappedByteArray, WrappedByteArray>> values = new HashMap<>();
+    for (Map.Entry<String, Map<WrappedByteArray, WrappedByteArray>> e : writes.entrySet()) {
+      Map<WrappedByteArray, Delta> updated = deltas.get(e.getKey());
+      if (updated == null || updated.isEmpty()) {
+        values.put(e.getKey(), e.getValue());
+        continue;
+      }
+      Map<WrappedByteArray, WrappedByteArray> resolved = new HashMap<>(e.getValue());
+      for (Map.Entry<WrappedByteArray, Delta> d : updated.entrySet()) {
+        byte[] value = d.getValue().apply(current.apply(e.getKey(), d.getKey().getBytes()));
+        if (value == null) {
+          return null;
+        }
+        resolved.put(d.getKey(), WrappedByteArray.of(value));
+      }
+      values.put(e.getKey(), resolved);
+    }
+    return values;
+  }
+}
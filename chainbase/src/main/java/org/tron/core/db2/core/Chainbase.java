@@ -1,6 +1,5 @@
 package org.tron.core.db2.core;
 
-import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -10,9 +9,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-import org.tron.common.utils.ByteUtil;
 import org.tron.common.utils.Pair;
 import org.tron.core.capsule.utils.MarketUtils;
 import org.tron.core.db2.common.IRevokingDB;
@@ -35,7 +34,9 @@ public class Chainbase implements IRevokingDB {
   //true:fullnode, false:soliditynode
   private ThreadLocal<Cursor> cursor = new ThreadLocal<>();
   private ThreadLocal<Long> offset = new ThreadLocal<>();
-  private Snapshot head;
+  private volatile Snapshot head;
+  // told of every key whose value at the head may have changed
+  private volatile Consumer<byte[]> invalidationListener;
 
   public Chainbase(Snapshot head) {
     this.head = head;
@@ -69,12 +70,12 @@ public class Chainbase implements IRevokingDB {
 
   private Snapshot head() {
     if (cursor.get() == null) {
-      return head;
+      return speculative(head);
     }
 
     switch (cursor.get()) {
       case HEAD:
-        return head;
+        return speculative(head);
       case SOLIDITY:
         return head.getSolidity();
       case PBFT:
@@ -96,14 +97,91 @@ public class Chainbase implements IRevokingDB {
     }
   }
 
+  private Snapshot speculative(Snapshot head) {
+    AccessSet accessSet = AccessSet.current();
+    if (accessSet != null && accessSet.isSpeculative()) {
+      return accessSet.layer(this, head);
+    }
+    return head;
+  }
+
+  private void recordRangeRead() {
+    AccessSet accessSet = AccessSet.current();
+    if (accessSet != null) {
+      accessSet.recordRangeRead(getDbName());
+    }
+  }
+
   public Snapshot getHead() {
     return head();
   }
 
   public synchronized void setHead(Snapshot head) {
+    Consumer<byte[]> listener = invalidationListener;
+    if (listener != null && Snapshot.isImpl(this.head) && head == this.head.getPrevious()) {
+      // the keys of a dropped layer fall back to older values
+      Streams.stream(((SnapshotImpl) this.head).db).forEach(e -> listener.accept(
+          e.getKey().getBytes()));
+    }
     this.head = head;
   }
 
+  /**
+   * Records the keys written by the newest layer, as writes of {@code accessSet}.
+   */
+  synchronized void recordHeadWrites(AccessSet accessSet) {
+    if (!Snapshot.isImpl(head)) {
+      return;
+    }
+    Streams.stream(((SnapshotImpl) head).db).forEach(e -> accessSet.recordWrite(getDbName(),
+        e.getKey().getBytes(), e.getValue().getBytes()));
+  }
+
+  /**
+   * @return the values the keys written by the newest layer had below it, null for the keys
+   *     that were absent.
+   */
+  synchronized Map<WrappedByteArray, WrappedByteArray> headUndo() {
+    Map<WrappedByteArray, WrappedByteArray> undo = new HashMap<>();
+    if (!Snapshot.isImpl(head)) {
+      return undo;
+    }
+    Snapshot previous = head.getPrevious();
+    Streams.stream(((SnapshotImpl) head).db).forEach(e -> {
+      byte[] value = previous.get(e.getKey().getBytes());
+      undo.put(e.getKey(), value == null ? null : WrappedByteArray.of(value));
+    });
+    return undo;
+  }
+
+  /**
+   * Writes {@code values} at the head, a null value deletes the key.
+   */
+  synchronized void apply(Map<WrappedByteArray, WrappedByteArray> values) {
+    values.forEach((key, value) -> {
+      if (value == null) {
+        delete(key.getBytes());
+      } else {
+        put(key.getBytes(), value.getBytes());
+      }
+    });
+  }
+
+  /**
+   * Registers the listener told of the keys written, deleted or reverted at the head, for caches
+   * kept above the store.
+   */
+  public void setInvalidationListener(Consumer<byte[]> listener) {
+    this.invalidationListener = listener;
+  }
+
+  private void invalidate(byte[] key) {
+    Consumer<byte[]> listener = invalidationListener;
+    if (listener != null) {
+      listener.accept(key);
+    }
+  }
+
   /**
    * close the database.
    */
@@ -122,11 +200,21 @@ public class Chainbase implements IRevokingDB {
   @Override
   public synchronized void put(byte[] key, byte[] value) {
     head().put(key, value);
+    invalidate(key);
+    AccessSet accessSet = AccessSet.current();
+    if (accessSet != null) {
+      accessSet.recordWrite(getDbName(), key, value);
+    }
   }
 
   @Override
   public synchronized void delete(byte[] key) {
     head().remove(key);
+    invalidate(key);
+    AccessSet accessSet = AccessSet.current();
+    if (accessSet != null) {
+      accessSet.recordWrite(getDbName(), key, null);
+    }
   }
 
   @Override
@@ -141,6 +229,7 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public byte[] getFromRoot(byte[] key) throws ItemNotFoundException {
+    recordRangeRead();
     byte[] value = head().getRoot().get(key);
     if (value == null) {
       throw new ItemNotFoundException();
@@ -150,6 +239,10 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public byte[] getUnchecked(byte[] key) {
+    AccessSet accessSet = AccessSet.current();
+    if (accessSet != null) {
+      accessSet.recordRead(getDbName(), key);
+    }
     return head().get(key);
   }
 
@@ -160,11 +253,13 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public synchronized Iterator<Map.Entry<byte[], byte[]>> iterator() {
+    recordRangeRead();
     return head().iterator();
   }
 
   @Override
   public Set<byte[]> getValuesNext(byte[] key, long limit) {
+    recordRangeRead();
     return getValuesNext(head(), key, limit);
   }
 
@@ -174,38 +269,17 @@ public class Chainbase implements IRevokingDB {
       return Collections.emptySet();
     }
 
-    Map<WrappedByteArray, WrappedByteArray> collection = new HashMap<>();
-    if (head.getPrevious() != null) {
-      ((SnapshotImpl) head).collect(collection);
-    }
-
-    Map<WrappedByteArray, WrappedByteArray> levelDBMap = new HashMap<>();
-
-    if (((SnapshotRoot) head.getRoot()).db.getClass() == LevelDB.class) {
-      ((LevelDB) ((SnapshotRoot) head.getRoot()).db).getDb().getNext(key, limit).entrySet().stream()
-          .map(e -> Maps
-              .immutableEntry(WrappedByteArray.of(e.getKey()), WrappedByteArray.of(e.getValue())))
-          .forEach(e -> levelDBMap.put(e.getKey(), e.getValue()));
-    } else if (((SnapshotRoot) head.getRoot()).db.getClass() == RocksDB.class) {
-      ((RocksDB) ((SnapshotRoot) head.getRoot()).db).getDb().getNext(key, limit).entrySet().stream()
-          .map(e -> Maps
-              .immutableEntry(WrappedByteArray.of(e.getKey()), WrappedByteArray.of(e.getValue())))
-          .forEach(e -> levelDBMap.put(e.getKey(), e.getValue()));
+    try (MergeIterator iterator = new MergeIterator(head, key, null)) {
+      return Streams.stream(iterator)
+          .limit(limit)
+          .map(Map.Entry::getValue)
+          .collect(Collectors.toSet());
     }
-
-    levelDBMap.putAll(collection);
-
-    return levelDBMap.entrySet().stream()
-        .sorted((e1, e2) -> ByteUtil.compare(e1.getKey().getBytes(), e2.getKey().getBytes()))
-        .filter(e -> ByteUtil.greaterOrEquals(e.getKey().getBytes(), key))
-        .limit(limit)
-        .map(Map.Entry::getValue)
-        .map(WrappedByteArray::getBytes)
-        .collect(Collectors.toSet());
   }
 
   @Override
   public List<byte[]> getKeysNext(byte[] key, long limit) {
+    recordRangeRead();
     return getKeysNext(head(), key, limit);
   }
 
@@ -275,6 +349,7 @@ public class Chainbase implements IRevokingDB {
   // for blockstore
   @Override
   public Set<byte[]> getlatestValues(long limit) {
+    recordRangeRead();
     return getlatestValues(head(), limit);
   }
 
@@ -311,6 +386,7 @@ public class Chainbase implements IRevokingDB {
   // for accout-trace
   @Override
   public Map<byte[], byte[]> getNext(byte[] key, long limit) {
+    recordRangeRead();
     return getNext(head(), key, limit);
   }
 
@@ -320,60 +396,18 @@ public class Chainbase implements IRevokingDB {
       return Collections.emptyMap();
     }
 
-    Map<WrappedByteArray, WrappedByteArray> collection = new HashMap<>();
-    if (head.getPrevious() != null) {
-      ((SnapshotImpl) head).collect(collection);
-    }
-
-    Map<WrappedByteArray, WrappedByteArray> levelDBMap = new HashMap<>();
-
-    if (((SnapshotRoot) head.getRoot()).db.getClass() == LevelDB.class) {
-      ((LevelDB) ((SnapshotRoot) head.getRoot()).db).getDb().getNext(key, limit).entrySet().stream()
-          .map(e -> Maps
-              .immutableEntry(WrappedByteArray.of(e.getKey()), WrappedByteArray.of(e.getValue())))
-          .forEach(e -> levelDBMap.put(e.getKey(), e.getValue()));
-    } else if (((SnapshotRoot) head.getRoot()).db.getClass() == RocksDB.class) {
-      ((RocksDB) ((SnapshotRoot) head.getRoot()).db).getDb().getNext(key, limit).entrySet().stream()
-          .map(e -> Maps
-              .immutableEntry(WrappedByteArray.of(e.getKey()), WrappedByteArray.of(e.getValue())))
-          .forEach(e -> levelDBMap.put(e.getKey(), e.getValue()));
+    try (MergeIterator iterator = new MergeIterator(head, key, null)) {
+      return Streams.stream(iterator)
+          .limit(limit)
+          .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
-
-    levelDBMap.putAll(collection);
-
-    return levelDBMap.entrySet().stream()
-        .map(e -> Maps.immutableEntry(e.getKey().getBytes(), e.getValue().getBytes()))
-        .sorted((e1, e2) -> ByteUtil.compare(e1.getKey(), e2.getKey()))
-        .filter(e -> ByteUtil.greaterOrEquals(e.getKey(), key))
-        .limit(limit)
-        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
   }
 
   public Map<WrappedByteArray, byte[]> prefixQuery(byte[] key) {
-    Map<WrappedByteArray, byte[]> result = prefixQueryRoot(key);
-    Map<WrappedByteArray, byte[]>  snapshot = prefixQuerySnapshot(key);
-    result.putAll(snapshot);
-    result.entrySet().removeIf(e -> e.getValue() == null);
-    return result;
-  }
-
-  private Map<WrappedByteArray, byte[]> prefixQueryRoot(byte[] key) {
-    Map<WrappedByteArray, byte[]> result = new HashMap<>();
-    if (((SnapshotRoot) head.getRoot()).db.getClass() == LevelDB.class) {
-      result = ((LevelDB) ((SnapshotRoot) head.getRoot()).db).getDb().prefixQuery(key);
-    } else if (((SnapshotRoot) head.getRoot()).db.getClass() == RocksDB.class) {
-      result = ((RocksDB) ((SnapshotRoot) head.getRoot()).db).getDb().prefixQuery(key);
-    }
-    return result;
-  }
-
-  private Map<WrappedByteArray, byte[]> prefixQuerySnapshot(byte[] key) {
+    recordRangeRead();
     Map<WrappedByteArray, byte[]> result = new HashMap<>();
-    Snapshot snapshot = head();
-    if (!snapshot.equals(head.getRoot())) {
-      Map<WrappedByteArray, WrappedByteArray> all = new HashMap<>();
-      ((SnapshotImpl) snapshot).collect(all, key);
-      all.forEach((k, v) -> result.put(k, v.getBytes()));
+    try (MergeIterator iterator = new MergeIterator(head(), null, key)) {
+      iterator.forEachRemaining(e -> result.put(WrappedByteArray.of(e.getKey()), e.getValue()));
     }
     return result;
   }
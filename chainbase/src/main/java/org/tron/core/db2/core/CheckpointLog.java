@@ -0,0 +1,117 @@
+package org.tron.core.db2.core;
+
+import com.google.common.collect.Maps;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.utils.FileUtil;
+
+/**
+ * Checkpoint written as append-only log segments, one per flush.
+ *
+ * <p>A segment holds the same entries as a checkpoint store and only becomes visible once it is
+ * completely written, so the stores may be refreshed as soon as {@link #append} returns. It is
+ * deleted when the refresh is done, the segments left by a crash are replayed on start.
+ */
+@Slf4j(topic = "DB")
+class CheckpointLog {
+
+  private static final int MAGIC = 0x63706c67;
+  private static final String SUFFIX = ".log";
+
+  private final Path dir;
+  private long sequence;
+
+  CheckpointLog(Path dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * @return the segments left behind, oldest first.
+   */
+  List<Path> segments() throws IOException {
+    if (!Files.isDirectory(dir)) {
+      return new ArrayList<>();
+    }
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+          .sorted().collect(Collectors.toList());
+    }
+  }
+
+  Path append(Map<byte[], byte[]> batch, boolean sync) throws IOException {
+    FileUtil.createDirIfNotExists(dir.toString());
+    Path segment = Paths.get(dir.toString(),
+        String.format("%020d", Math.max(sequence, System.currentTimeMillis())) + SUFFIX);
+    sequence = Math.max(sequence, System.currentTimeMillis()) + 1;
+    Path tmp = Paths.get(segment + ".tmp");
+    CRC32 crc = new CRC32();
+    try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+         DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+             new CheckedOutputStream(file, crc)))) {
+      out.writeInt(MAGIC);
+      for (Map.Entry<byte[], byte[]> e : batch.entrySet()) {
+        out.writeInt(e.getKey().length);
+        out.write(e.getKey());
+        out.writeInt(e.getValue().length);
+        out.write(e.getValue());
+      }
+      out.writeInt(-1);
+      out.writeInt(batch.size());
+      out.flush();
+      out.writeLong(crc.getValue());
+      out.flush();
+      if (sync) {
+        file.getFD().sync();
+      }
+    }
+    Files.move(tmp, segment, StandardCopyOption.ATOMIC_MOVE);
+    return segment;
+  }
+
+  List<Map.Entry<byte[], byte[]>> read(Path segment) throws IOException {
+    List<Map.Entry<byte[], byte[]>> entries = new ArrayList<>();
+    CRC32 crc = new CRC32();
+    try (CheckedInputStream checked = new CheckedInputStream(
+        new BufferedInputStream(Files.newInputStream(segment)), crc);
+         DataInputStream in = new DataInputStream(checked)) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("bad checkpoint segment " + segment);
+      }
+      int length;
+      while ((length = in.readInt()) >= 0) {
+        byte[] key = new byte[length];
+        in.readFully(key);
+        byte[] value = new byte[in.readInt()];
+        in.readFully(value);
+        entries.add(Maps.immutableEntry(key, value));
+      }
+      int count = in.readInt();
+      long expect = crc.getValue();
+      if (count != entries.size() || in.readLong() != expect) {
+        throw new IOException("corrupted checkpoint segment " + segment);
+      }
+    }
+    return entries;
+  }
+
+  void delete(Path segment) throws IOException {
+    Files.deleteIfExists(segment);
+  }
+}
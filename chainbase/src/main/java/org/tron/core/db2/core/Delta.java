@@ -0,0 +1,99 @@
+package org.tron.core.db2.core;
+
+import java.util.Objects;
+import org.tron.common.utils.ByteArray;
+
+/**
+ * An update of one value that commutes with the updates of other transactions, recorded by
+ * {@link AccessSet#commute} and merged into the value at the head when the writes of the set
+ * are applied, instead of overwriting it.
+ *
+ * <p>Two deltas are equal when they update any value the same way.
+ */
+public interface Delta {
+
+  /**
+   * @return the value after the update of {@code current}, null if the update no longer holds
+   *     on it and the transaction has to be executed again.
+   */
+  byte[] apply(byte[] current);
+
+  default Delta andThen(Delta next) {
+    return new Chain(this, next);
+  }
+
+  /**
+   * @return the delta adding {@code amount} to a long value.
+   */
+  static Delta add(long amount) {
+    return new Add(amount);
+  }
+
+  final class Add implements Delta {
+
+    private final long amount;
+
+    private Add(long amount) {
+      this.amount = amount;
+    }
+
+    @Override
+    public byte[] apply(byte[] current) {
+      return current == null ? null : ByteArray.fromLong(ByteArray.toLong(current) + amount);
+    }
+
+    @Override
+    public Delta andThen(Delta next) {
+      if (next instanceof Add) {
+        return new Add(amount + ((Add) next).amount);
+      }
+      return Delta.super.andThen(next);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Add && ((Add) o).amount == amount;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(amount);
+    }
+  }
+
+  final class Chain implements Delta {
+
+    private final Delta first;
+    private final Delta second;
+
+    private Chain(Delta first, Delta second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public byte[] apply(byte[] current) {
+      byte[] value = first.apply(current);
+      return value == null ? null : second.apply(value);
+    }
+
+    @Override
+    public Delta andThen(Delta next) {
+      return new Chain(first, second.andThen(next));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Chain)) {
+        return false;
+      }
+      Chain chain = (Chain) o;
+      return first.equals(chain.first) && second.equals(chain.second);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(first, second);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package org.tron.core.db2.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.tron.core.db2.common.Key;
+import org.tron.core.db2.common.Value;
+
+/**
+ * Flat index over the in-memory snapshots of one chainbase.
+ *
+ * <p>Maps every key held by a linked {@link SnapshotImpl} to the newest snapshot holding it, so a
+ * read from the head costs one lookup instead of one hash probe per layer. It is kept up to date
+ * on put, merge, retreat and flush, and also accounts the bytes held by the layers.
+ */
+public final class LayerIndex {
+
+  private final Map<Key, SnapshotImpl> newest = new ConcurrentHashMap<>();
+  private final AtomicLong bytes = new AtomicLong();
+
+  static long sizeOf(Key key, Value value) {
+    return (long) key.length() + (value == null ? 0 : value.length());
+  }
+
+  SnapshotImpl get(Key key) {
+    return newest.get(key);
+  }
+
+  /**
+   * Marks {@code snapshot} as holder of the key unless a newer snapshot already holds it.
+   */
+  void put(Key key, SnapshotImpl snapshot) {
+    newest.compute(key, (k, current) ->
+        current == null || current.getHeight() <= snapshot.getHeight() ? snapshot : current);
+  }
+
+  void replace(Key key, SnapshotImpl from, SnapshotImpl to) {
+    newest.replace(key, from, to);
+  }
+
+  void remove(Key key, SnapshotImpl snapshot) {
+    newest.remove(key, snapshot);
+  }
+
+  void addBytes(long delta) {
+    bytes.addAndGet(delta);
+  }
+
+  public long getBytes() {
+    return bytes.get();
+  }
+
+  public int size() {
+    return newest.size();
+  }
+}
@@ -0,0 +1,224 @@
+package org.tron.core.db2.core;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Streams;
+import com.google.common.primitives.UnsignedBytes;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.core.capsule.utils.MarketUtils;
+import org.tron.core.db.common.iterator.DBIterator;
+
+/**
+ * Ordered view of a snapshot and all the snapshots below it, down to the root db.
+ *
+ * <p>Every in-memory snapshot contributes the entries in range sorted by key, the root db is read
+ * lazily through its own iterator. They are merged as a k-way merge where the newest snapshot
+ * wins for a key held by several of them, and deleted keys are skipped. Nothing is copied but the
+ * entries of the in-memory snapshots in range, so scans of the root are bounded in memory.
+ *
+ * <p>The root iterator is released when the merge is exhausted, or by {@link #close()}.
+ */
+@Slf4j(topic = "DB")
+final class MergeIterator implements Iterator<Map.Entry<byte[], byte[]>>, Closeable {
+
+  // the only db ordered by a custom comparator, see MarketPairPriceToOrderStore
+  private static final String MARKET_PAIR_PRICE_TO_ORDER = "market_pair_price_to_order";
+
+  private final Comparator<byte[]> comparator;
+  private final PriorityQueue<Source> queue;
+  private final Iterator<Map.Entry<byte[], byte[]>> rootIterator;
+  private final byte[] prefix;
+  private Map.Entry<byte[], byte[]> next;
+  private boolean done;
+
+  /**
+   * @param head the newest snapshot to read from.
+   * @param from first key to return, null to start from the first key.
+   * @param prefix only return keys starting with it, null for no restriction.
+   */
+  MergeIterator(Snapshot head, byte[] from, byte[] prefix) {
+    this.comparator = MARKET_PAIR_PRICE_TO_ORDER.equals(head.getDbName())
+        ? MarketUtils::comparePriceKey : UnsignedBytes.lexicographicalComparator();
+    this.prefix = prefix;
+    byte[] start = from == null ? prefix : from;
+    this.queue = new PriorityQueue<>((s1, s2) -> {
+      int ret = comparator.compare(s1.key, s2.key);
+      return ret != 0 ? ret : Integer.compare(s1.rank, s2.rank);
+    });
+
+    int rank = 0;
+    Snapshot snapshot = head;
+    while (Snapshot.isImpl(snapshot)) {
+      offer(new LayerSource(rank++, sorted((SnapshotImpl) snapshot, start)));
+      snapshot = snapshot.getPrevious();
+    }
+
+    rootIterator = snapshot == null ? null : snapshot.iterator();
+    if (rootIterator != null) {
+      offer(new RootSource(rank, rootIterator, start));
+    }
+  }
+
+  private List<Map.Entry<byte[], byte[]>> sorted(SnapshotImpl snapshot, byte[] start) {
+    List<Map.Entry<byte[], byte[]>> entries = new ArrayList<>();
+    Streams.stream(snapshot.db).forEach(e -> {
+      byte[] key = e.getKey().getBytes();
+      if ((start == null || comparator.compare(key, start) >= 0)
+          && (prefix == null || startsWith(key, prefix))) {
+        entries.add(Maps.immutableEntry(key, e.getValue().getBytes()));
+      }
+    });
+    entries.sort((e1, e2) -> comparator.compare(e1.getKey(), e2.getKey()));
+    return entries;
+  }
+
+  private void offer(Source source) {
+    if (source.advance()) {
+      queue.add(source);
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null && !done) {
+      next = computeNext();
+    }
+    return next != null;
+  }
+
+  @Override
+  public Map.Entry<byte[], byte[]> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Map.Entry<byte[], byte[]> entry = next;
+    next = null;
+    return entry;
+  }
+
+  private Map.Entry<byte[], byte[]> computeNext() {
+    while (!queue.isEmpty()) {
+      Source newest = queue.poll();
+      byte[] key = newest.key;
+      byte[] value = newest.value;
+      offer(newest);
+      // the same key in older snapshots is shadowed
+      while (!queue.isEmpty() && comparator.compare(queue.peek().key, key) == 0) {
+        offer(queue.poll());
+      }
+      if (prefix != null && !startsWith(key, prefix)) {
+        break;
+      }
+      if (value != null) {
+        return Maps.immutableEntry(key, value);
+      }
+    }
+    close();
+    return null;
+  }
+
+  private static boolean startsWith(byte[] key, byte[] prefix) {
+    if (key.length < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (key[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void close() {
+    if (done) {
+      return;
+    }
+    done = true;
+    queue.clear();
+    if (rootIterator instanceof Closeable) {
+      try {
+        ((Closeable) rootIterator).close();
+      } catch (IOException e) {
+        logger.error("Close root iterator.", e);
+      }
+    }
+  }
+
+  private abstract static class Source {
+
+    private final int rank;
+    protected byte[] key;
+    // null for a deleted key
+    protected byte[] value;
+
+    Source(int rank) {
+      this.rank = rank;
+    }
+
+    /**
+     * Moves to the next entry, returns false when exhausted.
+     */
+    abstract boolean advance();
+  }
+
+  private static class LayerSource extends Source {
+
+    private final Iterator<Map.Entry<byte[], byte[]>> entries;
+
+    LayerSource(int rank, List<Map.Entry<byte[], byte[]>> entries) {
+      super(rank);
+      this.entries = entries.iterator();
+    }
+
+    @Override
+    boolean advance() {
+      if (!entries.hasNext()) {
+        return false;
+      }
+      Map.Entry<byte[], byte[]> entry = entries.next();
+      key = entry.getKey();
+      value = entry.getValue();
+      return true;
+    }
+  }
+
+  private class RootSource extends Source {
+
+    private final Iterator<Map.Entry<byte[], byte[]>> iterator;
+    private byte[] start;
+
+    RootSource(int rank, Iterator<Map.Entry<byte[], byte[]>> iterator, byte[] start) {
+      super(rank);
+      this.iterator = iterator;
+      if (start != null && iterator instanceof DBIterator) {
+        ((DBIterator) iterator).seek(start);
+      } else {
+        this.start = start;
+      }
+    }
+
+    @Override
+    boolean advance() {
+      while (iterator.hasNext()) {
+        Map.Entry<byte[], byte[]> entry = iterator.next();
+        if (start != null && comparator.compare(entry.getKey(), start) < 0) {
+          continue;
+        }
+        start = null;
+        key = entry.getKey();
+        value = entry.getValue();
+        return true;
+      }
+      return false;
+    }
+  }
+}
@@ -1,16 +1,9 @@
 package org.tron.core.db2.core;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Iterators;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
-import com.google.common.primitives.Bytes;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
 import lombok.Getter;
 import org.tron.core.db2.common.HashDB;
 import org.tron.core.db2.common.Key;
@@ -22,13 +15,42 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
 
   @Getter
   protected Snapshot root;
+  // distance from the root, the root being 0
+  @Getter
+  private final int height;
+  private final LayerIndex index;
+  private boolean linked;
+  private long bytes;
 
   SnapshotImpl(Snapshot snapshot) {
+    this(snapshot, true);
+  }
+
+  /**
+   * @param link false to build a private layer that is not registered as the next snapshot of
+   *     {@code snapshot}, so flush, collect and solidity never observe it.
+   */
+  SnapshotImpl(Snapshot snapshot, boolean link) {
+    this(snapshot, link, true);
+  }
+
+  /**
+   * @param indexed false for a private layer that may sit below the current head, where the
+   *     newest layer holding a key is not necessarily one of its previous snapshots.
+   */
+  SnapshotImpl(Snapshot snapshot, boolean link, boolean indexed) {
     root = snapshot.getRoot();
     synchronized (this) {
       db = new HashDB(SnapshotImpl.class.getSimpleName() + ":" + root.getDbName());
     }
     previous = snapshot;
+    height = Snapshot.isImpl(snapshot) ? ((SnapshotImpl) snapshot).height + 1 : 1;
+    index = indexed && root instanceof SnapshotRoot
+        ? ((SnapshotRoot) root).getLayerIndex() : null;
+    if (!link) {
+      return;
+    }
+    linked = true;
     snapshot.setNext(this);
     isOptimized = snapshot.isOptimized();
     if (isOptimized &&  root == previous) {
@@ -38,15 +60,25 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
 
   @Override
   public byte[] get(byte[] key) {
-    return get(this, key);
-  }
-
-  private byte[] get(Snapshot head, byte[] key) {
-    Snapshot snapshot = head;
-    Value value;
+    Key k = Key.of(key);
+    Value value = db.get(k);
+    if (value != null) {
+      return value.getBytes();
+    }
+    if (index != null) {
+      SnapshotImpl newest = index.get(k);
+      if (newest == null) {
+        return root.get(key);
+      }
+      if (newest.height < height && (value = newest.db.get(k)) != null) {
+        return value.getBytes();
+      }
+    }
 
+    // the index is ahead of this snapshot (solidity reads) or changed concurrently
+    Snapshot snapshot = previous;
     while (Snapshot.isImpl(snapshot)) {
-      if ((value = ((SnapshotImpl) snapshot).db.get(Key.of(key))) != null) {
+      if ((value = ((SnapshotImpl) snapshot).db.get(k)) != null) {
         return value.getBytes();
       }
 
@@ -61,13 +93,31 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
     Preconditions.checkNotNull(key, "key in db is not null.");
     Preconditions.checkNotNull(value, "value in db is not null.");
 
-    db.put(Key.copyOf(key), Value.copyOf(Value.Operator.PUT, value));
+    put(Key.copyOf(key), Value.copyOf(Value.Operator.PUT, value));
   }
 
   @Override
   public void remove(byte[] key) {
     Preconditions.checkNotNull(key, "key in db is not null.");
-    db.put(Key.of(key), Value.of(Value.Operator.DELETE, null));
+    put(Key.of(key), Value.of(Value.Operator.DELETE, null));
+  }
+
+  private void put(Key key, Value value) {
+    Value old = db.get(key);
+    db.put(key, value);
+    if (linked && index != null) {
+      account(key, old, value);
+      if (old == null) {
+        index.put(key, this);
+      }
+    }
+  }
+
+  private void account(Key key, Value old, Value value) {
+    long delta = LayerIndex.sizeOf(key, value)
+        - (old == null ? 0 : LayerIndex.sizeOf(key, old));
+    bytes += delta;
+    index.addBytes(delta);
   }
 
   // we have a 3x3 matrix of all possibilities when merging previous snapshot and current snapshot :
@@ -85,7 +135,12 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
   @Override
   public void merge(Snapshot from) {
     SnapshotImpl fromImpl = (SnapshotImpl) from;
-    Streams.stream(fromImpl.db).forEach(e -> db.put(e.getKey(), e.getValue()));
+    Streams.stream(fromImpl.db).forEach(e -> {
+      put(e.getKey(), e.getValue());
+      if (index != null) {
+        index.replace(e.getKey(), fromImpl, this);
+      }
+    });
   }
 
   public void mergeAhead(Snapshot from) {
@@ -95,7 +150,7 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
     SnapshotImpl fromImpl = (SnapshotImpl) from;
     Streams.stream(fromImpl.db).forEach(e -> {
       if (db.get(e.getKey()) == null) {
-        db.put(e.getKey(), e.getValue());
+        put(e.getKey(), e.getValue());
       }
     }
     );
@@ -103,9 +158,49 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
 
   @Override
   public Snapshot retreat() {
+    unindex();
     return previous;
   }
 
+  /**
+   * Drops this snapshot from the layer index, keys it held fall back to the newest previous
+   * snapshot holding them.
+   */
+  void unindex() {
+    if (!linked || index == null) {
+      return;
+    }
+    linked = false;
+    Streams.stream(db).forEach(e -> {
+      if (index.get(e.getKey()) != this) {
+        return;
+      }
+      Snapshot snapshot = previous;
+      while (Snapshot.isImpl(snapshot)
+          && ((SnapshotImpl) snapshot).db.get(e.getKey()) == null) {
+        snapshot = snapshot.getPrevious();
+      }
+      if (Snapshot.isImpl(snapshot)) {
+        index.replace(e.getKey(), this, (SnapshotImpl) snapshot);
+      } else {
+        index.remove(e.getKey(), this);
+      }
+    });
+    index.addBytes(-bytes);
+  }
+
+  /**
+   * Called once the content of this snapshot has been flushed to the root.
+   */
+  void flushed() {
+    if (!linked || index == null) {
+      return;
+    }
+    linked = false;
+    Streams.stream(db).forEach(e -> index.remove(e.getKey(), this));
+    index.addBytes(-bytes);
+  }
+
   @Override
   public Snapshot getSolidity() {
     return root.getSolidity();
@@ -113,37 +208,7 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
 
   @Override
   public Iterator<Map.Entry<byte[], byte[]>> iterator() {
-    Map<WrappedByteArray, WrappedByteArray> all = new HashMap<>();
-    collect(all);
-    Set<WrappedByteArray> keys = new HashSet<>(all.keySet());
-    all.entrySet()
-        .removeIf(entry -> entry.getValue() == null || entry.getValue().getBytes() == null);
-    return Iterators.concat(
-        Iterators.transform(all.entrySet().iterator(),
-            e -> Maps.immutableEntry(e.getKey().getBytes(), e.getValue().getBytes())),
-        Iterators.filter(getRoot().iterator(),
-            e -> !keys.contains(WrappedByteArray.of(e.getKey()))));
-  }
-
-  synchronized void collect(Map<WrappedByteArray, WrappedByteArray> all) {
-    Snapshot next = getRoot().getNext();
-    while (next != null) {
-      Streams.stream(((SnapshotImpl) next).db)
-          .forEach(e -> all.put(WrappedByteArray.of(e.getKey().getBytes()),
-              WrappedByteArray.of(e.getValue().getBytes())));
-      next = next.getNext();
-    }
-  }
-
-  synchronized void collect(Map<WrappedByteArray, WrappedByteArray> all, byte[] prefix) {
-    Snapshot next = getRoot().getNext();
-    while (next != null) {
-      Streams.stream(((SnapshotImpl) next).db).filter(e -> Bytes.indexOf(
-              Objects.requireNonNull(e.getKey().getBytes()), prefix) == 0)
-          .forEach(e -> all.put(WrappedByteArray.of(e.getKey().getBytes()),
-              WrappedByteArray.of(e.getValue().getBytes())));
-      next = next.getNext();
-    }
+    return new MergeIterator(this, null, null);
   }
 
   /**
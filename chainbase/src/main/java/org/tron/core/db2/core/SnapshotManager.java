@@ -8,14 +8,20 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -26,11 +32,16 @@ import javax.annotation.PostConstruct;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.rocksdb.RocksDBException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.tron.common.error.TronDBException;
 import org.tron.common.es.ExecutorServiceManager;
 import org.tron.common.parameter.CommonParameter;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
 import org.tron.common.storage.WriteOptionsWrapper;
+import org.tron.common.storage.rocksdb.SharedRocksDb;
 import org.tron.common.utils.FileUtil;
 import org.tron.common.utils.StorageUtils;
 import org.tron.core.db.RevokingDatabase;
@@ -39,6 +50,7 @@ import org.tron.core.db2.ISession;
 import org.tron.core.db2.common.DB;
 import org.tron.core.db2.common.IRevokingDB;
 import org.tron.core.db2.common.Key;
+import org.tron.core.db2.common.RocksDB;
 import org.tron.core.db2.common.Value;
 import org.tron.core.db2.common.WrappedByteArray;
 import org.tron.core.exception.RevokingStoreIllegalStateException;
@@ -52,6 +64,7 @@ public class SnapshotManager implements RevokingDatabase {
   private static final int DEFAULT_STACK_MAX_SIZE = 256;
   private static final long ONE_MINUTE_MILLS = 60*1000L;
   private static final String CHECKPOINT_V2_DIR = "checkpoint";
+  private static final String CHECKPOINT_LOG_DIR = "checkpoint-log";
   @Getter
   private List<Chainbase> dbs = new ArrayList<>();
   @Getter
@@ -76,6 +89,16 @@ public class SnapshotManager implements RevokingDatabase {
   private ScheduledExecutorService pruneCheckpointThread = null;
   private final String pruneName = "checkpoint-prune";
 
+  private boolean asyncFlush;
+  private ExecutorService flushExecutor = null;
+  private final String flushName = "snapshot-flush";
+  // a flush is running in the background, guarded by this
+  private boolean flushing;
+  private CheckpointLog checkpointLog;
+  private boolean legacyCheckpointCleared;
+  // the instance every store is a column family of, the stores are then flushed atomically
+  private SharedRocksDb sharedDb;
+
   @Autowired
   @Setter
   @Getter
@@ -92,6 +115,13 @@ public class SnapshotManager implements RevokingDatabase {
   @PostConstruct
   public void init() {
     checkpointVersion = CommonParameter.getInstance().getStorage().getCheckpointVersion();
+    checkpointLog = new CheckpointLog(Paths.get(
+        StorageUtils.getOutputDirectoryByDbName(CHECKPOINT_V2_DIR),
+        CommonParameter.getInstance().getStorage().getDbDirectory(), CHECKPOINT_LOG_DIR));
+    asyncFlush = CommonParameter.getInstance().getStorage().isAsyncFlush();
+    if (asyncFlush) {
+      flushExecutor = ExecutorServiceManager.newSingleThreadExecutor(flushName);
+    }
     // prune checkpoint
     if (isV2Open()) {
       pruneCheckpointThread = ExecutorServiceManager.newSingleThreadScheduledExecutor(pruneName);
@@ -178,7 +208,68 @@ public class SnapshotManager implements RevokingDatabase {
     --size;
   }
 
-  public void merge() {
+  /**
+   * @return the keys written by the newest layer of every store, i.e. by the last session.
+   */
+  @Override
+  public synchronized AccessSet headWrites() {
+    AccessSet accessSet = new AccessSet(false);
+    dbs.forEach(db -> db.recordHeadWrites(accessSet));
+    return accessSet;
+  }
+
+  /**
+   * @return the values the keys written by the last session had before it, by store, for the
+   *     stores named in {@code dbNames}.
+   */
+  @Override
+  public synchronized Map<String, Map<WrappedByteArray, WrappedByteArray>> headUndo(
+      Collection<String> dbNames) {
+    Map<String, Map<WrappedByteArray, WrappedByteArray>> undo = new HashMap<>();
+    dbs.stream().filter(db -> dbNames.contains(db.getDbName()))
+        .forEach(db -> undo.put(db.getDbName(), db.headUndo()));
+    return undo;
+  }
+
+  /**
+   * @return a speculative set whose layers are pinned on the current head of every store, so
+   *     what is speculated on it does not see anything written to the stores later.
+   */
+  @Override
+  public synchronized AccessSet pinHead() {
+    AccessSet accessSet = AccessSet.pinned();
+    dbs.forEach(db -> accessSet.layer(db, db.getHead()));
+    return accessSet;
+  }
+
+  /**
+   * Writes the values recorded by {@code accessSet} at the head of the stores they belong to,
+   * merging its deltas into the values at the head.
+   *
+   * @return false, with nothing written, if a delta no longer holds on the head.
+   */
+  @Override
+  public synchronized boolean apply(AccessSet accessSet) {
+    Map<String, Chainbase> byName = new HashMap<>();
+    dbs.forEach(db -> byName.put(db.getDbName(), db));
+    Map<String, Map<WrappedByteArray, WrappedByteArray>> writes = accessSet.resolve(
+        (dbName, key) -> {
+          Chainbase db = byName.get(dbName);
+          return db == null ? null : db.getHead().get(key);
+        });
+    if (writes == null) {
+      return false;
+    }
+    dbs.forEach(db -> {
+      Map<WrappedByteArray, WrappedByteArray> values = writes.get(db.getDbName());
+      if (values != null) {
+        db.apply(values);
+      }
+    });
+    return true;
+  }
+
+  public synchronized void merge() {
     if (activeSession <= 0) {
       throw new RevokingStoreIllegalStateException(activeSession);
     }
@@ -278,6 +369,14 @@ public class SnapshotManager implements RevokingDatabase {
 
   @Override
   public void shutdown() {
+    synchronized (this) {
+      try {
+        awaitFlush();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    ExecutorServiceManager.shutdownAndAwaitTermination(flushExecutor, flushName);
     ExecutorServiceManager.shutdownAndAwaitTermination(pruneCheckpointThread, pruneName);
     flushServices.forEach((key, value) -> ExecutorServiceManager.shutdownAndAwaitTermination(value,
         "flush-service-" + key));
@@ -302,12 +401,44 @@ public class SnapshotManager implements RevokingDatabase {
     return flushCount >= maxFlushCount;
   }
 
-  private void refresh() {
+  /**
+   * @return the layers of every store that are to be flushed, oldest first, none for a store
+   *     whose head is the root.
+   */
+  private Map<Chainbase, List<Snapshot>> frozenLayers(int count) {
+    Map<Chainbase, List<Snapshot>> layers = new LinkedHashMap<>();
+    for (Chainbase db : dbs) {
+      List<Snapshot> snapshots = new ArrayList<>();
+      if (!Snapshot.isRoot(db.getHead())) {
+        Snapshot next = db.getHead().getRoot();
+        for (int i = 0; i < count; ++i) {
+          next = next.getNext();
+          snapshots.add(next);
+        }
+      }
+      layers.put(db, snapshots);
+    }
+    return layers;
+  }
+
+  private void refresh(Map<Chainbase, List<Snapshot>> layers, boolean unlink) {
     List<ListenableFuture<?>> futures = new ArrayList<>(dbs.size());
     for (Chainbase db : dbs) {
-      futures.add(flushServices.get(db.getDbName()).submit(() -> refreshOne(db)));
+      List<Snapshot> snapshots = layers.get(db);
+      if (snapshots.isEmpty()) {
+        continue;
+      }
+      futures.add(flushServices.get(db.getDbName()).submit(() -> {
+        ((SnapshotRoot) db.getHead().getRoot()).merge(snapshots);
+        if (unlink) {
+          unlink(db, snapshots);
+        }
+      }));
     }
-    Future<?> future = Futures.allAsList(futures);
+    await(Futures.allAsList(futures));
+  }
+
+  private static void await(Future<?> future) {
     try {
       future.get();
     } catch (InterruptedException e) {
@@ -318,23 +449,67 @@ public class SnapshotManager implements RevokingDatabase {
     }
   }
 
-  private void refreshOne(Chainbase db) {
-    if (Snapshot.isRoot(db.getHead())) {
-      return;
+  /**
+   * Merges the layers into the stores as one write of the shared instance, so a crash leaves
+   * the stores either before or after all of them and no checkpoint is needed.
+   */
+  private void refreshAtomically(Map<Chainbase, List<Snapshot>> layers) {
+    clearLegacyCheckpoint();
+    Map<Chainbase, Map<WrappedByteArray, WrappedByteArray>> written = new ConcurrentHashMap<>();
+    sharedDb.beginBatch();
+    try {
+      List<ListenableFuture<?>> futures = new ArrayList<>(dbs.size());
+      for (Chainbase db : dbs) {
+        List<Snapshot> snapshots = layers.get(db);
+        if (snapshots.isEmpty()) {
+          continue;
+        }
+        futures.add(flushServices.get(db.getDbName()).submit(() -> {
+          // only the writes of the flush go to the batch
+          sharedDb.joinBatch();
+          try {
+            written.put(db, ((SnapshotRoot) db.getHead().getRoot()).write(snapshots));
+          } finally {
+            sharedDb.leaveBatch();
+          }
+        }));
+      }
+      await(Futures.allAsList(futures));
+      sharedDb.commitBatch(CommonParameter.getInstance().getStorage().isDbSync());
+    } catch (RocksDBException e) {
+      throw new TronDBException(e);
+    } finally {
+      sharedDb.abortBatch();
     }
+    // the layers stay readable until the stores hold their content
+    written.forEach((db, values) ->
+        ((SnapshotRoot) db.getHead().getRoot()).publish(values, layers.get(db)));
+  }
 
-    List<Snapshot> snapshots = new ArrayList<>();
+  /**
+   * @return the instance all the stores are column families of, null if any has its own.
+   */
+  private SharedRocksDb sharedDb() {
+    SharedRocksDb shared = null;
+    for (Chainbase db : dbs) {
+      DB<byte[], byte[]> root = ((SnapshotRoot) db.getHead().getRoot()).getDb();
+      if (!(root instanceof RocksDB) || ((RocksDB) root).getDb().getShared() == null
+          || (shared != null && shared != ((RocksDB) root).getDb().getShared())) {
+        return null;
+      }
+      shared = ((RocksDB) root).getDb().getShared();
+    }
+    return shared;
+  }
 
+  // drops the flushed layers from the chain of the store
+  private void unlink(Chainbase db, List<Snapshot> snapshots) {
     SnapshotRoot root = (SnapshotRoot) db.getHead().getRoot();
-    Snapshot next = root;
-    for (int i = 0; i < flushCount; ++i) {
-      next = next.getNext();
-      snapshots.add(next);
+    Snapshot next = snapshots.get(snapshots.size() - 1);
+    // solidity may have moved past the flushed layers during a background flush
+    if (!asyncFlush || root.getSolidity() == next) {
+      root.resetSolidity();
     }
-
-    root.merge(snapshots);
-
-    root.resetSolidity();
     if (db.getHead() == next) {
       db.setHead(root);
     } else {
@@ -348,22 +523,42 @@ public class SnapshotManager implements RevokingDatabase {
       return;
     }
 
+    reportLayers();
     if (shouldBeRefreshed()) {
+      // the head has to stay above the layers being flushed
+      if (asyncFlush && maxSize.get() > 0) {
+        flushInBackground();
+        return;
+      }
       try {
         long start = System.currentTimeMillis();
+        Map<Chainbase, List<Snapshot>> layers = frozenLayers(flushCount);
+        if (sharedDb != null) {
+          refreshAtomically(layers);
+          layers.forEach((db, snapshots) -> {
+            if (!snapshots.isEmpty()) {
+              unlink(db, snapshots);
+            }
+          });
+          flushCount = 0;
+          logger.info("Atomic flush cost: {} ms.", System.currentTimeMillis() - start);
+          observeFlush(start, start);
+          return;
+        }
         if (!isV2Open()) {
           deleteCheckpoint();
         }
-        createCheckpoint();
+        createCheckpoint(layers);
 
         long checkPointEnd = System.currentTimeMillis();
-        refresh();
+        refresh(layers, true);
         flushCount = 0;
         logger.info("Flush cost: {} ms, create checkpoint cost: {} ms, refresh cost: {} ms.",
             System.currentTimeMillis() - start,
             checkPointEnd - start,
             System.currentTimeMillis() - checkPointEnd
         );
+        observeFlush(start, checkPointEnd);
       } catch (TronDBException e) {
         logger.error(" Find fatal error, program will be exited soon.", e);
         hitDown = true;
@@ -372,37 +567,177 @@ public class SnapshotManager implements RevokingDatabase {
     }
   }
 
-  private void createCheckpoint() {
-    TronDatabase<byte[]> checkPointStore = null;
-    boolean syncFlag;
+  /**
+   * Hands the layers due to the flush service, blocking only while the previous flush is still
+   * running. New blocks keep being applied on top of the layers while they are flushed, and
+   * they are dropped from the chains once the stores hold their content.
+   */
+  private synchronized void flushInBackground() {
+    long start = System.currentTimeMillis();
     try {
-      Map<WrappedByteArray, WrappedByteArray> batch = new HashMap<>();
-      for (Chainbase db : dbs) {
-        Snapshot head = db.getHead();
-        if (Snapshot.isRoot(head)) {
-          return;
-        }
-
-        String dbName = db.getDbName();
+      awaitFlush();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    Metrics.histogramObserve(MetricKeys.Histogram.SNAPSHOT_FLUSH_LATENCY,
+        (System.currentTimeMillis() - start) / Metrics.MILLISECONDS_PER_SECOND,
+        MetricLabels.Histogram.FLUSH_WAIT);
+    if (hitDown) {
+      return;
+    }
+    Map<Chainbase, List<Snapshot>> layers = frozenLayers(flushCount);
+    flushCount = 0;
+    flushing = true;
+    flushExecutor.execute(() -> flushLayers(layers));
+  }
 
-        if (Objects.equals(dbName, "trans-cache")) {
-          // trans-cache is deprecated
-          continue;
-        }
+  // holding this
+  private void awaitFlush() throws InterruptedException {
+    while (flushing) {
+      wait();
+    }
+  }
 
-        Snapshot next = head.getRoot();
-        for (int i = 0; i < flushCount; ++i) {
-          next = next.getNext();
-          SnapshotImpl snapshot = (SnapshotImpl) next;
-          DB<Key, Value> keyValueDB = snapshot.getDb();
-          for (Map.Entry<Key, Value> e : keyValueDB) {
-            Key k = e.getKey();
-            Value v = e.getValue();
-            batch.put(WrappedByteArray.of(Bytes.concat(simpleEncode(dbName), k.getBytes())),
-                WrappedByteArray.of(v.encode()));
+  private void flushLayers(Map<Chainbase, List<Snapshot>> layers) {
+    try {
+      long start = System.currentTimeMillis();
+      Path segment = null;
+      Map<WrappedByteArray, WrappedByteArray> batch = sharedDb != null ? null
+          : checkpointBatch(layers);
+      if (batch != null) {
+        clearLegacyCheckpoint();
+        segment = checkpointLog.append(toBytes(batch), isCheckpointSync());
+      }
+      long checkPointEnd = System.currentTimeMillis();
+      if (sharedDb != null) {
+        refreshAtomically(layers);
+      } else {
+        refresh(layers, false);
+      }
+      synchronized (this) {
+        layers.forEach((db, snapshots) -> {
+          if (!snapshots.isEmpty()) {
+            unlink(db, snapshots);
           }
+        });
+      }
+      if (segment != null) {
+        checkpointLog.delete(segment);
+      }
+      logger.info("Background flush cost: {} ms, create checkpoint cost: {} ms, "
+              + "refresh cost: {} ms.",
+          System.currentTimeMillis() - start,
+          checkPointEnd - start,
+          System.currentTimeMillis() - checkPointEnd
+      );
+      observeFlush(start, checkPointEnd);
+    } catch (Exception e) {
+      logger.error(" Find fatal error, program will be exited soon.", e);
+      hitDown = true;
+      LockSupport.unpark(exitThread);
+    } finally {
+      synchronized (this) {
+        flushing = false;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Checkpoints of the other versions are older than the log once it is written, replaying them
+   * on start would undo what the log flushed since.
+   */
+  private void clearLegacyCheckpoint() {
+    if (legacyCheckpointCleared) {
+      return;
+    }
+    if (checkTmpStore != null) {
+      deleteCheckpoint();
+    }
+    List<String> cpList = getCheckpointList();
+    if (cpList != null) {
+      String checkpointPath = Paths.get(StorageUtils.getOutputDirectoryByDbName(CHECKPOINT_V2_DIR),
+          CommonParameter.getInstance().getStorage().getDbDirectory(), CHECKPOINT_V2_DIR)
+          .toString();
+      cpList.forEach(cp -> FileUtil.recursiveDelete(Paths.get(checkpointPath, cp).toString()));
+    }
+    legacyCheckpointCleared = true;
+  }
+
+  private void observeFlush(long start, long checkPointEnd) {
+    Metrics.histogramObserve(MetricKeys.Histogram.SNAPSHOT_FLUSH_LATENCY,
+        (checkPointEnd - start) / Metrics.MILLISECONDS_PER_SECOND,
+        MetricLabels.Histogram.FLUSH_CHECKPOINT);
+    Metrics.histogramObserve(MetricKeys.Histogram.SNAPSHOT_FLUSH_LATENCY,
+        (System.currentTimeMillis() - checkPointEnd) / Metrics.MILLISECONDS_PER_SECOND,
+        MetricLabels.Histogram.FLUSH_REFRESH);
+  }
+
+  private void reportLayers() {
+    if (!Metrics.enabled()) {
+      return;
+    }
+    for (Chainbase db : dbs) {
+      LayerIndex index = ((SnapshotRoot) db.getHead().getRoot()).getLayerIndex();
+      Metrics.gaugeSet(MetricKeys.Gauge.SNAPSHOT_LAYER, index.getBytes(),
+          MetricLabels.Gauge.SNAPSHOT_BYTES, db.getDbName());
+      Metrics.gaugeSet(MetricKeys.Gauge.SNAPSHOT_LAYER, index.size(),
+          MetricLabels.Gauge.SNAPSHOT_INDEX_KEYS, db.getDbName());
+    }
+  }
+
+  /**
+   * @return the checkpoint entries of {@code layers}, null if the head of a store is its root.
+   */
+  private Map<WrappedByteArray, WrappedByteArray> checkpointBatch(
+      Map<Chainbase, List<Snapshot>> layers) {
+    Map<WrappedByteArray, WrappedByteArray> batch = new HashMap<>();
+    for (Chainbase db : dbs) {
+      if (layers.get(db).isEmpty()) {
+        return null;
+      }
+
+      String dbName = db.getDbName();
+
+      if (Objects.equals(dbName, "trans-cache")) {
+        // trans-cache is deprecated
+        continue;
+      }
+
+      for (Snapshot next : layers.get(db)) {
+        SnapshotImpl snapshot = (SnapshotImpl) next;
+        DB<Key, Value> keyValueDB = snapshot.getDb();
+        for (Map.Entry<Key, Value> e : keyValueDB) {
+          Key k = e.getKey();
+          Value v = e.getValue();
+          batch.put(WrappedByteArray.of(Bytes.concat(simpleEncode(dbName), k.getBytes())),
+              WrappedByteArray.of(v.encode()));
         }
       }
+    }
+    return batch;
+  }
+
+  private static Map<byte[], byte[]> toBytes(Map<WrappedByteArray, WrappedByteArray> batch) {
+    return batch.entrySet().stream()
+        .map(e -> Maps.immutableEntry(e.getKey().getBytes(), e.getValue().getBytes()))
+        .collect(HashMap::new, (m, k) -> m.put(k.getKey(), k.getValue()), HashMap::putAll);
+  }
+
+  private boolean isCheckpointSync() {
+    return isV2Open() ? CommonParameter.getInstance().getStorage().isCheckpointSync()
+        : CommonParameter.getInstance().getStorage().isDbSync();
+  }
+
+  private void createCheckpoint(Map<Chainbase, List<Snapshot>> layers) {
+    TronDatabase<byte[]> checkPointStore = null;
+    boolean syncFlag;
+    try {
+      Map<WrappedByteArray, WrappedByteArray> batch = checkpointBatch(layers);
+      if (batch == null) {
+        return;
+      }
       if (isV2Open()) {
         String dbName = String.valueOf(System.currentTimeMillis());
         checkPointStore = getCheckpointDB(dbName);
@@ -412,9 +747,7 @@ public class SnapshotManager implements RevokingDatabase {
         syncFlag = CommonParameter.getInstance().getStorage().isDbSync();
       }
 
-      checkPointStore.getDbSource().updateByBatch(batch.entrySet().stream()
-              .map(e -> Maps.immutableEntry(e.getKey().getBytes(), e.getValue().getBytes()))
-              .collect(HashMap::new, (m, k) -> m.put(k.getKey(), k.getValue()), HashMap::putAll),
+      checkPointStore.getDbSource().updateByBatch(toBytes(batch),
           WriteOptionsWrapper.getInstance().sync(syncFlag));
 
     } catch (Exception e) {
@@ -499,6 +832,32 @@ public class SnapshotManager implements RevokingDatabase {
     } else {
       checkV2();
     }
+    recoverLog();
+    sharedDb = sharedDb();
+    if (sharedDb != null) {
+      logger.info("All stores are column families of {}, flush atomically.", sharedDb.getPath());
+    }
+  }
+
+  // the log segments are newer than any checkpoint of the other versions
+  private void recoverLog() {
+    if (checkpointLog == null) {
+      return;
+    }
+    try {
+      List<Path> segments = checkpointLog.segments();
+      for (Path segment : segments) {
+        recover(checkpointLog.read(segment));
+      }
+      for (Path segment : segments) {
+        checkpointLog.delete(segment);
+      }
+      if (!segments.isEmpty()) {
+        logger.info("checkpoint log recover success, segments: {}", segments.size());
+      }
+    } catch (IOException e) {
+      throw new TronDBException(e);
+    }
   }
 
   private void checkV1() {
@@ -538,11 +897,15 @@ public class SnapshotManager implements RevokingDatabase {
   }
 
   private void recover(TronDatabase<byte[]> tronDatabase) {
+    recover(tronDatabase.getDbSource());
+  }
+
+  private void recover(Iterable<Map.Entry<byte[], byte[]>> entries) {
     Map<String, Chainbase> dbMap = dbs.stream()
         .map(db -> Maps.immutableEntry(db.getDbName(), db))
         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     advance();
-    for (Map.Entry<byte[], byte[]> e: tronDatabase.getDbSource()) {
+    for (Map.Entry<byte[], byte[]> e: entries) {
       byte[] key = e.getKey();
       byte[] value = e.getValue();
       String db = simpleDecode(key);
@@ -25,9 +25,13 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
 
   @Getter
   private Snapshot solidity;
+  @Getter
+  private final LayerIndex layerIndex = new LayerIndex();
   private boolean isAccountDB;
 
   private TronCache<WrappedByteArray, WrappedByteArray> cache;
+  // approximate bytes held by a cache entry besides its key and value
+  private static final int CACHE_ENTRY_OVERHEAD = 64;
   private static final List<String> CACHE_DBS = CommonParameter.getInstance()
       .getStorage().getCacheDbs();
 
@@ -36,11 +40,17 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
     solidity = this;
     isAccountDB = "account".equalsIgnoreCase(db.getDbName());
     if (CACHE_DBS.contains(this.db.getDbName())) {
-      this.cache = CacheManager.allocate(CacheType.findByType(this.db.getDbName()));
+      this.cache = CacheManager.allocate(CacheType.findByType(this.db.getDbName()),
+          SnapshotRoot::weigh);
     }
     isOptimized = "properties".equalsIgnoreCase(db.getDbName());
   }
 
+  private static int weigh(WrappedByteArray key, WrappedByteArray value) {
+    byte[] v = value.getBytes();
+    return CACHE_ENTRY_OVERHEAD + key.getBytes().length + (v == null ? 0 : v.length);
+  }
+
   private boolean needOptAsset() {
     return isAccountDB && ChainBaseManager.getInstance().getDynamicPropertiesStore()
             .getAllowAccountAssetOptimizationFromRoot() == 1;
@@ -96,15 +106,22 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
         .map(e -> Maps.immutableEntry(WrappedByteArray.of(e.getKey().getBytes()),
             WrappedByteArray.of(e.getValue().getBytes())))
         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-    if (needOptAsset()) {
-      processAccount(batch);
-    } else {
-      ((Flusher) db).flush(batch);
-      putCache(batch);
-    }
+    putCache(write(batch));
+    snapshot.flushed();
   }
 
   public void merge(List<Snapshot> snapshots) {
+    publish(write(snapshots), snapshots);
+  }
+
+  /**
+   * Writes the layers to the store without exposing them: while a batch of the shared instance
+   * is collected, the reads keep going through the layers until {@link #publish}, after the
+   * batch is committed.
+   *
+   * @return the values to cache once they are in the store.
+   */
+  public Map<WrappedByteArray, WrappedByteArray> write(List<Snapshot> snapshots) {
     Map<WrappedByteArray, WrappedByteArray> batch = new HashMap<>();
     for (Snapshot snapshot : snapshots) {
       SnapshotImpl from = (SnapshotImpl) snapshot;
@@ -113,15 +130,30 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
               WrappedByteArray.of(e.getValue().getBytes())))
           .forEach(e -> batch.put(e.getKey(), e.getValue()));
     }
+    return write(batch);
+  }
+
+  /**
+   * Caches the values written by {@link #write} and drops the layers from the index, the reads
+   * of their keys then go to the store.
+   */
+  public void publish(Map<WrappedByteArray, WrappedByteArray> written,
+      List<Snapshot> snapshots) {
+    putCache(written);
+    snapshots.forEach(snapshot -> ((SnapshotImpl) snapshot).flushed());
+  }
+
+  private Map<WrappedByteArray, WrappedByteArray> write(
+      Map<WrappedByteArray, WrappedByteArray> batch) {
     if (needOptAsset()) {
-      processAccount(batch);
-    } else {
-      ((Flusher) db).flush(batch);
-      putCache(batch);
+      return processAccount(batch);
     }
+    ((Flusher) db).flush(batch);
+    return batch;
   }
 
-  private void processAccount(Map<WrappedByteArray, WrappedByteArray> batch) {
+  private Map<WrappedByteArray, WrappedByteArray> processAccount(
+      Map<WrappedByteArray, WrappedByteArray> batch) {
     AccountAssetStore assetStore = ChainBaseManager.getInstance().getAccountAssetStore();
     Map<WrappedByteArray, WrappedByteArray> accounts = new HashMap<>();
     Map<WrappedByteArray, WrappedByteArray> assets = new HashMap<>();
@@ -141,10 +173,10 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
       }
     });
     ((Flusher) db).flush(accounts);
-    putCache(accounts);
     if (assets.size() > 0) {
       assetStore.updateByBatch(AccountAssetStore.convert(assets));
     }
+    return accounts;
   }
 
   private boolean cached() {
@@ -0,0 +1,126 @@
+package org.tron.core.store;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Longs;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.MapUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
+import org.tron.core.capsule.BytesCapsule;
+import org.tron.core.db.TronStoreWithRevoking;
+import org.tron.core.db2.common.WrappedByteArray;
+
+/**
+ * Undo log of the state stores, for reads of their values at a past block.
+ *
+ * <p>Every block records, for each key it changed, the value the key had before the block, under
+ * store id + key + block number. The value of a key after block {@code n} is then the one recorded
+ * by the first block above {@code n} that changed it, or its current value if none did.
+ */
+@Slf4j(topic = "DB")
+@Component
+public class ArchiveStore extends TronStoreWithRevoking<BytesCapsule> {
+
+  public static final String ACCOUNT = "account";
+  public static final String STORAGE_ROW = "storage-row";
+  public static final String CONTRACT = "contract";
+  public static final String CODE = "code";
+  public static final Map<String, Byte> ARCHIVED = ImmutableMap.of(
+      ACCOUNT, (byte) 1, STORAGE_ROW, (byte) 2, CONTRACT, (byte) 3, CODE, (byte) 4);
+
+  // first block archived, the state before it can not be read
+  private static final byte[] START_BLOCK = {0, 's', 't', 'a', 'r', 't'};
+  private static final byte ABSENT = 0;
+  private static final byte PRESENT = 1;
+
+  @Autowired
+  private ArchiveStore(@Value("archive") String dbName) {
+    super(dbName);
+  }
+
+  @Override
+  public BytesCapsule get(byte[] key) {
+    byte[] value = revokingDB.getUnchecked(key);
+    return value == null ? null : new BytesCapsule(value);
+  }
+
+  /**
+   * @return the first block archived, -1 if there is none.
+   */
+  public long getStartBlock() {
+    BytesCapsule start = get(START_BLOCK);
+    return start == null ? -1 : Longs.fromByteArray(start.getData());
+  }
+
+  /**
+   * Records the values the keys changed by block {@code blockNum} had before it.
+   *
+   * @param undo store name -> key -> previous value, null for the keys that were absent.
+   */
+  public void record(Map<String, Map<WrappedByteArray, WrappedByteArray>> undo, long blockNum) {
+    if (getStartBlock() < 0) {
+      put(START_BLOCK, new BytesCapsule(Longs.toByteArray(blockNum)));
+      logger.info("Archive state from block {}.", blockNum);
+    }
+    undo.forEach((dbName, values) -> {
+      Byte id = ARCHIVED.get(dbName);
+      if (id == null || values.isEmpty()) {
+        return;
+      }
+      long bytes = 0;
+      for (Map.Entry<WrappedByteArray, WrappedByteArray> e : values.entrySet()) {
+        byte[] previous = e.getValue() == null ? new byte[] {ABSENT}
+            : Bytes.concat(new byte[] {PRESENT}, e.getValue().getBytes());
+        byte[] key = Bytes.concat(new byte[] {id}, e.getKey().getBytes(),
+            Longs.toByteArray(blockNum));
+        put(key, new BytesCapsule(previous));
+        bytes += key.length + previous.length;
+      }
+      Metrics.counterInc(MetricKeys.Counter.ARCHIVE_WRITES, values.size(), dbName,
+          MetricLabels.Counter.ARCHIVE_VERSIONS);
+      Metrics.counterInc(MetricKeys.Counter.ARCHIVE_WRITES, bytes, dbName,
+          MetricLabels.Counter.ARCHIVE_BYTES);
+    });
+  }
+
+  /**
+   * @param current reads the value of the key at the head block, for keys not changed after the
+   *     block. It must not see the pending transactions, nor a block whose undo is not recorded.
+   * @return the value of {@code key} in {@code dbName} after block {@code blockNum}, null if it
+   *     was absent.
+   * @throws IllegalArgumentException if the state at {@code blockNum} was not archived.
+   */
+  public byte[] get(String dbName, byte[] key, long blockNum, Supplier<byte[]> current) {
+    Byte id = ARCHIVED.get(dbName);
+    if (id == null) {
+      throw new IllegalArgumentException(dbName + " is not archived");
+    }
+    long start = getStartBlock();
+    if (start < 0 || blockNum < start - 1) {
+      throw new IllegalArgumentException(String.format(
+          "state at block %d is not archived, archive starts at %d", blockNum, start));
+    }
+    byte[] prefix = Bytes.concat(new byte[] {id}, key);
+    Map<byte[], byte[]> next = revokingDB.getNext(
+        Bytes.concat(prefix, Longs.toByteArray(blockNum + 1)), 1);
+    if (MapUtils.isNotEmpty(next)) {
+      Map.Entry<byte[], byte[]> entry = new ArrayList<>(next.entrySet()).get(0);
+      byte[] found = entry.getKey();
+      if (found.length == prefix.length + Long.BYTES
+          && Arrays.equals(prefix, Arrays.copyOf(found, prefix.length))) {
+        byte[] previous = entry.getValue();
+        return previous[0] == ABSENT ? null : Arrays.copyOfRange(previous, 1, previous.length);
+      }
+    }
+    return current.get();
+  }
+}
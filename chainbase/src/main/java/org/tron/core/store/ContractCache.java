@@ -0,0 +1,130 @@
+package org.tron.core.store;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Bytes;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import org.tron.common.cache.SizedCache;
+import org.tron.common.crypto.Hash;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
+import org.tron.core.capsule.CodeCapsule;
+import org.tron.core.capsule.ContractCapsule;
+import org.tron.core.db.TronStoreWithRevoking;
+import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.core.db2.core.AccessSet;
+import org.tron.core.db2.core.Chainbase;
+import org.tron.protos.contract.SmartContractOuterClass.SmartContract;
+
+/**
+ * Contracts and their code as seen at the head, shared by all the transactions of the process.
+ *
+ * <p>Contracts are keyed by address and dropped whenever the contract store writes, deletes or
+ * reverts the address, see {@link Chainbase#setInvalidationListener}. Code is keyed by address
+ * and code hash, so a cached code never goes stale and is only evicted by size.
+ *
+ * <p>Reads from the solidity or pbft cursors, or made by a speculative {@link AccessSet}, go to
+ * the stores directly. A hit is still recorded as a read of the store by the bound access set.
+ */
+public class ContractCache {
+
+  private static final String CONTRACT = "contract";
+  private static final String CODE = "code";
+
+  private static final SizedCache<Caches> caches = new SizedCache<>(
+      () -> CommonParameter.getInstance().getContractCacheSize(), Caches::new);
+  // bumped on every invalidation, a load that raced with one is not kept
+  private static final AtomicLong generation = new AtomicLong();
+
+  private ContractCache() {
+    throw new IllegalStateException("ContractCache");
+  }
+
+  public static void invalidate(byte[] address) {
+    generation.incrementAndGet();
+    caches.get().contracts.invalidate(WrappedByteArray.copyOf(address));
+  }
+
+  public static ContractCapsule getContract(ContractStore store, byte[] address) {
+    if (!isCacheable(store)) {
+      return store.get(address);
+    }
+    Cache<WrappedByteArray, SmartContract> contracts = caches.get().contracts;
+    WrappedByteArray key = WrappedByteArray.copyOf(address);
+    SmartContract contract = contracts.getIfPresent(key);
+    if (contract != null) {
+      recordRead(CONTRACT, address);
+      Metrics.counterInc(MetricKeys.Counter.CONTRACT_CACHE, 1, CONTRACT,
+          MetricLabels.Counter.CONTRACT_CACHE_HIT);
+      return new ContractCapsule(contract);
+    }
+    Metrics.counterInc(MetricKeys.Counter.CONTRACT_CACHE, 1, CONTRACT,
+        MetricLabels.Counter.CONTRACT_CACHE_MISS);
+    long before = generation.get();
+    ContractCapsule capsule = store.get(address);
+    if (capsule != null) {
+      contracts.put(key, capsule.getInstance());
+      if (generation.get() != before) {
+        contracts.invalidate(key);
+      }
+    }
+    return capsule;
+  }
+
+  /**
+   * Returns the code of the contract at {@code address} whose code hash is {@code codeHash}.
+   */
+  public static byte[] getCode(CodeStore store, byte[] address, byte[] codeHash) {
+    if (!isCacheable(store)) {
+      return load(store, address);
+    }
+    Cache<WrappedByteArray, byte[]> codes = caches.get().codes;
+    WrappedByteArray key = WrappedByteArray.copyOf(Bytes.concat(address, codeHash));
+    byte[] code = codes.getIfPresent(key);
+    if (code != null) {
+      recordRead(CODE, address);
+      Metrics.counterInc(MetricKeys.Counter.CONTRACT_CACHE, 1, CODE,
+          MetricLabels.Counter.CONTRACT_CACHE_HIT);
+      return code;
+    }
+    Metrics.counterInc(MetricKeys.Counter.CONTRACT_CACHE, 1, CODE,
+        MetricLabels.Counter.CONTRACT_CACHE_MISS);
+    code = load(store, address);
+    // only kept when it is the code the hash was taken from
+    if (code != null && Arrays.equals(Hash.sha3(code), codeHash)) {
+      codes.put(key, code);
+    }
+    return code;
+  }
+
+  private static byte[] load(CodeStore store, byte[] address) {
+    CodeCapsule code = store.get(address);
+    return code == null ? null : code.getData();
+  }
+
+  private static boolean isCacheable(TronStoreWithRevoking<?> store) {
+    return store.getRevokingDB().getCursor() == Chainbase.Cursor.HEAD
+        && !AccessSet.isSpeculating();
+  }
+
+  private static void recordRead(String dbName, byte[] address) {
+    AccessSet accessSet = AccessSet.current();
+    if (accessSet != null) {
+      accessSet.recordRead(dbName, address);
+    }
+  }
+
+  private static class Caches {
+
+    private final Cache<WrappedByteArray, SmartContract> contracts;
+    private final Cache<WrappedByteArray, byte[]> codes;
+
+    private Caches(int size) {
+      this.contracts = CacheBuilder.newBuilder().maximumSize(size).build();
+      this.codes = CacheBuilder.newBuilder().maximumSize(size).build();
+    }
+  }
+}
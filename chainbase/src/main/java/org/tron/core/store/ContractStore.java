@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 import org.tron.core.capsule.AbiCapsule;
 import org.tron.core.capsule.ContractCapsule;
 import org.tron.core.db.TronStoreWithRevoking;
+import org.tron.core.db2.core.Chainbase;
 import org.tron.protos.contract.SmartContractOuterClass.SmartContract;
 
 import java.util.Objects;
@@ -20,6 +21,7 @@ public class ContractStore extends TronStoreWithRevoking<ContractCapsule> {
   @Autowired
   private ContractStore(@Value("contract") String dbName) {
     super(dbName);
+    ((Chainbase) revokingDB).setInvalidationListener(ContractCache::invalidate);
   }
 
   @Override
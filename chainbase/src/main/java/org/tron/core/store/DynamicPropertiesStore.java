@@ -6,6 +6,7 @@ import static org.tron.core.config.Parameter.ChainConstant.DELEGATE_PERIOD;
 import com.google.protobuf.ByteString;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 import java.util.stream.IntStream;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +20,8 @@ import org.tron.common.utils.Sha256Hash;
 import org.tron.core.capsule.BytesCapsule;
 import org.tron.core.config.Parameter.ChainConstant;
 import org.tron.core.db.TronStoreWithRevoking;
+import org.tron.core.db2.core.AccessSet;
+import org.tron.core.db2.core.Delta;
 import org.tron.core.exception.BadItemException;
 import org.tron.core.exception.ItemNotFoundException;
 
@@ -1201,6 +1204,17 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
         new BytesCapsule(ByteArray.fromLong(publicNetUsage)));
   }
 
+  /**
+   * Runs {@code take} of free public net, which updates PUBLIC_NET_USAGE by {@code usage} and
+   * PUBLIC_NET_TIME to the time of the block, as a commutative update of the usage.
+   *
+   * @return false if {@code take} found no free public net left.
+   */
+  public boolean takePublicNet(Delta usage, BooleanSupplier take) {
+    return AccessSet.commute(getDbName(), DynamicResourceProperties.PUBLIC_NET_USAGE, usage, take,
+        DynamicResourceProperties.PUBLIC_NET_TIME);
+  }
+
   public long getPublicNetUsage() {
     return Optional.ofNullable(getUnchecked(DynamicResourceProperties.PUBLIC_NET_USAGE))
         .map(BytesCapsule::getData)
@@ -1413,6 +1427,11 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
         new BytesCapsule(ByteArray.fromLong(blockEnergyUsage)));
   }
 
+  public void addBlockEnergyUsage(long energy) {
+    increase(DynamicResourceProperties.BLOCK_ENERGY_USAGE, energy,
+        () -> saveBlockEnergyUsage(getBlockEnergyUsage() + energy));
+  }
+
   public long getBlockEnergyUsage() {
     return Optional.ofNullable(getUnchecked(DynamicResourceProperties.BLOCK_ENERGY_USAGE))
         .map(BytesCapsule::getData)
@@ -1684,8 +1703,8 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
     if (amount <= 0) {
       return;
     }
-    amount += getTransactionFeePool();
-    saveTransactionFeePool(amount);
+    increase(TRANSACTION_FEE_POOL, amount,
+        () -> saveTransactionFeePool(getTransactionFeePool() + amount));
   }
 
   public void saveTransactionFeePool(long value) {
@@ -2271,18 +2290,29 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public void addTotalCreateAccountCost(long fee) {
-    long newValue = getTotalCreateAccountCost() + fee;
-    saveTotalCreateAccountFee(newValue);
+    increase(TOTAL_CREATE_ACCOUNT_COST, fee,
+        () -> saveTotalCreateAccountFee(getTotalCreateAccountCost() + fee));
   }
 
   public void addTotalCreateWitnessCost(long fee) {
-    long newValue = getTotalCreateWitnessCost() + fee;
-    saveTotalCreateWitnessFee(newValue);
+    increase(TOTAL_CREATE_WITNESS_COST, fee,
+        () -> saveTotalCreateWitnessFee(getTotalCreateWitnessCost() + fee));
   }
 
   public void addTotalTransactionCost(long fee) {
-    long newValue = getTotalTransactionCost() + fee;
-    saveTotalTransactionCost(newValue);
+    increase(TOTAL_TRANSACTION_COST, fee,
+        () -> saveTotalTransactionCost(getTotalTransactionCost() + fee));
+  }
+
+  /**
+   * Runs {@code add} of {@code amount} to the counter at {@code key} as a commutative update, so
+   * transactions adding to the same counter do not conflict.
+   */
+  private void increase(byte[] key, long amount, Runnable add) {
+    AccessSet.commute(getDbName(), key, Delta.add(amount), () -> {
+      add.run();
+      return true;
+    });
   }
 
   public void forked(int version, boolean value) {
@@ -2421,8 +2451,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
     if (amount <= 0) {
       return;
     }
-    amount += getBurnTrxAmount();
-    saveBurnTrx(amount);
+    increase(BURN_TRX_AMOUNT, amount, () -> saveBurnTrx(getBurnTrxAmount() + amount));
   }
 
   private void saveBurnTrx(long amount) {
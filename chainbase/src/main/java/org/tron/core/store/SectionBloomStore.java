@@ -1,9 +1,12 @@
 package org.tron.core.store;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
@@ -11,10 +14,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.tron.common.bloom.Bloom;
+import org.tron.common.parameter.CommonParameter;
 import org.tron.common.utils.ByteUtil;
 import org.tron.core.capsule.BytesCapsule;
 import org.tron.core.capsule.TransactionRetCapsule;
 import org.tron.core.db.TronStoreWithRevoking;
+import org.tron.core.db2.core.Chainbase;
 import org.tron.core.exception.EventBloomException;
 
 @Slf4j(topic = "DB")
@@ -22,11 +27,28 @@ import org.tron.core.exception.EventBloomException;
 public class SectionBloomStore extends TronStoreWithRevoking<BytesCapsule> {
 
   public static final int BLOCK_PER_SECTION = 2048;
+  private static final long[] EMPTY = new long[0];
   private List<Integer> bitList;
 
+  // decoded bitmaps as seen at the head, dropped whenever the store writes or reverts their key
+  private final Cache<Long, long[]> words = CacheBuilder.newBuilder()
+      .maximumSize(CommonParameter.getInstance().getJsonRpcSectionCacheSize()).build();
+  // bumped on every invalidation, a load that raced with one is not kept
+  private final AtomicLong generation = new AtomicLong();
+
   @Autowired
   public SectionBloomStore(@Value("section-bloom") String dbName) {
     super(dbName);
+    ((Chainbase) revokingDB).setInvalidationListener(this::invalidate);
+  }
+
+  private void invalidate(byte[] key) {
+    generation.incrementAndGet();
+    try {
+      words.invalidate(Long.parseLong(new String(key), 16));
+    } catch (NumberFormatException e) {
+      words.invalidateAll();
+    }
   }
 
   @Override
@@ -65,6 +87,32 @@ public class SectionBloomStore extends TronStoreWithRevoking<BytesCapsule> {
     return BitSet.valueOf(data);
   }
 
+  /**
+   * Same as {@link #get(int, int)} as the words of the bitmap, through a cache when read at the
+   * head. The array is shared and must not be modified, it is empty if the bitmap is absent.
+   */
+  public long[] getWords(int section, int bitIndex) throws EventBloomException {
+    if (revokingDB.getCursor() != Chainbase.Cursor.HEAD) {
+      return toWords(get(section, bitIndex));
+    }
+    long key = combineKey(section, bitIndex);
+    long[] cached = words.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    long before = generation.get();
+    cached = toWords(get(section, bitIndex));
+    words.put(key, cached);
+    if (generation.get() != before) {
+      words.invalidate(key);
+    }
+    return cached;
+  }
+
+  private static long[] toWords(BitSet bitSet) {
+    return bitSet == null ? EMPTY : bitSet.toLongArray();
+  }
+
   public void put(int section, int bitIndex, BitSet bitSet) throws EventBloomException {
     long keyLong = combineKey(section, bitIndex);
     byte[] key = Long.toHexString(keyLong).getBytes();
@@ -3,13 +3,25 @@ package org.tron.common.cache;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.CacheStats;
 import com.google.common.collect.Maps;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntBiFunction;
 import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.es.ExecutorServiceManager;
 import org.tron.common.parameter.CommonParameter;
 
+@Slf4j(topic = "DB")
 public class CacheManager {
 
   private static final Map<CacheType, TronCache<?, ?>> CACHES  = Maps.newConcurrentMap();
+  // hits of each weighted cache at the last rebalance
+  private static final Map<CacheType, Long> HITS = Maps.newConcurrentMap();
+  private static final long REBALANCE_INTERVAL = 60;
+  private static final String ES_NAME = "cache-rebalance";
+  private static ScheduledExecutorService rebalancer;
 
   public static <K, V> TronCache<K, V> allocate(CacheType name) {
     TronCache<K, V> cache = new TronCache<>(name, CommonParameter.getInstance()
@@ -18,6 +30,24 @@ public class CacheManager {
     return cache;
   }
 
+  /**
+   * Allocates a cache bounded by the bytes {@code weigher} gives its entries if a cache budget is
+   * set, by its strategy otherwise. The weighted caches share the budget and are resized
+   * periodically in proportion to their recent hits.
+   */
+  public static <K, V> TronCache<K, V> allocate(CacheType name, ToIntBiFunction<K, V> weigher) {
+    long budget = CommonParameter.getInstance().getStorage().getCacheBudget();
+    if (budget <= 0) {
+      return allocate(name);
+    }
+    int count = CommonParameter.getInstance().getStorage().getCacheDbs().size();
+    TronCache<K, V> cache = new TronCache<>(name, budget / count, weigher);
+    CACHES.put(name, cache);
+    HITS.put(name, 0L);
+    startRebalance();
+    return cache;
+  }
+
   public  static <K, V> TronCache<K, V> allocate(CacheType name, String strategy) {
     TronCache<K, V> cache = new TronCache<>(name, strategy);
     CACHES.put(name, cache);
@@ -41,4 +71,67 @@ public class CacheManager {
         TronCache::stats));
   }
 
+  /**
+   * @return the bytes used and the byte budget of each weighted cache.
+   */
+  public static Map<String, long[]> bytes() {
+    return CACHES.values().stream().filter(TronCache::isWeighted)
+        .collect(Collectors.toMap(c -> c.getName().toString(),
+            c -> new long[] {c.weightedSize(), c.maximumBytes()}));
+  }
+
+  private static synchronized void startRebalance() {
+    if (rebalancer != null) {
+      return;
+    }
+    rebalancer = ExecutorServiceManager.newSingleThreadScheduledExecutor(ES_NAME, true);
+    rebalancer.scheduleWithFixedDelay(() -> {
+      try {
+        rebalance();
+      } catch (Exception e) {
+        logger.warn("Rebalance caches failed.", e);
+      }
+    }, REBALANCE_INTERVAL, REBALANCE_INTERVAL, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Stops resizing the weighted caches, at node shutdown.
+   */
+  public static synchronized void close() {
+    if (rebalancer != null) {
+      ExecutorServiceManager.shutdownAndAwaitTermination(rebalancer, ES_NAME);
+      rebalancer = null;
+    }
+  }
+
+  /**
+   * Every weighted cache keeps a quarter of its even share, the rest of the budget goes to the
+   * caches in proportion to the hits since the last rebalance. Sizes move halfway to their
+   * target so that a quiet interval does not flush a cache.
+   */
+  static void rebalance() {
+    List<TronCache<?, ?>> caches = CACHES.values().stream().filter(TronCache::isWeighted)
+        .collect(Collectors.toList());
+    if (caches.isEmpty()) {
+      return;
+    }
+    long budget = CommonParameter.getInstance().getStorage().getCacheBudget();
+    long floor = budget / caches.size() / 4;
+    long shared = budget - floor * caches.size();
+    Map<CacheType, Long> delta = Maps.newHashMap();
+    long total = 0;
+    for (TronCache<?, ?> cache : caches) {
+      long hits = cache.stats().hitCount();
+      long d = Math.max(0, hits - HITS.getOrDefault(cache.getName(), 0L));
+      HITS.put(cache.getName(), hits);
+      delta.put(cache.getName(), d);
+      total += d;
+    }
+    for (TronCache<?, ?> cache : caches) {
+      long target = floor + (total == 0 ? shared / caches.size()
+          : (long) ((double) shared * delta.get(cache.getName()) / total));
+      cache.setMaximumBytes((cache.maximumBytes() + target) / 2);
+    }
+  }
+
 }
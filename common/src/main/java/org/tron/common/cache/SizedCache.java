@@ -0,0 +1,46 @@
+package org.tron.common.cache;
+
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/**
+ * A cache built on first use with the configured size, and built again, empty, once the
+ * configured size changes, e.g. when the configuration is applied after the first use.
+ */
+public class SizedCache<T> {
+
+  private final IntSupplier size;
+  private final IntFunction<T> builder;
+  private volatile Sized<T> current;
+
+  public SizedCache(IntSupplier size, IntFunction<T> builder) {
+    this.size = size;
+    this.builder = builder;
+  }
+
+  public T get() {
+    int configured = size.getAsInt();
+    Sized<T> sized = current;
+    if (sized == null || sized.size != configured) {
+      synchronized (this) {
+        sized = current;
+        if (sized == null || sized.size != configured) {
+          sized = new Sized<>(configured, builder.apply(configured));
+          current = sized;
+        }
+      }
+    }
+    return sized.cache;
+  }
+
+  private static class Sized<T> {
+
+    private final int size;
+    private final T cache;
+
+    private Sized(int size, T cache) {
+      this.size = size;
+      this.cache = cache;
+    }
+  }
+}
@@ -1,12 +1,16 @@
 package org.tron.common.cache;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
 import com.google.common.base.Objects;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.CacheStats;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.function.ToIntBiFunction;
 import lombok.Getter;
 
 public class TronCache<K, V> {
@@ -14,37 +18,114 @@ public class TronCache<K, V> {
   @Getter
   private final CacheType name;
   private final Cache<K, V> cache;
+  // bounded by the bytes of its entries rather than their count, with W-TinyLFU admission
+  private final com.github.benmanes.caffeine.cache.Cache<K, V> weighted;
 
   TronCache(CacheType name, String strategy) {
     this.name = name;
     this.cache = CacheBuilder.from(strategy).build();
+    this.weighted = null;
   }
 
   TronCache(CacheType name, String strategy, CacheLoader<K, V> loader) {
     this.name = name;
     this.cache = CacheBuilder.from(strategy).build(loader);
+    this.weighted = null;
+  }
+
+  TronCache(CacheType name, long maximumBytes, ToIntBiFunction<K, V> weigher) {
+    this.name = name;
+    this.cache = null;
+    this.weighted = Caffeine.newBuilder()
+        .maximumWeight(maximumBytes)
+        .weigher(weigher::applyAsInt)
+        .recordStats()
+        .build();
   }
 
   public void put(K k, V v) {
+    if (weighted != null) {
+      weighted.put(k, v);
+      return;
+    }
     this.cache.put(k, v);
   }
 
   public V getIfPresent(K k) {
+    if (weighted != null) {
+      return weighted.getIfPresent(k);
+    }
     return this.cache.getIfPresent(k);
   }
 
   public V get(K k, Callable<? extends V> loader) throws ExecutionException {
+    if (weighted != null) {
+      try {
+        return weighted.get(k, key -> {
+          try {
+            return loader.call();
+          } catch (Exception e) {
+            throw new CompletionException(e);
+          }
+        });
+      } catch (CompletionException e) {
+        throw new ExecutionException(e.getCause());
+      }
+    }
     return this.cache.get(k, loader);
   }
 
   public CacheStats stats() {
+    if (weighted != null) {
+      com.github.benmanes.caffeine.cache.stats.CacheStats s = weighted.stats();
+      return new CacheStats(s.hitCount(), s.missCount(), s.loadSuccessCount(),
+          s.loadFailureCount(), s.totalLoadTime(), s.evictionCount());
+    }
     return this.cache.stats();
   }
 
   public void invalidateAll() {
+    if (weighted != null) {
+      weighted.invalidateAll();
+      return;
+    }
     this.cache.invalidateAll();
   }
 
+  /**
+   * Runs the pending maintenance of a weighted cache, its size and evictions are otherwise
+   * updated asynchronously.
+   */
+  void cleanUp() {
+    if (weighted != null) {
+      weighted.cleanUp();
+    }
+  }
+
+  boolean isWeighted() {
+    return weighted != null;
+  }
+
+  /**
+   * @return the bytes held by a weighted cache, 0 for the others.
+   */
+  public long weightedSize() {
+    return weighted == null ? 0 : weighted.policy().eviction()
+        .map(e -> e.weightedSize().orElse(0L)).orElse(0L);
+  }
+
+  /**
+   * @return the byte budget of a weighted cache, 0 for the others.
+   */
+  public long maximumBytes() {
+    return weighted == null ? 0 : weighted.policy().eviction()
+        .map(Policy.Eviction::getMaximum).orElse(0L);
+  }
+
+  void setMaximumBytes(long maximumBytes) {
+    weighted.policy().eviction().ifPresent(e -> e.setMaximum(maximumBytes));
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
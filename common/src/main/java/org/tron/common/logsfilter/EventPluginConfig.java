@@ -15,6 +15,9 @@ public class EventPluginConfig {
   public static final String SOLIDITY_EVENT_NAME = "solidityevent";
   public static final String SOLIDITY_LOG_NAME = "soliditylog";
 
+  public static final String ENCODING_JSON = "json";
+  public static final String ENCODING_PROTOBUF = "protobuf";
+
   @Getter
   @Setter
   private String pluginPath;
@@ -39,6 +42,18 @@ public class EventPluginConfig {
   @Setter
   private int sendQueueLength;
 
+  @Getter
+  @Setter
+  private String encoding;
+
+  @Getter
+  @Setter
+  private boolean batch;
+
+  @Getter
+  @Setter
+  private int workers;
+
 
   @Getter
   @Setter
@@ -51,6 +66,9 @@ public class EventPluginConfig {
     useNativeQueue = false;
     bindPort = 0;
     sendQueueLength = 0;
+    encoding = ENCODING_JSON;
+    batch = false;
+    workers = 1;
     triggerConfigList = new ArrayList<>();
   }
 }
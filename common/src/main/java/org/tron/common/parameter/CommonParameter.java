@@ -223,6 +223,9 @@ public class CommonParameter {
   public int jsonRpcHttpPBFTPort;
   @Getter
   @Setter
+  public int jsonRpcSectionCacheSize;
+  @Getter
+  @Setter
   @Parameter(names = {"--rpc-thread"}, description = "Num of gRPC thread")
   public int rpcThreadNum;
   @Getter
@@ -441,6 +444,9 @@ public class CommonParameter {
   @Getter
   public int maxFastForwardNum;
   @Getter
+  @Setter
+  public boolean compactBlock;
+  @Getter
   public Storage storage;
   @Getter
   public Overlay overlay;
@@ -563,6 +569,10 @@ public class CommonParameter {
   @Parameter(names = {"--history-balance-lookup"})
   public boolean historyBalanceLookup = false;
 
+  @Getter
+  @Setter
+  public boolean archiveEnable = false;
+
   @Getter
   @Setter
   public boolean openPrintLog = true;
@@ -674,6 +684,38 @@ public class CommonParameter {
   @Setter
   public long maxCreateAccountTxSize = 1000L;
 
+  @Getter
+  @Setter
+  public boolean parallelExecutionEnable;
+
+  @Getter
+  @Setter
+  public int parallelExecutionThreadNum;
+
+  @Getter
+  @Setter
+  public boolean parallelExecutionCommit;
+
+  @Getter
+  @Setter
+  public int signatureCacheSize;
+
+  @Getter
+  @Setter
+  public int contractCacheSize;
+
+  @Getter
+  @Setter
+  public int pendingPoolShardNum;
+
+  @Getter
+  @Setter
+  public boolean pendingPoolConcurrentAdmission;
+
+  @Getter
+  @Setter
+  public boolean blockAssemblyEnable;
+
   private static double calcMaxTimeRatio() {
     //return max(2.0, min(5.0, 5 * 4.0 / max(Runtime.getRuntime().availableProcessors(), 1)));
     return 5.0;
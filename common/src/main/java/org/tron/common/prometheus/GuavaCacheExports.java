@@ -8,6 +8,7 @@ import io.prometheus.client.Predicate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.tron.common.cache.CacheManager;
 
 /**
@@ -23,6 +24,7 @@ import org.tron.common.cache.CacheManager;
  * <pre>
  *   tron:guava_cache_hit_rate{type="account"} 0.135679
  *   tron:guava_cache_request{type="account"} 3000
+ *   tron:cache_bytes{type="account"} 52428800
  * </pre>
  */
 public class GuavaCacheExports extends Collector {
@@ -30,6 +32,9 @@ public class GuavaCacheExports extends Collector {
   private static final String TRON_GUAVA_CACHE_HIT_RATE = "tron:guava_cache_hit_rate";
   private static final String TRON_GUAVA_CACHE_REQUEST = "tron:guava_cache_request";
   private static final String TRON_GUAVA_CACHE_EVICTION_COUNT = "tron:guava_cache_eviction_count";
+  private static final String TRON_GUAVA_CACHE_MISS_COUNT = "tron:guava_cache_miss_count";
+  private static final String TRON_CACHE_BYTES = "tron:cache_bytes";
+  private static final String TRON_CACHE_BUDGET_BYTES = "tron:cache_budget_bytes";
 
 
   public GuavaCacheExports() {
@@ -73,6 +78,39 @@ public class GuavaCacheExports extends Collector {
     }
   }
 
+  void addMissCountMetrics(List<MetricFamilySamples> sampleFamilies,
+                           Predicate<String> nameFilter) {
+    if (nameFilter.test(TRON_GUAVA_CACHE_MISS_COUNT)) {
+      GaugeMetricFamily miss = new GaugeMetricFamily(
+          TRON_GUAVA_CACHE_MISS_COUNT,
+          "Miss count of a guava cache.",
+          Collections.singletonList("type"));
+      CacheManager.stats().forEach((k, v) -> miss
+          .addMetric(Collections.singletonList(k), v.missCount()));
+      sampleFamilies.add(miss);
+    }
+  }
+
+  void addBytesMetrics(List<MetricFamilySamples> sampleFamilies, Predicate<String> nameFilter) {
+    Map<String, long[]> bytes = CacheManager.bytes();
+    if (nameFilter.test(TRON_CACHE_BYTES)) {
+      GaugeMetricFamily used = new GaugeMetricFamily(
+          TRON_CACHE_BYTES,
+          "Bytes held by a weighted cache.",
+          Collections.singletonList("type"));
+      bytes.forEach((k, v) -> used.addMetric(Collections.singletonList(k), v[0]));
+      sampleFamilies.add(used);
+    }
+    if (nameFilter.test(TRON_CACHE_BUDGET_BYTES)) {
+      GaugeMetricFamily budget = new GaugeMetricFamily(
+          TRON_CACHE_BUDGET_BYTES,
+          "Bytes a weighted cache may currently hold.",
+          Collections.singletonList("type"));
+      bytes.forEach((k, v) -> budget.addMetric(Collections.singletonList(k), v[1]));
+      sampleFamilies.add(budget);
+    }
+  }
+
   @Override
   public List<MetricFamilySamples> collect() {
     return collect(null);
@@ -84,6 +122,8 @@ public class GuavaCacheExports extends Collector {
     addHitRateMetrics(mfs, nameFilter == null ? ALLOW_ALL : nameFilter);
     addRequestMetrics(mfs, nameFilter == null ? ALLOW_ALL : nameFilter);
     addEvictionCountMetrics(mfs, nameFilter == null ? ALLOW_ALL : nameFilter);
+    addMissCountMetrics(mfs, nameFilter == null ? ALLOW_ALL : nameFilter);
+    addBytesMetrics(mfs, nameFilter == null ? ALLOW_ALL : nameFilter);
     return mfs;
   }
 }
@@ -17,6 +17,12 @@ public class MetricKeys {
     public static final String P2P_ERROR = "tron:p2p_error";
     public static final String P2P_DISCONNECT = "tron:p2p_disconnect";
     public static final String INTERNAL_SERVICE_FAIL = "tron:internal_service_fail";
+    public static final String PARALLEL_EXECUTION_TXS = "tron:parallel_execution_txs";
+    public static final String VM_CODE_CACHE = "tron:vm_code_cache";
+    public static final String CONTRACT_CACHE = "tron:contract_cache";
+    public static final String PENDING_REVALIDATE = "tron:pending_revalidate";
+    public static final String ARCHIVE_WRITES = "tron:archive_writes";
+    public static final String COMPACT_BLOCK_TXS = "tron:compact_block_txs";
 
     private Counter() {
       throw new IllegalStateException("Counter");
@@ -33,6 +39,10 @@ public class MetricKeys {
     public static final String DB_SST_LEVEL = "tron:db_sst_level";
     public static final String MANAGER_QUEUE = "tron:manager_queue_size";
     public static final String TX_CACHE = "tron:tx_cache";
+    public static final String SNAPSHOT_LAYER = "tron:snapshot_layer";
+    public static final String VM_CODE_CACHE_SIZE = "tron:vm_code_cache_size";
+    public static final String ADV_SPREAD_QUEUE = "tron:adv_spread_queue";
+    public static final String EVENT_LAG = "tron:event_lag_blocks";
 
     private Gauge() {
       throw new IllegalStateException("Gauge");
@@ -62,6 +72,12 @@ public class MetricKeys {
     public static final String MESSAGE_PROCESS_LATENCY = "tron:message_process_latency_seconds";
     public static final String BLOCK_FETCH_LATENCY = "tron:block_fetch_latency_seconds";
     public static final String BLOCK_RECEIVE_DELAY = "tron:block_receive_delay_seconds";
+    public static final String PARALLEL_EXECUTION_LATENCY =
+        "tron:parallel_execution_latency_seconds";
+    public static final String TRANSACTION_ADMISSION_LATENCY =
+        "tron:transaction_admission_latency_seconds";
+    public static final String SNAPSHOT_FLUSH_LATENCY = "tron:snapshot_flush_latency_seconds";
+    public static final String ADV_SPREAD_LATENCY = "tron:adv_spread_latency_seconds";
 
     private Histogram() {
       throw new IllegalStateException("Histogram");
@@ -31,6 +31,20 @@ public class MetricLabels {
     public static final String TXS_FAIL_SIG = "sig";
     public static final String TXS_FAIL_TAPOS = "tapos";
     public static final String TXS_FAIL_DUP = "dup";
+    public static final String PARALLEL_NO_CONFLICT = "no_conflict";
+    public static final String PARALLEL_CONFLICT = "conflict";
+    public static final String PARALLEL_MISMATCH = "mismatch";
+    public static final String CODE_CACHE_HIT = "hit";
+    public static final String CODE_CACHE_MISS = "miss";
+    public static final String CONTRACT_CACHE_HIT = "hit";
+    public static final String CONTRACT_CACHE_MISS = "miss";
+    public static final String PENDING_REPLAYED = "replayed";
+    public static final String PENDING_REEXECUTED = "reexecuted";
+    public static final String ARCHIVE_VERSIONS = "versions";
+    public static final String ARCHIVE_BYTES = "bytes";
+    public static final String COMPACT_PREFILLED = "prefilled";
+    public static final String COMPACT_POOL = "pool";
+    public static final String COMPACT_FETCHED = "fetched";
 
     private Counter() {
       throw new IllegalStateException("Counter");
@@ -49,6 +63,8 @@ public class MetricLabels {
 
     public static final String QUEUE_QUEUED = "queued";
 
+    public static final String QUEUE_TRIGGER = "trigger";
+
     public static final String PEERS_ACTIVE = "active";
 
     public static final String PEERS_PASSIVE = "passive";
@@ -57,6 +73,14 @@ public class MetricLabels {
 
     public static final String PEERS_VALID = "valid";
 
+    public static final String SNAPSHOT_BYTES = "bytes";
+
+    public static final String SNAPSHOT_INDEX_KEYS = "index_keys";
+
+    public static final String SPREAD_GLOBAL = "global";
+
+    public static final String SPREAD_PEER = "peer";
+
     private Gauge() {
       throw new IllegalStateException("Gauge");
     }
@@ -68,6 +92,13 @@ public class MetricLabels {
   public static class Histogram {
     public static final String TRAFFIC_IN = "in";
     public static final String TRAFFIC_OUT = "out";
+    public static final String ADMISSION_SERIAL = "serial";
+    public static final String ADMISSION_SPECULATIVE = "speculative";
+    public static final String FLUSH_CHECKPOINT = "checkpoint";
+    public static final String FLUSH_REFRESH = "refresh";
+    public static final String FLUSH_WAIT = "wait";
+    public static final String SPREAD_BLOCK = "block";
+    public static final String SPREAD_TRX = "trx";
 
     private Histogram() {
       throw new IllegalStateException("Histogram");
@@ -18,6 +18,14 @@ class MetricsCounter {
     init(MetricKeys.Counter.P2P_DISCONNECT, "tron p2p disconnect .", "type");
     init(MetricKeys.Counter.INTERNAL_SERVICE_FAIL, "internal Service fail.",
         "class", "method");
+    init(MetricKeys.Counter.PARALLEL_EXECUTION_TXS, "tron parallel execution txs .", "type");
+    init(MetricKeys.Counter.VM_CODE_CACHE, "tron vm code cache lookups .", "type");
+    init(MetricKeys.Counter.CONTRACT_CACHE, "tron contract cache lookups .", "db", "type");
+    init(MetricKeys.Counter.PENDING_REVALIDATE, "tron pending txs revalidated after a block .",
+        "type");
+    init(MetricKeys.Counter.ARCHIVE_WRITES, "tron archived state versions .", "db", "type");
+    init(MetricKeys.Counter.COMPACT_BLOCK_TXS, "tron transactions of compact blocks received .",
+        "type");
   }
 
   private MetricsCounter() {
@@ -19,6 +19,13 @@ class MetricsGauge {
     init(MetricKeys.Gauge.DB_SIZE_BYTES, "tron  db  size .", "type", "db", "level");
     init(MetricKeys.Gauge.DB_SST_LEVEL, "tron  db  files .", "type", "db", "level");
     init(MetricKeys.Gauge.TX_CACHE, "tron tx cache info.", "type");
+    init(MetricKeys.Gauge.SNAPSHOT_LAYER, "tron snapshot layers info.", "type", "db");
+    init(MetricKeys.Gauge.VM_CODE_CACHE_SIZE, "tron vm code cache size.");
+    init(MetricKeys.Gauge.ADV_SPREAD_QUEUE,
+        "inventory waiting to be spread, global before the spread, peer in the peer queues.",
+        "type");
+    init(MetricKeys.Gauge.EVENT_LAG,
+        "blocks between the head and the last block whose triggers were published.", "shard");
   }
 
   private MetricsGauge() {
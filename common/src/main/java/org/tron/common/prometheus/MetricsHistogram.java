@@ -48,6 +48,15 @@ public class MetricsHistogram {
     init(MetricKeys.Histogram.BLOCK_FETCH_LATENCY, "fetch block latency.");
     init(MetricKeys.Histogram.BLOCK_RECEIVE_DELAY,
         "receive block delay time, receiveTime - blockTime.");
+    init(MetricKeys.Histogram.PARALLEL_EXECUTION_LATENCY,
+        "speculative parallel execution latency of block transactions.");
+    init(MetricKeys.Histogram.TRANSACTION_ADMISSION_LATENCY,
+        "latency of transaction admission to the pending pool.", "type");
+    init(MetricKeys.Histogram.SNAPSHOT_FLUSH_LATENCY,
+        "latency of snapshot flush stages, wait is the time block processing was blocked.",
+        "stage");
+    init(MetricKeys.Histogram.ADV_SPREAD_LATENCY,
+        "time the inventory waited to be sent to a peer.", "type");
   }
 
   private MetricsHistogram() {
@@ -139,6 +139,7 @@ public class Constant {
   public static final String NODE_JSONRPC_HTTP_SOLIDITY_PORT = "node.jsonrpc.httpSolidityPort";
   public static final String NODE_JSONRPC_HTTP_PBFT_ENABLE = "node.jsonrpc.httpPBFTEnable";
   public static final String NODE_JSONRPC_HTTP_PBFT_PORT = "node.jsonrpc.httpPBFTPort";
+  public static final String NODE_JSONRPC_SECTION_CACHE_SIZE = "node.jsonrpc.sectionCacheSize";
 
   public static final String NODE_DISABLED_API_LIST = "node.disabledApi";
 
@@ -256,6 +257,8 @@ public class Constant {
 
   public static final String NODE_MAX_FAST_FORWARD_NUM = "node.maxFastForwardNum";
 
+  public static final String NODE_COMPACT_BLOCK = "node.compactBlock";
+
   public static final String NODE_SHIELDED_TRANS_IN_PENDING_MAX_COUNTS = "node.shieldedTransInPendingMaxCounts";
 
   public static final String RATE_LIMITER = "rate.limiter";
@@ -278,6 +281,12 @@ public class Constant {
 
   public static final String NATIVE_QUEUE_SEND_LENGTH = "event.subscribe.native.sendqueuelength";
 
+  public static final String NATIVE_QUEUE_ENCODING = "event.subscribe.native.encoding";
+
+  public static final String NATIVE_QUEUE_BATCH = "event.subscribe.native.batch";
+
+  public static final String EVENT_SUBSCRIBE_WORKERS = "event.subscribe.workers";
+
   public static final String EVENT_SUBSCRIBE_PATH = "event.subscribe.path";
   public static final String EVENT_SUBSCRIBE_SERVER = "event.subscribe.server";
   public static final String EVENT_SUBSCRIBE_DB_CONFIG = "event.subscribe.dbconfig";
@@ -339,6 +348,7 @@ public class Constant {
   public static final String METRICS_PROMETHEUS_PORT = "node.metrics.prometheus.port";
 
   public static final String HISTORY_BALANCE_LOOKUP = "storage.balance.history.lookup";
+  public static final String ARCHIVE_ENABLE = "storage.archive.enable";
   public static final String OPEN_PRINT_LOG = "node.openPrintLog";
   public static final String OPEN_TRANSACTION_SORT = "node.openTransactionSort";
 
@@ -384,4 +394,19 @@ public class Constant {
   public static final String COMMITTEE_ALLOW_OLD_REWARD_OPT = "committee.allowOldRewardOpt";
 
   public static final String COMMITTEE_ALLOW_ENERGY_ADJUSTMENT = "committee.allowEnergyAdjustment";
+
+  public static final String NODE_PARALLEL_EXECUTION_ENABLE = "node.parallelExecution.enable";
+  public static final String NODE_PARALLEL_EXECUTION_THREAD_NUM =
+      "node.parallelExecution.threadNum";
+  public static final String NODE_PARALLEL_EXECUTION_COMMIT = "node.parallelExecution.commit";
+
+  public static final String NODE_SIGNATURE_CACHE_SIZE = "node.signatureCacheSize";
+
+  public static final String NODE_CONTRACT_CACHE_SIZE = "node.contractCacheSize";
+
+  public static final String NODE_PENDING_POOL_SHARD_NUM = "node.pendingPool.shardNum";
+  public static final String NODE_PENDING_POOL_CONCURRENT_ADMISSION =
+      "node.pendingPool.concurrentAdmission";
+
+  public static final String NODE_BLOCK_ASSEMBLY_ENABLE = "node.blockAssembly.enable";
 }
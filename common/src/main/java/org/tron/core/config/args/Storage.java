@@ -50,12 +50,16 @@ public class Storage {
   private static final String DB_DIRECTORY_CONFIG_KEY = "storage.db.directory";
   private static final String DB_ENGINE_CONFIG_KEY = "storage.db.engine";
   private static final String DB_SYNC_CONFIG_KEY = "storage.db.sync";
+  private static final String DB_COLUMN_FAMILIES_CONFIG_KEY = "storage.db.columnFamilies";
+  private static final String DB_WRITE_BUFFER_SIZE_CONFIG_KEY = "storage.db.writeBufferSize";
+  private static final String DB_PROFILES_CONFIG_KEY = "storage.db.profiles";
   private static final String INDEX_DIRECTORY_CONFIG_KEY = "storage.index.directory";
   private static final String INDEX_SWITCH_CONFIG_KEY = "storage.index.switch";
   private static final String TRANSACTIONHISTORY_SWITCH_CONFIG_KEY = "storage.transHistory.switch";
   private static final String ESTIMATED_TRANSACTIONS_CONFIG_KEY =
       "storage.txCache.estimatedTransactions";
   private static final String SNAPSHOT_MAX_FLUSH_COUNT_CONFIG_KEY = "storage.snapshot.maxFlushCount";
+  private static final String SNAPSHOT_ASYNC_FLUSH_CONFIG_KEY = "storage.snapshot.asyncFlush";
   private static final String PROPERTIES_CONFIG_KEY = "storage.properties";
   private static final String PROPERTIES_CONFIG_DB_KEY = "storage";
   private static final String PROPERTIES_CONFIG_DEFAULT_KEY = "default";
@@ -79,7 +83,9 @@ public class Storage {
   private static final String CHECKPOINT_SYNC_KEY = "storage.checkpoint.sync";
 
   private static final String CACHE_STRATEGIES = "storage.cache.strategies";
+  private static final String CACHE_BUDGET = "storage.cache.budget";
   public static final String TX_CACHE_INIT_OPTIMIZATION = "storage.txCache.initOptimization";
+  public static final String TX_CACHE_EXACT_INDEX = "storage.txCache.exactIndex";
 
   private static final String MERKLE_ROOT = "storage.merkleRoot";
 
@@ -113,10 +119,29 @@ public class Storage {
   @Setter
   private boolean dbSync;
 
+  // rocksdb only, the stores are column families of a single instance
+  @Getter
+  @Setter
+  private boolean dbColumnFamilies = false;
+
+  // bytes of memtables shared by the column families, 0 for no limit
+  @Getter
+  @Setter
+  private long dbWriteBufferSize = 0;
+
+  // rocksdb only, the stores are tuned after the layout of their keys
+  @Getter
+  @Setter
+  private boolean dbProfiles = false;
+
   @Getter
   @Setter
   private int maxFlushCount;
 
+  @Getter
+  @Setter
+  private boolean asyncFlush = false;
+
   /**
    * Index storage directory: /path/to/{indexDirectory}
    */
@@ -154,11 +179,20 @@ public class Storage {
   @Setter
   private boolean txCacheInitOptimization = false;
 
+  @Getter
+  @Setter
+  private boolean txCacheExactIndex = false;
+
   // second cache
   private final Map<CacheType, String> cacheStrategies = Maps.newConcurrentMap();
 
   @Getter
   private final List<String> cacheDbs = CacheStrategies.CACHE_DBS;
+
+  // bytes shared by the caches of cacheDbs, 0 to bound each one by its strategy
+  @Getter
+  @Setter
+  private long cacheBudget = 0;
   // second cache
 
   /**
@@ -180,6 +214,20 @@ public class Storage {
         ? config.getBoolean(DB_SYNC_CONFIG_KEY) : DEFAULT_DB_SYNC;
   }
 
+  public static boolean getDbColumnFamiliesFromConfig(final Config config) {
+    return config.hasPath(DB_COLUMN_FAMILIES_CONFIG_KEY)
+        && config.getBoolean(DB_COLUMN_FAMILIES_CONFIG_KEY);
+  }
+
+  public static long getDbWriteBufferSizeFromConfig(final Config config) {
+    return config.hasPath(DB_WRITE_BUFFER_SIZE_CONFIG_KEY)
+        ? config.getBytes(DB_WRITE_BUFFER_SIZE_CONFIG_KEY) : 0;
+  }
+
+  public static boolean getDbProfilesFromConfig(final Config config) {
+    return config.hasPath(DB_PROFILES_CONFIG_KEY) && config.getBoolean(DB_PROFILES_CONFIG_KEY);
+  }
+
   public static int getSnapshotMaxFlushCountFromConfig(final Config config) {
     if (!config.hasPath(SNAPSHOT_MAX_FLUSH_COUNT_CONFIG_KEY)) {
       return DEFAULT_SNAPSHOT_MAX_FLUSH_COUNT;
@@ -194,6 +242,11 @@ public class Storage {
     return maxFlushCountConfig;
   }
 
+  public static boolean getSnapshotAsyncFlushFromConfig(final Config config) {
+    return config.hasPath(SNAPSHOT_ASYNC_FLUSH_CONFIG_KEY)
+        && config.getBoolean(SNAPSHOT_ASYNC_FLUSH_CONFIG_KEY);
+  }
+
   public static Boolean getContractParseSwitchFromConfig(final Config config) {
     return config.hasPath(EVENT_SUBSCRIBE_CONTRACT_PARSE)
         ? config.getBoolean(EVENT_SUBSCRIBE_CONTRACT_PARSE)
@@ -252,6 +305,10 @@ public class Storage {
         && config.getBoolean(TX_CACHE_INIT_OPTIMIZATION);
   }
 
+  public static boolean getTxCacheExactIndexFromConfig(final Config config) {
+    return config.hasPath(TX_CACHE_EXACT_INDEX) && config.getBoolean(TX_CACHE_EXACT_INDEX);
+  }
+
 
   public  void setCacheStrategies(Config config) {
     if (config.hasPath(CACHE_STRATEGIES)) {
@@ -259,6 +316,9 @@ public class Storage {
           this.cacheStrategies.put(CacheType.valueOf(c.getKey()),
               c.getValue().unwrapped().toString()));
     }
+    if (config.hasPath(CACHE_BUDGET)) {
+      this.cacheBudget = config.getBytes(CACHE_BUDGET);
+    }
   }
 
   public String getCacheStrategy(CacheType dbName) {
@@ -584,6 +584,107 @@ public class ECKey implements Serializable, SignInterface {
     return q.getEncoded(/* compressed */ false);
   }
 
+  /**
+   * Computes the addresses of the keys that signed many messages at once. The result is the same
+   * as calling {@link #signatureToAddress(byte[], ECDSASignature)} for each of them, but the
+   * modular inversions of r and the conversions of the recovered points to affine coordinates are
+   * each batched into a single inversion (Montgomery's trick).
+   *
+   * @param messageHashes 32-byte hash of each message
+   * @param sigs signature of each message
+   * @return 20-byte address of each signature, null where the key cannot be recovered
+   */
+  public static byte[][] signaturesToAddresses(byte[][] messageHashes, ECDSASignature[] sigs) {
+    check(messageHashes.length == sigs.length, "messageHashes and sigs have different lengths");
+    int size = sigs.length;
+    BigInteger n = CURVE.getN();
+    ECCurve.Fp curve = (ECCurve.Fp) CURVE.getCurve();
+    BigInteger prime = curve.getQ();
+    // with a cofactor of 1 every point of the curve has order n
+    boolean cofactorOne = BigInteger.ONE.equals(CURVE.getH());
+
+    ECPoint[] rPoints = new ECPoint[size];
+    BigInteger[] rs = new BigInteger[size];
+    for (int k = 0; k < size; k++) {
+      ECDSASignature sig = sigs[k];
+      if (sig == null || messageHashes[k] == null || messageHashes[k].length != 32
+          || sig.r.signum() < 0 || sig.s.signum() < 0) {
+        continue;
+      }
+      int header = sig.v;
+      if (header < 27 || header > 34) {
+        continue;
+      }
+      if (header >= 31) {
+        header -= 4;
+      }
+      int recId = header - 27;
+      BigInteger r = sig.r.mod(n);
+      BigInteger x = sig.r.add(BigInteger.valueOf((long) recId / 2).multiply(n));
+      if (r.signum() == 0 || x.compareTo(prime) >= 0) {
+        continue;
+      }
+      try {
+        ECPoint point = decompressKey(x, (recId & 1) == 1);
+        if (cofactorOne || point.multiply(n).isInfinity()) {
+          rPoints[k] = point;
+          rs[k] = r;
+        }
+      } catch (RuntimeException e) {
+        // not a point of the curve
+      }
+    }
+
+    BigInteger[] rInvs = modInverseAll(rs, n);
+    ECPoint[] qs = new ECPoint[size];
+    for (int k = 0; k < size; k++) {
+      if (rPoints[k] == null) {
+        continue;
+      }
+      BigInteger e = new BigInteger(1, messageHashes[k]);
+      BigInteger eInv = BigInteger.ZERO.subtract(e).mod(n);
+      BigInteger srInv = rInvs[k].multiply(sigs[k].s).mod(n);
+      BigInteger eInvrInv = rInvs[k].multiply(eInv).mod(n);
+      try {
+        qs[k] = ECAlgorithms.sumOfTwoMultiplies(CURVE.getG(), eInvrInv, rPoints[k], srInv);
+      } catch (RuntimeException ex) {
+        // invalid result, left unrecovered
+      }
+    }
+    curve.normalizeAll(qs);
+
+    byte[][] addresses = new byte[size][];
+    for (int k = 0; k < size; k++) {
+      if (qs[k] != null) {
+        addresses[k] = Hash.computeAddress(qs[k].getEncoded(/* compressed */ false));
+      }
+    }
+    return addresses;
+  }
+
+  /**
+   * Inverts all the non null values modulo the prime {@code modulus} with a single modular
+   * inversion, the values must not be 0.
+   */
+  private static BigInteger[] modInverseAll(BigInteger[] values, BigInteger modulus) {
+    BigInteger[] inverses = new BigInteger[values.length];
+    BigInteger product = BigInteger.ONE;
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null) {
+        inverses[i] = product;
+        product = product.multiply(values[i]).mod(modulus);
+      }
+    }
+    BigInteger inverse = product.modInverse(modulus);
+    for (int i = values.length - 1; i >= 0; i--) {
+      if (values[i] != null) {
+        inverses[i] = inverses[i].multiply(inverse).mod(modulus);
+        inverse = inverse.multiply(values[i]).mod(modulus);
+      }
+    }
+    return inverses;
+  }
+
   /**
    * @param recId Which possible key to recover.
    * @param sig the R and S components of the signature, wrapped.
@@ -44,6 +44,32 @@ public class SignUtils {
     return SM2.SM2Signature.fromComponents(r, s, v);
   }
 
+  /**
+   * Recovers the signer addresses of many signatures at once, batching the costly inversions
+   * with the ECKey engine.
+   *
+   * @return the address of each signature, null where it cannot be recovered.
+   */
+  public static byte[][] signaturesToAddresses(byte[][] messageHashes,
+      SignatureInterface[] signatures, boolean isECKeyCryptoEngine) {
+    if (isECKeyCryptoEngine) {
+      ECDSASignature[] sigs = new ECDSASignature[signatures.length];
+      for (int i = 0; i < signatures.length; i++) {
+        sigs[i] = (ECDSASignature) signatures[i];
+      }
+      return ECKey.signaturesToAddresses(messageHashes, sigs);
+    }
+    byte[][] addresses = new byte[signatures.length][];
+    for (int i = 0; i < signatures.length; i++) {
+      try {
+        addresses[i] = SM2.signatureToAddress(messageHashes[i], (SM2Signature) signatures[i]);
+      } catch (Exception e) {
+        addresses[i] = null;
+      }
+    }
+    return addresses;
+  }
+
   public static byte[] signatureToAddress(
       byte[] messageHash, SignatureInterface signatureInterface, boolean isECKeyCryptoEngine)
       throws SignatureException {
@@ -1,11 +1,12 @@
 package org.tron.common.logsfilter;
 
 import com.beust.jcommander.internal.Sets;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -34,7 +35,12 @@ public class EventPluginLoader {
 
   private List<IPluginEventListener> eventListeners;
 
-  private ObjectMapper objectMapper = new ObjectMapper();
+  private TriggerEncoder encoder = new TriggerEncoder(EventPluginConfig.ENCODING_JSON);
+
+  private boolean batch = false;
+
+  // the triggers of the block being processed by the thread, by topic, see beginBatch
+  private final ThreadLocal<Map<String, List<byte[]>>> batches = new ThreadLocal<>();
 
   private String serverAddress;
 
@@ -222,6 +228,8 @@ public class EventPluginLoader {
     this.triggerConfigList = config.getTriggerConfigList();
 
     useNativeQueue = config.isUseNativeQueue();
+    encoder = new TriggerEncoder(config.getEncoding());
+    batch = config.isBatch();
 
     if (config.isUseNativeQueue()) {
       return launchNativeQueue(config);
@@ -350,11 +358,10 @@ public class EventPluginLoader {
 
   public void postSolidityTrigger(SolidityTrigger trigger) {
     if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
+      publishNative(trigger);
     } else {
-      eventListeners.forEach(listener ->
-          listener.handleSolidityTrigger(toJsonString(trigger)));
+      String data = toJsonString(trigger);
+      eventListeners.forEach(listener -> listener.handleSolidityTrigger(data));
     }
   }
 
@@ -463,73 +470,93 @@ public class EventPluginLoader {
 
   public void postBlockTrigger(BlockLogTrigger trigger) {
     if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
+      publishNative(trigger);
     } else {
-      eventListeners.forEach(listener ->
-          listener.handleBlockEvent(toJsonString(trigger)));
+      String data = toJsonString(trigger);
+      eventListeners.forEach(listener -> listener.handleBlockEvent(data));
     }
   }
 
   public void postSolidityLogTrigger(ContractLogTrigger trigger) {
     if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
+      publishNative(trigger);
     } else {
-      eventListeners.forEach(listener ->
-          listener.handleSolidityLogTrigger(toJsonString(trigger)));
+      String data = toJsonString(trigger);
+      eventListeners.forEach(listener -> listener.handleSolidityLogTrigger(data));
     }
   }
 
   public void postSolidityEventTrigger(ContractEventTrigger trigger) {
     if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
+      publishNative(trigger);
     } else {
-      eventListeners.forEach(listener ->
-          listener.handleSolidityEventTrigger(toJsonString(trigger)));
+      String data = toJsonString(trigger);
+      eventListeners.forEach(listener -> listener.handleSolidityEventTrigger(data));
     }
   }
 
   public void postTransactionTrigger(TransactionLogTrigger trigger) {
     if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
+      publishNative(trigger);
     } else {
-      eventListeners.forEach(listener -> listener.handleTransactionTrigger(toJsonString(trigger)));
+      String data = toJsonString(trigger);
+      eventListeners.forEach(listener -> listener.handleTransactionTrigger(data));
     }
   }
 
   public void postContractLogTrigger(ContractLogTrigger trigger) {
     if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
+      publishNative(trigger);
     } else {
-      eventListeners.forEach(listener ->
-          listener.handleContractLogTrigger(toJsonString(trigger)));
+      String data = toJsonString(trigger);
+      eventListeners.forEach(listener -> listener.handleContractLogTrigger(data));
     }
   }
 
   public void postContractEventTrigger(ContractEventTrigger trigger) {
     if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
+      publishNative(trigger);
     } else {
-      eventListeners.forEach(listener ->
-          listener.handleContractEventTrigger(toJsonString(trigger)));
+      String data = toJsonString(trigger);
+      eventListeners.forEach(listener -> listener.handleContractEventTrigger(data));
     }
   }
 
   private String toJsonString(Object data) {
-    String jsonData = "";
+    return encoder.toJsonString(data);
+  }
+
+  private void publishNative(Trigger trigger) {
+    byte[] data = encoder.encode(trigger);
+    Map<String, List<byte[]>> topics = batches.get();
+    if (topics != null) {
+      topics.computeIfAbsent(trigger.getTriggerName(), topic -> new ArrayList<>()).add(data);
+    } else {
+      NativeMessageQueue.getInstance().publishTrigger(data, trigger.getTriggerName());
+    }
+  }
 
-    try {
-      jsonData = objectMapper.writeValueAsString(data);
-    } catch (JsonProcessingException e) {
-      logger.error("'{}'", e);
+  /**
+   * Collects the triggers the calling thread publishes to the native queue until
+   * {@link #flushBatch}, when the batches are enabled.
+   */
+  public void beginBatch() {
+    if (useNativeQueue && batch && batches.get() == null) {
+      batches.set(new LinkedHashMap<>());
     }
+  }
 
-    return jsonData;
+  /**
+   * Publishes the triggers collected by the calling thread, one message per topic.
+   */
+  public void flushBatch() {
+    Map<String, List<byte[]>> topics = batches.get();
+    if (topics == null || topics.isEmpty()) {
+      return;
+    }
+    topics.forEach((topic, triggers) -> NativeMessageQueue.getInstance()
+        .publishTrigger(encoder.encodeBatch(triggers), topic));
+    topics.clear();
   }
 
   public synchronized FilterQuery getFilterQuery() {
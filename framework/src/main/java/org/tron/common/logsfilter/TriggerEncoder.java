@@ -0,0 +1,237 @@
+package org.tron.common.logsfilter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.logsfilter.trigger.BlockLogTrigger;
+import org.tron.common.logsfilter.trigger.ContractEventTrigger;
+import org.tron.common.logsfilter.trigger.ContractLogTrigger;
+import org.tron.common.logsfilter.trigger.ContractTrigger;
+import org.tron.common.logsfilter.trigger.InternalTransactionPojo;
+import org.tron.common.logsfilter.trigger.LogPojo;
+import org.tron.common.logsfilter.trigger.SolidityTrigger;
+import org.tron.common.logsfilter.trigger.TransactionLogTrigger;
+import org.tron.common.logsfilter.trigger.Trigger;
+import org.tron.protos.TronEvent;
+
+/**
+ * Encodes the triggers published by the native queue, as json or as the messages of
+ * TronEvent.proto.
+ */
+@Slf4j(topic = "event")
+public class TriggerEncoder {
+
+  private static final byte[] JSON_OPEN = {'['};
+  private static final byte[] JSON_SEPARATOR = {','};
+  private static final byte[] JSON_CLOSE = {']'};
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final boolean protobuf;
+
+  public TriggerEncoder(String encoding) {
+    this.protobuf = EventPluginConfig.ENCODING_PROTOBUF.equals(encoding);
+  }
+
+  public String toJsonString(Object data) {
+    String jsonData = "";
+
+    try {
+      jsonData = objectMapper.writeValueAsString(data);
+    } catch (JsonProcessingException e) {
+      logger.error("'{}'", e);
+    }
+
+    return jsonData;
+  }
+
+  public byte[] encode(Trigger trigger) {
+    if (protobuf) {
+      return toProto(trigger).toByteArray();
+    }
+    return toJsonString(trigger).getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the triggers encoded by {@link #encode} as one message, a json array or a
+   *     TriggerBatch.
+   */
+  public byte[] encodeBatch(List<byte[]> triggers) {
+    if (protobuf) {
+      TronEvent.TriggerBatch.Builder batch = TronEvent.TriggerBatch.newBuilder();
+      triggers.forEach(trigger -> batch.addTriggers(ByteString.copyFrom(trigger)));
+      return batch.build().toByteArray();
+    }
+    int size = JSON_OPEN.length + JSON_CLOSE.length + Math.max(0, triggers.size() - 1);
+    for (byte[] trigger : triggers) {
+      size += trigger.length;
+    }
+    byte[] data = new byte[size];
+    int pos = append(data, 0, JSON_OPEN);
+    for (int i = 0; i < triggers.size(); i++) {
+      if (i > 0) {
+        pos = append(data, pos, JSON_SEPARATOR);
+      }
+      pos = append(data, pos, triggers.get(i));
+    }
+    append(data, pos, JSON_CLOSE);
+    return data;
+  }
+
+  private static int append(byte[] data, int pos, byte[] bytes) {
+    System.arraycopy(bytes, 0, data, pos, bytes.length);
+    return pos + bytes.length;
+  }
+
+  static MessageLite toProto(Trigger trigger) {
+    if (trigger instanceof BlockLogTrigger) {
+      return toProto((BlockLogTrigger) trigger);
+    }
+    if (trigger instanceof TransactionLogTrigger) {
+      return toProto((TransactionLogTrigger) trigger);
+    }
+    if (trigger instanceof ContractTrigger) {
+      return toProto((ContractTrigger) trigger);
+    }
+    if (trigger instanceof SolidityTrigger) {
+      SolidityTrigger solidity = (SolidityTrigger) trigger;
+      return TronEvent.SolidityTrigger.newBuilder()
+          .setTimeStamp(solidity.getTimeStamp())
+          .setTriggerName(Strings.nullToEmpty(solidity.getTriggerName()))
+          .setLatestSolidifiedBlockNumber(solidity.getLatestSolidifiedBlockNumber())
+          .build();
+    }
+    throw new IllegalArgumentException("unknown trigger " + trigger.getClass().getName());
+  }
+
+  private static TronEvent.BlockTrigger toProto(BlockLogTrigger trigger) {
+    TronEvent.BlockTrigger.Builder builder = TronEvent.BlockTrigger.newBuilder()
+        .setTimeStamp(trigger.getTimeStamp())
+        .setTriggerName(Strings.nullToEmpty(trigger.getTriggerName()))
+        .setBlockNumber(trigger.getBlockNumber())
+        .setBlockHash(Strings.nullToEmpty(trigger.getBlockHash()))
+        .setTransactionSize(trigger.getTransactionSize())
+        .setLatestSolidifiedBlockNumber(trigger.getLatestSolidifiedBlockNumber());
+    if (trigger.getTransactionList() != null) {
+      builder.addAllTransactionList(trigger.getTransactionList());
+    }
+    return builder.build();
+  }
+
+  private static TronEvent.TransactionTrigger toProto(TransactionLogTrigger trigger) {
+    TronEvent.TransactionTrigger.Builder builder = TronEvent.TransactionTrigger.newBuilder()
+        .setTimeStamp(trigger.getTimeStamp())
+        .setTriggerName(Strings.nullToEmpty(trigger.getTriggerName()))
+        .setTransactionId(Strings.nullToEmpty(trigger.getTransactionId()))
+        .setBlockHash(Strings.nullToEmpty(trigger.getBlockHash()))
+        .setBlockNumber(trigger.getBlockNumber())
+        .setEnergyUsage(trigger.getEnergyUsage())
+        .setEnergyFee(trigger.getEnergyFee())
+        .setOriginEnergyUsage(trigger.getOriginEnergyUsage())
+        .setEnergyUsageTotal(trigger.getEnergyUsageTotal())
+        .setNetUsage(trigger.getNetUsage())
+        .setNetFee(trigger.getNetFee())
+        .setResult(Strings.nullToEmpty(trigger.getResult()))
+        .setContractAddress(Strings.nullToEmpty(trigger.getContractAddress()))
+        .setContractType(Strings.nullToEmpty(trigger.getContractType()))
+        .setFeeLimit(trigger.getFeeLimit())
+        .setContractCallValue(trigger.getContractCallValue())
+        .setContractResult(Strings.nullToEmpty(trigger.getContractResult()))
+        .setFromAddress(Strings.nullToEmpty(trigger.getFromAddress()))
+        .setToAddress(Strings.nullToEmpty(trigger.getToAddress()))
+        .setAssetName(Strings.nullToEmpty(trigger.getAssetName()))
+        .setAssetAmount(trigger.getAssetAmount())
+        .setLatestSolidifiedBlockNumber(trigger.getLatestSolidifiedBlockNumber())
+        .setData(Strings.nullToEmpty(trigger.getData()))
+        .setTransactionIndex(trigger.getTransactionIndex())
+        .setCumulativeEnergyUsed(trigger.getCumulativeEnergyUsed())
+        .setPreCumulativeLogCount(trigger.getPreCumulativeLogCount())
+        .setEnergyUnitPrice(trigger.getEnergyUnitPrice());
+    if (trigger.getInternalTransactionList() != null) {
+      trigger.getInternalTransactionList().forEach(internal ->
+          builder.addInternalTransactionList(toProto(internal)));
+    }
+    if (trigger.getLogList() != null) {
+      trigger.getLogList().forEach(log -> builder.addLogList(toProto(log)));
+    }
+    putAll(trigger.getExtMap(), builder::putExtMap);
+    return builder.build();
+  }
+
+  private static TronEvent.InternalTransaction toProto(InternalTransactionPojo internal) {
+    TronEvent.InternalTransaction.Builder builder = TronEvent.InternalTransaction.newBuilder()
+        .setHash(Strings.nullToEmpty(internal.getHash()))
+        .setCallValue(internal.getCallValue())
+        .setTransferToAddress(Strings.nullToEmpty(internal.getTransferTo_address()))
+        .setData(Strings.nullToEmpty(internal.getData()))
+        .setCallerAddress(Strings.nullToEmpty(internal.getCaller_address()))
+        .setRejected(internal.isRejected())
+        .setNote(Strings.nullToEmpty(internal.getNote()))
+        .setExtra(Strings.nullToEmpty(internal.getExtra()));
+    putAll(internal.getTokenInfo(), builder::putTokenInfo);
+    return builder.build();
+  }
+
+  private static TronEvent.TransactionLog toProto(LogPojo log) {
+    TronEvent.TransactionLog.Builder builder = TronEvent.TransactionLog.newBuilder()
+        .setAddress(Strings.nullToEmpty(log.getAddress()))
+        .setBlockHash(Strings.nullToEmpty(log.getBlockHash()))
+        .setBlockNumber(log.getBlockNumber())
+        .setData(Strings.nullToEmpty(log.getData()))
+        .setLogIndex(log.getLogIndex())
+        .setTransactionHash(Strings.nullToEmpty(log.getTransactionHash()))
+        .setTransactionIndex(log.getTransactionIndex());
+    if (log.getTopicList() != null) {
+      builder.addAllTopicList(log.getTopicList());
+    }
+    return builder.build();
+  }
+
+  private static TronEvent.ContractTrigger toProto(ContractTrigger trigger) {
+    TronEvent.ContractTrigger.Builder builder = TronEvent.ContractTrigger.newBuilder()
+        .setTimeStamp(trigger.getTimeStamp())
+        .setTriggerName(Strings.nullToEmpty(trigger.getTriggerName()))
+        .setUniqueId(Strings.nullToEmpty(trigger.getUniqueId()))
+        .setTransactionId(Strings.nullToEmpty(trigger.getTransactionId()))
+        .setContractAddress(Strings.nullToEmpty(trigger.getContractAddress()))
+        .setCallerAddress(Strings.nullToEmpty(trigger.getCallerAddress()))
+        .setOriginAddress(Strings.nullToEmpty(trigger.getOriginAddress()))
+        .setCreatorAddress(Strings.nullToEmpty(trigger.getCreatorAddress()))
+        .setBlockNumber(Objects.isNull(trigger.getBlockNumber()) ? 0 : trigger.getBlockNumber())
+        .setBlockHash(Strings.nullToEmpty(trigger.getBlockHash()))
+        .setRemoved(trigger.isRemoved())
+        .setLatestSolidifiedBlockNumber(trigger.getLatestSolidifiedBlockNumber());
+    if (trigger instanceof ContractLogTrigger) {
+      ContractLogTrigger log = (ContractLogTrigger) trigger;
+      if (log.getTopicList() != null) {
+        builder.addAllTopicList(log.getTopicList());
+      }
+      builder.setData(Strings.nullToEmpty(log.getData()));
+    } else if (trigger instanceof ContractEventTrigger) {
+      ContractEventTrigger event = (ContractEventTrigger) trigger;
+      builder.setEventSignature(Strings.nullToEmpty(event.getEventSignature()))
+          .setEventSignatureFull(Strings.nullToEmpty(event.getEventSignatureFull()))
+          .setEventName(Strings.nullToEmpty(event.getEventName()));
+      putAll(event.getTopicMap(), builder::putTopicMap);
+      putAll(event.getDataMap(), builder::putDataMap);
+    }
+    return builder.build();
+  }
+
+  private static <V> void putAll(Map<String, V> map, BiConsumer<String, V> put) {
+    if (map != null) {
+      map.forEach((key, value) -> {
+        if (key != null && value != null) {
+          put.accept(key, value);
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package org.tron.common.logsfilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.es.ExecutorServiceManager;
+import org.tron.common.logsfilter.capsule.TriggerCapsule;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
+
+/**
+ * Processes the event triggers on a pool of workers, each of them owning the triggers of the
+ * blocks whose number falls in its shard. The triggers of a block are processed in the order
+ * they were posted, the blocks of different shards concurrently.
+ *
+ * <p>A worker publishes the triggers of a block as one batch per topic when the native queue
+ * batches them, once the next block starts or nothing is left to process.
+ */
+@Slf4j(topic = "event")
+public class TriggerPipeline {
+
+  private static final String NAME = "event-trigger";
+
+  private final List<BlockingQueue<TriggerCapsule>> shards = new ArrayList<>();
+  private final LongSupplier headBlock;
+  private ExecutorService workers;
+  private volatile boolean running;
+
+  /**
+   * @param headBlock the head block number, for the lag of the published triggers.
+   */
+  public TriggerPipeline(int workers, LongSupplier headBlock) {
+    for (int i = 0; i < Math.max(1, workers); i++) {
+      shards.add(new LinkedBlockingQueue<>());
+    }
+    this.headBlock = headBlock;
+  }
+
+  public void start() {
+    running = true;
+    workers = ExecutorServiceManager.newFixedThreadPool(NAME, shards.size(), true);
+    for (int i = 0; i < shards.size(); i++) {
+      int shard = i;
+      workers.submit(() -> process(shard));
+    }
+    logger.info("Start processing event triggers, workers: {}.", shards.size());
+  }
+
+  public void stop() {
+    running = false;
+    if (workers != null) {
+      ExecutorServiceManager.shutdownAndAwaitTermination(workers, NAME);
+    }
+  }
+
+  public boolean offer(TriggerCapsule capsule) {
+    int shard = (int) Math.floorMod(capsule.getBlockNumber(), (long) shards.size());
+    if (!shards.get(shard).offer(capsule)) {
+      return false;
+    }
+    Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, 1, MetricLabels.Gauge.QUEUE_TRIGGER);
+    return true;
+  }
+
+  public int size() {
+    return shards.stream().mapToInt(BlockingQueue::size).sum();
+  }
+
+  private void process(int shard) {
+    BlockingQueue<TriggerCapsule> queue = shards.get(shard);
+    String label = String.valueOf(shard);
+    EventPluginLoader loader = EventPluginLoader.getInstance();
+    loader.beginBatch();
+    long block = -1;
+    long published = -1;
+    while (running) {
+      try {
+        TriggerCapsule capsule = queue.poll();
+        if (capsule == null) {
+          // idle, nothing of the current block is left behind
+          loader.flushBatch();
+          Metrics.gaugeSet(MetricKeys.Gauge.EVENT_LAG, 0, label);
+          capsule = queue.poll(1, TimeUnit.SECONDS);
+          if (capsule == null) {
+            continue;
+          }
+        }
+        Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1, MetricLabels.Gauge.QUEUE_TRIGGER);
+        if (capsule.getBlockNumber() != block) {
+          loader.flushBatch();
+          block = capsule.getBlockNumber();
+        }
+        capsule.processTrigger();
+        // the solidified triggers are behind the head by design, they do not lower it
+        published = Math.max(published, block);
+        Metrics.gaugeSet(MetricKeys.Gauge.EVENT_LAG,
+            Math.max(0, headBlock.getAsLong() - published), label);
+      } catch (InterruptedException ex) {
+        logger.info(ex.getMessage());
+        Thread.currentThread().interrupt();
+      } catch (Throwable throwable) {
+        logger.error("Unknown throwable happened in process capsule loop.", throwable);
+      }
+    }
+    loader.flushBatch();
+  }
+}
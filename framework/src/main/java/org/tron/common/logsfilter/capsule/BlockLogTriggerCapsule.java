@@ -27,6 +27,11 @@ public class BlockLogTriggerCapsule extends TriggerCapsule {
     blockLogTrigger.setLatestSolidifiedBlockNumber(latestSolidifiedBlockNumber);
   }
 
+  @Override
+  public long getBlockNumber() {
+    return blockLogTrigger.getBlockNumber();
+  }
+
   @Override
   public void processTrigger() {
     EventPluginLoader.getInstance().postBlockTrigger(blockLogTrigger);
@@ -40,6 +40,12 @@ public class ContractTriggerCapsule extends TriggerCapsule {
     contractTrigger.setBlockHash(blockHash);
   }
 
+  @Override
+  public long getBlockNumber() {
+    Long blockNumber = contractTrigger.getBlockNumber();
+    return blockNumber == null ? 0 : blockNumber;
+  }
+
   @Override
   public void processTrigger() {
     ContractTrigger event;
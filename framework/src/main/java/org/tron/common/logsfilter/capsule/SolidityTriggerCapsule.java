@@ -20,6 +20,11 @@ public class SolidityTriggerCapsule extends TriggerCapsule {
     solidityTrigger.setTimeStamp(timeStamp);
   }
 
+  @Override
+  public long getBlockNumber() {
+    return solidityTrigger.getLatestSolidifiedBlockNumber();
+  }
+
   @Override
   public void processTrigger() {
     EventPluginLoader.getInstance().postSolidityTrigger(solidityTrigger);
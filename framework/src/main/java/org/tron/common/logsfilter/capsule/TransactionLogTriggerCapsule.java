@@ -45,6 +45,8 @@ public class TransactionLogTriggerCapsule extends TriggerCapsule {
   @Setter
   private TransactionLogTrigger transactionLogTrigger;
 
+  private final long blockNumber;
+
   public TransactionLogTriggerCapsule(TransactionCapsule trxCapsule, BlockCapsule blockCapsule) {
     this(trxCapsule, blockCapsule, 0, 0, 0, null, 0);
   }
@@ -53,6 +55,7 @@ public class TransactionLogTriggerCapsule extends TriggerCapsule {
       int txIndex, long preCumulativeEnergyUsed, long preCumulativeLogCount,
       TransactionInfo transactionInfo, long energyUnitPrice) {
     transactionLogTrigger = new TransactionLogTrigger();
+    blockNumber = blockCapsule.getNum();
 
     String blockHash = "";
     if (Objects.nonNull(blockCapsule)) {
@@ -355,6 +358,11 @@ public class TransactionLogTriggerCapsule extends TriggerCapsule {
     return pojoList;
   }
 
+  @Override
+  public long getBlockNumber() {
+    return blockNumber;
+  }
+
   @Override
   public void processTrigger() {
     EventPluginLoader.getInstance().postTransactionTrigger(transactionLogTrigger);
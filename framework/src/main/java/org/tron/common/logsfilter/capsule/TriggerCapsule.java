@@ -5,4 +5,11 @@ public class TriggerCapsule {
   public void processTrigger() {
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * @return the block the trigger belongs to, the triggers of a block are processed in order.
+   */
+  public long getBlockNumber() {
+    return 0;
+  }
 }
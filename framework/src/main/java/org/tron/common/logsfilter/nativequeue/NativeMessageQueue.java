@@ -73,4 +73,20 @@ public class NativeMessageQueue {
           e.getMessage());
     }
   }
+
+  public void publishTrigger(byte[] data, String topic) {
+    if (Objects.isNull(publisher) || Objects.isNull(context) || context.isClosed()) {
+      return;
+    }
+
+    try {
+      synchronized (this) {
+        publisher.sendMore(topic);
+        publisher.send(data);
+      }
+    } catch (RuntimeException e) {
+      logger.error("write data to zeromq failed, size:{}, topic:{}, error:{}", data.length, topic,
+          e.getMessage());
+    }
+  }
 }
@@ -127,6 +127,7 @@ public class Args extends CommonParameter {
     PARAMETER.passiveNodes = new ArrayList<>();
     PARAMETER.fastForwardNodes = new ArrayList<>();
     PARAMETER.maxFastForwardNum = 3;
+    PARAMETER.compactBlock = false;
     PARAMETER.nodeChannelReadTimeout = 0;
     PARAMETER.maxConnections = 30;
     PARAMETER.minConnections = 8;
@@ -152,6 +153,7 @@ public class Args extends CommonParameter {
     PARAMETER.jsonRpcHttpFullNodePort = 0;
     PARAMETER.jsonRpcHttpSolidityPort = 0;
     PARAMETER.jsonRpcHttpPBFTPort = 0;
+    PARAMETER.jsonRpcSectionCacheSize = 100_000;
     PARAMETER.maintenanceTimeInterval = 0;
     PARAMETER.proposalExpireTime = 0;
     PARAMETER.checkFrozenTime = 1;
@@ -210,6 +212,7 @@ public class Args extends CommonParameter {
     PARAMETER.allowTvmLondon = 0;
     PARAMETER.allowTvmCompatibleEvm = 0;
     PARAMETER.historyBalanceLookup = false;
+    PARAMETER.archiveEnable = false;
     PARAMETER.openPrintLog = true;
     PARAMETER.openTransactionSort = false;
     PARAMETER.allowAccountAssetOptimization = 0;
@@ -233,6 +236,14 @@ public class Args extends CommonParameter {
     PARAMETER.maxUnsolidifiedBlocks = 54;
     PARAMETER.allowOldRewardOpt = 0;
     PARAMETER.allowEnergyAdjustment = 0;
+    PARAMETER.parallelExecutionEnable = false;
+    PARAMETER.parallelExecutionThreadNum = Runtime.getRuntime().availableProcessors();
+    PARAMETER.parallelExecutionCommit = false;
+    PARAMETER.signatureCacheSize = 100_000;
+    PARAMETER.contractCacheSize = 1000;
+    PARAMETER.pendingPoolShardNum = 16;
+    PARAMETER.pendingPoolConcurrentAdmission = false;
+    PARAMETER.blockAssemblyEnable = false;
   }
 
   /**
@@ -493,6 +504,9 @@ public class Args extends CommonParameter {
         .filter(StringUtils::isNotEmpty)
         .map(Boolean::valueOf)
         .orElse(Storage.getDbVersionSyncFromConfig(config)));
+    PARAMETER.storage.setDbColumnFamilies(Storage.getDbColumnFamiliesFromConfig(config));
+    PARAMETER.storage.setDbWriteBufferSize(Storage.getDbWriteBufferSizeFromConfig(config));
+    PARAMETER.storage.setDbProfiles(Storage.getDbProfilesFromConfig(config));
 
     PARAMETER.storage.setContractParseSwitch(Optional.ofNullable(PARAMETER.contractParseEnable)
         .filter(StringUtils::isNotEmpty)
@@ -526,7 +540,9 @@ public class Args extends CommonParameter {
         Storage.getEstimatedTransactionsFromConfig(config));
     PARAMETER.storage.setTxCacheInitOptimization(
         Storage.getTxCacheInitOptimizationFromConfig(config));
+    PARAMETER.storage.setTxCacheExactIndex(Storage.getTxCacheExactIndexFromConfig(config));
     PARAMETER.storage.setMaxFlushCount(Storage.getSnapshotMaxFlushCountFromConfig(config));
+    PARAMETER.storage.setAsyncFlush(Storage.getSnapshotAsyncFlushFromConfig(config));
 
     PARAMETER.storage.setDefaultDbOptions(config);
     PARAMETER.storage.setPropertyMapFromConfig(config);
@@ -699,6 +715,10 @@ public class Args extends CommonParameter {
         config.hasPath(Constant.NODE_JSONRPC_HTTP_PBFT_PORT)
             ? config.getInt(Constant.NODE_JSONRPC_HTTP_PBFT_PORT) : 8565;
 
+    PARAMETER.jsonRpcSectionCacheSize =
+        config.hasPath(Constant.NODE_JSONRPC_SECTION_CACHE_SIZE)
+            ? config.getInt(Constant.NODE_JSONRPC_SECTION_CACHE_SIZE) : 100_000;
+
     PARAMETER.rpcThreadNum =
         config.hasPath(Constant.NODE_RPC_THREAD) ? config.getInt(Constant.NODE_RPC_THREAD)
             : (Runtime.getRuntime().availableProcessors() + 1) / 2;
@@ -953,6 +973,9 @@ public class Args extends CommonParameter {
       PARAMETER.maxFastForwardNum = 1;
     }
 
+    PARAMETER.compactBlock = config.hasPath(Constant.NODE_COMPACT_BLOCK)
+        && config.getBoolean(Constant.NODE_COMPACT_BLOCK);
+
     PARAMETER.shieldedTransInPendingMaxCounts =
         config.hasPath(Constant.NODE_SHIELDED_TRANS_IN_PENDING_MAX_COUNTS) ? config
             .getInt(Constant.NODE_SHIELDED_TRANS_IN_PENDING_MAX_COUNTS) : 10;
@@ -1061,6 +1084,9 @@ public class Args extends CommonParameter {
     PARAMETER.historyBalanceLookup = config.hasPath(Constant.HISTORY_BALANCE_LOOKUP) && config
         .getBoolean(Constant.HISTORY_BALANCE_LOOKUP);
 
+    PARAMETER.archiveEnable = config.hasPath(Constant.ARCHIVE_ENABLE)
+        && config.getBoolean(Constant.ARCHIVE_ENABLE);
+
     if (config.hasPath(Constant.OPEN_PRINT_LOG)) {
       PARAMETER.openPrintLog = config.getBoolean(Constant.OPEN_PRINT_LOG);
     }
@@ -1210,6 +1236,39 @@ public class Args extends CommonParameter {
             config.hasPath(Constant.COMMITTEE_ALLOW_ENERGY_ADJUSTMENT) ? config
                     .getInt(Constant.COMMITTEE_ALLOW_ENERGY_ADJUSTMENT) : 0;
 
+    PARAMETER.parallelExecutionEnable =
+        config.hasPath(Constant.NODE_PARALLEL_EXECUTION_ENABLE)
+            && config.getBoolean(Constant.NODE_PARALLEL_EXECUTION_ENABLE);
+
+    PARAMETER.parallelExecutionThreadNum =
+        config.hasPath(Constant.NODE_PARALLEL_EXECUTION_THREAD_NUM) ? config
+            .getInt(Constant.NODE_PARALLEL_EXECUTION_THREAD_NUM)
+            : Runtime.getRuntime().availableProcessors();
+
+    PARAMETER.parallelExecutionCommit =
+        config.hasPath(Constant.NODE_PARALLEL_EXECUTION_COMMIT)
+            && config.getBoolean(Constant.NODE_PARALLEL_EXECUTION_COMMIT);
+
+    PARAMETER.signatureCacheSize =
+        config.hasPath(Constant.NODE_SIGNATURE_CACHE_SIZE) ? config
+            .getInt(Constant.NODE_SIGNATURE_CACHE_SIZE) : 100_000;
+
+    PARAMETER.contractCacheSize =
+        config.hasPath(Constant.NODE_CONTRACT_CACHE_SIZE) ? config
+            .getInt(Constant.NODE_CONTRACT_CACHE_SIZE) : 1000;
+
+    PARAMETER.pendingPoolShardNum =
+        config.hasPath(Constant.NODE_PENDING_POOL_SHARD_NUM) ? config
+            .getInt(Constant.NODE_PENDING_POOL_SHARD_NUM) : 16;
+
+    PARAMETER.pendingPoolConcurrentAdmission =
+        config.hasPath(Constant.NODE_PENDING_POOL_CONCURRENT_ADMISSION)
+            && config.getBoolean(Constant.NODE_PENDING_POOL_CONCURRENT_ADMISSION);
+
+    PARAMETER.blockAssemblyEnable =
+        config.hasPath(Constant.NODE_BLOCK_ASSEMBLY_ENABLE)
+            && config.getBoolean(Constant.NODE_BLOCK_ASSEMBLY_ENABLE);
+
     logConfig();
   }
 
@@ -1323,6 +1382,25 @@ public class Args extends CommonParameter {
       eventPluginConfig.setUseNativeQueue(useNativeQueue);
       eventPluginConfig.setBindPort(bindPort);
       eventPluginConfig.setSendQueueLength(sendQueueLength);
+
+      if (config.hasPath(Constant.NATIVE_QUEUE_ENCODING)) {
+        String encoding = config.getString(Constant.NATIVE_QUEUE_ENCODING).trim();
+        if (!EventPluginConfig.ENCODING_JSON.equalsIgnoreCase(encoding)
+            && !EventPluginConfig.ENCODING_PROTOBUF.equalsIgnoreCase(encoding)) {
+          throw new IllegalArgumentException(String.format("%s must be %s or %s",
+              Constant.NATIVE_QUEUE_ENCODING, EventPluginConfig.ENCODING_JSON,
+              EventPluginConfig.ENCODING_PROTOBUF));
+        }
+        eventPluginConfig.setEncoding(encoding.toLowerCase());
+      }
+
+      if (config.hasPath(Constant.NATIVE_QUEUE_BATCH)) {
+        eventPluginConfig.setBatch(config.getBoolean(Constant.NATIVE_QUEUE_BATCH));
+      }
+    }
+
+    if (config.hasPath(Constant.EVENT_SUBSCRIBE_WORKERS)) {
+      eventPluginConfig.setWorkers(Math.max(1, config.getInt(Constant.EVENT_SUBSCRIBE_WORKERS)));
     }
 
     // use event plugin
@@ -0,0 +1,214 @@
+package org.tron.core.db;
+
+import static org.tron.core.config.Parameter.ChainConstant.BLOCK_PRODUCED_INTERVAL;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.es.ExecutorServiceManager;
+import org.tron.common.utils.ByteArray;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.config.Parameter.ChainConstant;
+import org.tron.core.db2.core.AccessSet;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+
+/**
+ * Executes the pending transactions for the next block ahead of the slot.
+ *
+ * <p>After every block, a draft of the next block is started on the new head, for the next slot
+ * time and the witness this node last produced for. A background thread executes the pending
+ * transactions into it one by one, in admission order, each on its own speculative layer that
+ * is published to the draft when it succeeds. When the witness produces that block, the draft
+ * is packed by writing the values each transaction recorded instead of executing it again.
+ */
+@Slf4j(topic = "DB")
+public class BlockAssembler {
+
+  private static final long ASSEMBLE_INTERVAL = 100;
+
+  private final Manager dbManager;
+  private final ScheduledExecutorService executor;
+  private final String esName = "block-assembly";
+  private volatile Draft draft;
+  // the witness this node last produced a block for
+  private volatile ByteString witness;
+
+  public BlockAssembler(Manager dbManager) {
+    this.dbManager = dbManager;
+    this.executor = ExecutorServiceManager.newSingleThreadScheduledExecutor(esName);
+    executor.scheduleWithFixedDelay(() -> {
+      try {
+        assemble();
+      } catch (Throwable t) {
+        logger.error("Block assembly failed.", t);
+      }
+    }, ASSEMBLE_INTERVAL, ASSEMBLE_INTERVAL, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Starts the draft of the block after {@code head}, on the state pinned by {@code state}.
+   */
+  void reset(AccessSet state, BlockId head, long headTime) {
+    stop();
+    ByteString address = witness;
+    if (address == null) {
+      draft = null;
+      return;
+    }
+    BlockCapsule block = new BlockCapsule(head.getNum() + 1, head,
+        headTime + BLOCK_PRODUCED_INTERVAL, address);
+    // executed under the packing cpu limits, as generateBlock does
+    block.generatedByMyself = true;
+    draft = new Draft(state, block);
+  }
+
+  /**
+   * Drops the draft, waiting for the transaction being executed into it, before the state it
+   * is pinned on changes.
+   */
+  void stop() {
+    Draft old = draft;
+    draft = null;
+    if (old != null) {
+      old.close();
+    }
+  }
+
+  /**
+   * @return the transactions executed ahead for {@code block} in execution order, empty if the
+   *     draft was made for another parent, time or witness.
+   */
+  List<Entry> take(BlockCapsule block) {
+    witness = block.getWitnessAddress();
+    Draft taken = draft;
+    draft = null;
+    if (taken == null) {
+      return Collections.emptyList();
+    }
+    return taken.close(block);
+  }
+
+  private void assemble() {
+    Draft current = draft;
+    if (current == null) {
+      return;
+    }
+    for (TransactionCapsule trx : dbManager.getPendingTransactions()) {
+      if (!current.extend(trx)) {
+        return;
+      }
+    }
+  }
+
+  public void close() {
+    ExecutorServiceManager.shutdownAndAwaitTermination(executor, esName);
+  }
+
+  /**
+   * A pending transaction executed into the draft.
+   */
+  @Getter
+  static class Entry {
+
+    // the transaction in the pending pool
+    private final TransactionCapsule trx;
+    // a copy holding the results of the execution in the draft
+    private final TransactionCapsule packed;
+    private final AccessSet accessSet;
+    private final long size;
+
+    private Entry(TransactionCapsule trx, TransactionCapsule packed, AccessSet accessSet,
+        long size) {
+      this.trx = trx;
+      this.packed = packed;
+      this.accessSet = accessSet;
+      this.size = size;
+    }
+  }
+
+  private class Draft {
+
+    private final AccessSet state;
+    private final BlockCapsule block;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Set<TransactionCapsule> seen =
+        Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<String> permissionUpdated = new HashSet<>();
+    private long size;
+    private boolean closed;
+
+    private Draft(AccessSet state, BlockCapsule block) {
+      this.state = state;
+      this.block = block;
+      this.size = block.getInstance().getSerializedSize();
+    }
+
+    /**
+     * @return false once the draft is closed or full.
+     */
+    synchronized boolean extend(TransactionCapsule trx) {
+      if (closed || size >= ChainConstant.BLOCK_SIZE) {
+        return false;
+      }
+      if (!seen.add(trx) || trx.getInstance().getRawData().getContractCount() != 1
+          || trx.getInstance().getRawData().getContract(0).getType()
+          == ContractType.ShieldedTransferContract) {
+        // shielded transactions touch the merkle container outside of chainbase
+        return true;
+      }
+      long packSize = trx.computeTrxSizeForBlockMessage();
+      if (size + packSize > ChainConstant.BLOCK_SIZE) {
+        return true;
+      }
+      // nothing more from an owner once its permissions changed, as in generateBlock
+      String owner = ByteArray.toHexString(trx.getOwnerAddress());
+      if (permissionUpdated.contains(owner)) {
+        return true;
+      }
+      TransactionCapsule packed = new TransactionCapsule(trx.getInstance());
+      AccessSet accessSet = new AccessSet(state);
+      accessSet.bind();
+      try {
+        // the owners of multi-sign transactions are recorded by the manager when it packs them
+        dbManager.executeTransaction(packed, block);
+      } catch (Exception e) {
+        logger.debug("Assembling tx {} failed, {}.", trx.getTransactionId(), e.getMessage());
+        return true;
+      } finally {
+        AccessSet.unbind();
+      }
+      accessSet.publish();
+      if (trx.getInstance().getRawData().getContract(0).getType()
+          == ContractType.AccountPermissionUpdateContract) {
+        permissionUpdated.add(owner);
+      }
+      entries.add(new Entry(trx, packed, accessSet, packSize));
+      size += packSize;
+      return true;
+    }
+
+    synchronized void close() {
+      closed = true;
+    }
+
+    synchronized List<Entry> close(BlockCapsule target) {
+      closed = true;
+      if (!block.getParentHash().equals(target.getParentHash())
+          || block.getTimeStamp() != target.getTimeStamp()
+          || !block.getWitnessAddress().equals(target.getWitnessAddress())) {
+        return Collections.emptyList();
+      }
+      return entries;
+    }
+  }
+}
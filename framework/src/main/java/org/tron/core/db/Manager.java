@@ -24,9 +24,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -36,6 +38,7 @@ import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import lombok.Getter;
@@ -49,9 +52,12 @@ import org.springframework.stereotype.Component;
 import org.tron.api.GrpcAPI.TransactionInfoList;
 import org.tron.common.args.GenesisBlock;
 import org.tron.common.bloom.Bloom;
+import org.tron.common.cache.CacheManager;
 import org.tron.common.es.ExecutorServiceManager;
+import org.tron.common.logsfilter.EventPluginConfig;
 import org.tron.common.logsfilter.EventPluginLoader;
 import org.tron.common.logsfilter.FilterQuery;
+import org.tron.common.logsfilter.TriggerPipeline;
 import org.tron.common.logsfilter.capsule.BlockFilterCapsule;
 import org.tron.common.logsfilter.capsule.BlockLogTriggerCapsule;
 import org.tron.common.logsfilter.capsule.ContractTriggerCapsule;
@@ -59,7 +65,6 @@ import org.tron.common.logsfilter.capsule.FilterTriggerCapsule;
 import org.tron.common.logsfilter.capsule.LogsFilterCapsule;
 import org.tron.common.logsfilter.capsule.SolidityTriggerCapsule;
 import org.tron.common.logsfilter.capsule.TransactionLogTriggerCapsule;
-import org.tron.common.logsfilter.capsule.TriggerCapsule;
 import org.tron.common.logsfilter.trigger.ContractEventTrigger;
 import org.tron.common.logsfilter.trigger.ContractLogTrigger;
 import org.tron.common.logsfilter.trigger.ContractTrigger;
@@ -104,6 +109,8 @@ import org.tron.core.db.api.BandwidthPriceHistoryLoader;
 import org.tron.core.db.api.EnergyPriceHistoryLoader;
 import org.tron.core.db.api.MoveAbiHelper;
 import org.tron.core.db2.ISession;
+import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.core.db2.core.AccessSet;
 import org.tron.core.db2.core.Chainbase;
 import org.tron.core.db2.core.SnapshotManager;
 import org.tron.core.exception.AccountResourceInsufficientException;
@@ -136,6 +143,7 @@ import org.tron.core.store.AccountAssetStore;
 import org.tron.core.store.AccountIdIndexStore;
 import org.tron.core.store.AccountIndexStore;
 import org.tron.core.store.AccountStore;
+import org.tron.core.store.ArchiveStore;
 import org.tron.core.store.AssetIssueStore;
 import org.tron.core.store.AssetIssueV2Store;
 import org.tron.core.store.CodeStore;
@@ -209,7 +217,6 @@ public class Manager {
   private ExecutorService validateSignService;
   private String validateSignName = "validate-sign";
   private boolean isRunRePushThread = true;
-  private boolean isRunTriggerCapsuleProcessThread = true;
   private BlockingQueue<TransactionCapsule> pushTransactionQueue = new LinkedBlockingQueue<>();
   @Getter
   private Cache<Sha256Hash, Boolean> transactionIdCache = CacheBuilder
@@ -232,12 +239,15 @@ public class Manager {
   private BlockingQueue<TransactionCapsule> pendingTransactions;
   @Getter
   private AtomicInteger shieldedTransInPendingCounts = new AtomicInteger(0);
+  // pending transactions in execution order, since the pending state was last rebuilt
+  private Queue<TransactionCapsule> preparedTransactions = new ConcurrentLinkedQueue<>();
+  private final PendingWrites pendingWrites = new PendingWrites();
   // transactions popped
   private List<TransactionCapsule> poppedTransactions =
       Collections.synchronizedList(Lists.newArrayList());
   // the capacity is equal to Integer.MAX_VALUE default
   private BlockingQueue<TransactionCapsule> rePushTransactions;
-  private BlockingQueue<TriggerCapsule> triggerCapsuleQueue;
+  private TriggerPipeline triggerPipeline;
   // log filter
   private boolean isRunFilterProcessThread = true;
   private BlockingQueue<FilterTriggerCapsule> filterCapsuleQueue;
@@ -257,14 +267,17 @@ public class Manager {
 
   private ExecutorService rePushEs;
   private static final String rePushEsName = "repush";
-  private ExecutorService triggerEs;
-  private static final String triggerEsName = "event-trigger";
   private ExecutorService filterEs;
   private static final String filterEsName = "filter";
 
   @Autowired
   private RewardViCalService rewardViCalService;
 
+  private ParallelTransactionExecutor parallelExecutor;
+  private BlockAssembler blockAssembler;
+  // the state of the head block read by readHeadBlockState, pinned with no pending state on it
+  private volatile AccessSet headBlockState;
+
   /**
    * Cycle thread to rePush Transactions
    */
@@ -296,23 +309,6 @@ public class Manager {
           }
         }
       };
-  private Runnable triggerCapsuleProcessLoop =
-      () -> {
-        while (isRunTriggerCapsuleProcessThread) {
-          try {
-            TriggerCapsule triggerCapsule = triggerCapsuleQueue.poll(1, TimeUnit.SECONDS);
-            if (triggerCapsule != null) {
-              triggerCapsule.processTrigger();
-            }
-          } catch (InterruptedException ex) {
-            logger.info(ex.getMessage());
-            Thread.currentThread().interrupt();
-          } catch (Throwable throwable) {
-            logger.error("Unknown throwable happened in process capsule loop.", throwable);
-          }
-        }
-      };
-
   private Runnable filterProcessLoop =
       () -> {
         while (isRunFilterProcessThread) {
@@ -431,6 +427,52 @@ public class Manager {
     return this.pendingTransactions;
   }
 
+  /**
+   * Takes the transactions executed into the pending state since it was last rebuilt, in
+   * execution order.
+   */
+  public List<TransactionCapsule> takePreparedTransactions() {
+    List<TransactionCapsule> prepared = new ArrayList<>(preparedTransactions);
+    preparedTransactions.clear();
+    return prepared;
+  }
+
+  /**
+   * Starts assembling the next block on the head, must be called while there is no pending
+   * state.
+   */
+  void startBlockAssembly() {
+    if (blockAssembler != null) {
+      blockAssembler.reset(revokingStore.pinHead(), chainBaseManager.getHeadBlockId(),
+          chainBaseManager.getHeadBlockTimeStamp());
+    }
+  }
+
+  /**
+   * Pins the state of the head block for {@link #readHeadBlockState}, must be called while
+   * there is no pending state.
+   */
+  void pinHeadBlockState() {
+    if (CommonParameter.getInstance().isArchiveEnable()) {
+      headBlockState = revokingStore.pinHead();
+    }
+  }
+
+  void stopBlockAssembly() {
+    if (blockAssembler != null) {
+      blockAssembler.stop();
+    }
+  }
+
+  /**
+   * Drops the pending state, the transactions executed into it are no longer replayable.
+   */
+  public void resetPendingState() {
+    session.reset();
+    preparedTransactions.clear();
+    pendingWrites.reset();
+  }
+
   public List<TransactionCapsule> getPoppedTransactions() {
     return this.poppedTransactions;
   }
@@ -445,8 +487,7 @@ public class Manager {
   }
 
   public void stopRePushTriggerThread() {
-    isRunTriggerCapsuleProcessThread = false;
-    ExecutorServiceManager.shutdownAndAwaitTermination(triggerEs, triggerEsName);
+    triggerPipeline.stop();
   }
 
   public void stopFilterProcessThread() {
@@ -476,13 +517,18 @@ public class Manager {
         merkleContainer.createInstance(chainBaseManager.getMerkleTreeStore(),
             chainBaseManager.getMerkleTreeIndexStore()));
     if (Args.getInstance().isOpenTransactionSort()) {
-      this.pendingTransactions = new PriorityBlockingQueue(2000, downComparator);
+      this.pendingTransactions = new PendingPool(Args.getInstance().getPendingPoolShardNum(),
+          downComparator);
       this.rePushTransactions = new PriorityBlockingQueue<>(2000, downComparator);
     } else {
-      this.pendingTransactions = new LinkedBlockingQueue<>();
+      this.pendingTransactions = new PendingPool(Args.getInstance().getPendingPoolShardNum(),
+          null);
       this.rePushTransactions = new LinkedBlockingQueue<>();
     }
-    this.triggerCapsuleQueue = new LinkedBlockingQueue<>();
+    EventPluginConfig eventPluginConfig = Args.getInstance().getEventPluginConfig();
+    this.triggerPipeline = new TriggerPipeline(
+        eventPluginConfig == null ? 1 : eventPluginConfig.getWorkers(),
+        chainBaseManager::getHeadBlockNum);
     this.filterCapsuleQueue = new LinkedBlockingQueue<>();
     chainBaseManager.setMerkleContainer(getMerkleContainer());
     chainBaseManager.setMortgageService(mortgageService);
@@ -544,13 +590,30 @@ public class Manager {
     revokingStore.enable();
     validateSignService = ExecutorServiceManager
         .newFixedThreadPool(validateSignName, Args.getInstance().getValidateSignThreadNum());
+    if (Args.getInstance().isParallelExecutionEnable()) {
+      if (Args.getInstance().isHistoryBalanceLookup()) {
+        logger.warn("Parallel execution is not supported with history balance lookup.");
+      } else {
+        parallelExecutor = new ParallelTransactionExecutor(this,
+            Args.getInstance().getParallelExecutionThreadNum(),
+            Args.getInstance().isParallelExecutionCommit());
+        logger.info("Parallel execution enabled, speculative results are {}.",
+            Args.getInstance().isParallelExecutionCommit() ? "committed" : "only checked");
+      }
+    }
+    if (Args.getInstance().isBlockAssemblyEnable() && Args.getInstance().isWitness()) {
+      if (Args.getInstance().isHistoryBalanceLookup()) {
+        logger.warn("Block assembly is not supported with history balance lookup.");
+      } else {
+        blockAssembler = new BlockAssembler(this);
+      }
+    }
     rePushEs = ExecutorServiceManager.newSingleThreadExecutor(rePushEsName, true);
     rePushEs.submit(rePushLoop);
     // add contract event listener for subscribing
     if (Args.getInstance().isEventSubscribe()) {
       startEventSubscribing();
-      triggerEs = ExecutorServiceManager.newSingleThreadExecutor(triggerEsName, true);
-      triggerEs.submit(triggerCapsuleProcessLoop);
+      triggerPipeline.start();
     }
 
     // start json rpc filter process
@@ -573,6 +636,7 @@ public class Manager {
     }
 
     maxFlushCount = CommonParameter.getInstance().getStorage().getMaxFlushCount();
+    pinHeadBlockState();
   }
 
   /**
@@ -839,6 +903,9 @@ public class Manager {
       // using the bloom filter only determines non-existent transaction
       return false;
     }
+    if (transactionCache != null && transactionCache.isExact()) {
+      return true;
+    }
 
     return chainBaseManager.getTransactionStore()
         .has(transactionId);
@@ -868,20 +935,21 @@ public class Manager {
             trx.getTransactionId()));
       }
 
+      if (Args.getInstance().isPendingPoolConcurrentAdmission()
+          && !isShieldedTransaction(trx.getInstance()) && AccessSet.current() == null
+          && pushSpeculatively(trx)) {
+        return true;
+      }
+
+      final Histogram.Timer timer = Metrics.histogramStartTimer(
+          MetricKeys.Histogram.TRANSACTION_ADMISSION_LATENCY,
+          MetricLabels.Histogram.ADMISSION_SERIAL);
+      final Histogram.Timer lockTimer = Metrics.histogramStartTimer(
+          MetricKeys.Histogram.LOCK_ACQUIRE_LATENCY, MetricLabels.TRX);
       synchronized (transactionLock) {
-        while (true) {
-          try {
-            if (isBlockWaitingLock()) {
-              TimeUnit.MILLISECONDS.sleep(SLEEP_FOR_WAIT_LOCK);
-            } else {
-              break;
-            }
-          } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.debug("The wait has been interrupted.");
-          }
-        }
+        waitForBlockLock();
         synchronized (this) {
+          Metrics.histogramObserve(lockTimer);
           if (isShieldedTransaction(trx.getInstance())
                   && shieldedTransInPendingCounts.get() >= shieldedTransInPendingMaxCounts) {
             return false;
@@ -890,19 +958,38 @@ public class Manager {
             session.setValue(revokingStore.buildSession());
           }
 
+          // keys are recorded so the transaction can be replayed after the next block
+          AccessSet accessSet = AccessSet.current() == null ? new AccessSet(false) : null;
           try (ISession tmpSession = revokingStore.buildSession()) {
-            processTransaction(trx, null);
+            if (accessSet != null) {
+              accessSet.bind();
+            }
+            try {
+              processTransaction(trx, null);
+            } finally {
+              if (accessSet != null) {
+                AccessSet.unbind();
+              }
+            }
             trx.setTrxTrace(null);
+            trx.setPendingAccess(accessSet);
             pendingTransactions.add(trx);
+            preparedTransactions.add(trx);
             Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, 1,
                     MetricLabels.Gauge.QUEUE_PENDING);
             tmpSession.merge();
+          } finally {
+            // also when reverted, a speculative reader may have seen the values
+            if (accessSet != null) {
+              pendingWrites.add(accessSet);
+            }
           }
           if (isShieldedTransaction(trx.getInstance())) {
             shieldedTransInPendingCounts.incrementAndGet();
           }
         }
       }
+      Metrics.histogramObserve(timer);
     } finally {
       if (pushTransactionQueue.remove(trx)) {
         Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1,
@@ -912,6 +999,102 @@ public class Manager {
     return true;
   }
 
+  private void waitForBlockLock() {
+    while (true) {
+      try {
+        if (isBlockWaitingLock()) {
+          TimeUnit.MILLISECONDS.sleep(SLEEP_FOR_WAIT_LOCK);
+        } else {
+          break;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        logger.debug("The wait has been interrupted.");
+      }
+    }
+  }
+
+  /**
+   * Executes a transaction against the pending state outside the pending lock, and publishes its
+   * writes under the lock if nothing it read was written to the pending state meanwhile.
+   *
+   * @return false if the transaction has to be executed again under the lock, also when it
+   *     failed since the failure may come from a stale read.
+   */
+  private boolean pushSpeculatively(TransactionCapsule trx) {
+    final Histogram.Timer timer = Metrics.histogramStartTimer(
+        MetricKeys.Histogram.TRANSACTION_ADMISSION_LATENCY,
+        MetricLabels.Histogram.ADMISSION_SPECULATIVE);
+    waitForBlockLock();
+    long since = pendingWrites.sequence();
+    AccessSet accessSet = new AccessSet(true);
+    accessSet.bind();
+    try {
+      executeTransaction(trx, null);
+    } catch (Exception e) {
+      return false;
+    } finally {
+      AccessSet.unbind();
+    }
+    final Histogram.Timer lockTimer = Metrics.histogramStartTimer(
+        MetricKeys.Histogram.LOCK_ACQUIRE_LATENCY, MetricLabels.TRX);
+    synchronized (this) {
+      Metrics.histogramObserve(lockTimer);
+      if (pendingWrites.conflicts(accessSet, since)) {
+        return false;
+      }
+      if (!session.valid()) {
+        session.setValue(revokingStore.buildSession());
+      }
+      if (!revokingStore.apply(accessSet)) {
+        return false;
+      }
+      pendingWrites.add(accessSet);
+      recordMultiSignOwner(trx);
+      trx.setTrxTrace(null);
+      trx.setPendingAccess(accessSet);
+      pendingTransactions.add(trx);
+      preparedTransactions.add(trx);
+      Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, 1,
+          MetricLabels.Gauge.QUEUE_PENDING);
+    }
+    Metrics.histogramObserve(timer);
+    return true;
+  }
+
+  /**
+   * Puts a pending transaction executed before the last block back into the pending state by
+   * writing the values it recorded, the caller has checked that nothing it read has changed.
+   *
+   * @return false if the transaction has to be executed again.
+   */
+  public boolean replayPendingTransaction(TransactionCapsule trx) {
+    if (trx.getPendingAccess() == null || isShieldedTransaction(trx.getInstance())
+        || containsTransaction(trx)) {
+      return false;
+    }
+    try {
+      validateCommon(trx);
+    } catch (TransactionExpirationException | TooBigTransactionException e) {
+      return false;
+    }
+    synchronized (this) {
+      if (!session.valid()) {
+        session.setValue(revokingStore.buildSession());
+      }
+      if (!revokingStore.apply(trx.getPendingAccess())) {
+        return false;
+      }
+      pendingWrites.add(trx.getPendingAccess());
+      recordMultiSignOwner(trx);
+      pendingTransactions.add(trx);
+      preparedTransactions.add(trx);
+      Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, 1,
+          MetricLabels.Gauge.QUEUE_PENDING);
+    }
+    return true;
+  }
+
   public void consumeMultiSignFee(TransactionCapsule trx, TransactionTrace trace)
       throws AccountResourceInsufficientException {
     if (trx.getInstance().getSignatureCount() > 1) {
@@ -990,7 +1173,7 @@ public class Manager {
    * when switch fork need erase blocks on fork branch.
    */
   public void eraseBlock() {
-    session.reset();
+    resetPendingState();
     try {
       BlockCapsule oldHeadBlock = chainBaseManager.getBlockById(
           getDynamicPropertiesStore().getLatestBlockHeaderHash());
@@ -1049,6 +1232,10 @@ public class Manager {
     }
 
     updateFork(block);
+    if (Args.getInstance().isArchiveEnable()) {
+      chainBaseManager.getArchiveStore().record(
+          revokingStore.headUndo(ArchiveStore.ARCHIVED.keySet()), block.getNum());
+    }
     if (System.currentTimeMillis() - block.getTimeStamp() >= 60_000) {
       revokingStore.setMaxFlushCount(maxFlushCount);
       if (Args.getInstance().getShutdownBlockTime() != null
@@ -1429,6 +1616,23 @@ public class Manager {
       AccountResourceInsufficientException, TransactionExpirationException,
       TooBigTransactionException, TooBigTransactionResultException,
       DupTransactionException, TaposException, ReceiptCheckErrException, VMIllegalException {
+    TransactionInfo result = executeTransaction(trxCap, blockCap);
+    if (result != null) {
+      recordMultiSignOwner(trxCap);
+    }
+    return result;
+  }
+
+  /**
+   * Executes and stores a transaction like {@link #processTransaction}, without updating the
+   * owners of multi-sign transactions kept by the manager, for the callers outside of the
+   * manager lock. They call {@link #recordMultiSignOwner} under the lock once the result is kept.
+   */
+  TransactionInfo executeTransaction(final TransactionCapsule trxCap, BlockCapsule blockCap)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, TransactionExpirationException,
+      TooBigTransactionException, TooBigTransactionResultException,
+      DupTransactionException, TaposException, ReceiptCheckErrException, VMIllegalException {
     if (trxCap == null) {
       return null;
     }
@@ -1452,16 +1656,7 @@ public class Manager {
       trxCap.setInBlock(true);
     }
 
-    validateTapos(trxCap);
-    validateCommon(trxCap);
-
-    validateDup(trxCap);
-
-    if (!trxCap.validateSignature(chainBaseManager.getAccountStore(),
-        chainBaseManager.getDynamicPropertiesStore())) {
-      throw new ValidateSignatureException(
-          String.format(" %s transaction signature validate failed", txId));
-    }
+    validateTransaction(trxCap);
 
     TransactionTrace trace = new TransactionTrace(trxCap, StoreFactory.getInstance(),
         new RuntimeImpl());
@@ -1491,6 +1686,46 @@ public class Manager {
     }
 
     trace.finalization();
+    TransactionInfoCapsule transactionInfo = finishTransaction(trxCap, blockCap, trace);
+    long cost = System.currentTimeMillis() - start;
+    if (cost > 100) {
+      String type = "broadcast";
+      if (Objects.nonNull(blockCap)) {
+        type = blockCap.hasWitnessSignature() ? "apply" : "pack";
+      }
+      logger.info("Process transaction {} cost {} ms during {}, {}",
+             Hex.toHexString(transactionInfo.getId()), cost, type, contract.getType().name());
+    }
+    Metrics.histogramObserve(requestTimer);
+    return transactionInfo.getInstance();
+  }
+
+  void recordMultiSignOwner(TransactionCapsule trxCap) {
+    if (isMultiSignTransaction(trxCap.getInstance())) {
+      ownerAddressSet.add(ByteArray.toHexString(trxCap.getOwnerAddress()));
+    }
+  }
+
+  private void validateTransaction(TransactionCapsule trxCap)
+      throws ValidateSignatureException, TransactionExpirationException,
+      TooBigTransactionException, DupTransactionException, TaposException {
+    validateTapos(trxCap);
+    validateCommon(trxCap);
+
+    validateDup(trxCap);
+
+    if (!trxCap.validateSignature(chainBaseManager.getAccountStore(),
+        chainBaseManager.getDynamicPropertiesStore())) {
+      throw new ValidateSignatureException(
+          String.format(" %s transaction signature validate failed", trxCap.getTransactionId()));
+    }
+  }
+
+  /**
+   * Stores an executed transaction and its result.
+   */
+  private TransactionInfoCapsule finishTransaction(TransactionCapsule trxCap,
+      BlockCapsule blockCap, TransactionTrace trace) {
     if (getDynamicPropertiesStore().supportVM()) {
       trxCap.setResult(trace.getTransactionContext());
     }
@@ -1510,11 +1745,6 @@ public class Manager {
       postContractTrigger(trace, false, blockHash);
     }
 
-
-    if (isMultiSignTransaction(trxCap.getInstance())) {
-      ownerAddressSet.add(ByteArray.toHexString(trxCap.getOwnerAddress()));
-    }
-
     if (Objects.nonNull(blockCap)) {
       chainBaseManager.getBalanceTraceStore()
           .updateCurrentTransactionStatus(
@@ -1526,17 +1756,43 @@ public class Manager {
     if (!eventPluginLoaded) {
       trxCap.setTrxTrace(null);
     }
-    long cost = System.currentTimeMillis() - start;
-    if (cost > 100) {
-      String type = "broadcast";
-      if (Objects.nonNull(blockCap)) {
-        type = blockCap.hasWitnessSignature() ? "apply" : "pack";
-      }
-      logger.info("Process transaction {} cost {} ms during {}, {}",
-             Hex.toHexString(transactionInfo.getId()), cost, type, contract.getType().name());
+    return transactionInfo;
+  }
+
+  /**
+   * Commits the speculative execution of a transaction of the block in place of
+   * {@link #processTransaction}: the transaction is validated against the head as usual and the
+   * writes recorded by the speculation are applied there. The accounts it wrote are fed to the
+   * account state trie as {@link AccountStore#put} does during execution.
+   *
+   * @return null if a shared value the speculation updated no longer allows its update at the
+   *     head, or if it deleted an account while the account state root is allowed, the trie
+   *     keeping every account put during execution; the transaction has to be executed
+   *     serially then.
+   */
+  private TransactionInfo commitSpeculation(TransactionCapsule trxCap, BlockCapsule blockCap,
+      ParallelTransactionExecutor.Speculation speculation)
+      throws ValidateSignatureException, TransactionExpirationException,
+      TooBigTransactionException, DupTransactionException, TaposException {
+    trxCap.setInBlock(true);
+    validateTransaction(trxCap);
+    Map<WrappedByteArray, WrappedByteArray> accounts = speculation.getAccessSet().getWrites()
+        .getOrDefault(getAccountStore().getDbName(), Collections.emptyMap());
+    if (getDynamicPropertiesStore().allowAccountStateRoot() && accounts.containsValue(null)) {
+      logger.debug("Speculation of tx {} deleted an account, executed serially.",
+          trxCap.getTransactionId());
+      return null;
     }
-    Metrics.histogramObserve(requestTimer);
-    return transactionInfo.getInstance();
+    if (!revokingStore.apply(speculation.getAccessSet())) {
+      return null;
+    }
+    accounts.forEach((key, value) -> accountStateCallBack.accountCallBack(key.getBytes(),
+        new AccountCapsule(value.getBytes())));
+    trxCap.setTrxTrace(speculation.getTrace());
+    TransactionInfo result = finishTransaction(trxCap, blockCap, speculation.getTrace())
+        .getInstance();
+    recordMultiSignOwner(trxCap);
+    return result;
   }
 
   /**
@@ -1555,7 +1811,7 @@ public class Manager {
         chainBaseManager.getHeadBlockId(),
         blockTime, miner.getWitnessAddress());
     blockCapsule.generatedByMyself = true;
-    session.reset();
+    resetPendingState();
     session.setValue(revokingStore.buildSession());
 
     accountStateCallBack.preExecute(blockCapsule);
@@ -1575,6 +1831,33 @@ public class Manager {
     List<TransactionCapsule> toBePacked = new ArrayList<>();
     long currentSize = blockCapsule.getInstance().getSerializedSize();
     boolean isSort = Args.getInstance().isOpenTransactionSort();
+    int assembledCount = 0;
+    List<BlockAssembler.Entry> assembled = blockAssembler == null
+        ? Collections.emptyList() : blockAssembler.take(blockCapsule);
+    // the account state trie is fed by executing the transactions
+    if (getDynamicPropertiesStore().getAllowAccountStateRoot() == 1) {
+      assembled = Collections.emptyList();
+    }
+    for (BlockAssembler.Entry entry : assembled) {
+      if (System.currentTimeMillis() > timeout) {
+        break;
+      }
+      // a transaction may depend on any one assembled before it
+      if (!pendingTransactions.contains(entry.getTrx())
+          || !revokingStore.apply(entry.getAccessSet())) {
+        break;
+      }
+      pendingTransactions.remove(entry.getTrx());
+      Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1,
+          MetricLabels.Gauge.QUEUE_PENDING);
+      recordMultiSignOwner(entry.getPacked());
+      toBePacked.add(entry.getPacked());
+      currentSize += entry.getSize();
+      if (isMultiSignTransaction(entry.getTrx().getInstance())) {
+        accountSet.add(ByteArray.toHexString(entry.getTrx().getOwnerAddress()));
+      }
+      assembledCount++;
+    }
     while (pendingTransactions.size() > 0 || rePushTransactions.size() > 0) {
       boolean fromPending = false;
       TransactionCapsule trx;
@@ -1599,7 +1882,7 @@ public class Manager {
       }
 
       if (fromPending) {
-        pendingTransactions.poll();
+        pendingTransactions.remove(trx);
         Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1,
                 MetricLabels.Gauge.QUEUE_PENDING);
       }
@@ -1658,7 +1941,7 @@ public class Manager {
     blockCapsule.addAllTransactions(toBePacked);
     accountStateCallBack.executeGenerateFinish();
 
-    session.reset();
+    resetPendingState();
 
     blockCapsule.setMerkleRoot();
     blockCapsule.sign(miner.getPrivateKey());
@@ -1666,9 +1949,9 @@ public class Manager {
     BlockCapsule capsule = new BlockCapsule(blockCapsule.getInstance());
     capsule.generatedByMyself = true;
     Metrics.histogramObserve(timer);
-    logger.info("Generate block {} success, trxs:{}, pendingCount: {}, rePushCount: {},"
-                    + " postponedCount: {}, blockSize: {} B",
-            capsule.getNum(), capsule.getTransactions().size(),
+    logger.info("Generate block {} success, trxs:{}, assembledCount: {}, pendingCount: {},"
+                    + " rePushCount: {}, postponedCount: {}, blockSize: {} B",
+            capsule.getNum(), capsule.getTransactions().size(), assembledCount,
             pendingTransactions.size(), rePushTransactions.size(), postponedTrxCount,
             capsule.getSerializedSize());
     return capsule;
@@ -1750,6 +2033,11 @@ public class Manager {
       }
     }
 
+    ParallelTransactionExecutor.Round round = null;
+    if (parallelExecutor != null && !block.generatedByMyself) {
+      round = parallelExecutor.speculate(block);
+    }
+
     TransactionRetCapsule transactionRetCapsule =
         new TransactionRetCapsule(block);
     try {
@@ -1763,12 +2051,36 @@ public class Manager {
           transactionCapsule.setVerified(true);
         }
         accountStateCallBack.preExeTrans();
-        TransactionInfo result = processTransaction(transactionCapsule, block);
+        ParallelTransactionExecutor.Speculation speculation =
+            round == null ? null : round.next();
+        TransactionInfo result = speculation == null ? null
+            : commitSpeculation(transactionCapsule, block, speculation);
+        if (result != null) {
+          round.commit(speculation);
+        } else {
+          if (speculation != null) {
+            round.reject();
+          }
+          AccessSet accessSet = round == null ? null : round.beginSerial();
+          try {
+            result = processTransaction(transactionCapsule, block);
+          } finally {
+            if (accessSet != null) {
+              AccessSet.unbind();
+            }
+          }
+          if (round != null) {
+            round.endSerial(accessSet, result);
+          }
+        }
         accountStateCallBack.exeTransFinish();
         if (Objects.nonNull(result)) {
           results.add(result);
         }
       }
+      if (round != null) {
+        round.finish();
+      }
       transactionRetCapsule.addAllTransactionInfos(results);
       accountStateCallBack.executePushFinish();
     } finally {
@@ -1869,7 +2181,7 @@ public class Manager {
         triggerCapsule.setTriggerName(Trigger.SOLIDITYLOG_TRIGGER_NAME);
         EventPluginLoader.getInstance().postSolidityLogTrigger(triggerCapsule);
       } else {
-        // when switch fork, block will be post to triggerCapsuleQueue, transaction may be not found
+        // when switch fork, block will be post to triggerPipeline, transaction may be not found
         logger.error("PostSolidityLogContractTrigger txId = {} not contains transaction.",
             triggerCapsule.getTransactionId());
       }
@@ -2039,6 +2351,27 @@ public class Manager {
     revokingStore.setCursor(Chainbase.Cursor.HEAD, 0L);
   }
 
+  /**
+   * Runs {@code read} on the state of the head block, below the pending transactions. The state
+   * is pinned once the block is applied, so the reads neither take the lock nor see a block
+   * being applied meanwhile, and match the archive.
+   *
+   * @throws IllegalArgumentException if the archive is not enabled.
+   */
+  public <T> T readHeadBlockState(Supplier<T> read) {
+    AccessSet state = headBlockState;
+    if (state == null) {
+      throw new IllegalArgumentException("state of the head block is not archived");
+    }
+    AccessSet accessSet = new AccessSet(state);
+    accessSet.bind();
+    try {
+      return read.get();
+    } finally {
+      AccessSet.unbind();
+    }
+  }
+
   private void startEventSubscribing() {
 
     try {
@@ -2092,7 +2425,7 @@ public class Manager {
         SolidityTriggerCapsule solidityTriggerCapsule
             = new SolidityTriggerCapsule(blockCapsule.getNum());//unique key
         solidityTriggerCapsule.setTimeStamp(blockCapsule.getTimeStamp());
-        boolean result = triggerCapsuleQueue.offer(solidityTriggerCapsule);
+        boolean result = triggerPipeline.offer(solidityTriggerCapsule);
         if (!result) {
           logger.info("Too many trigger, lost solidified trigger, block number: {}.",
               blockCapsule.getNum());
@@ -2233,7 +2566,7 @@ public class Manager {
       for (BlockCapsule capsule : capsuleList) {
         BlockLogTriggerCapsule blockLogTriggerCapsule = new BlockLogTriggerCapsule(capsule);
         blockLogTriggerCapsule.setLatestSolidifiedBlockNumber(solidityBlkNum);
-        if (!triggerCapsuleQueue.offer(blockLogTriggerCapsule)) {
+        if (!triggerPipeline.offer(blockLogTriggerCapsule)) {
           logger.info("Too many triggers, block trigger lost: {}.", capsule.getBlockId());
         }
       }
@@ -2282,7 +2615,7 @@ public class Manager {
         index, preCumulativeEnergyUsed, cumulativeLogCount, transactionInfo, energyUnitPrice);
     trx.setLatestSolidifiedBlockNumber(getDynamicPropertiesStore()
         .getLatestSolidifiedBlockNum());
-    if (!triggerCapsuleQueue.offer(trx)) {
+    if (!triggerPipeline.offer(trx)) {
       logger.info("Too many triggers, transaction trigger lost: {}.", trxCap.getTransactionId());
     }
 
@@ -2295,7 +2628,7 @@ public class Manager {
     TransactionLogTriggerCapsule trx = new TransactionLogTriggerCapsule(trxCap, blockCap);
     trx.setLatestSolidifiedBlockNumber(getDynamicPropertiesStore()
         .getLatestSolidifiedBlockNum());
-    if (!triggerCapsuleQueue.offer(trx)) {
+    if (!triggerPipeline.offer(trx)) {
       logger.info("Too many triggers, transaction trigger lost: {}.", trxCap.getTransactionId());
     }
   }
@@ -2335,7 +2668,7 @@ public class Manager {
             .getLatestSolidifiedBlockNum());
         contractTriggerCapsule.setBlockHash(blockHash);
 
-        if (!triggerCapsuleQueue.offer(contractTriggerCapsule)) {
+        if (!triggerPipeline.offer(contractTriggerCapsule)) {
           logger.info("Too many triggers, contract log trigger lost: {}.",
               trigger.getTransactionId());
         }
@@ -2453,9 +2786,16 @@ public class Manager {
     EventPluginLoader.getInstance().stopPlugin();
     stopFilterProcessThread();
     stopValidateSignThread();
+    if (parallelExecutor != null) {
+      parallelExecutor.close();
+    }
+    if (blockAssembler != null) {
+      blockAssembler.close();
+    }
     chainBaseManager.shutdown();
     revokingStore.shutdown();
-    session.reset();
+    CacheManager.close();
+    resetPendingState();
   }
 
   private static class ValidateSignTask implements Callable<Boolean> {
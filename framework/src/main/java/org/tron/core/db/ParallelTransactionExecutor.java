@@ -0,0 +1,279 @@
+package org.tron.core.db;
+
+import com.google.common.collect.ImmutableSet;
+import io.prometheus.client.Histogram;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.util.encoders.Hex;
+import org.tron.common.es.ExecutorServiceManager;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
+import org.tron.common.runtime.RuntimeImpl;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.capsule.utils.TransactionUtil;
+import org.tron.core.db2.core.AccessSet;
+import org.tron.core.store.StoreFactory;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.Protocol.TransactionInfo;
+
+/**
+ * Optimistic parallel execution of the transactions of a block.
+ *
+ * <p>Every transaction is first executed speculatively on a worker thread against the state at
+ * the beginning of the block, on private snapshot layers that record its read/write set. The
+ * block is then executed serially as usual, and each speculative result is checked in block
+ * order: it is a conflict if it read a key written by an earlier transaction of the block,
+ * otherwise its writes and TransactionInfo must be identical to the serial ones. Serial
+ * execution stays authoritative, this measures the conflict rate and proves the equivalence on
+ * real blocks.
+ *
+ * <p>With commit on, a transaction that read nothing written by an earlier transaction of the
+ * block has its recorded writes applied at the head as they are instead, only the others are
+ * executed serially against the state left by the earlier ones.
+ */
+@Slf4j(topic = "DB")
+public class ParallelTransactionExecutor {
+
+  // stores written by the commit step of processTransaction only, never by speculation
+  private static final Set<String> COMMIT_ONLY_DBS =
+      ImmutableSet.of("trans", "trans-cache", "balance-trace", "account-trace");
+
+  private final Manager dbManager;
+  private final ExecutorService executor;
+  private final String esName = "parallel-execution";
+  private final boolean commit;
+
+  public ParallelTransactionExecutor(Manager dbManager, int threadNum, boolean commit) {
+    this.dbManager = dbManager;
+    this.executor = ExecutorServiceManager.newFixedThreadPool(esName, Math.max(1, threadNum));
+    this.commit = commit;
+  }
+
+  /**
+   * Executes all transactions of the block speculatively, must be called with the block session
+   * as head and before any transaction of the block is processed.
+   *
+   * @return the round to take the results from, null if nothing was speculated.
+   */
+  public Round speculate(BlockCapsule block) {
+    List<TransactionCapsule> txs = block.getTransactions();
+    if (txs.isEmpty()) {
+      return null;
+    }
+    Histogram.Timer timer = Metrics.histogramStartTimer(
+        MetricKeys.Histogram.PARALLEL_EXECUTION_LATENCY);
+    long start = System.currentTimeMillis();
+    List<Future<Speculation>> futures = new ArrayList<>(txs.size());
+    for (TransactionCapsule tx : txs) {
+      futures.add(executor.submit(() -> execute(tx, block)));
+    }
+    List<Speculation> speculations = new ArrayList<>(txs.size());
+    try {
+      for (Future<Speculation> future : futures) {
+        try {
+          speculations.add(future.get());
+        } catch (ExecutionException e) {
+          speculations.add(new Speculation(null, null, null));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      futures.forEach(f -> f.cancel(true));
+      return null;
+    } finally {
+      Metrics.histogramObserve(timer);
+    }
+    return new Round(block.getNum(), speculations, System.currentTimeMillis() - start, commit);
+  }
+
+  private Speculation execute(TransactionCapsule tx, BlockCapsule block) {
+    AccessSet accessSet = new AccessSet(true);
+    accessSet.bind();
+    try {
+      if (tx.getInstance().getRawData().getContractCount() != 1
+          || tx.getInstance().getRawData().getContract(0).getType()
+          == ContractType.ShieldedTransferContract) {
+        // shielded transactions touch the merkle container outside of chainbase
+        return new Speculation(accessSet, null, null);
+      }
+      TransactionCapsule trx = new TransactionCapsule(tx.getInstance());
+      trx.setBlockNum(block.getNum());
+      trx.setInBlock(true);
+      TransactionTrace trace = new TransactionTrace(trx, StoreFactory.getInstance(),
+          new RuntimeImpl());
+      trx.setTrxTrace(trace);
+
+      dbManager.consumeBandwidth(trx, trace);
+      dbManager.consumeMultiSignFee(trx, trace);
+      dbManager.consumeMemoFee(trx, trace);
+
+      trace.init(block, dbManager.isEventPluginLoaded());
+      trace.checkIsConstant();
+      trace.exec();
+      trace.setResult();
+      if (trace.checkNeedRetry()) {
+        trace.init(block, dbManager.isEventPluginLoaded());
+        trace.checkIsConstant();
+        trace.exec();
+        trace.setResult();
+      }
+      if (block.hasWitnessSignature()) {
+        trace.check();
+      }
+      trace.finalization();
+      if (dbManager.getDynamicPropertiesStore().supportVM()) {
+        trx.setResult(trace.getTransactionContext());
+      }
+      return new Speculation(accessSet, trace,
+          TransactionUtil.buildTransactionInfoInstance(trx, block, trace).getInstance());
+    } catch (Exception e) {
+      logger.debug("Speculative execution of tx {} failed, {}.", tx.getTransactionId(),
+          e.getMessage());
+      return new Speculation(accessSet, null, null);
+    } finally {
+      AccessSet.unbind();
+    }
+  }
+
+  public void close() {
+    ExecutorServiceManager.shutdownAndAwaitTermination(executor, esName);
+  }
+
+  static class Speculation {
+
+    private final AccessSet accessSet;
+    private final TransactionTrace trace;
+    private final TransactionInfo info;
+
+    Speculation(AccessSet accessSet, TransactionTrace trace, TransactionInfo info) {
+      this.accessSet = accessSet;
+      this.trace = trace;
+      this.info = info;
+    }
+
+    boolean failed() {
+      return accessSet == null || info == null;
+    }
+
+    AccessSet getAccessSet() {
+      return accessSet;
+    }
+
+    TransactionTrace getTrace() {
+      return trace;
+    }
+  }
+
+  /**
+   * Speculative results of one block, taken in block order.
+   */
+  public static class Round {
+
+    private final long blockNum;
+    private final List<Speculation> speculations;
+    private final long cost;
+    private final boolean commit;
+    // keys written by the transactions already committed in this block
+    private final AccessSet committed = new AccessSet(false);
+    // the speculation to check against the serial execution in progress
+    private Speculation checked;
+    private int index = 0;
+    private int noConflict = 0;
+    private int conflict = 0;
+    private int mismatch = 0;
+
+    private Round(long blockNum, List<Speculation> speculations, long cost, boolean commit) {
+      this.blockNum = blockNum;
+      this.speculations = speculations;
+      this.cost = cost;
+      this.commit = commit;
+    }
+
+    /**
+     * @return the speculation of the next transaction if its writes are committed as they are,
+     *     null if the transaction has to be executed serially: when it failed or read a key
+     *     written by an earlier transaction of the block, or when results are only checked.
+     */
+    Speculation next() {
+      Speculation speculation = speculations.get(index++);
+      if (speculation.failed() || speculation.accessSet.conflictsWith(committed)) {
+        conflict++;
+        Metrics.counterInc(MetricKeys.Counter.PARALLEL_EXECUTION_TXS, 1,
+            MetricLabels.Counter.PARALLEL_CONFLICT);
+        return null;
+      }
+      if (commit) {
+        return speculation;
+      }
+      checked = speculation;
+      return null;
+    }
+
+    /**
+     * Counts a speculation returned by {@link #next()} that could not be committed at the head
+     * as a conflict, the transaction is executed serially instead.
+     */
+    void reject() {
+      conflict++;
+      Metrics.counterInc(MetricKeys.Counter.PARALLEL_EXECUTION_TXS, 1,
+          MetricLabels.Counter.PARALLEL_CONFLICT);
+    }
+
+    void commit(Speculation speculation) {
+      noConflict++;
+      Metrics.counterInc(MetricKeys.Counter.PARALLEL_EXECUTION_TXS, 1,
+          MetricLabels.Counter.PARALLEL_NO_CONFLICT);
+      committed.mergeWrites(speculation.accessSet);
+    }
+
+    /**
+     * Binds a recording access set to the current thread for the next serial transaction.
+     */
+    AccessSet beginSerial() {
+      AccessSet serial = new AccessSet(false);
+      serial.bind();
+      return serial;
+    }
+
+    /**
+     * Checks the speculation of the transaction against its serial execution, unless it was a
+     * conflict.
+     */
+    void endSerial(AccessSet serial, TransactionInfo result) {
+      Speculation speculation = checked;
+      checked = null;
+      committed.mergeWrites(serial);
+      if (speculation == null) {
+        return;
+      }
+      Set<String> dbs = new HashSet<>(speculation.accessSet.getWrites().keySet());
+      dbs.addAll(serial.getWrites().keySet());
+      dbs.removeAll(COMMIT_ONLY_DBS);
+      String label;
+      if (speculation.accessSet.sameWrites(serial, dbs) && speculation.info.equals(result)) {
+        noConflict++;
+        label = MetricLabels.Counter.PARALLEL_NO_CONFLICT;
+      } else {
+        mismatch++;
+        label = MetricLabels.Counter.PARALLEL_MISMATCH;
+        logger.warn("Speculative result of tx {} in block {} differs from serial execution.",
+            result == null ? null : Hex.toHexString(result.getId().toByteArray()), blockNum);
+      }
+      Metrics.counterInc(MetricKeys.Counter.PARALLEL_EXECUTION_TXS, 1, label);
+    }
+
+    public void finish() {
+      logger.info("Parallel execution of block {}, txs: {}, {}: {}, conflict: {}, "
+              + "mismatch: {}, speculation cost: {} ms.", blockNum, speculations.size(),
+          commit ? "committed" : "no conflict", noConflict, conflict, mismatch, cost);
+    }
+  }
+}
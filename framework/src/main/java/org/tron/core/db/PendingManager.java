@@ -1,22 +1,36 @@
 package org.tron.core.db;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.tron.common.prometheus.MetricKeys;
 import org.tron.common.prometheus.MetricLabels;
 import org.tron.common.prometheus.Metrics;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.BlockCapsule.BlockId;
 import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.config.args.Args;
+import org.tron.core.db2.core.AccessSet;
+import org.tron.core.exception.HeaderNotFound;
 
 @Slf4j(topic = "DB")
 public class PendingManager implements AutoCloseable {
 
   private Manager dbManager;
   private long timeout = Args.getInstance().getPendingTransactionTimeout();
+  private BlockId headBlockId;
+  private List<TransactionCapsule> prepared;
 
   public PendingManager(Manager db) {
     this.dbManager = db;
-    db.getSession().reset();
+    this.headBlockId = db.getChainBaseManager().getHeadBlockId();
+    this.prepared = db.takePreparedTransactions();
+    db.stopBlockAssembly();
+    db.resetPendingState();
     db.getShieldedTransInPendingCounts().set(0);
   }
 
@@ -39,13 +53,23 @@ public class PendingManager implements AutoCloseable {
       }
     }
 
-    for (TransactionCapsule tx : dbManager.getPendingTransactions()) {
-      txIteration(tx);
-    }
-
+    dbManager.pinHeadBlockState();
+    dbManager.startBlockAssembly();
+    List<TransactionCapsule> pending = new ArrayList<>(dbManager.getPendingTransactions());
     dbManager.getPendingTransactions().clear();
     Metrics.gaugeSet(MetricKeys.Gauge.MANAGER_QUEUE, 0,
         MetricLabels.Gauge.QUEUE_PENDING);
+    Set<TransactionCapsule> replayed = replay(pending);
+    for (TransactionCapsule tx : pending) {
+      if (!replayed.contains(tx)) {
+        txIteration(tx);
+      }
+    }
+    Metrics.counterInc(MetricKeys.Counter.PENDING_REVALIDATE, replayed.size(),
+        MetricLabels.Counter.PENDING_REPLAYED);
+    Metrics.counterInc(MetricKeys.Counter.PENDING_REVALIDATE, pending.size() - replayed.size(),
+        MetricLabels.Counter.PENDING_REEXECUTED);
+
     for (TransactionCapsule tx : dbManager.getPoppedTransactions()) {
       tx.setTime(System.currentTimeMillis());
       txIteration(tx);
@@ -54,11 +78,66 @@ public class PendingManager implements AutoCloseable {
     Metrics.gaugeSet(MetricKeys.Gauge.MANAGER_QUEUE, 0,
         MetricLabels.Gauge.QUEUE_POPPED);
     if (Args.getInstance().isOpenPrintLog()) {
-      logger.info("Pending tx size: {}.", dbManager.getRePushTransactions().size());
+      logger.info("Pending tx size: {}, replayed: {}.", dbManager.getRePushTransactions().size(),
+          replayed.size());
     }
 
   }
 
+  /**
+   * Puts back into the pending state, in their execution order, the pending transactions that
+   * read nothing written by the new block or by a transaction that could not be put back, the
+   * others are pushed again.
+   */
+  private Set<TransactionCapsule> replay(List<TransactionCapsule> pending) {
+    Set<TransactionCapsule> replayed = Collections.newSetFromMap(new IdentityHashMap<>());
+    AccessSet changed = changedByBlock();
+    if (changed == null) {
+      return replayed;
+    }
+    Set<TransactionCapsule> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+    candidates.addAll(pending);
+    long now = System.currentTimeMillis();
+    for (TransactionCapsule tx : prepared) {
+      AccessSet accessSet = tx.getPendingAccess();
+      if (accessSet == null) {
+        continue;
+      }
+      if (candidates.contains(tx) && now - tx.getTime() < timeout
+          && !accessSet.conflictsWith(changed) && dbManager.replayPendingTransaction(tx)) {
+        replayed.add(tx);
+      } else {
+        changed.mergeWrites(accessSet);
+      }
+    }
+    return replayed;
+  }
+
+  /**
+   * @return the keys written on top of the state the pending transactions ran against, or null
+   *     if the head moved by other than one block.
+   */
+  private AccessSet changedByBlock() {
+    if (prepared.isEmpty()) {
+      return null;
+    }
+    BlockId head = dbManager.getChainBaseManager().getHeadBlockId();
+    if (head.equals(headBlockId)) {
+      return new AccessSet(false);
+    }
+    try {
+      BlockCapsule block = dbManager.getChainBaseManager().getHead();
+      if (!block.getParentBlockId().equals(headBlockId)) {
+        return null;
+      }
+    } catch (HeaderNotFound e) {
+      return null;
+    }
+    // the latest block number, hash and timestamp are kept, the values a transaction wrote
+    // depend on the head it read, through the slot and the operation times
+    return dbManager.getRevokingStore().headWrites();
+  }
+
   private void txIteration(TransactionCapsule tx) {
     try {
       if (System.currentTimeMillis() - tx.getTime() < timeout) {
@@ -0,0 +1,340 @@
+package org.tron.core.db;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.db2.common.WrappedByteArray;
+
+/**
+ * Pending transactions kept in one queue per owner address, in the order they were admitted, with
+ * the senders sharded by address so that admissions from different shards never contend.
+ *
+ * <p>Polling takes the best head among all the sender queues, by {@code comparator} and then by
+ * admission order, so the transactions of one sender always leave in the order they were
+ * executed into the pending state.
+ */
+public class PendingPool extends AbstractQueue<TransactionCapsule>
+    implements BlockingQueue<TransactionCapsule> {
+
+  private static final WrappedByteArray NO_OWNER = WrappedByteArray.of(new byte[0]);
+
+  private final Shard[] shards;
+  private final Comparator<Entry> order;
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicInteger size = new AtomicInteger();
+  private final Object notEmpty = new Object();
+  private final AtomicInteger waiters = new AtomicInteger();
+
+  /**
+   * @param comparator orders the heads of different senders, admission order when null.
+   */
+  public PendingPool(int shardNum, Comparator<TransactionCapsule> comparator) {
+    this.order = (a, b) -> {
+      int c = comparator == null ? 0 : comparator.compare(a.trx, b.trx);
+      return c != 0 ? c : Long.compare(a.seq, b.seq);
+    };
+    this.shards = new Shard[Math.max(1, shardNum)];
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new Shard();
+    }
+  }
+
+  private static WrappedByteArray owner(TransactionCapsule trx) {
+    if (trx.getInstance().getRawData().getContractCount() == 0) {
+      return NO_OWNER;
+    }
+    byte[] owner = trx.getOwnerAddress();
+    return owner == null ? NO_OWNER : WrappedByteArray.of(owner);
+  }
+
+  private Shard shard(WrappedByteArray owner) {
+    return shards[Math.floorMod(owner.hashCode(), shards.length)];
+  }
+
+  @Override
+  public boolean offer(TransactionCapsule trx) {
+    if (trx == null) {
+      throw new NullPointerException();
+    }
+    WrappedByteArray owner = owner(trx);
+    shard(owner).add(owner, new Entry(trx, sequence.getAndIncrement()));
+    size.incrementAndGet();
+    if (waiters.get() > 0) {
+      synchronized (notEmpty) {
+        notEmpty.notifyAll();
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void put(TransactionCapsule trx) {
+    offer(trx);
+  }
+
+  @Override
+  public boolean offer(TransactionCapsule trx, long timeout, TimeUnit unit) {
+    return offer(trx);
+  }
+
+  private Entry best(Shard[] bestShard) {
+    Entry best = null;
+    for (Shard shard : shards) {
+      Entry head = shard.peek();
+      if (head != null && (best == null || order.compare(head, best) < 0)) {
+        best = head;
+        bestShard[0] = shard;
+      }
+    }
+    return best;
+  }
+
+  @Override
+  public TransactionCapsule peek() {
+    Entry best = best(new Shard[1]);
+    return best == null ? null : best.trx;
+  }
+
+  @Override
+  public TransactionCapsule poll() {
+    Shard[] shard = new Shard[1];
+    while (true) {
+      Entry best = best(shard);
+      if (best == null) {
+        return null;
+      }
+      // the head may have been taken or replaced since it was compared
+      if (shard[0].pollIf(best)) {
+        size.decrementAndGet();
+        return best.trx;
+      }
+    }
+  }
+
+  @Override
+  public TransactionCapsule take() throws InterruptedException {
+    TransactionCapsule trx;
+    while ((trx = poll(1, TimeUnit.SECONDS)) == null) {
+      // wait for the next admission
+    }
+    return trx;
+  }
+
+  @Override
+  public TransactionCapsule poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    TransactionCapsule trx = poll();
+    while (trx == null) {
+      long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (left <= 0) {
+        return null;
+      }
+      waiters.incrementAndGet();
+      try {
+        synchronized (notEmpty) {
+          if (size.get() == 0) {
+            notEmpty.wait(left);
+          }
+        }
+      } finally {
+        waiters.decrementAndGet();
+      }
+      trx = poll();
+    }
+    return trx;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    if (!(o instanceof TransactionCapsule)) {
+      return false;
+    }
+    WrappedByteArray owner = owner((TransactionCapsule) o);
+    if (shard(owner).remove(owner, o)) {
+      size.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof TransactionCapsule)) {
+      return false;
+    }
+    WrappedByteArray owner = owner((TransactionCapsule) o);
+    return shard(owner).contains(owner, o);
+  }
+
+  @Override
+  public void clear() {
+    for (Shard shard : shards) {
+      size.addAndGet(-shard.clear());
+    }
+  }
+
+  @Override
+  public int size() {
+    return size.get();
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return Integer.MAX_VALUE;
+  }
+
+  @Override
+  public int drainTo(Collection<? super TransactionCapsule> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super TransactionCapsule> c, int maxElements) {
+    int n = 0;
+    TransactionCapsule trx;
+    while (n < maxElements && (trx = poll()) != null) {
+      c.add(trx);
+      n++;
+    }
+    return n;
+  }
+
+  /**
+   * Weakly consistent, iterates the transactions present when called in admission order.
+   */
+  @Override
+  public Iterator<TransactionCapsule> iterator() {
+    List<Entry> entries = new ArrayList<>(size());
+    for (Shard shard : shards) {
+      shard.collect(entries);
+    }
+    entries.sort(Comparator.comparingLong(e -> e.seq));
+    Iterator<Entry> it = entries.iterator();
+    return new Iterator<TransactionCapsule>() {
+      private TransactionCapsule last;
+
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
+      }
+
+      @Override
+      public TransactionCapsule next() {
+        if (!it.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        last = it.next().trx;
+        return last;
+      }
+
+      @Override
+      public void remove() {
+        if (last == null) {
+          throw new IllegalStateException();
+        }
+        PendingPool.this.remove(last);
+        last = null;
+      }
+    };
+  }
+
+  private static class Entry {
+
+    private final TransactionCapsule trx;
+    private final long seq;
+
+    private Entry(TransactionCapsule trx, long seq) {
+      this.trx = trx;
+      this.seq = seq;
+    }
+  }
+
+  private class Shard {
+
+    private final Map<WrappedByteArray, ArrayDeque<Entry>> senders = new HashMap<>();
+    // the first entry of every sender queue
+    private final PriorityQueue<Entry> heads = new PriorityQueue<>(order);
+
+    synchronized void add(WrappedByteArray owner, Entry entry) {
+      ArrayDeque<Entry> queue = senders.computeIfAbsent(owner, k -> new ArrayDeque<>());
+      queue.add(entry);
+      if (queue.size() == 1) {
+        heads.add(entry);
+      }
+    }
+
+    synchronized Entry peek() {
+      return heads.peek();
+    }
+
+    synchronized boolean pollIf(Entry entry) {
+      if (heads.peek() != entry) {
+        return false;
+      }
+      heads.poll();
+      WrappedByteArray owner = owner(entry.trx);
+      ArrayDeque<Entry> queue = senders.get(owner);
+      queue.poll();
+      next(owner, queue);
+      return true;
+    }
+
+    synchronized boolean remove(WrappedByteArray owner, Object o) {
+      ArrayDeque<Entry> queue = senders.get(owner);
+      if (queue == null) {
+        return false;
+      }
+      Entry first = queue.peek();
+      Iterator<Entry> it = queue.iterator();
+      while (it.hasNext()) {
+        Entry entry = it.next();
+        if (entry.trx.equals(o)) {
+          it.remove();
+          if (entry == first) {
+            heads.remove(entry);
+            next(owner, queue);
+          }
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void next(WrappedByteArray owner, ArrayDeque<Entry> queue) {
+      if (queue.isEmpty()) {
+        senders.remove(owner);
+      } else {
+        heads.add(queue.peek());
+      }
+    }
+
+    synchronized boolean contains(WrappedByteArray owner, Object o) {
+      ArrayDeque<Entry> queue = senders.get(owner);
+      return queue != null && queue.stream().anyMatch(e -> e.trx.equals(o));
+    }
+
+    synchronized void collect(List<Entry> entries) {
+      senders.values().forEach(entries::addAll);
+    }
+
+    synchronized int clear() {
+      int n = senders.values().stream().mapToInt(ArrayDeque::size).sum();
+      senders.clear();
+      heads.clear();
+      return n;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package org.tron.core.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.tron.core.db2.core.AccessSet;
+
+/**
+ * Writes published to the pending state since it was last rebuilt, in publication order.
+ *
+ * <p>A transaction executed speculatively outside the pending lock takes the {@link #sequence()}
+ * before it starts and may only be published if none of the writes published since then touched
+ * what it read. A write has to be added after it is visible in the stores.
+ */
+class PendingWrites {
+
+  private final List<AccessSet> writes = new ArrayList<>();
+  // sequence of the first entry of writes
+  private long base;
+
+  synchronized long sequence() {
+    return base + writes.size();
+  }
+
+  synchronized void add(AccessSet accessSet) {
+    writes.add(accessSet);
+  }
+
+  /**
+   * @return true if {@code accessSet} read anything written since {@code since}, or the pending
+   *     state was rebuilt since.
+   */
+  synchronized boolean conflicts(AccessSet accessSet, long since) {
+    if (since < base) {
+      return true;
+    }
+    for (int i = (int) (since - base); i < writes.size(); i++) {
+      if (accessSet.conflictsWith(writes.get(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  synchronized void reset() {
+    // one more, so that a sequence taken before is always stale
+    base += writes.size() + 1;
+    writes.clear();
+  }
+}
@@ -24,7 +24,9 @@ import org.tron.core.net.message.base.DisconnectMessage;
 import org.tron.core.net.message.handshake.HelloMessage;
 import org.tron.core.net.messagehandler.BlockMsgHandler;
 import org.tron.core.net.messagehandler.ChainInventoryMsgHandler;
+import org.tron.core.net.messagehandler.CompactBlockMsgHandler;
 import org.tron.core.net.messagehandler.FetchInvDataMsgHandler;
+import org.tron.core.net.messagehandler.GetBlockTxnMsgHandler;
 import org.tron.core.net.messagehandler.InventoryMsgHandler;
 import org.tron.core.net.messagehandler.PbftDataSyncHandler;
 import org.tron.core.net.messagehandler.PbftMsgHandler;
@@ -72,6 +74,12 @@ public class P2pEventHandlerImpl extends P2pEventHandler {
   @Autowired
   private TransactionsMsgHandler transactionsMsgHandler;
 
+  @Autowired
+  private CompactBlockMsgHandler compactBlockMsgHandler;
+
+  @Autowired
+  private GetBlockTxnMsgHandler getBlockTxnMsgHandler;
+
   @Autowired
   private PbftDataSyncHandler pbftDataSyncHandler;
 
@@ -199,6 +207,13 @@ public class P2pEventHandlerImpl extends P2pEventHandler {
         case TRXS:
           transactionsMsgHandler.processMessage(peer, msg);
           break;
+        case COMPACT_BLOCK:
+        case BLOCK_TXN:
+          compactBlockMsgHandler.processMessage(peer, msg);
+          break;
+        case GET_BLOCK_TXN:
+          getBlockTxnMsgHandler.processMessage(peer, msg);
+          break;
         case PBFT_COMMIT_MSG:
           pbftDataSyncHandler.processMessage(peer, msg);
           break;
@@ -6,7 +6,10 @@ import org.tron.core.exception.P2pException;
 import org.tron.core.metrics.MetricsKey;
 import org.tron.core.metrics.MetricsUtil;
 import org.tron.core.net.message.adv.BlockMessage;
+import org.tron.core.net.message.adv.BlockTxnMessage;
+import org.tron.core.net.message.adv.CompactBlockMessage;
 import org.tron.core.net.message.adv.FetchInvDataMessage;
+import org.tron.core.net.message.adv.GetBlockTxnMessage;
 import org.tron.core.net.message.adv.InventoryMessage;
 import org.tron.core.net.message.adv.TransactionMessage;
 import org.tron.core.net.message.adv.TransactionsMessage;
@@ -63,6 +66,12 @@ public class TronMessageFactory {
         return new BlockMessage(packed);
       case TRXS:
         return new TransactionsMessage(packed);
+      case COMPACT_BLOCK:
+        return new CompactBlockMessage(packed);
+      case GET_BLOCK_TXN:
+        return new GetBlockTxnMessage(packed);
+      case BLOCK_TXN:
+        return new BlockTxnMessage(packed);
       case INVENTORY:
         return new InventoryMessage(packed);
       case FETCH_INV_DATA:
@@ -0,0 +1,57 @@
+package org.tron.core.net.message.adv;
+
+import com.google.protobuf.ByteString;
+import java.util.List;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.net.message.MessageTypes;
+import org.tron.core.net.message.TronMessage;
+import org.tron.protos.Protocol.BlockTransactions;
+import org.tron.protos.Protocol.Transaction;
+
+public class BlockTxnMessage extends TronMessage {
+
+  private BlockTransactions transactions;
+
+  private BlockId blockId;
+
+  public BlockTxnMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.BLOCK_TXN.asByte();
+    this.transactions = BlockTransactions.parseFrom(getAliasedInputStream(data));
+    this.blockId = new BlockId(Sha256Hash.wrap(transactions.getBlockId()));
+    if (isFilter()) {
+      compareBytes(data, transactions);
+      TransactionCapsule.validContractProto(transactions.getTransactionsList());
+    }
+  }
+
+  public BlockTxnMessage(BlockId blockId, List<Transaction> trxs) {
+    this.transactions = BlockTransactions.newBuilder()
+        .setBlockId(ByteString.copyFrom(blockId.getBytes()))
+        .addAllTransactions(trxs).build();
+    this.type = MessageTypes.BLOCK_TXN.asByte();
+    this.data = transactions.toByteArray();
+    this.blockId = blockId;
+  }
+
+  public BlockId getBlockId() {
+    return blockId;
+  }
+
+  public List<Transaction> getTransactions() {
+    return transactions.getTransactionsList();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", trx size: ").append(transactions.getTransactionsCount()).toString();
+  }
+}
@@ -0,0 +1,88 @@
+package org.tron.core.net.message.adv;
+
+import com.google.common.hash.Hashing;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.net.message.MessageTypes;
+import org.tron.core.net.message.TronMessage;
+import org.tron.protos.Protocol.Block;
+import org.tron.protos.Protocol.CompactBlock;
+import org.tron.protos.Protocol.Transaction;
+
+public class CompactBlockMessage extends TronMessage {
+
+  private CompactBlock compactBlock;
+
+  private BlockId blockId;
+
+  public CompactBlockMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.COMPACT_BLOCK.asByte();
+    this.compactBlock = CompactBlock.parseFrom(getAliasedInputStream(data));
+    if (isFilter()) {
+      compareBytes(data, compactBlock);
+      List<Transaction> prefilled = new ArrayList<>();
+      compactBlock.getPrefilledList().forEach(p -> prefilled.add(p.getTransaction()));
+      TransactionCapsule.validContractProto(prefilled);
+    }
+    this.blockId = blockId(compactBlock);
+  }
+
+  public CompactBlockMessage(CompactBlock compactBlock) {
+    this.compactBlock = compactBlock;
+    this.type = MessageTypes.COMPACT_BLOCK.asByte();
+    this.data = compactBlock.toByteArray();
+    this.blockId = blockId(compactBlock);
+  }
+
+  private static BlockId blockId(CompactBlock compactBlock) {
+    return new BlockCapsule(Block.newBuilder().setBlockHeader(compactBlock.getBlockHeader())
+        .build()).getBlockId();
+  }
+
+  /**
+   * @return the short id of a transaction in the block {@code blockId}, a siphash-2-4 of its id
+   *     keyed by the hash part of the block id, so that collisions can not be forged for every
+   *     block at once.
+   */
+  public static long shortId(BlockId blockId, Sha256Hash txId) {
+    ByteBuffer key = ByteBuffer.wrap(blockId.getBytes());
+    return Hashing.sipHash24(key.getLong(8), key.getLong(16)).hashBytes(txId.getBytes())
+        .asLong();
+  }
+
+  public CompactBlock getCompactBlock() {
+    return compactBlock;
+  }
+
+  public BlockId getBlockId() {
+    return blockId;
+  }
+
+  public int getTransactionCount() {
+    return compactBlock.getTransactionsCount() + compactBlock.getPrefilledCount();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public Sha256Hash getMessageId() {
+    return blockId;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(blockId.getString())
+        .append(", trx size: ").append(getTransactionCount())
+        .append(", prefilled: ").append(compactBlock.getPrefilledCount()).append("\n")
+        .toString();
+  }
+}
@@ -0,0 +1,54 @@
+package org.tron.core.net.message.adv;
+
+import com.google.protobuf.ByteString;
+import java.util.List;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.net.message.MessageTypes;
+import org.tron.core.net.message.TronMessage;
+import org.tron.protos.Protocol.BlockTransactionsRequest;
+
+public class GetBlockTxnMessage extends TronMessage {
+
+  private BlockTransactionsRequest request;
+
+  private BlockId blockId;
+
+  public GetBlockTxnMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.GET_BLOCK_TXN.asByte();
+    this.request = BlockTransactionsRequest.parseFrom(getCodedInputStream(data));
+    this.blockId = new BlockId(Sha256Hash.wrap(request.getBlockId()));
+    if (isFilter()) {
+      compareBytes(data, request);
+    }
+  }
+
+  public GetBlockTxnMessage(BlockId blockId, List<Integer> indexes) {
+    this.request = BlockTransactionsRequest.newBuilder()
+        .setBlockId(ByteString.copyFrom(blockId.getBytes()))
+        .addAllIndexes(indexes).build();
+    this.type = MessageTypes.GET_BLOCK_TXN.asByte();
+    this.data = request.toByteArray();
+    this.blockId = blockId;
+  }
+
+  public BlockId getBlockId() {
+    return blockId;
+  }
+
+  public List<Integer> getIndexes() {
+    return request.getIndexesList();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return BlockTxnMessage.class;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", indexes: ").append(request.getIndexesCount()).toString();
+  }
+}
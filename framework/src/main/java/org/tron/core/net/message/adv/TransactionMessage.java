@@ -13,10 +13,10 @@ public class TransactionMessage extends TronMessage {
 
   public TransactionMessage(byte[] data) throws Exception {
     super(data);
-    this.transactionCapsule = new TransactionCapsule(getCodedInputStream(data));
+    this.transactionCapsule = new TransactionCapsule(getAliasedInputStream(data));
     this.type = MessageTypes.TRX.asByte();
     if (Message.isFilter()) {
-      compareBytes(data, transactionCapsule.getInstance().toByteArray());
+      compareBytes(data, transactionCapsule.getInstance());
       transactionCapsule
           .validContractProto(transactionCapsule.getInstance().getRawData().getContract(0));
     }
@@ -25,7 +25,15 @@ public class TransactionMessage extends TronMessage {
   public TransactionMessage(Transaction trx) {
     this.transactionCapsule = new TransactionCapsule(trx);
     this.type = MessageTypes.TRX.asByte();
-    this.data = trx.toByteArray();
+  }
+
+  // encoded on first use, the messages built from a transaction are mostly cached for its id
+  @Override
+  public byte[] getData() {
+    if (data == null) {
+      data = transactionCapsule.getInstance().toByteArray();
+    }
+    return data;
   }
 
   @Override
@@ -22,9 +22,9 @@ public class TransactionsMessage extends TronMessage {
   public TransactionsMessage(byte[] data) throws Exception {
     super(data);
     this.type = MessageTypes.TRXS.asByte();
-    this.transactions = Protocol.Transactions.parseFrom(getCodedInputStream(data));
+    this.transactions = Protocol.Transactions.parseFrom(getAliasedInputStream(data));
     if (isFilter()) {
-      compareBytes(data, transactions.toByteArray());
+      compareBytes(data, transactions);
       TransactionCapsule.validContractProto(transactions.getTransactionsList());
     }
   }
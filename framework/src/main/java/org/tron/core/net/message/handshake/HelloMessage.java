@@ -64,6 +64,7 @@ public class HelloMessage extends TronMessage {
     builder.setLowestBlockNum(chainBaseManager.isLiteNode()
         ? chainBaseManager.getLowestBlockNum() : 0);
     builder.setCodeVersion(ByteString.copyFrom(Version.getVersion().getBytes()));
+    builder.setCompactBlock(Args.getInstance().isCompactBlock());
 
     this.helloMessage = builder.build();
     this.type = MessageTypes.P2P_HELLO.asByte();
@@ -91,6 +92,10 @@ public class HelloMessage extends TronMessage {
     return this.helloMessage.getTimestamp();
   }
 
+  public boolean isCompactBlock() {
+    return this.helloMessage.getCompactBlock();
+  }
+
   public Node getFrom() {
     Endpoint from = this.helloMessage.getFrom();
     return new Node(from.getNodeId().toByteArray(),
@@ -127,7 +132,8 @@ public class HelloMessage extends TronMessage {
             .append("timestamp: ").append(getTimestamp()).append("\n")
             .append("headBlockId: ").append(getHeadBlockId().getString()).append("\n")
             .append("nodeType: ").append(helloMessage.getNodeType()).append("\n")
-            .append("lowestBlockNum: ").append(helloMessage.getLowestBlockNum()).append("\n");
+            .append("lowestBlockNum: ").append(helloMessage.getLowestBlockNum()).append("\n")
+            .append("compactBlock: ").append(helloMessage.getCompactBlock()).append("\n");
 
     ByteString address = helloMessage.getAddress();
     if (!address.isEmpty()) {
@@ -85,7 +85,7 @@ public class BlockMsgHandler implements TronMsgHandler {
       Item item = new Item(blockId, InventoryType.BLOCK);
       long now = System.currentTimeMillis();
       if (peer.isRelayPeer()) {
-        peer.getAdvInvSpread().put(item, now);
+        peer.markInvSpread(item, now);
       }
       Long time = peer.getAdvInvRequest().remove(item);
       if (null != time) {
@@ -98,7 +98,7 @@ public class BlockMsgHandler implements TronMsgHandler {
           (now - blockMessage.getBlockCapsule().getTimeStamp()) / Metrics.MILLISECONDS_PER_SECOND);
       fetchBlockService.blockFetchSuccess(blockId);
       long interval = blockId.getNum() - tronNetDelegate.getHeadBlockId().getNum();
-      processBlock(peer, blockMessage.getBlockCapsule());
+      processBlock(peer, blockMessage);
       logger.info(
               "Receive block/interval {}/{} from {} fetch/delay {}/{}ms, "
                       + "txs/process {}/{}ms, witness: {}",
@@ -123,7 +123,8 @@ public class BlockMsgHandler implements TronMsgHandler {
     }
   }
 
-  private void processBlock(PeerConnection peer, BlockCapsule block) throws P2pException {
+  private void processBlock(PeerConnection peer, BlockMessage blockMessage) throws P2pException {
+    BlockCapsule block = blockMessage.getBlockCapsule();
     BlockId blockId = block.getBlockId();
     boolean flag = tronNetDelegate.validBlock(block);
     if (!flag) {
@@ -146,7 +147,8 @@ public class BlockMsgHandler implements TronMsgHandler {
       return;
     }
 
-    broadcast(new BlockMessage(block));
+    // relayed as received, without encoding the block again
+    broadcast(blockMessage);
 
     try {
       tronNetDelegate.processBlock(block, false);
@@ -0,0 +1,99 @@
+package org.tron.core.net.messagehandler;
+
+import java.util.ArrayList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.config.args.Args;
+import org.tron.core.exception.P2pException;
+import org.tron.core.exception.P2pException.TypeEnum;
+import org.tron.core.net.message.TronMessage;
+import org.tron.core.net.message.adv.BlockMessage;
+import org.tron.core.net.message.adv.BlockTxnMessage;
+import org.tron.core.net.message.adv.CompactBlockMessage;
+import org.tron.core.net.message.adv.GetBlockTxnMessage;
+import org.tron.core.net.peer.Item;
+import org.tron.core.net.peer.PeerConnection;
+import org.tron.core.net.service.compactblock.CompactBlockService;
+import org.tron.core.net.service.compactblock.PartialBlock;
+import org.tron.protos.Protocol.Inventory.InventoryType;
+
+@Slf4j(topic = "net")
+@Component
+public class CompactBlockMsgHandler implements TronMsgHandler {
+
+  @Autowired
+  private CompactBlockService compactBlockService;
+
+  @Autowired
+  private BlockMsgHandler blockMsgHandler;
+
+  private boolean fastForward = Args.getInstance().isFastForward();
+
+  @Override
+  public void processMessage(PeerConnection peer, TronMessage msg) throws P2pException {
+    if (!peer.isCompactBlock()) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "compact block is not enabled");
+    }
+    if (msg instanceof CompactBlockMessage) {
+      processCompactBlock(peer, (CompactBlockMessage) msg);
+    } else {
+      processBlockTxn(peer, (BlockTxnMessage) msg);
+    }
+  }
+
+  private void processCompactBlock(PeerConnection peer, CompactBlockMessage msg)
+      throws P2pException {
+    BlockId blockId = msg.getBlockId();
+    if (!fastForward && !peer.isRelayPeer()
+        && !peer.getAdvInvRequest().containsKey(new Item(blockId, InventoryType.BLOCK))) {
+      logger.error("Receive bad compact block {} from peer {}, with no request",
+          blockId, peer.getInetSocketAddress());
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "no request");
+    }
+    if (peer.getCompactBlockPending().containsKey(blockId)) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "repeated compact block " + blockId);
+    }
+    process(peer, compactBlockService.reconstruct(msg));
+  }
+
+  private void processBlockTxn(PeerConnection peer, BlockTxnMessage msg) throws P2pException {
+    PartialBlock partial = peer.getCompactBlockPending().remove(msg.getBlockId());
+    if (partial == null) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE,
+          "no request of the transactions of " + msg.getBlockId().getString());
+    }
+    compactBlockService.fill(partial, msg);
+    process(peer, partial);
+  }
+
+  private void process(PeerConnection peer, PartialBlock partial) throws P2pException {
+    BlockId blockId = partial.getBlockId();
+    if (!partial.isComplete()) {
+      request(peer, partial);
+      return;
+    }
+    BlockCapsule block = partial.toBlock();
+    if (!block.calcMerkleRoot().equals(block.getMerkleRoot())) {
+      // a short id matched another transaction, or the peer sent wrong ones
+      if (partial.isRefetched() || partial.getShortIndexes().isEmpty()) {
+        throw new P2pException(TypeEnum.BAD_BLOCK,
+            "merkle root of compact block " + blockId.getString() + " does not match");
+      }
+      logger.info("Compact block {} from {} does not match its merkle root, fetch {} trxs",
+          blockId.getString(), peer.getInetSocketAddress(), partial.getShortIndexes().size());
+      partial.setRefetched(true);
+      partial.setMissing(new ArrayList<>(partial.getShortIndexes()));
+      request(peer, partial);
+      return;
+    }
+    blockMsgHandler.processMessage(peer, new BlockMessage(block));
+  }
+
+  private void request(PeerConnection peer, PartialBlock partial) {
+    peer.getCompactBlockPending().put(partial.getBlockId(), partial);
+    peer.sendMessage(new GetBlockTxnMessage(partial.getBlockId(), partial.getMissing()));
+  }
+}
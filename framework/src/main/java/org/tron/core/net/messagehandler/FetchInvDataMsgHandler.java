@@ -28,6 +28,7 @@ import org.tron.core.net.message.pbft.PbftCommitMessage;
 import org.tron.core.net.peer.Item;
 import org.tron.core.net.peer.PeerConnection;
 import org.tron.core.net.service.adv.AdvService;
+import org.tron.core.net.service.compactblock.CompactBlockService;
 import org.tron.core.net.service.sync.SyncService;
 import org.tron.protos.Protocol.Inventory.InventoryType;
 import org.tron.protos.Protocol.PBFTMessage.Raw;
@@ -49,6 +50,8 @@ public class FetchInvDataMsgHandler implements TronMsgHandler {
   private AdvService advService;
   @Autowired
   private ConsensusDelegate consensusDelegate;
+  @Autowired
+  private CompactBlockService compactBlockService;
 
   @Override
   public void processMessage(PeerConnection peer, TronMessage msg) throws P2pException {
@@ -80,7 +83,13 @@ public class FetchInvDataMsgHandler implements TronMsgHandler {
           peer.setBlockBothHave(blockId);
         }
         sendPbftCommitMessage(peer, ((BlockMessage) message).getBlockCapsule());
-        peer.sendMessage(message);
+        // blocks being synced are sent whole
+        if (peer.isCompactBlock() && peer.getAdvInvSpread().getIfPresent(item) != null) {
+          peer.sendMessage(compactBlockService.compact(
+              ((BlockMessage) message).getBlockCapsule(), peer));
+        } else {
+          peer.sendMessage(message);
+        }
       } else {
         transactions.add(((TransactionMessage) message).getTransactionCapsule().getInstance());
         size += ((TransactionMessage) message).getTransactionCapsule().getInstance()
@@ -0,0 +1,50 @@
+package org.tron.core.net.messagehandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.exception.P2pException;
+import org.tron.core.exception.P2pException.TypeEnum;
+import org.tron.core.net.message.TronMessage;
+import org.tron.core.net.message.adv.BlockTxnMessage;
+import org.tron.core.net.message.adv.GetBlockTxnMessage;
+import org.tron.core.net.peer.Item;
+import org.tron.core.net.peer.PeerConnection;
+import org.tron.core.net.service.compactblock.CompactBlockService;
+import org.tron.protos.Protocol.Inventory.InventoryType;
+import org.tron.protos.Protocol.Transaction;
+
+@Slf4j(topic = "net")
+@Component
+public class GetBlockTxnMsgHandler implements TronMsgHandler {
+
+  @Autowired
+  private CompactBlockService compactBlockService;
+
+  @Override
+  public void processMessage(PeerConnection peer, TronMessage msg) throws P2pException {
+    GetBlockTxnMessage request = (GetBlockTxnMessage) msg;
+    BlockId blockId = request.getBlockId();
+    if (peer.getAdvInvSpread().getIfPresent(new Item(blockId, InventoryType.BLOCK)) == null) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "not spread block: " + blockId.getString());
+    }
+    BlockCapsule block = compactBlockService.getBlock(blockId);
+    if (block == null) {
+      throw new P2pException(TypeEnum.DB_ITEM_NOT_FOUND, "block " + blockId.getString());
+    }
+    List<Transaction> all = block.getInstance().getTransactionsList();
+    List<Transaction> trxs = new ArrayList<>();
+    for (int index : request.getIndexes()) {
+      if (index < 0 || index >= all.size()) {
+        throw new P2pException(TypeEnum.BAD_MESSAGE, String.format(
+            "block %s has %d trxs, index %d requested", blockId.getString(), all.size(), index));
+      }
+      trxs.add(all.get(index));
+    }
+    peer.sendMessage(new BlockTxnMessage(blockId, trxs));
+  }
+}
@@ -1,5 +1,7 @@
 package org.tron.core.net.messagehandler;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -22,7 +24,6 @@ import org.tron.core.net.peer.PeerConnection;
 import org.tron.core.net.service.adv.AdvService;
 import org.tron.protos.Protocol.Inventory.InventoryType;
 import org.tron.protos.Protocol.ReasonCode;
-import org.tron.protos.Protocol.Transaction;
 import org.tron.protos.Protocol.Transaction.Contract.ContractType;
 
 @Slf4j(topic = "net")
@@ -65,21 +66,26 @@ public class TransactionsMsgHandler implements TronMsgHandler {
   @Override
   public void processMessage(PeerConnection peer, TronMessage msg) throws P2pException {
     TransactionsMessage transactionsMessage = (TransactionsMessage) msg;
-    check(peer, transactionsMessage);
+    // built once, their ids are computed by the check and reused by the handling
+    List<TransactionMessage> trxs = new ArrayList<>();
+    transactionsMessage.getTransactions().getTransactionsList()
+        .forEach(trx -> trxs.add(new TransactionMessage(trx)));
+    check(peer, transactionsMessage, trxs);
     int smartContractQueueSize = 0;
     int trxHandlePoolQueueSize = 0;
     int dropSmartContractCount = 0;
-    for (Transaction trx : transactionsMessage.getTransactions().getTransactionsList()) {
-      int type = trx.getRawData().getContract(0).getType().getNumber();
+    for (TransactionMessage trx : trxs) {
+      int type = trx.getTransactionCapsule().getInstance().getRawData().getContract(0).getType()
+          .getNumber();
       if (type == ContractType.TriggerSmartContract_VALUE
           || type == ContractType.CreateSmartContract_VALUE) {
-        if (!smartContractQueue.offer(new TrxEvent(peer, new TransactionMessage(trx)))) {
+        if (!smartContractQueue.offer(new TrxEvent(peer, trx))) {
           smartContractQueueSize = smartContractQueue.size();
           trxHandlePoolQueueSize = queue.size();
           dropSmartContractCount++;
         }
       } else {
-        trxHandlePool.submit(() -> handleTransaction(peer, new TransactionMessage(trx)));
+        trxHandlePool.submit(() -> handleTransaction(peer, trx));
       }
     }
 
@@ -89,9 +95,10 @@ public class TransactionsMsgHandler implements TronMsgHandler {
     }
   }
 
-  private void check(PeerConnection peer, TransactionsMessage msg) throws P2pException {
-    for (Transaction trx : msg.getTransactions().getTransactionsList()) {
-      Item item = new Item(new TransactionMessage(trx).getMessageId(), InventoryType.TRX);
+  private void check(PeerConnection peer, TransactionsMessage msg,
+      List<TransactionMessage> trxs) throws P2pException {
+    for (TransactionMessage trx : trxs) {
+      Item item = new Item(trx.getMessageId(), InventoryType.TRX);
       if (!peer.getAdvInvRequest().containsKey(item)) {
         throw new P2pException(TypeEnum.BAD_MESSAGE,
             "trx: " + msg.getMessageId() + " without request.");
@@ -40,6 +40,7 @@ import org.tron.core.net.message.handshake.HelloMessage;
 import org.tron.core.net.message.keepalive.PingMessage;
 import org.tron.core.net.message.keepalive.PongMessage;
 import org.tron.core.net.service.adv.AdvService;
+import org.tron.core.net.service.compactblock.PartialBlock;
 import org.tron.core.net.service.statistics.NodeStatistics;
 import org.tron.core.net.service.statistics.PeerStatistics;
 import org.tron.core.net.service.statistics.TronStatsManager;
@@ -118,6 +119,14 @@ public class PeerConnection {
   @Getter
   private Map<Item, Long> advInvRequest = new ConcurrentHashMap<>();
 
+  // the items of advInvReceive and advInvSpread, for the spread to skip most lookups of them,
+  // one generation covers both caches so that no cached item is missed
+  private RollingBloomFilter invKnown = new RollingBloomFilter(2 * invCacheSize, 0.001);
+
+  // trx inventory waiting to be announced, with the time it was queued
+  @Getter
+  private Deque<Pair<Item, Long>> advInvToSpread = new ConcurrentLinkedDeque<>();
+
   @Setter
   private BlockId fastForwardBlock;
 
@@ -152,6 +161,9 @@ public class PeerConnection {
   @Setter
   @Getter
   private volatile boolean needSyncFromUs = true;
+  // compact blocks of the peer waiting for the transactions asked for
+  @Getter
+  private Map<BlockId, PartialBlock> compactBlockPending = new ConcurrentHashMap<>();
 
   public void setChannel(Channel channel) {
     this.channel = channel;
@@ -166,6 +178,24 @@ public class PeerConnection {
     this.blockBothHaveUpdateTime = System.currentTimeMillis();
   }
 
+  public void markInvReceived(Item item, long time) {
+    advInvReceive.put(item, time);
+    invKnown.put(item.getHash().getBytes());
+  }
+
+  public void markInvSpread(Item item, long time) {
+    advInvSpread.put(item, time);
+    invKnown.put(item.getHash().getBytes());
+  }
+
+  /**
+   * @return true if the item was received from or spread to the peer.
+   */
+  public boolean isInvKnown(Item item) {
+    return invKnown.mightContain(item.getHash().getBytes())
+        && (advInvReceive.getIfPresent(item) != null || advInvSpread.getIfPresent(item) != null);
+  }
+
   public boolean isIdle() {
     return advInvRequest.isEmpty() && syncBlockRequested.isEmpty() && syncChainRequested == null;
   }
@@ -200,10 +230,12 @@ public class PeerConnection {
     advInvReceive.invalidateAll();
     advInvSpread.invalidateAll();
     advInvRequest.clear();
+    advInvToSpread.clear();
     syncBlockIdCache.invalidateAll();
     syncBlockToFetch.clear();
     syncBlockRequested.clear();
     syncBlockInProcess.clear();
+    compactBlockPending.clear();
   }
 
   public String log() {
@@ -237,6 +269,14 @@ public class PeerConnection {
         syncBlockInProcess.size());
   }
 
+  /**
+   * @return true if both sides relay blocks as compact blocks.
+   */
+  public boolean isCompactBlock() {
+    HelloMessage hello = helloMessageReceive;
+    return Args.getInstance().isCompactBlock() && hello != null && hello.isCompactBlock();
+  }
+
   public boolean isSyncFinish() {
     return !(needSyncFromPeer || needSyncFromUs);
   }
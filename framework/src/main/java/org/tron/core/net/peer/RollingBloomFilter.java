@@ -0,0 +1,43 @@
+package org.tron.core.net.peer;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * Bloom filter of the most recent keys, kept as two generations: once the current one holds
+ * {@code generationSize} keys it replaces the previous one, so that the last
+ * {@code generationSize} to {@code 2 * generationSize} keys are remembered.
+ */
+public class RollingBloomFilter {
+
+  private final int generationSize;
+  private final double fpp;
+  private BloomFilter<byte[]> current;
+  private BloomFilter<byte[]> previous;
+  private int count;
+
+  public RollingBloomFilter(int generationSize, double fpp) {
+    this.generationSize = generationSize;
+    this.fpp = fpp;
+    this.current = create();
+    this.previous = create();
+  }
+
+  private BloomFilter<byte[]> create() {
+    return BloomFilter.create(Funnels.byteArrayFunnel(), generationSize, fpp);
+  }
+
+  public synchronized void put(byte[] key) {
+    if (count >= generationSize) {
+      previous = current;
+      current = create();
+      count = 0;
+    }
+    current.put(key);
+    count++;
+  }
+
+  public synchronized boolean mightContain(byte[] key) {
+    return current.mightContain(key) || previous.mightContain(key);
+  }
+}
@@ -9,11 +9,17 @@ import com.google.common.cache.CacheBuilder;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -23,10 +29,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.tron.common.es.ExecutorServiceManager;
 import org.tron.common.overlay.message.Message;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
+import org.tron.common.utils.Pair;
 import org.tron.common.utils.Sha256Hash;
 import org.tron.common.utils.Time;
 import org.tron.core.capsule.BlockCapsule.BlockId;
 import org.tron.core.config.args.Args;
+import org.tron.core.metrics.MetricsKey;
+import org.tron.core.metrics.MetricsUtil;
 import org.tron.core.net.TronNetDelegate;
 import org.tron.core.net.message.adv.BlockMessage;
 import org.tron.core.net.message.adv.FetchInvDataMessage;
@@ -37,6 +49,7 @@ import org.tron.core.net.peer.PeerConnection;
 import org.tron.core.net.service.fetchblock.FetchBlockService;
 import org.tron.core.net.service.statistics.MessageCount;
 import org.tron.protos.Protocol.Inventory.InventoryType;
+import org.tron.protos.Protocol.Transaction;
 
 @Slf4j(topic = "net")
 @Component
@@ -45,6 +58,8 @@ public class AdvService {
   private final int MAX_TRX_CACHE_SIZE = 50_000;
   private final int MAX_BLOCK_CACHE_SIZE = 10;
   private final int MAX_SPREAD_SIZE = 1_000;
+  private final int MIN_INV_BATCH = 100;
+  private final int MAX_INV_BATCH = 1_000;
   private final long TIMEOUT = MSG_CACHE_DURATION_IN_BLOCKS * BLOCK_PRODUCED_INTERVAL;
 
   @Autowired
@@ -79,6 +94,12 @@ public class AdvService {
   private final ScheduledExecutorService fetchExecutor = ExecutorServiceManager
       .newSingleThreadScheduledExecutor(fetchName);
 
+  // the peers are split between these threads to be sent their inventory
+  private final String spreadWorkerName = "adv-spread-worker";
+  private final int spreadThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+  private final ExecutorService spreadWorkers = ExecutorServiceManager
+      .newFixedThreadPool(spreadWorkerName, spreadThreads);
+
   @Getter
   private MessageCount trxCount = new MessageCount();
 
@@ -106,6 +127,7 @@ public class AdvService {
   public void close() {
     ExecutorServiceManager.shutdownAndAwaitTermination(spreadExecutor, spreadName);
     ExecutorServiceManager.shutdownAndAwaitTermination(fetchExecutor, fetchName);
+    ExecutorServiceManager.shutdownAndAwaitTermination(spreadWorkers, spreadWorkerName);
   }
 
   public synchronized void addInvToCache(Item item) {
@@ -148,6 +170,16 @@ public class AdvService {
     }
   }
 
+  /**
+   * @return the transactions cached for spreading, by id.
+   */
+  public Map<Sha256Hash, Transaction> getCachedTransactions() {
+    Map<Sha256Hash, Transaction> trxs = new HashMap<>();
+    trxCache.asMap().forEach((item, msg) -> trxs.put(item.getHash(),
+        ((TransactionMessage) msg).getTransactionCapsule().getInstance()));
+    return trxs;
+  }
+
   public int fastBroadcastTransaction(TransactionMessage msg) {
 
     List<PeerConnection> peers = tronNetDelegate.getActivePeer().stream()
@@ -169,10 +201,9 @@ public class AdvService {
 
     int peersCount = 0;
     for (PeerConnection peer: peers) {
-      if (peer.getAdvInvReceive().getIfPresent(item) == null
-              && peer.getAdvInvSpread().getIfPresent(item) == null) {
+      if (!peer.isInvKnown(item)) {
         peersCount++;
-        peer.getAdvInvSpread().put(item, Time.getCurrentMillis());
+        peer.markInvSpread(item, Time.getCurrentMillis());
         peer.sendMessage(inventoryMessage);
       }
     }
@@ -293,30 +324,109 @@ public class AdvService {
     invSender.sendFetch();
   }
 
+  /**
+   * Hands the items queued to the spread workers. Blocks are announced at once, the trx ids are
+   * queued per peer and announced by batches sized after what the peer fetches from us.
+   */
   private synchronized void consumerInvToSpread() {
 
     List<PeerConnection> peers = tronNetDelegate.getActivePeer().stream()
         .filter(peer -> !peer.isNeedSyncFromPeer() && !peer.isNeedSyncFromUs())
         .collect(Collectors.toList());
 
-    if (invToSpread.isEmpty() || peers.isEmpty()) {
+    int queued = peers.stream().mapToInt(peer -> peer.getAdvInvToSpread().size()).sum();
+    Metrics.gaugeSet(MetricKeys.Gauge.ADV_SPREAD_QUEUE, invToSpread.size(),
+        MetricLabels.Gauge.SPREAD_GLOBAL);
+    Metrics.gaugeSet(MetricKeys.Gauge.ADV_SPREAD_QUEUE, queued, MetricLabels.Gauge.SPREAD_PEER);
+
+    if (peers.isEmpty() || (invToSpread.isEmpty() && queued == 0)) {
       return;
     }
 
-    InvSender invSender = new InvSender();
+    Map<Item, Long> items = new HashMap<>();
+    invToSpread.forEach((item, time) -> {
+      items.put(item, time);
+      invToSpread.remove(item, time);
+    });
+
+    long now = System.currentTimeMillis();
+    List<Callable<Void>> tasks = new ArrayList<>();
+    int chunk = (peers.size() + spreadThreads - 1) / spreadThreads;
+    for (int i = 0; i < peers.size(); i += chunk) {
+      List<PeerConnection> part = peers.subList(i, Math.min(i + chunk, peers.size()));
+      tasks.add(() -> {
+        part.forEach(peer -> spread(peer, items, now));
+        return null;
+      });
+    }
+    try {
+      for (Future<Void> future : spreadWorkers.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      logger.error("Spread inventory failed", e.getCause());
+    }
+  }
 
-    invToSpread.forEach((item, time) -> peers.forEach(peer -> {
-      if (peer.getAdvInvReceive().getIfPresent(item) == null
-          && peer.getAdvInvSpread().getIfPresent(item) == null
-          && !(item.getType().equals(InventoryType.BLOCK)
-          && System.currentTimeMillis() - time > BLOCK_PRODUCED_INTERVAL)) {
-        peer.getAdvInvSpread().put(item, Time.getCurrentMillis());
-        invSender.add(item, peer);
+  private void spread(PeerConnection peer, Map<Item, Long> items, long now) {
+    LinkedList<Sha256Hash> blocks = new LinkedList<>();
+    Deque<Pair<Item, Long>> queue = peer.getAdvInvToSpread();
+    items.forEach((item, time) -> {
+      if (item.getType().equals(InventoryType.BLOCK)) {
+        if (now - time <= BLOCK_PRODUCED_INTERVAL && !peer.isInvKnown(item)) {
+          peer.markInvSpread(item, now);
+          blocks.add(item.getHash());
+        }
+      } else if (!peer.isInvKnown(item)) {
+        queue.offer(new Pair<>(item, time));
       }
-      invToSpread.remove(item);
-    }));
+    });
+    if (!blocks.isEmpty()) {
+      blocks.sort(Comparator.comparingLong(value -> new BlockId(value).getNum()));
+      peer.sendMessage(new InventoryMessage(blocks, InventoryType.BLOCK));
+      observeSpread(peer, items.get(new Item(blocks.getFirst(), InventoryType.BLOCK)), now,
+          MetricLabels.Histogram.SPREAD_BLOCK);
+    }
 
-    invSender.sendInv();
+    LinkedList<Sha256Hash> trxs = new LinkedList<>();
+    int batch = getInvBatch(peer);
+    Long oldest = null;
+    Pair<Item, Long> next;
+    while (trxs.size() < batch && (next = queue.poll()) != null) {
+      Item item = next.getKey();
+      // too late, or learnt from the peer while queued
+      if (now - next.getValue() > TIMEOUT || peer.isInvKnown(item)) {
+        continue;
+      }
+      peer.markInvSpread(item, now);
+      if (!peer.isRelayPeer()) {
+        trxs.add(item.getHash());
+        oldest = oldest == null ? next.getValue() : Math.min(oldest, next.getValue());
+      }
+    }
+    if (!trxs.isEmpty()) {
+      peer.sendMessage(new InventoryMessage(trxs, InventoryType.TRX));
+      observeSpread(peer, oldest, now, MetricLabels.Histogram.SPREAD_TRX);
+    }
+  }
+
+  // trx ids announced to a peer per round, the ids it fetched from us in the last second
+  private int getInvBatch(PeerConnection peer) {
+    int fetched = peer.getPeerStatistics().messageStatistics.tronInTrxFetchInvDataElement
+        .getCount(10) / 10;
+    return Math.max(MIN_INV_BATCH, Math.min(MAX_INV_BATCH, fetched));
+  }
+
+  private void observeSpread(PeerConnection peer, Long queued, long now, String type) {
+    if (queued == null) {
+      return;
+    }
+    MetricsUtil.histogramUpdateUnCheck(MetricsKey.NET_LATENCY_SPREAD + peer.getInetAddress(),
+        now - queued);
+    Metrics.histogramObserve(MetricKeys.Histogram.ADV_SPREAD_LATENCY,
+        (now - queued) / Metrics.MILLISECONDS_PER_SECOND, type);
   }
 
   class InvSender {
@@ -361,20 +471,6 @@ public class AdvService {
       return 0;
     }
 
-    public void sendInv() {
-      send.forEach((peer, ids) -> ids.forEach((key, value) -> {
-        if (peer.isRelayPeer() && key.equals(InventoryType.TRX)) {
-          return;
-        }
-        if (key.equals(InventoryType.BLOCK)) {
-          value.sort(Comparator.comparingLong(value1 -> new BlockId(value1).getNum()));
-          peer.sendMessage(new InventoryMessage(value, key));
-        } else {
-          peer.sendMessage(new InventoryMessage(value, key));
-        }
-      }));
-    }
-
     void sendFetch() {
       send.forEach((peer, ids) -> ids.forEach((key, value) -> {
         if (key.equals(InventoryType.BLOCK)) {
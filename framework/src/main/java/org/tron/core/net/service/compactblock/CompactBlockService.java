@@ -0,0 +1,181 @@
+package org.tron.core.net.service.compactblock;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.exception.P2pException;
+import org.tron.core.exception.P2pException.TypeEnum;
+import org.tron.core.net.TronNetDelegate;
+import org.tron.core.net.message.adv.BlockMessage;
+import org.tron.core.net.message.adv.BlockTxnMessage;
+import org.tron.core.net.message.adv.CompactBlockMessage;
+import org.tron.core.net.peer.Item;
+import org.tron.core.net.peer.PeerConnection;
+import org.tron.core.net.service.adv.AdvService;
+import org.tron.protos.Protocol.CompactBlock;
+import org.tron.protos.Protocol.CompactBlock.PrefilledTransaction;
+import org.tron.protos.Protocol.CompactBlock.ShortTransaction;
+import org.tron.protos.Protocol.Inventory.InventoryType;
+import org.tron.protos.Protocol.Transaction;
+
+/**
+ * Relays blocks as compact blocks: the transactions a peer is expected to have are announced by
+ * short ids, and the receiver rebuilds the block from the transactions it cached, asking the
+ * sender only for the ones it misses.
+ */
+@Slf4j(topic = "net")
+@Component
+public class CompactBlockService {
+
+  private static final int MAX_BLOCK_CACHE_SIZE = 10;
+
+  @Autowired
+  private TronNetDelegate tronNetDelegate;
+
+  @Autowired
+  private AdvService advService;
+
+  // blocks sent as compact blocks, for the transactions requested after them
+  private Cache<BlockId, BlockCapsule> blockCache = CacheBuilder.newBuilder()
+      .maximumSize(MAX_BLOCK_CACHE_SIZE).expireAfterWrite(1, TimeUnit.MINUTES).build();
+
+  /**
+   * @return the compact form of {@code block} for {@code peer}: the transactions the peer was
+   *     neither sent nor received from are prefilled, as well as the ones whose short ids collide.
+   */
+  public CompactBlockMessage compact(BlockCapsule block, PeerConnection peer) {
+    BlockId blockId = block.getBlockId();
+    blockCache.put(blockId, block);
+    List<TransactionCapsule> trxs = block.getTransactions();
+    long[] shortIds = new long[trxs.size()];
+    Map<Long, Integer> counts = new HashMap<>();
+    for (int i = 0; i < trxs.size(); i++) {
+      shortIds[i] = CompactBlockMessage.shortId(blockId, trxs.get(i).getTransactionId());
+      counts.merge(shortIds[i], 1, Integer::sum);
+    }
+    CompactBlock.Builder builder = CompactBlock.newBuilder()
+        .setBlockHeader(block.getInstance().getBlockHeader());
+    for (int i = 0; i < trxs.size(); i++) {
+      Transaction trx = trxs.get(i).getInstance();
+      Item item = new Item(trxs.get(i).getTransactionId(), InventoryType.TRX);
+      boolean known = peer.getAdvInvReceive().getIfPresent(item) != null
+          || peer.getAdvInvSpread().getIfPresent(item) != null;
+      if (!known || counts.get(shortIds[i]) > 1) {
+        builder.addPrefilled(PrefilledTransaction.newBuilder().setIndex(i).setTransaction(trx));
+      } else {
+        builder.addTransactions(ShortTransaction.newBuilder().setShortId(shortIds[i])
+            .addAllRet(trx.getRetList()));
+      }
+    }
+    return new CompactBlockMessage(builder.build());
+  }
+
+  /**
+   * @return the block sent as {@code blockId}, null if it is not found.
+   */
+  public BlockCapsule getBlock(BlockId blockId) {
+    BlockCapsule block = blockCache.getIfPresent(blockId);
+    if (block != null) {
+      return block;
+    }
+    BlockMessage message = (BlockMessage) advService.getMessage(
+        new Item(blockId, InventoryType.BLOCK));
+    if (message != null) {
+      return message.getBlockCapsule();
+    }
+    try {
+      return ((BlockMessage) tronNetDelegate.getData(blockId, InventoryType.BLOCK))
+          .getBlockCapsule();
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Places the prefilled transactions and the cached ones matching the short ids, the missing
+   * ones are left to {@link #fill}.
+   */
+  public PartialBlock reconstruct(CompactBlockMessage msg) throws P2pException {
+    PartialBlock partial = new PartialBlock(msg);
+    CompactBlock compact = msg.getCompactBlock();
+    int count = msg.getTransactionCount();
+    for (PrefilledTransaction prefilled : compact.getPrefilledList()) {
+      int index = prefilled.getIndex();
+      if (index < 0 || index >= count || partial.get(index) != null) {
+        throw new P2pException(TypeEnum.BAD_MESSAGE, "bad prefilled index: " + index);
+      }
+      partial.set(index, prefilled.getTransaction());
+    }
+
+    Map<Long, Transaction> candidates = new HashMap<>();
+    if (compact.getTransactionsCount() > 0) {
+      Set<Long> collided = new HashSet<>();
+      advService.getCachedTransactions().forEach((id, trx) -> {
+        long shortId = CompactBlockMessage.shortId(msg.getBlockId(), id);
+        if (candidates.putIfAbsent(shortId, trx) != null) {
+          collided.add(shortId);
+        }
+      });
+      collided.forEach(candidates::remove);
+    }
+
+    List<Integer> missing = new ArrayList<>();
+    Iterator<ShortTransaction> shorts = compact.getTransactionsList().iterator();
+    for (int i = 0; i < count; i++) {
+      if (partial.get(i) != null) {
+        continue;
+      }
+      ShortTransaction shortTrx = shorts.next();
+      partial.getShortIndexes().add(i);
+      Transaction trx = candidates.get(shortTrx.getShortId());
+      if (trx == null) {
+        missing.add(i);
+      } else {
+        partial.set(i, trx.toBuilder().clearRet().addAllRet(shortTrx.getRetList()).build());
+      }
+    }
+    partial.setMissing(missing);
+
+    int pool = partial.getShortIndexes().size() - missing.size();
+    Metrics.counterInc(MetricKeys.Counter.COMPACT_BLOCK_TXS, compact.getPrefilledCount(),
+        MetricLabels.Counter.COMPACT_PREFILLED);
+    Metrics.counterInc(MetricKeys.Counter.COMPACT_BLOCK_TXS, pool,
+        MetricLabels.Counter.COMPACT_POOL);
+    return partial;
+  }
+
+  /**
+   * Places the transactions requested for {@code partial}.
+   */
+  public void fill(PartialBlock partial, BlockTxnMessage msg) throws P2pException {
+    List<Integer> missing = partial.getMissing();
+    List<Transaction> trxs = msg.getTransactions();
+    if (trxs.size() != missing.size()) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, String.format(
+          "block %s, %d transactions requested, %d received",
+          partial.getBlockId().getString(), missing.size(), trxs.size()));
+    }
+    for (int i = 0; i < trxs.size(); i++) {
+      partial.set(missing.get(i), trxs.get(i));
+    }
+    partial.setMissing(new ArrayList<>());
+    Metrics.counterInc(MetricKeys.Counter.COMPACT_BLOCK_TXS, trxs.size(),
+        MetricLabels.Counter.COMPACT_FETCHED);
+  }
+}
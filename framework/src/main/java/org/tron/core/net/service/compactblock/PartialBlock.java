@@ -0,0 +1,59 @@
+package org.tron.core.net.service.compactblock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.net.message.adv.CompactBlockMessage;
+import org.tron.protos.Protocol.Block;
+import org.tron.protos.Protocol.Transaction;
+
+/**
+ * A compact block being reconstructed, with the transactions found so far.
+ */
+public class PartialBlock {
+
+  @Getter
+  private final CompactBlockMessage message;
+  private final Transaction[] transactions;
+  // the indexes announced by short ids, the others were prefilled
+  @Getter
+  private final List<Integer> shortIndexes = new ArrayList<>();
+  @Getter
+  @Setter
+  private List<Integer> missing = new ArrayList<>();
+  // all the short transactions were requested again after a merkle root mismatch
+  @Getter
+  @Setter
+  private boolean refetched;
+
+  PartialBlock(CompactBlockMessage message) {
+    this.message = message;
+    this.transactions = new Transaction[message.getTransactionCount()];
+  }
+
+  public BlockId getBlockId() {
+    return message.getBlockId();
+  }
+
+  public boolean isComplete() {
+    return missing.isEmpty();
+  }
+
+  Transaction get(int index) {
+    return transactions[index];
+  }
+
+  void set(int index, Transaction transaction) {
+    transactions[index] = transaction;
+  }
+
+  public BlockCapsule toBlock() {
+    return new BlockCapsule(Block.newBuilder()
+        .setBlockHeader(message.getCompactBlock().getBlockHeader())
+        .addAllTransactions(Arrays.asList(transactions)).build());
+  }
+}
@@ -31,6 +31,7 @@ import org.tron.core.net.message.adv.BlockMessage;
 import org.tron.core.net.message.handshake.HelloMessage;
 import org.tron.core.net.peer.Item;
 import org.tron.core.net.peer.PeerConnection;
+import org.tron.core.net.service.compactblock.CompactBlockService;
 import org.tron.core.store.WitnessScheduleStore;
 import org.tron.p2p.connection.Channel;
 import org.tron.protos.Protocol;
@@ -51,6 +52,9 @@ public class RelayService {
   @Autowired
   private ApplicationContext ctx;
 
+  @Autowired
+  private CompactBlockService compactBlockService;
+
   private Manager manager;
 
   private WitnessScheduleStore witnessScheduleStore;
@@ -232,8 +236,9 @@ public class RelayService {
             .collect(Collectors.toList());
 
     peers.forEach(peer -> {
-      peer.sendMessage(msg);
-      peer.getAdvInvSpread().put(item, System.currentTimeMillis());
+      peer.sendMessage(peer.isCompactBlock()
+          ? compactBlockService.compact(msg.getBlockCapsule(), peer) : msg);
+      peer.markInvSpread(item, System.currentTimeMillis());
       peer.setFastForwardBlock(msg.getBlockId());
     });
   }
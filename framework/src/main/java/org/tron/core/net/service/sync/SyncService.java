@@ -6,13 +6,23 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +31,7 @@ import org.tron.common.es.ExecutorServiceManager;
 import org.tron.common.utils.Pair;
 import org.tron.core.capsule.BlockCapsule;
 import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.config.Parameter.NetConstants;
 import org.tron.core.config.args.Args;
 import org.tron.core.exception.P2pException;
 import org.tron.core.exception.P2pException.TypeEnum;
@@ -62,6 +73,25 @@ public class SyncService {
   private final ScheduledExecutorService blockHandleExecutor = ExecutorServiceManager
       .newSingleThreadScheduledExecutor(handleEsName);
 
+  // received blocks are precomputed on these threads while previous blocks are executed
+  private final String prepareEsName = "sync-prepare-block";
+  private final ExecutorService prepareExecutor = ExecutorServiceManager
+      .newFixedThreadPool(prepareEsName, Args.getInstance().getValidateSignThreadNum());
+
+  // blocks received and not yet executed, no more blocks are fetched beyond MAX_BLOCK_IN_PREPARE
+  private final Map<BlockId, Future<?>> blockInPrepare = new ConcurrentHashMap<>();
+  private static final int MAX_BLOCK_IN_PREPARE = 1000;
+
+  // blocks in flight per peer, as many as it delivered in the last SYNC_RATE_INTERVAL seconds
+  private static final int MIN_SYNC_WINDOW = 10;
+  private static final int SYNC_RATE_INTERVAL = 10;
+  // a block the execution waits on is asked from another peer once requested this long ago,
+  // early enough before its peer is disconnected at SYNC_TIME_OUT for the other one to deliver
+  private static final long STRAGGLER_TIMEOUT = NetConstants.SYNC_TIME_OUT * 2 / 5;
+  private static final long FETCH_INTERVAL = 100;
+  private static final long FETCH_CHECK_INTERVAL = 1_000;
+  private long fetchTime;
+
   private volatile boolean handleFlag = false;
 
   @Setter
@@ -72,14 +102,17 @@ public class SyncService {
   public void init() {
     fetchExecutor.scheduleWithFixedDelay(() -> {
       try {
-        if (fetchFlag) {
+        long now = System.currentTimeMillis();
+        // the windows are refilled as blocks arrive, the stragglers are looked for every second
+        if (fetchFlag || now - fetchTime >= FETCH_CHECK_INTERVAL) {
           fetchFlag = false;
+          fetchTime = now;
           startFetchSyncBlock();
         }
       } catch (Exception e) {
         logger.error("Fetch sync block error", e);
       }
-    }, 10, 1, TimeUnit.SECONDS);
+    }, 10_000, FETCH_INTERVAL, TimeUnit.MILLISECONDS);
 
     blockHandleExecutor.scheduleWithFixedDelay(() -> {
       try {
@@ -96,6 +129,7 @@ public class SyncService {
   public void close() {
     ExecutorServiceManager.shutdownAndAwaitTermination(fetchExecutor, fetchEsName);
     ExecutorServiceManager.shutdownAndAwaitTermination(blockHandleExecutor, handleEsName);
+    ExecutorServiceManager.shutdownAndAwaitTermination(prepareExecutor, prepareEsName);
   }
 
   public void startSync(PeerConnection peer) {
@@ -130,17 +164,63 @@ public class SyncService {
   }
 
   public void processBlock(PeerConnection peer, BlockMessage blockMessage) {
-    synchronized (blockJustReceived) {
-      blockJustReceived.put(blockMessage, peer);
-    }
-    handleFlag = true;
-    if (peer.isIdle()) {
-      if (peer.getRemainNum() > 0
-          && peer.getSyncBlockToFetch().size() <= syncFetchBatchNum) {
-        syncNext(peer);
-      } else {
-        fetchFlag = true;
+    BlockId blockId = blockMessage.getBlockId();
+    if (tronNetDelegate.containBlock(blockId)) {
+      // a straggler of a block already executed
+      peer.getSyncBlockInProcess().remove(blockId);
+      blockInPrepare.remove(blockId);
+    } else if (!claim(blockMessage.getBlockCapsule())) {
+      // a straggler, the block was fetched from another peer too
+      peer.getSyncBlockInProcess().remove(blockId);
+    } else {
+      synchronized (blockJustReceived) {
+        blockJustReceived.put(blockMessage, peer);
       }
+      handleFlag = true;
+    }
+    if (peer.isIdle() && peer.getRemainNum() > 0
+        && peer.getSyncBlockToFetch().size() <= syncFetchBatchNum) {
+      syncNext(peer);
+    } else {
+      // a slot of the peer's window is free
+      fetchFlag = true;
+    }
+  }
+
+  /**
+   * Claims the block for the first copy received, from any peer, and starts precomputing it.
+   *
+   * @return false if a copy of the block was claimed already.
+   */
+  private boolean claim(BlockCapsule block) {
+    FutureTask<?> task = new FutureTask<>(block::precompute, null);
+    if (blockInPrepare.putIfAbsent(block.getBlockId(), task) != null) {
+      return false;
+    }
+    try {
+      prepareExecutor.execute(task);
+    } catch (RejectedExecutionException e) {
+      // the block is computed when it is executed
+      task.cancel(false);
+      logger.warn("Prepare block {} rejected.", block.getBlockId().getString());
+    }
+    return true;
+  }
+
+  /**
+   * Waits for the precomputation of the block, if any, before it is executed.
+   */
+  private void awaitPrepared(BlockId blockId) {
+    Future<?> future = blockInPrepare.get(blockId);
+    if (future == null || future.isCancelled()) {
+      return;
+    }
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      logger.warn("Prepare block {} failed.", blockId.getString(), e.getCause());
     }
   }
 
@@ -148,6 +228,8 @@ public class SyncService {
     if (!peer.getSyncBlockRequested().isEmpty()) {
       peer.getSyncBlockRequested().keySet().forEach(blockId -> invalid(blockId, peer));
     }
+    // the blocks it delivered are dropped, and their slots released, by the handle loop
+    handleFlag = true;
   }
 
   private void invalid(BlockId blockId, PeerConnection peerConnection) {
@@ -223,27 +305,48 @@ public class SyncService {
     return tronNetDelegate.getBlockIdByNum(num);
   }
 
+  /**
+   * Stripes the blocks to fetch over the syncing peers, the fastest first, each up to its
+   * window, after asking them for the stragglers.
+   */
   private void startFetchSyncBlock() {
-    HashMap<PeerConnection, List<BlockId>> send = new HashMap<>();
-    tronNetDelegate.getActivePeer().stream()
-        .filter(peer -> peer.isNeedSyncFromPeer() && peer.isIdle())
-        .filter(peer -> peer.isFetchAble())
-        .forEach(peer -> {
-          if (!send.containsKey(peer)) {
-            send.put(peer, new LinkedList<>());
-          }
-          for (BlockId blockId : peer.getSyncBlockToFetch()) {
-            if (requestBlockIds.getIfPresent(blockId) == null
-                && !peer.getSyncBlockInProcess().contains(blockId)) {
-              requestBlockIds.put(blockId, peer);
-              peer.getSyncBlockRequested().put(blockId, System.currentTimeMillis());
-              send.get(peer).add(blockId);
-              if (send.get(peer).size() >= MAX_BLOCK_FETCH_PER_PEER) {
-                break;
-              }
-            }
-          }
-        });
+    List<PeerConnection> peers = tronNetDelegate.getActivePeer().stream()
+        .filter(peer -> peer.isNeedSyncFromPeer() && peer.isFetchAble())
+        .filter(peer -> peer.getSyncChainRequested() == null)
+        .sorted(Comparator.comparingInt(this::getDelivered).reversed())
+        .collect(Collectors.toList());
+    Map<PeerConnection, List<BlockId>> send = new HashMap<>();
+    peers.forEach(peer -> send.put(peer, new LinkedList<>()));
+    refetchStragglers(peers, send);
+
+    int inFlight = tronNetDelegate.getActivePeer().stream()
+        .mapToInt(peer -> peer.getSyncBlockRequested().size()).sum();
+    int budget = MAX_BLOCK_IN_PREPARE - blockInPrepare.size() - inFlight;
+    long now = System.currentTimeMillis();
+    for (PeerConnection peer : peers) {
+      int free = getWindow(peer) - peer.getSyncBlockRequested().size();
+      List<BlockId> blockIds = send.get(peer);
+      for (BlockId blockId : peer.getSyncBlockToFetch()) {
+        if (free <= 0) {
+          break;
+        }
+        if (budget <= 0) {
+          // back-pressure, fetch again once the execution caught up or the blocks no peer
+          // needs anymore are dropped
+          fetchFlag = true;
+          handleFlag = true;
+          break;
+        }
+        if (requestBlockIds.getIfPresent(blockId) == null
+            && !peer.getSyncBlockInProcess().contains(blockId)) {
+          budget--;
+          free--;
+          requestBlockIds.put(blockId, peer);
+          peer.getSyncBlockRequested().put(blockId, now);
+          blockIds.add(blockId);
+        }
+      }
+    }
 
     send.forEach((peer, blockIds) -> {
       if (!blockIds.isEmpty()) {
@@ -252,6 +355,55 @@ public class SyncService {
     });
   }
 
+  /**
+   * Asks the fastest peers with a free slot for the blocks near the head of the execution that
+   * their peer did not deliver within STRAGGLER_TIMEOUT. The block is then taken from whichever
+   * peer delivers it first, the slow peer is disconnected on SYNC_TIME_OUT as before.
+   */
+  private void refetchStragglers(List<PeerConnection> peers,
+      Map<PeerConnection, List<BlockId>> send) {
+    long front = peers.stream().map(peer -> peer.getSyncBlockToFetch().peek())
+        .filter(Objects::nonNull).mapToLong(BlockId::getNum).min().orElse(-1);
+    if (front < 0) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    int count = 0;
+    for (PeerConnection slow : tronNetDelegate.getActivePeer()) {
+      for (Map.Entry<BlockId, Long> entry : slow.getSyncBlockRequested().entrySet()) {
+        BlockId blockId = entry.getKey();
+        if (now - entry.getValue() < STRAGGLER_TIMEOUT
+            || blockId.getNum() >= front + MAX_BLOCK_FETCH_PER_PEER
+            || !slow.equals(requestBlockIds.getIfPresent(blockId))) {
+          continue;
+        }
+        for (PeerConnection peer : peers) {
+          if (!peer.equals(slow)
+              && peer.getSyncBlockRequested().size() + send.get(peer).size() < getWindow(peer)
+              && !peer.getSyncBlockRequested().containsKey(blockId)
+              && peer.getSyncBlockToFetch().contains(blockId)) {
+            requestBlockIds.put(blockId, peer);
+            peer.getSyncBlockRequested().put(blockId, now);
+            send.get(peer).add(blockId);
+            count++;
+            break;
+          }
+        }
+      }
+    }
+    if (count > 0) {
+      logger.info("Refetch {} sync blocks from faster peers", count);
+    }
+  }
+
+  private int getDelivered(PeerConnection peer) {
+    return peer.getPeerStatistics().messageStatistics.tronInBlock.getCount(SYNC_RATE_INTERVAL);
+  }
+
+  private int getWindow(PeerConnection peer) {
+    return Math.max(MIN_SYNC_WINDOW, Math.min(MAX_BLOCK_FETCH_PER_PEER, getDelivered(peer)));
+  }
+
   private synchronized void handleSyncBlock() {
 
     synchronized (blockJustReceived) {
@@ -270,11 +422,13 @@ public class SyncService {
         synchronized (tronNetDelegate.getBlockLock()) {
           if (peerConnection.isDisconnect()) {
             blockWaitToProcess.remove(msg);
+            blockInPrepare.remove(msg.getBlockId());
             invalid(msg.getBlockId(), peerConnection);
             return;
           }
           if (msg.getBlockId().getNum() <= solidNum) {
             blockWaitToProcess.remove(msg);
+            blockInPrepare.remove(msg.getBlockId());
             peerConnection.getSyncBlockInProcess().remove(msg.getBlockId());
             return;
           }
@@ -293,12 +447,30 @@ public class SyncService {
         }
       });
     }
+    releaseUnneeded();
+  }
+
+  /**
+   * Drops the received blocks no peer is going to execute anymore, e.g. their chain was trimmed
+   * or their peers disconnected, so they do not hold their slot of MAX_BLOCK_IN_PREPARE.
+   */
+  private void releaseUnneeded() {
+    Set<BlockId> needed = new HashSet<>();
+    tronNetDelegate.getActivePeer().forEach(peer -> needed.addAll(peer.getSyncBlockToFetch()));
+    blockWaitToProcess.forEach((msg, peerConnection) -> {
+      if (!needed.contains(msg.getBlockId())) {
+        blockWaitToProcess.remove(msg);
+        blockInPrepare.remove(msg.getBlockId());
+        peerConnection.getSyncBlockInProcess().remove(msg.getBlockId());
+      }
+    });
   }
 
   private void processSyncBlock(BlockCapsule block, PeerConnection peerConnection) {
     boolean flag = true;
     boolean attackFlag = false;
     BlockId blockId = block.getBlockId();
+    awaitPrepared(blockId);
     try {
       tronNetDelegate.validSignature(block);
       tronNetDelegate.processBlock(block, true);
@@ -313,6 +485,8 @@ public class SyncService {
       logger.error("Process sync block {} failed", blockId.getString(), e);
       flag = false;
     }
+    // released once the block is in the chain, a copy received until then is a straggler
+    blockInPrepare.remove(blockId);
 
     if (attackFlag) {
       invalid(blockId, peerConnection);
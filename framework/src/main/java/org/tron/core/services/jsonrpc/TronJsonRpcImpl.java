@@ -24,6 +24,7 @@ import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import lombok.Getter;
@@ -48,7 +49,10 @@ import org.tron.common.runtime.vm.DataWord;
 import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.ByteUtil;
 import org.tron.core.Wallet;
+import org.tron.core.capsule.AccountCapsule;
 import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.ContractCapsule;
+import org.tron.core.capsule.ProtoCapsule;
 import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.db.Manager;
 import org.tron.core.db2.core.Chainbase;
@@ -77,6 +81,7 @@ import org.tron.core.services.jsonrpc.types.BuildArguments;
 import org.tron.core.services.jsonrpc.types.CallArguments;
 import org.tron.core.services.jsonrpc.types.TransactionReceipt;
 import org.tron.core.services.jsonrpc.types.TransactionResult;
+import org.tron.core.store.ArchiveStore;
 import org.tron.core.store.StorageRowStore;
 import org.tron.core.vm.program.Storage;
 import org.tron.program.Version;
@@ -147,7 +152,7 @@ public class TronJsonRpcImpl implements TronJsonRpc, Closeable {
 
   private static final String ERROR_SELECTOR = "08c379a0"; // Function selector for Error(string)
   /**
-   * thread pool of query section bloom store
+   * thread pool of query section bloom store and of reading the receipts of possible blocks
    */
   private final ExecutorService sectionExecutor;
   private final NodeInfoService nodeInfoService;
@@ -365,13 +370,11 @@ public class TronJsonRpcImpl implements TronJsonRpc, Closeable {
       }
       return ByteArray.toJsonHex(balance);
     } else {
-      try {
-        ByteArray.hexToBigInteger(blockNumOrTag);
-      } catch (Exception e) {
-        throw new JsonRpcInvalidParamsException(BLOCK_NUM_ERROR);
-      }
-
-      throw new JsonRpcInvalidParamsException(QUANTITY_NOT_SUPPORT_ERROR);
+      long blockNum = archivedBlockNum(blockNumOrTag);
+      byte[] addressData = addressCompatibleToByteArray(address);
+      byte[] account = getArchived(ArchiveStore.ACCOUNT, addressData, blockNum,
+          () -> getData(manager.getAccountStore().getUnchecked(addressData)));
+      return ByteArray.toJsonHex(account == null ? 0 : new AccountCapsule(account).getBalance());
     }
   }
 
@@ -509,13 +512,24 @@ public class TronJsonRpcImpl implements TronJsonRpc, Closeable {
       DataWord value = storage.getValue(new DataWord(ByteArray.fromHexString(storageIdx)));
       return ByteArray.toJsonHex(value == null ? new byte[32] : value.getData());
     } else {
-      try {
-        ByteArray.hexToBigInteger(blockNumOrTag);
-      } catch (Exception e) {
-        throw new JsonRpcInvalidParamsException(BLOCK_NUM_ERROR);
+      long blockNum = archivedBlockNum(blockNumOrTag);
+      byte[] addressByte = addressCompatibleToByteArray(address);
+      byte[] contract = getArchived(ArchiveStore.CONTRACT, addressByte, blockNum,
+          () -> getData(manager.getContractStore().getUnchecked(addressByte)));
+      if (contract == null) {
+        return ByteArray.toJsonHex(new byte[32]);
       }
 
-      throw new JsonRpcInvalidParamsException(QUANTITY_NOT_SUPPORT_ERROR);
+      SmartContract smartContract = new ContractCapsule(contract).getInstance();
+      StorageRowStore store = manager.getStorageRowStore();
+      Storage storage = new Storage(addressByte, store);
+      storage.setContractVersion(smartContract.getVersion());
+      storage.generateAddrHash(smartContract.getTrxHash().toByteArray());
+
+      byte[] rowKey = storage.rowKey(new DataWord(ByteArray.fromHexString(storageIdx)));
+      byte[] value = getArchived(ArchiveStore.STORAGE_ROW, rowKey, blockNum,
+          () -> getData(store.getUnchecked(rowKey)));
+      return ByteArray.toJsonHex(value == null ? new byte[32] : value);
     }
   }
 
@@ -539,14 +553,52 @@ public class TronJsonRpcImpl implements TronJsonRpc, Closeable {
       }
 
     } else {
-      try {
-        ByteArray.hexToBigInteger(blockNumOrTag);
-      } catch (Exception e) {
-        throw new JsonRpcInvalidParamsException(BLOCK_NUM_ERROR);
+      long blockNum = archivedBlockNum(blockNumOrTag);
+      byte[] addressData = addressCompatibleToByteArray(contractAddress);
+      byte[] contract = getArchived(ArchiveStore.CONTRACT, addressData, blockNum,
+          () -> getData(manager.getContractStore().getUnchecked(addressData)));
+      if (contract == null) {
+        return "0x";
       }
 
+      byte[] code = getArchived(ArchiveStore.CODE, addressData, blockNum,
+          () -> getData(manager.getCodeStore().getUnchecked(addressData)));
+      return ByteArray.toJsonHex(code == null ? new byte[0] : code);
+    }
+  }
+
+  /**
+   * @return the block number of a QUANTITY parameter, if the state at past blocks is archived.
+   */
+  private long archivedBlockNum(String blockNumOrTag) throws JsonRpcInvalidParamsException {
+    long blockNum;
+    try {
+      blockNum = ByteArray.hexToBigInteger(blockNumOrTag).longValue();
+    } catch (Exception e) {
+      throw new JsonRpcInvalidParamsException(BLOCK_NUM_ERROR);
+    }
+
+    if (!CommonParameter.getInstance().isArchiveEnable()) {
       throw new JsonRpcInvalidParamsException(QUANTITY_NOT_SUPPORT_ERROR);
     }
+    if (blockNum < 0 || blockNum > manager.getChainBaseManager().getHeadBlockNum()) {
+      throw new JsonRpcInvalidParamsException(NO_BLOCK_HEADER);
+    }
+    return blockNum;
+  }
+
+  private byte[] getArchived(String dbName, byte[] key, long blockNum, Supplier<byte[]> current)
+      throws JsonRpcInvalidParamsException {
+    try {
+      return manager.readHeadBlockState(() -> manager.getChainBaseManager().getArchiveStore()
+          .get(dbName, key, blockNum, current));
+    } catch (IllegalArgumentException e) {
+      throw new JsonRpcInvalidParamsException(e.getMessage());
+    }
+  }
+
+  private static byte[] getData(ProtoCapsule<?> capsule) {
+    return capsule == null ? null : capsule.getData();
   }
 
   @Override
@@ -1352,7 +1404,7 @@ public class TronJsonRpcImpl implements TronJsonRpc, Closeable {
 
     //match event from block one by one exactly
     LogMatch logMatch =
-        new LogMatch(logFilterWrapper, possibleBlockList, manager);
+        new LogMatch(logFilterWrapper, possibleBlockList, manager, sectionExecutor);
     return logMatch.matchBlockOneByOne();
   }
 
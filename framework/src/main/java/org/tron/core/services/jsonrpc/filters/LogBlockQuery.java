@@ -1,8 +1,11 @@
 package org.tron.core.services.jsonrpc.filters;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -10,6 +13,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.tron.common.bloom.Bloom;
 import org.tron.common.crypto.Hash;
+import org.tron.core.exception.EventBloomException;
 import org.tron.core.exception.JsonRpcTooManyResultException;
 import org.tron.core.store.SectionBloomStore;
 
@@ -21,6 +25,7 @@ import org.tron.core.store.SectionBloomStore;
 public class LogBlockQuery {
 
   public static final int MAX_RESULT = 10000;
+  private static final int WORDS_PER_SECTION = SectionBloomStore.BLOCK_PER_SECTION / Long.SIZE;
   private final LogFilterWrapper logFilterWrapper;
   private final SectionBloomStore sectionBloomStore;
   private final ExecutorService sectionExecutor;
@@ -66,16 +71,7 @@ public class LogBlockQuery {
     }
 
     int[][][] allConditionsIndex = getConditions();
-
-    int capacity = (maxSection - minSection + 1) * SectionBloomStore.BLOCK_PER_SECTION;
-    BitSet blockNumBitSet = new BitSet(capacity);
-    blockNumBitSet.set(0, capacity);
-
-    //works serial
-    for (int[][] conditionsIndex : allConditionsIndex) {
-      BitSet bitSet = subMatch(conditionsIndex);
-      blockNumBitSet.and(bitSet);
-    }
+    BitSet blockNumBitSet = BitSet.valueOf(match(allConditionsIndex));
 
     for (int i = blockNumBitSet.nextSetBit(0); i >= 0; i = blockNumBitSet.nextSetBit(i + 1)) {
       // operate on index i here
@@ -83,84 +79,93 @@ public class LogBlockQuery {
         break; // or (i+1) would overflow
       }
       long blockNum = (long) minSection * SectionBloomStore.BLOCK_PER_SECTION + i;
-      if (minBlock <= blockNum && blockNum <= maxBlock) {
+      if (blockNum > maxBlock) {
+        break;
+      }
+      if (minBlock <= blockNum) {
         blockNumList.add(blockNum);
       }
-    }
-
-    if (blockNumList.size() >= MAX_RESULT) {
-      throw new JsonRpcTooManyResultException(
-          "query returned more than " + MAX_RESULT + " results");
+      if (blockNumList.size() >= MAX_RESULT) {
+        throw new JsonRpcTooManyResultException(
+            "query returned more than " + MAX_RESULT + " results");
+      }
     }
 
     return blockNumList;
   }
 
   /**
-   * address -> subMatch0,
-   * topic1 -> subMatch1, topic2 -> subMatch2, topic3 -> subMatch3, topic4 -> subMatch4
-   * works serial, return a BitSet with capacity of section num * blockPerSection
+   * matches every section in parallel, each one into its own words of the result
+   * return the words of a BitSet with capacity of section num * blockPerSection
    */
-  private BitSet subMatch(int[][] bitIndexes) throws ExecutionException, InterruptedException {
-
-    int capacity = (maxSection - minSection + 1) * SectionBloomStore.BLOCK_PER_SECTION;
-    BitSet subBitSet = new BitSet(capacity);
-
+  private long[] match(final int[][][] allConditionsIndex)
+      throws ExecutionException, InterruptedException {
+    long[] words = new long[(maxSection - minSection + 1) * WORDS_PER_SECTION];
+    List<Future<?>> futureList = new ArrayList<>();
     for (int section = minSection; section <= maxSection; section++) {
-      BitSet partialBitSet = partialMatch(bitIndexes, section);
-
-      for (int i = partialBitSet.nextSetBit(0); i >= 0; i = partialBitSet.nextSetBit(i + 1)) {
-        // operate on index i here
-        if (i == Integer.MAX_VALUE) {
-          break; // or (i+1) would overflow
-        }
-        int offset = (section - minSection) * SectionBloomStore.BLOCK_PER_SECTION + i;
-        subBitSet.set(offset);
+      final int offset = (section - minSection) * WORDS_PER_SECTION;
+      final int s = section;
+      futureList.add(sectionExecutor.submit(() -> {
+        matchSection(allConditionsIndex, s, words, offset);
+        return null;
+      }));
+    }
+    try {
+      for (Future<?> future : futureList) {
+        future.get();
       }
+    } finally {
+      futureList.forEach(future -> future.cancel(true));
     }
-
-    return subBitSet;
+    return words;
   }
 
   /**
-   * every section has a compound query of sectionBloomStore, works parallel
-   * "and" condition in second dimension of query, "or" condition in first dimension
-   * return a BitSet whose capacity is blockPerSection
+   * address -> condition0, topic1 -> condition1, ..., topic4 -> condition4
+   * "and" condition between the conditions and in the third dimension of query, "or" condition
+   * in the second dimension, on the words of the section's bitmaps.
+   * A bitmap is only read while the section may still match.
    */
-  private BitSet partialMatch(final int[][] bitIndexes, int section)
-      throws ExecutionException, InterruptedException {
-    List<List<Future<BitSet>>> bitSetList = new ArrayList<>();
-
-    for (int[] index : bitIndexes) {
-      List<Future<BitSet>> futureList = new ArrayList<>();
-      for (final int bitIndex : index) { //must be 3
-        Future<BitSet> bitSetFuture =
-            sectionExecutor.submit(() -> sectionBloomStore.get(section, bitIndex));
-        futureList.add(bitSetFuture);
+  private void matchSection(int[][][] allConditionsIndex, int section, long[] words, int offset)
+      throws EventBloomException {
+    Map<Integer, long[]> bitmaps = new HashMap<>();
+    long[] result = new long[WORDS_PER_SECTION];
+    Arrays.fill(result, -1L);
+    for (int[][] bitIndexes : allConditionsIndex) {
+      long[] any = new long[WORDS_PER_SECTION];
+      for (int[] index : bitIndexes) {
+        long[] all = result.clone();
+        for (int bitIndex : index) { //must be 3
+          long[] bitmap = bitmaps.get(bitIndex);
+          if (bitmap == null) {
+            bitmap = sectionBloomStore.getWords(section, bitIndex);
+            bitmaps.put(bitIndex, bitmap);
+          }
+          if (!and(all, bitmap)) {
+            break;
+          }
+        }
+        for (int i = 0; i < WORDS_PER_SECTION; i++) {
+          any[i] |= all[i];
+        }
+      }
+      if (!and(result, any)) {
+        return;
       }
-      bitSetList.add(futureList);
     }
+    System.arraycopy(result, 0, words, offset, WORDS_PER_SECTION);
+  }
 
-    BitSet bitSet = new BitSet(SectionBloomStore.BLOCK_PER_SECTION);
-
-    for (List<Future<BitSet>> futureList : bitSetList) {
-      // initial a BitSet with all 1
-      BitSet subBitSet = new BitSet(SectionBloomStore.BLOCK_PER_SECTION);
-      subBitSet.set(0, SectionBloomStore.BLOCK_PER_SECTION);
-      // and condition in second dimension
-      for (Future<BitSet> future : futureList) {
-        BitSet one = future.get();
-        if (one == null) { //match nothing
-          subBitSet.clear();
-          break;
-        }
-        // "and" condition in second dimension
-        subBitSet.and(one);
-      }
-      // "or" condition in first dimension
-      bitSet.or(subBitSet);
+  /**
+   * @return false if nothing is left in {@code words}.
+   */
+  private static boolean and(long[] words, long[] bitmap) {
+    long left = 0;
+    for (int i = 0; i < words.length; i++) {
+      words[i] &= i < bitmap.length ? bitmap[i] : 0;
+      left |= words[i];
     }
-    return bitSet;
+    return left != 0;
   }
 
   /**
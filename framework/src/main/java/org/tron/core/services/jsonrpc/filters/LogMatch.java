@@ -2,12 +2,17 @@ package org.tron.core.services.jsonrpc.filters;
 
 import com.google.protobuf.ByteString;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import lombok.extern.slf4j.Slf4j;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.common.utils.ByteArray;
 import org.tron.core.capsule.TransactionRetCapsule;
 import org.tron.core.db.Manager;
+import org.tron.core.db2.core.Chainbase;
 import org.tron.core.exception.BadItemException;
 import org.tron.core.exception.ItemNotFoundException;
 import org.tron.core.exception.JsonRpcTooManyResultException;
@@ -22,6 +27,8 @@ import org.tron.protos.Protocol.TransactionRet;
 @Slf4j(topic = "API")
 public class LogMatch {
 
+  private static final int BATCH_SIZE = 64;
+
   /**
    * query criteria
    */
@@ -31,11 +38,21 @@ public class LogMatch {
    */
   private final List<Long> blockNumList;
   private final Manager manager;
+  /**
+   * thread pool reading the receipts, null to read them on the calling thread
+   */
+  private final ExecutorService executor;
 
   public LogMatch(LogFilterWrapper logFilterWrapper, List<Long> blockNumList, Manager manager) {
+    this(logFilterWrapper, blockNumList, manager, null);
+  }
+
+  public LogMatch(LogFilterWrapper logFilterWrapper, List<Long> blockNumList, Manager manager,
+      ExecutorService executor) {
     this.logFilterWrapper = logFilterWrapper;
     this.blockNumList = blockNumList;
     this.manager = manager;
+    this.executor = executor;
   }
 
   public static List<LogFilterElement> matchBlock(LogFilter logFilter, long blockNum,
@@ -78,27 +95,44 @@ public class LogMatch {
     return matchedLog;
   }
 
+  /**
+   * matches the blocks in batches whose receipts are read in parallel, so the results come in
+   * block order and the cutoff stops the query within a batch of the limit
+   */
   public LogFilterElement[] matchBlockOneByOne()
-      throws BadItemException, ItemNotFoundException, JsonRpcTooManyResultException {
+      throws BadItemException, ItemNotFoundException, JsonRpcTooManyResultException,
+      ExecutionException, InterruptedException {
     List<LogFilterElement> logFilterElementList = new ArrayList<>();
-
-    for (long blockNum : blockNumList) {
-      TransactionRetCapsule transactionRetCapsule =
-          manager.getTransactionRetStore()
-              .getTransactionInfoByBlockNum(ByteArray.fromLong(blockNum));
-      if (transactionRetCapsule == null) {
-        //if query condition (address and topics) is empty, we will traversal every block,
-        //include empty block
-        continue;
-      }
-      TransactionRet transactionRet = transactionRetCapsule.getInstance();
-      List<TransactionInfo> transactionInfoList = transactionRet.getTransactioninfoList();
-
-      String blockHash = manager.getChainBaseManager().getBlockIdByNum(blockNum).toString();
-      List<LogFilterElement> matchedLog = matchBlock(logFilterWrapper.getLogFilter(), blockNum,
-          blockHash, transactionInfoList, false);
-      if (!matchedLog.isEmpty()) {
-        logFilterElementList.addAll(matchedLog);
+    // the store cursor is bound to the calling thread, other cursors are read on it
+    boolean parallel = executor != null && manager.getTransactionRetStore().getRevokingDB()
+        .getCursor() == Chainbase.Cursor.HEAD;
+    int batch = parallel ? BATCH_SIZE : 1;
+
+    for (int from = 0; from < blockNumList.size(); from += batch) {
+      List<Long> blocks = blockNumList.subList(from, Math.min(from + batch,
+          blockNumList.size()));
+      if (!parallel) {
+        logFilterElementList.addAll(matchBlock(blocks.get(0)));
+      } else {
+        List<Future<List<LogFilterElement>>> futureList = new ArrayList<>();
+        for (long blockNum : blocks) {
+          futureList.add(executor.submit(() -> matchBlock(blockNum)));
+        }
+        try {
+          for (Future<List<LogFilterElement>> future : futureList) {
+            logFilterElementList.addAll(future.get());
+          }
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof BadItemException) {
+            throw (BadItemException) e.getCause();
+          }
+          if (e.getCause() instanceof ItemNotFoundException) {
+            throw (ItemNotFoundException) e.getCause();
+          }
+          throw e;
+        } finally {
+          futureList.forEach(future -> future.cancel(true));
+        }
       }
 
       if (logFilterElementList.size() > LogBlockQuery.MAX_RESULT) {
@@ -110,4 +144,22 @@ public class LogMatch {
     return logFilterElementList.toArray(new LogFilterElement[0]);
   }
 
+  private List<LogFilterElement> matchBlock(long blockNum)
+      throws BadItemException, ItemNotFoundException {
+    TransactionRetCapsule transactionRetCapsule =
+        manager.getTransactionRetStore()
+            .getTransactionInfoByBlockNum(ByteArray.fromLong(blockNum));
+    if (transactionRetCapsule == null) {
+      //if query condition (address and topics) is empty, we will traversal every block,
+      //include empty block
+      return Collections.emptyList();
+    }
+    TransactionRet transactionRet = transactionRetCapsule.getInstance();
+    List<TransactionInfo> transactionInfoList = transactionRet.getTransactioninfoList();
+
+    String blockHash = manager.getChainBaseManager().getBlockIdByNum(blockNum).toString();
+    return matchBlock(logFilterWrapper.getLogFilter(), blockNum, blockHash,
+        transactionInfoList, false);
+  }
+
 }
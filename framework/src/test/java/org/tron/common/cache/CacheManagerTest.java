@@ -0,0 +1,45 @@
+package org.tron.common.cache;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.parameter.CommonParameter;
+
+public class CacheManagerTest {
+
+  private static final long BUDGET = 1 << 20;
+
+  @After
+  public void destroy() {
+    CacheManager.close();
+    CommonParameter.getInstance().getStorage().setCacheBudget(0);
+  }
+
+  @Test
+  public void testWeightedRebalance() throws Exception {
+    CommonParameter.getInstance().getStorage().setCacheBudget(BUDGET);
+    TronCache<String, byte[]> hot = CacheManager.allocate(CacheType.account,
+        (k, v) -> v.length);
+    TronCache<String, byte[]> cold = CacheManager.allocate(CacheType.storageRow,
+        (k, v) -> v.length);
+    long share = BUDGET / CommonParameter.getInstance().getStorage().getCacheDbs().size();
+    Assert.assertEquals(share, hot.maximumBytes());
+
+    hot.put("a", new byte[1024]);
+    for (int i = 0; i < 100; i++) {
+      hot.getIfPresent("a");
+    }
+    Assert.assertNull(cold.getIfPresent("a"));
+    Assert.assertArrayEquals(new byte[3], cold.get("b", () -> new byte[3]));
+    Assert.assertEquals(2, cold.stats().missCount());
+    hot.cleanUp();
+    cold.cleanUp();
+    Assert.assertEquals(1027, cold.weightedSize() + hot.weightedSize());
+
+    CacheManager.rebalance();
+    Assert.assertTrue(hot.maximumBytes() > share);
+    Assert.assertTrue(cold.maximumBytes() < share);
+    Assert.assertEquals(hot.maximumBytes(),
+        CacheManager.bytes().get(CacheType.account.toString())[1]);
+  }
+}
@@ -0,0 +1,29 @@
+package org.tron.common.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SizedCacheTest {
+
+  @Test
+  public void testRebuiltOnResize() {
+    AtomicInteger size = new AtomicInteger(10);
+    AtomicInteger built = new AtomicInteger();
+    SizedCache<int[]> cache = new SizedCache<>(size::get, s -> {
+      built.incrementAndGet();
+      return new int[s];
+    });
+
+    int[] first = cache.get();
+    Assert.assertEquals(10, first.length);
+    Assert.assertSame(first, cache.get());
+    Assert.assertEquals(1, built.get());
+
+    size.set(20);
+    int[] second = cache.get();
+    Assert.assertEquals(20, second.length);
+    Assert.assertSame(second, cache.get());
+    Assert.assertEquals(2, built.get());
+  }
+}
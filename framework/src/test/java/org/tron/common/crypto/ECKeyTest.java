@@ -5,6 +5,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -220,4 +221,26 @@ public class ECKeyTest {
 
     assertEquals(key, ECKey.fromNodeId(key.getNodeId()));
   }
+
+  @Test
+  public void testSignaturesToAddresses() throws SignatureException {
+    int size = 8;
+    byte[][] hashes = new byte[size][];
+    ECDSASignature[] sigs = new ECDSASignature[size];
+    for (int i = 0; i < size; i++) {
+      hashes[i] = Hash.sha3(("message" + i).getBytes());
+      sigs[i] = new ECKey().sign(hashes[i]);
+    }
+    // a broken signature does not fail the batch
+    sigs[3] = ECDSASignature.fromComponents(new byte[32], new byte[32], (byte) 27);
+
+    byte[][] addresses = ECKey.signaturesToAddresses(hashes, sigs);
+    for (int i = 0; i < size; i++) {
+      if (i == 3) {
+        assertNull(addresses[i]);
+      } else {
+        assertArrayEquals(ECKey.signatureToAddress(hashes[i], sigs[i]), addresses[i]);
+      }
+    }
+  }
 }
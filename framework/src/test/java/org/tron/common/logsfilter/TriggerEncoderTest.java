@@ -0,0 +1,54 @@
+package org.tron.common.logsfilter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.logsfilter.trigger.BlockLogTrigger;
+import org.tron.common.logsfilter.trigger.ContractEventTrigger;
+import org.tron.protos.TronEvent;
+
+public class TriggerEncoderTest {
+
+  @Test
+  public void testJsonBatch() throws Exception {
+    TriggerEncoder encoder = new TriggerEncoder(EventPluginConfig.ENCODING_JSON);
+    BlockLogTrigger first = new BlockLogTrigger();
+    first.setBlockNumber(1);
+    BlockLogTrigger second = new BlockLogTrigger();
+    second.setBlockNumber(2);
+
+    JsonNode batch = new ObjectMapper().readTree(encoder.encodeBatch(
+        Arrays.asList(encoder.encode(first), encoder.encode(second))));
+    Assert.assertTrue(batch.isArray());
+    Assert.assertEquals(2, batch.size());
+    Assert.assertEquals(2, batch.get(1).get("blockNumber").asLong());
+    Assert.assertEquals(0, new ObjectMapper().readTree(
+        encoder.encodeBatch(Collections.emptyList())).size());
+  }
+
+  @Test
+  public void testProtobuf() throws Exception {
+    TriggerEncoder encoder = new TriggerEncoder(EventPluginConfig.ENCODING_PROTOBUF);
+    ContractEventTrigger event = new ContractEventTrigger();
+    event.setBlockNumber(10L);
+    event.setEventName("Transfer");
+    event.setTopicMap(Collections.singletonMap("from", "41abcd"));
+
+    byte[] data = encoder.encode(event);
+    TronEvent.ContractTrigger decoded = TronEvent.ContractTrigger.parseFrom(data);
+    Assert.assertEquals(event.getTriggerName(), decoded.getTriggerName());
+    Assert.assertEquals(10, decoded.getBlockNumber());
+    Assert.assertEquals("Transfer", decoded.getEventName());
+    Assert.assertEquals("41abcd", decoded.getTopicMapMap().get("from"));
+    // the fields left null are encoded empty
+    Assert.assertEquals("", decoded.getTransactionId());
+
+    TronEvent.TriggerBatch batch = TronEvent.TriggerBatch.parseFrom(
+        encoder.encodeBatch(Arrays.asList(data, data)));
+    Assert.assertEquals(2, batch.getTriggersCount());
+    Assert.assertEquals(decoded, TronEvent.ContractTrigger.parseFrom(batch.getTriggers(1)));
+  }
+}
@@ -0,0 +1,66 @@
+package org.tron.common.logsfilter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.logsfilter.capsule.TriggerCapsule;
+
+public class TriggerPipelineTest {
+
+  @Test
+  public void testBlockOrder() throws Exception {
+    Map<Long, List<Integer>> processed = new ConcurrentHashMap<>();
+    TriggerPipeline pipeline = new TriggerPipeline(4, () -> 10);
+    pipeline.start();
+    try {
+      for (int i = 0; i < 100; i++) {
+        for (long block = 0; block < 10; block++) {
+          Assert.assertTrue(pipeline.offer(new Capsule(block, i, processed)));
+        }
+      }
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+      while (processed.values().stream().mapToInt(List::size).sum() < 1000
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+    } finally {
+      pipeline.stop();
+    }
+
+    Assert.assertEquals(10, processed.size());
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      expected.add(i);
+    }
+    processed.values().forEach(order -> Assert.assertEquals(expected, order));
+  }
+
+  private static class Capsule extends TriggerCapsule {
+
+    private final long block;
+    private final int index;
+    private final Map<Long, List<Integer>> processed;
+
+    Capsule(long block, int index, Map<Long, List<Integer>> processed) {
+      this.block = block;
+      this.index = index;
+      this.processed = processed;
+    }
+
+    @Override
+    public long getBlockNumber() {
+      return block;
+    }
+
+    @Override
+    public void processTrigger() {
+      processed.computeIfAbsent(block, k -> Collections.synchronizedList(new ArrayList<>()))
+          .add(index);
+    }
+  }
+}
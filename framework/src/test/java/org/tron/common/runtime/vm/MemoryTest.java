@@ -27,7 +27,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.bouncycastle.util.encoders.Hex;
 import org.junit.Assert;
 import org.junit.Test;
+import org.tron.common.crypto.Hash;
 import org.tron.core.vm.program.Memory;
+import org.tron.core.vm.program.Stack;
 
 @Slf4j
 public class MemoryTest {
@@ -562,5 +564,27 @@ public class MemoryTest {
     assertTrue(zero == 10);
   }
 
+  @Test
+  public void memoryWordThroughStack() {
+    Memory memoryBuffer = new Memory();
+    Stack stack = new Stack();
+    DataWord value = new DataWord(
+        "0102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f20");
 
+    stack.push(value);
+    memoryBuffer.storeWord(1020, stack);
+    assertTrue(stack.isEmpty());
+    assertTrue(memoryBuffer.size() == 1056);
+    assertTrue(memoryBuffer.getChunks().size() == 2);
+    Assert.assertEquals(value, memoryBuffer.readWord(1020));
+
+    memoryBuffer.loadWord(1020, stack);
+    Assert.assertEquals(value, stack.pop());
+    memoryBuffer.loadWord(4000, stack);
+    Assert.assertEquals(DataWord.ZERO(), stack.pop());
+    assertTrue(memoryBuffer.size() == 4032);
+
+    assertArrayEquals(Hash.sha3(memoryBuffer.read(1000, 100)), memoryBuffer.sha3(1000, 100));
+    assertArrayEquals(Hash.sha3(new byte[0]), memoryBuffer.sha3(Integer.MAX_VALUE, 0));
+  }
 }
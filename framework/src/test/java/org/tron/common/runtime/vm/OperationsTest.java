@@ -31,6 +31,7 @@ import org.tron.core.vm.VM;
 import org.tron.core.vm.config.ConfigLoader;
 import org.tron.core.vm.config.VMConfig;
 import org.tron.core.vm.program.Program;
+import org.tron.core.vm.program.ProgramPrecompile;
 import org.tron.core.vm.program.invoke.ProgramInvokeMockImpl;
 import org.tron.protos.Protocol;
 
@@ -867,6 +868,44 @@ public class OperationsTest extends BaseTest {
     VMConfig.initAllowTvmShangHai(0);
   }
 
+  @Test
+  public void testBlockEnergy() {
+    // PUSH1 1, PUSH1 2, ADD, JUMPDEST, GAS, SWAP1, STOP
+    byte[] ops = Hex.decode("60016002015b5a9000");
+    Assert.assertArrayEquals(new int[] {9, 0, 6, 0, 3, 1, 0, 3, 0},
+        ProgramPrecompile.compile(ops).getBlockCosts(ops, jumpTable));
+
+    StoreFactory.init();
+    StoreFactory storeFactory = StoreFactory.getInstance();
+    storeFactory.setChainBaseManager(chainBaseManager);
+    invoke = new ProgramInvokeMockImpl(storeFactory, ops, ops);
+    program = new Program(ops, ops, invoke,
+        new InternalTransaction(
+            Protocol.Transaction.getDefaultInstance(),
+            InternalTransaction.TrxType.TRX_UNKNOWN_TYPE));
+    program.setRootTransactionId(new byte[32]);
+    VM.play(program, jumpTable);
+    Assert.assertNull(program.getResult().getException());
+    Assert.assertEquals(15, program.getResult().getEnergyUsed());
+    Assert.assertEquals(new DataWord(3), program.getStack().pop());
+    // GAS sees the energy of its own block only
+    Assert.assertEquals(new DataWord(50 - 12), program.getStack().pop());
+
+    // short of energy for a block, fails on the same op as charging op by op
+    invoke = new ProgramInvokeMockImpl(storeFactory, ops, ops);
+    invoke.setEnergyLimit(7);
+    program = new Program(ops, ops, invoke,
+        new InternalTransaction(
+            Protocol.Transaction.getDefaultInstance(),
+            InternalTransaction.TrxType.TRX_UNKNOWN_TYPE));
+    program.setRootTransactionId(new byte[32]);
+    VM.play(program, jumpTable);
+    Assert.assertTrue(program.getResult().getException()
+        instanceof Program.OutOfEnergyException);
+    Assert.assertTrue(program.getResult().getException().getMessage().contains("'ADD'"));
+    Assert.assertEquals(7, program.getResult().getEnergyUsed());
+  }
+
   @Test
   public void testSuicideCost() throws ContractValidateException {
     invoke = new ProgramInvokeMockImpl(StoreFactory.getInstance(), new byte[0], new byte[21]);
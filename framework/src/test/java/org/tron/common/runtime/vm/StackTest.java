@@ -0,0 +1,129 @@
+package org.tron.common.runtime.vm;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.function.Consumer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.core.vm.program.Stack;
+
+public class StackTest {
+
+  private static final BigInteger MOD = BigInteger.ONE.shiftLeft(256);
+  private final Random random = new Random(42);
+
+  private BigInteger randomWord() {
+    switch (random.nextInt(5)) {
+      case 0:
+        return BigInteger.valueOf(random.nextInt(300));
+      case 1:
+        return new BigInteger(64, random);
+      case 2:
+        return MOD.subtract(BigInteger.valueOf(1 + random.nextInt(3)));
+      case 3:
+        return new BigInteger(32 + random.nextInt(224), random);
+      default:
+        return new BigInteger(256, random);
+    }
+  }
+
+  private static DataWord word(BigInteger value) {
+    byte[] bytes = value.mod(MOD).toByteArray();
+    byte[] data = new byte[32];
+    int length = Math.min(bytes.length, 32);
+    System.arraycopy(bytes, bytes.length - length, data, 32 - length, length);
+    return new DataWord(data);
+  }
+
+  private static DataWord apply(Consumer<Stack> op, DataWord a, DataWord b) {
+    Stack stack = new Stack();
+    stack.push(b);
+    stack.push(a);
+    op.accept(stack);
+    Assert.assertEquals(1, stack.size());
+    return stack.pop();
+  }
+
+  private static DataWord bool(boolean value) {
+    return value ? DataWord.ONE() : DataWord.ZERO();
+  }
+
+  @Test
+  public void testArithmetic() {
+    for (int i = 0; i < 10_000; i++) {
+      DataWord a = word(randomWord());
+      DataWord b = word(random.nextInt(4) == 0 ? randomWord().shiftRight(128) : randomWord());
+
+      DataWord expected = a.clone();
+      expected.add(b);
+      Assert.assertEquals(expected, apply(Stack::add, a, b));
+      expected = a.clone();
+      expected.sub(b);
+      Assert.assertEquals(expected, apply(Stack::sub, a, b));
+      expected = a.clone();
+      expected.mul(b);
+      Assert.assertEquals(expected, apply(Stack::mul, a, b));
+      expected = a.clone();
+      expected.div(b);
+      Assert.assertEquals(expected, apply(Stack::div, a, b));
+      expected = a.clone();
+      expected.mod(b);
+      Assert.assertEquals(expected, apply(Stack::mod, a, b));
+    }
+    // division by zero gives zero
+    Assert.assertTrue(apply(Stack::div, word(BigInteger.TEN), DataWord.ZERO()).isZero());
+    Assert.assertTrue(apply(Stack::mod, word(BigInteger.TEN), DataWord.ZERO()).isZero());
+  }
+
+  @Test
+  public void testCompareAndBitwise() {
+    for (int i = 0; i < 10_000; i++) {
+      DataWord a = word(randomWord());
+      DataWord b = random.nextInt(4) == 0 ? a.clone() : word(randomWord());
+
+      Assert.assertEquals(bool(a.value().compareTo(b.value()) < 0), apply(Stack::lt, a, b));
+      Assert.assertEquals(bool(a.value().compareTo(b.value()) > 0), apply(Stack::gt, a, b));
+      Assert.assertEquals(bool(a.sValue().compareTo(b.sValue()) < 0), apply(Stack::slt, a, b));
+      Assert.assertEquals(bool(a.sValue().compareTo(b.sValue()) > 0), apply(Stack::sgt, a, b));
+      Assert.assertEquals(bool(a.equals(b)), apply(Stack::eq, a, b));
+      Assert.assertEquals(a.clone().and(b), apply(Stack::and, a, b));
+      Assert.assertEquals(a.clone().or(b), apply(Stack::or, a, b));
+      Assert.assertEquals(a.clone().xor(b), apply(Stack::xor, a, b));
+
+      DataWord shift = word(BigInteger.valueOf(random.nextInt(300)));
+      Assert.assertEquals(b.shiftLeft(shift), apply(Stack::shl, shift, b));
+      Assert.assertEquals(b.shiftRight(shift), apply(Stack::shr, shift, b));
+      Assert.assertEquals(b.shiftRightSigned(shift), apply(Stack::sar, shift, b));
+      int index = random.nextInt(40);
+      DataWord expected = index < 32 ? word(BigInteger.valueOf(b.getData()[index] & 0xff))
+          : DataWord.ZERO();
+      Assert.assertEquals(expected, apply(Stack::byteOf, word(BigInteger.valueOf(index)), b));
+    }
+  }
+
+  @Test
+  public void testStackOperations() {
+    Stack stack = new Stack();
+    for (int i = 0; i < 1024; i++) {
+      stack.pushLong(i);
+    }
+    Assert.assertEquals(1024, stack.size());
+    Assert.assertEquals(new DataWord(17), stack.get(17));
+
+    stack.dup(3);
+    Assert.assertEquals(new DataWord(1021), stack.peek());
+    stack.swap(stack.size() - 1, stack.size() - 5);
+    Assert.assertEquals(new DataWord(1020), stack.peek());
+    Assert.assertEquals(new DataWord(1021), stack.get(stack.size() - 5));
+
+    stack.pushBytes(new byte[] {1, 2, 3}, 0, 3);
+    Assert.assertEquals(new DataWord(0x010203), stack.pop());
+    stack.not();
+    stack.isZero();
+    Assert.assertEquals(DataWord.ZERO(), stack.peek());
+    stack.isZero();
+    Assert.assertEquals(DataWord.ONE(), stack.pop());
+    stack.drop();
+    Assert.assertEquals(1023, stack.size());
+  }
+}
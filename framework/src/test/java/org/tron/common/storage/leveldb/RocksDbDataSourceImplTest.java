@@ -7,6 +7,7 @@ import static org.junit.Assert.assertNull;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.primitives.Bytes;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -27,7 +28,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.ExpectedSystemExit;
 import org.junit.rules.TemporaryFolder;
+import org.tron.common.setting.RocksDbSettings;
 import org.tron.common.storage.rocksdb.RocksDbDataSourceImpl;
+import org.tron.common.storage.rocksdb.SharedRocksDb;
 import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.FileUtil;
 import org.tron.common.utils.PropUtil;
@@ -390,6 +393,80 @@ public class RocksDbDataSourceImplTest {
     dataSource.closeDB();
   }
 
+  @Test
+  public void testColumnFamilies() throws Exception {
+    String parent = temporaryFolder.newFolder().toString();
+    RocksDbDataSourceImpl account = new RocksDbDataSourceImpl(parent, "account",
+        RocksDbSettings.getSettings(), null, true);
+    RocksDbDataSourceImpl witness = new RocksDbDataSourceImpl(parent, "witness",
+        RocksDbSettings.getSettings(), null, true);
+    Assert.assertSame(account.getShared(), witness.getShared());
+    account.putData(key1, value1);
+    Assert.assertNull(witness.getData(key1));
+
+    // nothing is visible before the batch is committed
+    SharedRocksDb shared = account.getShared();
+    shared.beginBatch();
+    shared.joinBatch();
+    account.updateByBatch(Collections.singletonMap(key2, value2));
+    witness.updateByBatch(Collections.singletonMap(key3, value3));
+    Assert.assertNull(account.getData(key2));
+    // the writes of the other threads are not collected
+    RocksDbDataSourceImpl other = account;
+    Thread writer = new Thread(() -> other.updateByBatch(Collections.singletonMap(key5, value5)));
+    writer.start();
+    writer.join();
+    Assert.assertArrayEquals(value5, account.getData(key5));
+    shared.leaveBatch();
+    shared.commitBatch(false);
+    Assert.assertArrayEquals(value2, account.getData(key2));
+    Assert.assertArrayEquals(value3, witness.getData(key3));
+
+    witness.resetDb();
+    Assert.assertNull(witness.getData(key3));
+    witness.putData(key4, value4);
+    account.closeDB();
+    witness.closeDB();
+
+    account = new RocksDbDataSourceImpl(parent, "account",
+        RocksDbSettings.getSettings(), null, true);
+    witness = new RocksDbDataSourceImpl(parent, "witness",
+        RocksDbSettings.getSettings(), null, true);
+    Assert.assertEquals(3, account.allKeys().size());
+    Assert.assertEquals(1, witness.allKeys().size());
+    Assert.assertArrayEquals(value4, witness.getData(key4));
+    account.closeDB();
+    witness.closeDB();
+  }
+
+  @Test
+  public void testPrefixProfile() throws Exception {
+    Args.getInstance().getStorage().setDbProfiles(true);
+    try {
+      RocksDbDataSourceImpl dataSource = new RocksDbDataSourceImpl(
+          temporaryFolder.newFolder().toString(), "account-asset",
+          RocksDbSettings.getSettings(), null);
+      byte[] owner = new byte[21];
+      byte[] other = new byte[21];
+      other[20] = 1;
+      Map<byte[], byte[]> rows = new HashMap<>();
+      for (int i = 0; i < 10; i++) {
+        rows.put(Bytes.concat(owner, ByteArray.fromInt(i)), value1);
+        rows.put(Bytes.concat(other, ByteArray.fromInt(i)), value2);
+      }
+      dataSource.updateByBatch(rows);
+      Assert.assertEquals(10, dataSource.prefixQuery(owner).size());
+      Assert.assertEquals(1, dataSource.prefixQuery(
+          Bytes.concat(other, ByteArray.fromInt(3))).size());
+      // shorter than the prefix, and across prefixes
+      Assert.assertEquals(20, dataSource.prefixQuery(new byte[20]).size());
+      Assert.assertEquals(20, dataSource.getKeysNext(owner, 100).size());
+      dataSource.closeDB();
+    } finally {
+      Args.getInstance().getStorage().setDbProfiles(false);
+    }
+  }
+
   @Test
   public void initDbTest() {
     exit.expectSystemExitWithStatus(1);
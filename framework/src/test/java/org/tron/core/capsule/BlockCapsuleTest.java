@@ -91,6 +91,29 @@ public class BlockCapsuleTest {
     logger.info("Transaction[O] Merkle Root : {}", blockCapsule0.getMerkleRoot().toString());
   }
 
+  @Test
+  public void testPrecompute() {
+    BlockCapsule block = new BlockCapsule(2, Sha256Hash.ZERO_HASH, 1234,
+        ByteString.copyFrom("1234567".getBytes()));
+    TransferContract transferContract = TransferContract.newBuilder()
+        .setAmount(1L)
+        .setOwnerAddress(ByteString.copyFrom("0x0000000000000000000".getBytes()))
+        .setToAddress(ByteString.copyFrom(ByteArray.fromHexString(
+            (Wallet.getAddressPreFixString() + "A389132D6639FBDA4FBC8B659264E6B7C90DB086"))))
+        .build();
+    block.addTransaction(new TransactionCapsule(transferContract, ContractType.TransferContract));
+    block.setMerkleRoot();
+    block.sign(ByteArray.fromHexString(privateKey));
+
+    block.precompute();
+    Assert.assertEquals(block.getMerkleRoot(), block.calcMerkleRoot());
+
+    // the precomputed root is dropped once the block is modified
+    block.addTransaction(new TransactionCapsule(transferContract.toBuilder().setAmount(2L)
+        .build(), ContractType.TransferContract));
+    Assert.assertNotEquals(block.getMerkleRoot(), block.calcMerkleRoot());
+  }
+
   /* @Test
   public void testAddTransaction() {
     TransactionCapsule transactionCapsule = new TransactionCapsule("123", 1L);
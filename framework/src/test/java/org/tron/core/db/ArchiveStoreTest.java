@@ -0,0 +1,93 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Resource;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.BaseTest;
+import org.tron.core.Constant;
+import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.ISession;
+import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.core.store.AccountStore;
+import org.tron.core.store.ArchiveStore;
+import org.tron.protos.Protocol.Account;
+
+public class ArchiveStoreTest extends BaseTest {
+
+  @Resource
+  private ArchiveStore archiveStore;
+  private static final byte[] key = TransactionStoreTest.randomBytes(21);
+  private static final byte[] value1 = {1};
+  private static final byte[] value2 = {2};
+
+  static {
+    Args.setParam(
+        new String[]{
+            "--output-directory", dbPath()
+        },
+        Constant.TEST_CONF
+    );
+  }
+
+  @Test
+  public void testGetAtBlock() {
+    // absent before block 10, value1 from block 10, value2 from block 12
+    Map<WrappedByteArray, WrappedByteArray> undo = new HashMap<>();
+    undo.put(WrappedByteArray.of(key), null);
+    archiveStore.record(Collections.singletonMap(ArchiveStore.ACCOUNT, undo), 10);
+    undo.put(WrappedByteArray.of(key), WrappedByteArray.of(value1));
+    archiveStore.record(Collections.singletonMap(ArchiveStore.ACCOUNT, undo), 12);
+    Assert.assertEquals(10, archiveStore.getStartBlock());
+
+    Assert.assertNull(archiveStore.get(ArchiveStore.ACCOUNT, key, 9, () -> value2));
+    Assert.assertArrayEquals(value1, archiveStore.get(ArchiveStore.ACCOUNT, key, 10, () -> value2));
+    Assert.assertArrayEquals(value1, archiveStore.get(ArchiveStore.ACCOUNT, key, 11, () -> value2));
+    Assert.assertArrayEquals(value2, archiveStore.get(ArchiveStore.ACCOUNT, key, 12, () -> value2));
+    // another store
+    Assert.assertArrayEquals(value2,
+        archiveStore.get(ArchiveStore.CONTRACT, key, 10, () -> value2));
+
+    try {
+      archiveStore.get(ArchiveStore.ACCOUNT, key, 5, () -> value2);
+      Assert.fail();
+    } catch (IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage().contains("not archived"));
+    }
+  }
+
+  @Test
+  public void testReadHeadBlockStateWithoutLock() throws Exception {
+    byte[] address = TransactionStoreTest.randomBytes(21);
+    AccountStore accountStore = chainBaseManager.getAccountStore();
+    accountStore.put(address, new AccountCapsule(Account.newBuilder()
+        .setAddress(ByteString.copyFrom(address)).setBalance(1).build()));
+    Args.getInstance().setArchiveEnable(true);
+    ExecutorService reader = Executors.newSingleThreadExecutor();
+    try {
+      dbManager.pinHeadBlockState();
+      try (ISession pending = dbManager.getRevokingStore().buildSession()) {
+        accountStore.put(address, new AccountCapsule(Account.newBuilder()
+            .setAddress(ByteString.copyFrom(address)).setBalance(2).build()));
+        // a block being applied holds the manager lock
+        synchronized (dbManager) {
+          Future<Long> balance = reader.submit(() -> dbManager.readHeadBlockState(
+              () -> accountStore.get(address).getBalance()));
+          Assert.assertEquals(1L, (long) balance.get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(2L, accountStore.get(address).getBalance());
+      }
+    } finally {
+      reader.shutdownNow();
+      Args.getInstance().setArchiveEnable(false);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.LocalWitnesses;
+import org.tron.common.utils.PublicMethod;
+import org.tron.common.utils.ReflectUtils;
+import org.tron.consensus.base.Param;
+import org.tron.consensus.base.Param.Miner;
+import org.tron.core.ChainBaseManager;
+import org.tron.core.Constant;
+import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.capsule.WitnessCapsule;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.core.AccessSet;
+import org.tron.protos.Protocol;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class BlockAssemblerTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private TronApplicationContext context;
+  private Manager dbManager;
+  private ChainBaseManager chainManager;
+  private final String witnessKey = PublicMethod.getRandomPrivateKey();
+  private final String ownerKey = PublicMethod.getRandomPrivateKey();
+  private Miner miner;
+
+  @Before
+  public void init() throws IOException {
+    Args.setParam(new String[] {"-d", temporaryFolder.newFolder().toString(), "-w"},
+        Constant.TEST_CONF);
+    Args.getInstance().setBlockAssemblyEnable(true);
+    context = new TronApplicationContext(DefaultConfig.class);
+    dbManager = context.getBean(Manager.class);
+    chainManager = dbManager.getChainBaseManager();
+
+    LocalWitnesses localWitnesses = new LocalWitnesses();
+    localWitnesses.setPrivateKeys(Arrays.asList(witnessKey));
+    localWitnesses.initWitnessAccountAddress(true);
+    Args.setLocalWitnesses(localWitnesses);
+
+    ByteString witness = ByteString.copyFrom(PublicMethod.getAddressByteByPrivateKey(witnessKey));
+    chainManager.getWitnessStore().put(witness.toByteArray(), new WitnessCapsule(witness));
+    chainManager.addWitness(witness);
+    chainManager.getAccountStore().put(witness.toByteArray(), new AccountCapsule(
+        Protocol.Account.newBuilder().setAddress(witness).build()));
+    miner = Param.getInstance().new Miner(ByteArray.fromHexString(witnessKey), witness, witness);
+
+    byte[] owner = PublicMethod.getAddressByteByPrivateKey(ownerKey);
+    AccountCapsule account = new AccountCapsule(
+        Protocol.Account.newBuilder().setAddress(ByteString.copyFrom(owner)).build());
+    account.setBalance(1_000_000_000L);
+    chainManager.getAccountStore().put(owner, account);
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+  }
+
+  @Test
+  public void testPackedDraftMatchesSerialPacking() throws Exception {
+    BlockCapsule head = chainManager.getHead();
+    dbManager.updateRecentBlock(head);
+    long blockTime = chainManager.getHeadBlockTimeStamp() + 3000;
+    // the assembler drafts for the witness of the last block produced
+    dbManager.generateBlock(miner, blockTime, System.currentTimeMillis() + 1000);
+    dbManager.startBlockAssembly();
+
+    List<TransactionCapsule> txs = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      txs.add(transfer(head, i + 1));
+    }
+    for (TransactionCapsule tx : txs) {
+      Assert.assertTrue(dbManager.pushTransaction(tx));
+    }
+    Object assembler = ReflectUtils.getFieldObject(dbManager, "blockAssembler");
+    Object draft = ReflectUtils.getFieldObject(assembler, "draft");
+    BlockCapsule draftBlock = ReflectUtils.getFieldValue(draft, "block");
+    Assert.assertTrue(draftBlock.generatedByMyself);
+    List<?> entries = ReflectUtils.getFieldValue(draft, "entries");
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (entries.size() < txs.size() && System.currentTimeMillis() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(50);
+    }
+    Assert.assertEquals(txs.size(), entries.size());
+
+    AccessSet drafted = new AccessSet(false);
+    drafted.bind();
+    BlockCapsule fromDraft;
+    try {
+      fromDraft = dbManager.generateBlock(miner, blockTime, System.currentTimeMillis() + 1000);
+    } finally {
+      AccessSet.unbind();
+    }
+    Assert.assertEquals(0, dbManager.getPendingSize());
+
+    // the same transactions again, without a draft
+    for (TransactionCapsule tx : txs) {
+      Assert.assertTrue(dbManager.pushTransaction(new TransactionCapsule(tx.getInstance())));
+    }
+    AccessSet serial = new AccessSet(false);
+    serial.bind();
+    BlockCapsule fromSerial;
+    try {
+      fromSerial = dbManager.generateBlock(miner, blockTime, System.currentTimeMillis() + 1000);
+    } finally {
+      AccessSet.unbind();
+    }
+
+    Assert.assertEquals(txs.size(), fromSerial.getTransactions().size());
+    // the same transactions with the same results, leading to the same state
+    Assert.assertEquals(fromSerial.getInstance().getTransactionsList(),
+        fromDraft.getInstance().getTransactionsList());
+    Assert.assertEquals(serial.getWrites(), drafted.getWrites());
+  }
+
+  private TransactionCapsule transfer(BlockCapsule head, long amount) {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(PublicMethod.getAddressByteByPrivateKey(ownerKey)))
+        .setToAddress(ByteString.copyFrom(PublicMethod.getAddressByteByPrivateKey(
+            PublicMethod.getRandomPrivateKey())))
+        .setAmount(amount * 1_000_000L)
+        .build();
+    TransactionCapsule trx = new TransactionCapsule(contract, ContractType.TransferContract);
+    trx.setReference(head.getNum(), head.getBlockId().getBytes());
+    trx.setExpiration(head.getTimeStamp() + 60_000L);
+    trx.sign(ByteArray.fromHexString(ownerKey));
+    return trx;
+  }
+}
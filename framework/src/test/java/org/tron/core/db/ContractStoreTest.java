@@ -11,6 +11,8 @@ import org.tron.core.Constant;
 import org.tron.core.Wallet;
 import org.tron.core.capsule.ContractCapsule;
 import org.tron.core.config.args.Args;
+import org.tron.core.db2.ISession;
+import org.tron.core.store.ContractCache;
 import org.tron.core.store.ContractStore;
 import org.tron.protos.contract.SmartContractOuterClass;
 
@@ -98,4 +100,30 @@ public class ContractStoreTest extends BaseTest {
     ContractCapsule contractCapsule2 = contractStore.get(ByteArray.fromHexString(contractAddress));
     Assert.assertNull(contractCapsule2);
   }
+
+  @Test
+  public void testCache() {
+    String contractAddress = "44444444";
+    byte[] address = ByteArray.fromHexString(contractAddress);
+    contractStore.put(address, new ContractCapsule(createContract(contractAddress, "v1").build()));
+    Assert.assertEquals("v1",
+        ContractCache.getContract(contractStore, address).getInstance().getName());
+
+    contractStore.put(address, new ContractCapsule(createContract(contractAddress, "v2").build()));
+    Assert.assertEquals("v2",
+        ContractCache.getContract(contractStore, address).getInstance().getName());
+
+    try (ISession tmpSession = dbManager.getRevokingStore().buildSession(true)) {
+      contractStore.put(address,
+          new ContractCapsule(createContract(contractAddress, "v3").build()));
+      Assert.assertEquals("v3",
+          ContractCache.getContract(contractStore, address).getInstance().getName());
+    }
+    // revoked when the session closes without commit
+    Assert.assertEquals("v2",
+        ContractCache.getContract(contractStore, address).getInstance().getName());
+
+    contractStore.delete(address);
+    Assert.assertNull(ContractCache.getContract(contractStore, address));
+  }
 }
@@ -0,0 +1,180 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.LocalWitnesses;
+import org.tron.common.utils.PublicMethod;
+import org.tron.common.utils.ReflectUtils;
+import org.tron.core.ChainBaseManager;
+import org.tron.core.Constant;
+import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.capsule.WitnessCapsule;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.db.accountstate.callback.AccountStateCallBack;
+import org.tron.core.db2.ISession;
+import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.core.trie.TrieImpl;
+import org.tron.protos.Protocol;
+import org.tron.protos.Protocol.Block;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.Protocol.TransactionRet;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class ParallelTransactionExecutorTest extends BlockGenerate {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private TronApplicationContext context;
+  private Manager dbManager;
+  private ChainBaseManager chainManager;
+  private final String witnessKey = PublicMethod.getRandomPrivateKey();
+  private final List<String> ownerKeys = new ArrayList<>();
+
+  @Before
+  public void init() throws IOException {
+    Args.setParam(new String[] {"-d", temporaryFolder.newFolder().toString(), "-w"},
+        Constant.TEST_CONF);
+    context = new TronApplicationContext(DefaultConfig.class);
+    dbManager = context.getBean(Manager.class);
+    setManager(dbManager);
+    chainManager = dbManager.getChainBaseManager();
+
+    LocalWitnesses localWitnesses = new LocalWitnesses();
+    localWitnesses.setPrivateKeys(Arrays.asList(witnessKey));
+    localWitnesses.initWitnessAccountAddress(true);
+    Args.setLocalWitnesses(localWitnesses);
+
+    ByteString witness = ByteString.copyFrom(PublicMethod.getAddressByteByPrivateKey(witnessKey));
+    chainManager.getWitnessStore().put(witness.toByteArray(), new WitnessCapsule(witness));
+    chainManager.getWitnessScheduleStore().saveActiveWitnesses(new ArrayList<>());
+    chainManager.addWitness(witness);
+    chainManager.getAccountStore().put(witness.toByteArray(), new AccountCapsule(
+        Protocol.Account.newBuilder().setAddress(witness).build()));
+
+    for (int i = 0; i < 4; i++) {
+      String key = PublicMethod.getRandomPrivateKey();
+      byte[] owner = PublicMethod.getAddressByteByPrivateKey(key);
+      AccountCapsule account = new AccountCapsule(
+          Protocol.Account.newBuilder().setAddress(ByteString.copyFrom(owner)).build());
+      account.setBalance(1_000_000_000L);
+      chainManager.getAccountStore().put(owner, account);
+      ownerKeys.add(key);
+    }
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+  }
+
+  @Test
+  public void testProcessBlockMatchesSerial() throws Exception {
+    BlockCapsule head = chainManager.getHead();
+    dbManager.updateRecentBlock(head);
+    List<TransactionCapsule> txs = new ArrayList<>();
+    txs.add(transfer(head, ownerKeys.get(0), newAddress()));
+    txs.add(transfer(head, ownerKeys.get(1), newAddress()));
+    // the same owner again, a conflict
+    txs.add(transfer(head, ownerKeys.get(0), newAddress()));
+    txs.add(transfer(head, ownerKeys.get(2),
+        PublicMethod.getAddressByteByPrivateKey(ownerKeys.get(3))));
+    // spends what the previous transaction received, a conflict
+    txs.add(transfer(head, ownerKeys.get(3), newAddress()));
+    for (TransactionCapsule tx : txs) {
+      Assert.assertTrue(dbManager.pushTransaction(tx));
+    }
+    Block block = getSignedBlock(
+        ByteString.copyFrom(PublicMethod.getAddressByteByPrivateKey(witnessKey)),
+        chainManager.getHeadBlockTimeStamp() + 3000, ByteArray.fromHexString(witnessKey));
+    Assert.assertEquals(txs.size(), block.getTransactionsCount());
+
+    Result serial = process(block, null);
+    ParallelTransactionExecutor checking = new ParallelTransactionExecutor(dbManager, 4, false);
+    ParallelTransactionExecutor committing = new ParallelTransactionExecutor(dbManager, 4, true);
+    try {
+      Result checked = process(block, checking);
+      Result committed = process(block, committing);
+
+      Assert.assertEquals(txs.size(), serial.ret.getTransactioninfoCount());
+      Assert.assertEquals(serial.ret, checked.ret);
+      Assert.assertEquals(serial.writes, checked.writes);
+      Assert.assertEquals(serial.ret, committed.ret);
+      Assert.assertEquals(serial.writes, committed.writes);
+      Assert.assertArrayEquals(serial.root, checked.root);
+      Assert.assertArrayEquals(serial.root, committed.root);
+    } finally {
+      checking.close();
+      committing.close();
+    }
+  }
+
+  @Test
+  public void testCommitFeedsAccountStateRoot() throws Exception {
+    chainManager.getDynamicPropertiesStore().saveAllowAccountStateRoot(1);
+    testProcessBlockMatchesSerial();
+  }
+
+  /**
+   * Processes the block in a session that is reverted after, with {@code executor} as the
+   * parallel executor of the manager.
+   */
+  private Result process(Block block, ParallelTransactionExecutor executor) {
+    ReflectUtils.setFieldValue(dbManager, "parallelExecutor", executor);
+    BlockCapsule capsule = new BlockCapsule(block);
+    Result result = new Result();
+    try (ISession session = dbManager.getRevokingStore().buildSession()) {
+      ReflectUtils.invokeMethod(dbManager, "processBlock",
+          new Class[] {BlockCapsule.class, List.class}, capsule, capsule.getTransactions());
+      result.writes = dbManager.getRevokingStore().headWrites().getWrites();
+      if (chainManager.getDynamicPropertiesStore().allowAccountStateRoot()) {
+        TrieImpl trie = ReflectUtils.getFieldValue(
+            context.getBean(AccountStateCallBack.class), "trie");
+        result.root = trie.getRootHash();
+      }
+    } finally {
+      ReflectUtils.setFieldValue(dbManager, "parallelExecutor", null);
+    }
+    result.ret = capsule.getResult().getInstance();
+    return result;
+  }
+
+  private static byte[] newAddress() {
+    return PublicMethod.getAddressByteByPrivateKey(PublicMethod.getRandomPrivateKey());
+  }
+
+  private static TransactionCapsule transfer(BlockCapsule head, String ownerKey, byte[] to) {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(PublicMethod.getAddressByteByPrivateKey(ownerKey)))
+        .setToAddress(ByteString.copyFrom(to))
+        .setAmount(10_000_000L)
+        .build();
+    TransactionCapsule trx = new TransactionCapsule(contract, ContractType.TransferContract);
+    trx.setReference(head.getNum(), head.getBlockId().getBytes());
+    trx.setExpiration(head.getTimeStamp() + 60_000L);
+    trx.sign(ByteArray.fromHexString(ownerKey));
+    return trx;
+  }
+
+  private static class Result {
+
+    private TransactionRet ret;
+    private Map<String, Map<WrappedByteArray, WrappedByteArray>> writes;
+    private byte[] root;
+  }
+}
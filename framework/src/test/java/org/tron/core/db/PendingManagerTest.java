@@ -0,0 +1,170 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.LocalWitnesses;
+import org.tron.common.utils.PublicMethod;
+import org.tron.core.ChainBaseManager;
+import org.tron.core.Constant;
+import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.capsule.WitnessCapsule;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.consensus.ConsensusService;
+import org.tron.core.db2.core.AccessSet;
+import org.tron.protos.Protocol;
+import org.tron.protos.Protocol.Block;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class PendingManagerTest extends BlockGenerate {
+
+  private static final long AMOUNT = 10_000_000L;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private TronApplicationContext context;
+  private Manager dbManager;
+  private ChainBaseManager chainManager;
+  private final String witnessKey = PublicMethod.getRandomPrivateKey();
+  private final String ownerKey = PublicMethod.getRandomPrivateKey();
+  private ByteString witness;
+
+  @Before
+  public void init() throws Exception {
+    Args.setParam(new String[] {"-d", temporaryFolder.newFolder().toString(), "-w"},
+        Constant.TEST_CONF);
+    context = new TronApplicationContext(DefaultConfig.class);
+    dbManager = context.getBean(Manager.class);
+    setManager(dbManager);
+    context.getBean(ConsensusService.class).start();
+    chainManager = dbManager.getChainBaseManager();
+
+    LocalWitnesses localWitnesses = new LocalWitnesses();
+    localWitnesses.setPrivateKeys(Arrays.asList(witnessKey));
+    localWitnesses.initWitnessAccountAddress(true);
+    Args.setLocalWitnesses(localWitnesses);
+
+    witness = ByteString.copyFrom(PublicMethod.getAddressByteByPrivateKey(witnessKey));
+    chainManager.getWitnessStore().put(witness.toByteArray(), new WitnessCapsule(witness));
+    chainManager.getWitnessScheduleStore().saveActiveWitnesses(new ArrayList<>());
+    chainManager.addWitness(witness);
+    chainManager.getAccountStore().put(witness.toByteArray(), new AccountCapsule(
+        Protocol.Account.newBuilder().setAddress(witness).build()));
+
+    byte[] owner = PublicMethod.getAddressByteByPrivateKey(ownerKey);
+    AccountCapsule account = new AccountCapsule(
+        Protocol.Account.newBuilder().setAddress(ByteString.copyFrom(owner)).build());
+    account.setBalance(1_000_000_000L);
+    chainManager.getAccountStore().put(owner, account);
+    dbManager.updateRecentBlock(chainManager.getHead());
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+  }
+
+  @Test
+  public void testReplayOnSameHead() throws Exception {
+    byte[] to = newAddress();
+    TransactionCapsule tx = transfer(chainManager.getHead(), to);
+    Assert.assertTrue(dbManager.pushTransaction(tx));
+    AccessSet recorded = tx.getPendingAccess();
+    Assert.assertNotNull(recorded);
+
+    // the pending state is rebuilt without a new block
+    try (PendingManager pm = new PendingManager(dbManager)) {
+      Assert.assertNull(chainManager.getAccountStore().get(to));
+    }
+
+    // put back with the values it recorded
+    Assert.assertSame(recorded, tx.getPendingAccess());
+    Assert.assertTrue(dbManager.getPendingTransactions().contains(tx));
+    Assert.assertEquals(AMOUNT, chainManager.getAccountStore().get(to).getBalance());
+  }
+
+  @Test
+  public void testReexecuteAfterBlock() throws Exception {
+    Block block = getSignedBlock(witness, chainManager.getHeadBlockTimeStamp() + 3000,
+        ByteArray.fromHexString(witnessKey));
+    // pending after the block was generated, so it is not in it
+    byte[] to = newAddress();
+    TransactionCapsule tx = transfer(chainManager.getHead(), to);
+    Assert.assertTrue(dbManager.pushTransaction(tx));
+    AccessSet recorded = tx.getPendingAccess();
+
+    dbManager.pushBlock(new BlockCapsule(block));
+    Assert.assertEquals(1, chainManager.getHeadBlockNum());
+
+    // it read the head the block replaced, the values it wrote depend on it
+    awaitPending(tx);
+    Assert.assertNotSame(recorded, tx.getPendingAccess());
+    Assert.assertEquals(AMOUNT, chainManager.getAccountStore().get(to).getBalance());
+  }
+
+  @Test
+  public void testReexecuteAfterSwitch() throws Exception {
+    BlockCapsule genesis = chainManager.getHead();
+    Block block = getSignedBlock(witness, chainManager.getHeadBlockTimeStamp() + 3000,
+        ByteArray.fromHexString(witnessKey));
+    dbManager.pushBlock(new BlockCapsule(block));
+    byte[] to = newAddress();
+    // referring to a block that stays on the chain
+    TransactionCapsule tx = transfer(genesis, to);
+    Assert.assertTrue(dbManager.pushTransaction(tx));
+    AccessSet recorded = tx.getPendingAccess();
+
+    // the head block is popped, as when switching to another fork
+    try (PendingManager pm = new PendingManager(dbManager)) {
+      dbManager.eraseBlock();
+    }
+    Assert.assertEquals(0, chainManager.getHeadBlockNum());
+
+    awaitPending(tx);
+    Assert.assertNotSame(recorded, tx.getPendingAccess());
+    Assert.assertEquals(AMOUNT, chainManager.getAccountStore().get(to).getBalance());
+  }
+
+  /**
+   * Waits for the re-push loop to execute {@code tx} into the pending state again.
+   */
+  private void awaitPending(TransactionCapsule tx) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (!dbManager.getPendingTransactions().contains(tx)
+        && System.currentTimeMillis() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(50);
+    }
+    Assert.assertTrue(dbManager.getPendingTransactions().contains(tx));
+  }
+
+  private static byte[] newAddress() {
+    return PublicMethod.getAddressByteByPrivateKey(PublicMethod.getRandomPrivateKey());
+  }
+
+  private TransactionCapsule transfer(BlockCapsule head, byte[] to) {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(PublicMethod.getAddressByteByPrivateKey(ownerKey)))
+        .setToAddress(ByteString.copyFrom(to))
+        .setAmount(AMOUNT)
+        .build();
+    TransactionCapsule trx = new TransactionCapsule(contract, ContractType.TransferContract);
+    trx.setReference(head.getNum(), head.getBlockId().getBytes());
+    trx.setExpiration(head.getTimeStamp() + 60_000L);
+    trx.sign(ByteArray.fromHexString(ownerKey));
+    return trx;
+  }
+}
@@ -0,0 +1,117 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class PendingPoolTest {
+
+  private static final Comparator<TransactionCapsule> BY_ORDER =
+      (o1, o2) -> Long.compare(o2.getOrder(), o1.getOrder());
+
+  private static TransactionCapsule trx(String owner, long amount, long order) {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(owner.getBytes()))
+        .setAmount(amount).build();
+    TransactionCapsule trx = new TransactionCapsule(contract, ContractType.TransferContract);
+    trx.setOrder(order);
+    return trx;
+  }
+
+  private static List<TransactionCapsule> drain(PendingPool pool) {
+    List<TransactionCapsule> list = new ArrayList<>();
+    pool.drainTo(list);
+    return list;
+  }
+
+  @Test
+  public void testSenderOrderKept() {
+    PendingPool pool = new PendingPool(4, BY_ORDER);
+    TransactionCapsule a1 = trx("a", 1, 1);
+    TransactionCapsule a2 = trx("a", 2, 9);
+    TransactionCapsule b1 = trx("b", 1, 5);
+    TransactionCapsule c1 = trx("c", 1, 3);
+    pool.add(a1);
+    pool.add(a2);
+    pool.add(b1);
+    pool.add(c1);
+    Assert.assertEquals(4, pool.size());
+    Assert.assertSame(b1, pool.peek());
+    // a2 pays the most but has to wait for a1
+    Assert.assertEquals(Arrays.asList(b1, c1, a1, a2), drain(pool));
+    Assert.assertTrue(pool.isEmpty());
+  }
+
+  @Test
+  public void testAdmissionOrder() {
+    PendingPool pool = new PendingPool(4, null);
+    List<TransactionCapsule> expected = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      TransactionCapsule trx = trx("s" + i % 3, i, 20 - i);
+      expected.add(trx);
+      pool.add(trx);
+    }
+    List<TransactionCapsule> iterated = new ArrayList<>();
+    pool.forEach(iterated::add);
+    Assert.assertEquals(expected, iterated);
+    Assert.assertEquals(expected, drain(pool));
+  }
+
+  @Test
+  public void testRemove() {
+    PendingPool pool = new PendingPool(2, BY_ORDER);
+    TransactionCapsule a1 = trx("a", 1, 1);
+    TransactionCapsule a2 = trx("a", 2, 9);
+    TransactionCapsule b1 = trx("b", 1, 5);
+    pool.add(a1);
+    pool.add(a2);
+    pool.add(b1);
+    Assert.assertTrue(pool.remove(a1));
+    Assert.assertFalse(pool.remove(a1));
+    Assert.assertTrue(pool.contains(a2));
+    Assert.assertEquals(Arrays.asList(a2, b1), drain(pool));
+
+    pool.add(a1);
+    pool.add(b1);
+    pool.clear();
+    Assert.assertEquals(0, pool.size());
+    Assert.assertNull(pool.poll());
+  }
+
+  @Test
+  public void testConcurrentAdmission() throws InterruptedException {
+    PendingPool pool = new PendingPool(8, BY_ORDER);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int t = 0; t < 8; t++) {
+      String owner = "sender" + t;
+      executor.submit(() -> {
+        for (int i = 0; i < 500; i++) {
+          pool.add(trx(owner, i, i));
+        }
+      });
+    }
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    Assert.assertEquals(4000, pool.size());
+
+    long[] last = new long[8];
+    Arrays.fill(last, -1);
+    TransactionCapsule trx;
+    while ((trx = pool.poll()) != null) {
+      int sender = new String(trx.getOwnerAddress()).charAt(6) - '0';
+      Assert.assertTrue(trx.getOrder() > last[sender]);
+      last[sender] = trx.getOrder();
+    }
+    Assert.assertEquals(0, pool.size());
+  }
+}
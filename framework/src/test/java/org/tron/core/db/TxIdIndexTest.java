@@ -0,0 +1,70 @@
+package org.tron.core.db;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tron.core.db2.common.TxIdIndex;
+import org.tron.keystore.Wallet;
+
+public class TxIdIndexTest {
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testRotateAndReopen() throws IOException {
+    Path dir = temporaryFolder.newFolder().toPath();
+    TxIdIndex index = new TxIdIndex(dir, 10);
+    Assert.assertFalse(index.open(0));
+
+    // enough ids in one block to grow the ring
+    byte[][] ids = new byte[100_000][];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = Wallet.generateRandomBytes(32);
+      index.put(ids[i], 1);
+    }
+    Assert.assertEquals(ids.length, index.size());
+    // the replaced tables are deleted
+    Assert.assertEquals(2, ringFiles(dir));
+    byte[][] keys = new byte[30][];
+    for (int i = 1; i < keys.length; i++) {
+      keys[i] = Wallet.generateRandomBytes(64);
+      index.put(keys[i], i);
+    }
+    for (byte[] id : ids) {
+      Assert.assertFalse(index.contains(id));
+    }
+    // [1,11] were in the first ring, [12,22] and [23,29] are kept
+    for (int i = 1; i < keys.length; i++) {
+      Assert.assertEquals("index = " + i, i >= 12, index.contains(keys[i]));
+    }
+    index.close(29);
+    Assert.assertEquals(2, ringFiles(dir));
+
+    index = new TxIdIndex(dir, 10);
+    Assert.assertTrue(index.open(29));
+    for (int i = 1; i < keys.length; i++) {
+      Assert.assertEquals("index = " + i, i >= 12, index.contains(keys[i]));
+    }
+    index.close(29);
+
+    // closed at another block, not trusted
+    index = new TxIdIndex(dir, 10);
+    Assert.assertFalse(index.open(30));
+    Assert.assertEquals(0, index.size());
+    Assert.assertFalse(index.contains(keys[20]));
+    index.close(30);
+    Assert.assertEquals(2, ringFiles(dir));
+  }
+
+  private static long ringFiles(Path dir) throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.filter(f -> f.getFileName().toString().startsWith("txIds_")).count();
+    }
+  }
+}
@@ -0,0 +1,238 @@
+package org.tron.core.db2;
+
+import java.io.IOException;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tron.common.storage.leveldb.LevelDbDataSourceImpl;
+import org.tron.common.utils.ByteArray;
+import org.tron.core.Constant;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.common.LevelDB;
+import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.core.db2.core.AccessSet;
+import org.tron.core.db2.core.Chainbase;
+import org.tron.core.db2.core.Delta;
+import org.tron.core.db2.core.SnapshotManager;
+import org.tron.core.db2.core.SnapshotRoot;
+
+public class AccessSetTest {
+
+  @ClassRule
+  public static final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private Chainbase chainbase;
+
+  private final byte[] key1 = "key1".getBytes();
+  private final byte[] key2 = "key2".getBytes();
+  private final byte[] value1 = "value1".getBytes();
+  private final byte[] value2 = "value2".getBytes();
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+  }
+
+  @Before
+  public void initDb() throws IOException {
+    Args.setParam(new String[] {"--output-directory",
+        temporaryFolder.newFolder().toString()}, Constant.TEST_CONF);
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "testAccessSet");
+    dataSource.initDB();
+    chainbase = new Chainbase(new SnapshotRoot(new LevelDB(dataSource)));
+    chainbase.setHead(chainbase.getHead().advance());
+    chainbase.put(key1, value1);
+  }
+
+  @After
+  public void closeDb() {
+    AccessSet.unbind();
+    chainbase.reset();
+    chainbase.close();
+  }
+
+  @Test
+  public void testSpeculativeLayerIsPrivate() {
+    AccessSet speculative = new AccessSet(true);
+    speculative.bind();
+    Assert.assertArrayEquals(value1, chainbase.getUnchecked(key1));
+    chainbase.put(key2, value2);
+    chainbase.delete(key1);
+    Assert.assertArrayEquals(value2, chainbase.getUnchecked(key2));
+    Assert.assertNull(chainbase.getUnchecked(key1));
+    AccessSet.unbind();
+
+    // nothing leaked to the shared head
+    Assert.assertArrayEquals(value1, chainbase.getUnchecked(key1));
+    Assert.assertNull(chainbase.getUnchecked(key2));
+    Assert.assertNull(chainbase.getHead().getNext());
+  }
+
+  @Test
+  public void testConflict() {
+    String dbName = chainbase.getDbName();
+
+    AccessSet reader = new AccessSet(true);
+    reader.bind();
+    chainbase.getUnchecked(key1);
+    AccessSet.unbind();
+
+    AccessSet blindWriter = new AccessSet(true);
+    blindWriter.bind();
+    chainbase.put(key2, value2);
+    // read of its own write is not a dependency
+    chainbase.getUnchecked(key2);
+    AccessSet.unbind();
+
+    AccessSet committed = new AccessSet(false);
+    committed.bind();
+    chainbase.put(key1, value2);
+    AccessSet.unbind();
+
+    Assert.assertTrue(reader.conflictsWith(committed));
+    Assert.assertFalse(blindWriter.conflictsWith(committed));
+
+    AccessSet scanner = new AccessSet(true);
+    scanner.bind();
+    chainbase.prefixQuery("key".getBytes());
+    AccessSet.unbind();
+    Assert.assertTrue(scanner.conflictsWith(committed));
+
+    AccessSet serial = new AccessSet(false);
+    serial.bind();
+    chainbase.put(key2, value2);
+    AccessSet.unbind();
+    Assert.assertTrue(blindWriter.sameWrites(serial, Collections.singleton(dbName)));
+    Assert.assertFalse(committed.sameWrites(serial, Collections.singleton(dbName)));
+  }
+
+  @Test
+  public void testReplayOverHeadWrites() {
+    SnapshotManager manager = new SnapshotManager("");
+    manager.add(chainbase);
+    manager.enable();
+
+    // a pending transaction reads key1 and writes key2, then the pending state is dropped
+    AccessSet pending = new AccessSet(false);
+    try (ISession session = manager.buildSession()) {
+      pending.bind();
+      chainbase.getUnchecked(key1);
+      chainbase.put(key2, value2);
+      AccessSet.unbind();
+    }
+    Assert.assertNull(chainbase.getUnchecked(key2));
+
+    // the next block writes key1
+    try (ISession block = manager.buildSession()) {
+      chainbase.put(key1, value2);
+      block.commit();
+    }
+    AccessSet changed = manager.headWrites();
+    Assert.assertTrue(pending.conflictsWith(changed));
+    changed.removeWrites(chainbase.getDbName(), Collections.singletonList(key1));
+    Assert.assertFalse(pending.conflictsWith(changed));
+
+    try (ISession session = manager.buildSession()) {
+      manager.apply(pending);
+      Assert.assertArrayEquals(value2, chainbase.getUnchecked(key2));
+    }
+    Assert.assertNull(chainbase.getUnchecked(key2));
+  }
+
+  @Test
+  public void testPublishOnPinnedHead() {
+    SnapshotManager manager = new SnapshotManager("");
+    manager.add(chainbase);
+    manager.enable();
+    AccessSet draft = manager.pinHead();
+
+    // the pending state moves on after the head was pinned
+    try (ISession session = manager.buildSession()) {
+      chainbase.put(key1, value2);
+
+      AccessSet first = new AccessSet(draft);
+      first.bind();
+      Assert.assertArrayEquals(value1, chainbase.getUnchecked(key1));
+      chainbase.put(key2, value2);
+      AccessSet.unbind();
+      first.publish();
+
+      AccessSet second = new AccessSet(draft);
+      second.bind();
+      Assert.assertArrayEquals(value2, chainbase.getUnchecked(key2));
+      AccessSet.unbind();
+
+      Assert.assertNull(chainbase.getUnchecked(key2));
+      Assert.assertArrayEquals(value2, draft.getWrites().get(chainbase.getDbName())
+          .get(WrappedByteArray.of(key2)).getBytes());
+    }
+  }
+
+  @Test
+  public void testCommutativeUpdates() {
+    SnapshotManager manager = new SnapshotManager("");
+    manager.add(chainbase);
+    manager.enable();
+    String dbName = chainbase.getDbName();
+    byte[] counter = "counter".getBytes();
+    chainbase.put(counter, ByteArray.fromLong(10));
+
+    AccessSet first = add(counter, 1);
+    AccessSet second = add(counter, 2);
+    // both updated the counter, neither depends on the value the other wrote
+    Assert.assertFalse(second.conflictsWith(first));
+
+    try (ISession session = manager.buildSession()) {
+      chainbase.put(counter, ByteArray.fromLong(20));
+      // the same update on another value
+      Assert.assertTrue(first.sameWrites(add(counter, 1), Collections.singleton(dbName)));
+      Assert.assertFalse(first.sameWrites(second, Collections.singleton(dbName)));
+
+      Assert.assertTrue(manager.apply(first));
+      Assert.assertTrue(manager.apply(second));
+      Assert.assertEquals(23, ByteArray.toLong(chainbase.getUnchecked(counter)));
+    }
+
+    // the counter read outside of the update is a dependency again
+    AccessSet reader = add(counter, 1);
+    reader.bind();
+    chainbase.getUnchecked(counter);
+    AccessSet.unbind();
+    Assert.assertTrue(reader.conflictsWith(first));
+
+    // nothing is written when a delta no longer holds on the head
+    AccessSet failing = new AccessSet(true);
+    failing.bind();
+    chainbase.put(key2, value2);
+    AccessSet.commute(dbName, counter, current -> null, () -> {
+      chainbase.put(counter, value1);
+      return true;
+    });
+    AccessSet.unbind();
+    try (ISession session = manager.buildSession()) {
+      Assert.assertFalse(manager.apply(failing));
+      Assert.assertNull(chainbase.getUnchecked(key2));
+      Assert.assertEquals(10, ByteArray.toLong(chainbase.getUnchecked(counter)));
+    }
+  }
+
+  private AccessSet add(byte[] counter, long amount) {
+    AccessSet accessSet = new AccessSet(true);
+    accessSet.bind();
+    try {
+      AccessSet.commute(chainbase.getDbName(), counter, Delta.add(amount), () -> {
+        long value = ByteArray.toLong(chainbase.getUnchecked(counter));
+        chainbase.put(counter, ByteArray.fromLong(value + amount));
+        return true;
+      });
+    } finally {
+      AccessSet.unbind();
+    }
+    return accessSet;
+  }
+}
@@ -0,0 +1,90 @@
+package org.tron.core.db2;
+
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Longs;
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.application.Application;
+import org.tron.common.application.ApplicationFactory;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.utils.FileUtil;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.Constant;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.RevokingDbWithCacheNewValueTest.TestRevokingTronStore;
+import org.tron.core.db2.core.Chainbase;
+import org.tron.core.db2.core.SnapshotManager;
+
+public class AsyncFlushTest {
+
+  private SnapshotManager revokingDatabase;
+  private TronApplicationContext context;
+  private Application appT;
+  private TestRevokingTronStore tronDatabase;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", "output_AsyncFlush_test"}, Constant.TEST_CONF);
+    Args.getInstance().getStorage().setAsyncFlush(true);
+    context = new TronApplicationContext(DefaultConfig.class);
+    appT = ApplicationFactory.create(context);
+    revokingDatabase = context.getBean(SnapshotManager.class);
+    revokingDatabase.enable();
+    tronDatabase = new TestRevokingTronStore("testAsyncFlush-test");
+    revokingDatabase.add(tronDatabase.getRevokingDB());
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+    tronDatabase.close();
+    FileUtil.deleteDir(new File("output_AsyncFlush_test"));
+    revokingDatabase.getCheckTmpStore().close();
+  }
+
+  @Test
+  public void testFlushInBackground() {
+    while (revokingDatabase.size() != 0) {
+      revokingDatabase.pop();
+    }
+
+    revokingDatabase.setMaxFlushCount(1);
+    revokingDatabase.setUnChecked(false);
+    revokingDatabase.setMaxSize(2);
+    Map<String, Chainbase> dbMap = revokingDatabase.getDbs().stream()
+        .map(db -> Maps.immutableEntry(db.getDbName(), db))
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    Chainbase block = dbMap.get("block");
+    for (int i = 1; i <= 20; i++) {
+      BlockCapsule blockCapsule = new BlockCapsule(i, Sha256Hash.ZERO_HASH,
+          System.currentTimeMillis(), ByteString.EMPTY);
+      try (ISession tmpSession = revokingDatabase.buildSession()) {
+        block.put(Longs.toByteArray(i), blockCapsule.getData());
+        tmpSession.commit();
+      }
+      // visible through the layers whether flushed yet or not
+      for (int j = 1; j <= i; j++) {
+        Assert.assertNotNull(block.getUnchecked(Longs.toByteArray(j)));
+      }
+    }
+
+    // waits for the last flush
+    revokingDatabase.shutdown();
+    Assert.assertEquals(3, revokingDatabase.size());
+    for (int i = 1; i <= 20; i++) {
+      Assert.assertNotNull(block.getUnchecked(Longs.toByteArray(i)));
+    }
+    for (int i = 1; i <= 17; i++) {
+      Assert.assertNotNull(block.getHead().getRoot().get(Longs.toByteArray(i)));
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package org.tron.core.db2;
+
+import java.io.IOException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tron.common.storage.leveldb.LevelDbDataSourceImpl;
+import org.tron.core.Constant;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.common.LevelDB;
+import org.tron.core.db2.core.Chainbase;
+import org.tron.core.db2.core.LayerIndex;
+import org.tron.core.db2.core.Snapshot;
+import org.tron.core.db2.core.SnapshotRoot;
+
+public class LayerIndexTest {
+
+  @ClassRule
+  public static final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private Chainbase chainbase;
+  private SnapshotRoot root;
+
+  private final byte[] key1 = "key1".getBytes();
+  private final byte[] key2 = "key2".getBytes();
+  private final byte[] key3 = "key3".getBytes();
+  private final byte[] value1 = "value1".getBytes();
+  private final byte[] value2 = "value2".getBytes();
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+  }
+
+  @Before
+  public void initDb() throws IOException {
+    Args.setParam(new String[] {"--output-directory",
+        temporaryFolder.newFolder().toString()}, Constant.TEST_CONF);
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "testLayerIndex");
+    dataSource.initDB();
+    root = new SnapshotRoot(new LevelDB(dataSource));
+    chainbase = new Chainbase(root);
+  }
+
+  @After
+  public void closeDb() {
+    chainbase.reset();
+    chainbase.close();
+  }
+
+  @Test
+  public void testReadAcrossLayers() {
+    root.put(key3, value1);
+    LayerIndex index = root.getLayerIndex();
+
+    chainbase.setHead(chainbase.getHead().advance());
+    chainbase.put(key1, value1);
+    Snapshot solidity = chainbase.getHead();
+    chainbase.setHead(chainbase.getHead().advance());
+    chainbase.put(key1, value2);
+    chainbase.put(key2, value2);
+    chainbase.setHead(chainbase.getHead().advance());
+    chainbase.delete(key2);
+
+    Assert.assertEquals(2, index.size());
+    Assert.assertArrayEquals(value2, chainbase.getUnchecked(key1));
+    Assert.assertNull(chainbase.getUnchecked(key2));
+    Assert.assertArrayEquals(value1, chainbase.getUnchecked(key3));
+    // an older snapshot does not see the newer layers
+    Assert.assertArrayEquals(value1, solidity.get(key1));
+    Assert.assertNull(solidity.get(key2));
+
+    chainbase.setHead(chainbase.getHead().retreat());
+    Assert.assertArrayEquals(value2, chainbase.getUnchecked(key2));
+    chainbase.setHead(chainbase.getHead().retreat());
+    Assert.assertArrayEquals(value1, chainbase.getUnchecked(key1));
+    Assert.assertNull(chainbase.getUnchecked(key2));
+    Assert.assertEquals(1, index.size());
+    Assert.assertEquals(key1.length + value1.length, index.getBytes());
+
+    chainbase.setHead(chainbase.getHead().retreat());
+    Assert.assertEquals(0, index.size());
+    Assert.assertEquals(0, index.getBytes());
+  }
+
+  @Test
+  public void testMergeAndFlush() {
+    LayerIndex index = root.getLayerIndex();
+    chainbase.setHead(chainbase.getHead().advance());
+    chainbase.put(key1, value1);
+    chainbase.setHead(chainbase.getHead().advance());
+    chainbase.put(key2, value2);
+
+    chainbase.getHead().getPrevious().merge(chainbase.getHead());
+    chainbase.setHead(chainbase.getHead().retreat());
+    Assert.assertEquals(2, index.size());
+    Assert.assertArrayEquals(value2, chainbase.getUnchecked(key2));
+
+    root.merge(chainbase.getHead());
+    chainbase.setHead(chainbase.getHead().retreat());
+    Assert.assertEquals(0, index.size());
+    Assert.assertEquals(0, index.getBytes());
+    Assert.assertArrayEquals(value1, chainbase.getUnchecked(key1));
+    Assert.assertArrayEquals(value2, chainbase.getUnchecked(key2));
+  }
+}
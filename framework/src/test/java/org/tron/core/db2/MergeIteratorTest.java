@@ -0,0 +1,87 @@
+package org.tron.core.db2;
+
+import com.google.common.collect.Streams;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tron.common.storage.leveldb.LevelDbDataSourceImpl;
+import org.tron.core.Constant;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.common.LevelDB;
+import org.tron.core.db2.core.Chainbase;
+import org.tron.core.db2.core.SnapshotRoot;
+
+public class MergeIteratorTest {
+
+  @ClassRule
+  public static final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private Chainbase chainbase;
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+  }
+
+  @Before
+  public void initDb() throws IOException {
+    Args.setParam(new String[] {"--output-directory",
+        temporaryFolder.newFolder().toString()}, Constant.TEST_CONF);
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "testMergeIterator");
+    dataSource.initDB();
+    SnapshotRoot root = new SnapshotRoot(new LevelDB(dataSource));
+    chainbase = new Chainbase(root);
+    // root: a1 a3 b1, layer 1: a2 a3', layer 2: del a1, b0
+    root.put("a1".getBytes(), "root".getBytes());
+    root.put("a3".getBytes(), "root".getBytes());
+    root.put("b1".getBytes(), "root".getBytes());
+    chainbase.setHead(chainbase.getHead().advance());
+    chainbase.put("a2".getBytes(), "layer1".getBytes());
+    chainbase.put("a3".getBytes(), "layer1".getBytes());
+    chainbase.setHead(chainbase.getHead().advance());
+    chainbase.delete("a1".getBytes());
+    chainbase.put("b0".getBytes(), "layer2".getBytes());
+  }
+
+  @After
+  public void closeDb() {
+    chainbase.reset();
+    chainbase.close();
+  }
+
+  private static List<String> keys(Iterable<Map.Entry<byte[], byte[]>> entries) {
+    return Streams.stream(entries).map(e -> new String(e.getKey())).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testOrderedIteration() {
+    Assert.assertEquals(Arrays.asList("a2", "a3", "b0", "b1"),
+        keys(chainbase::iterator));
+    Assert.assertEquals("layer1", new String(chainbase.getUnchecked("a3".getBytes())));
+  }
+
+  @Test
+  public void testRangeAndPrefix() {
+    Map<byte[], byte[]> next = chainbase.getNext("a3".getBytes(), 2);
+    Assert.assertEquals(2, next.size());
+    Assert.assertEquals(Arrays.asList("a3", "b0"),
+        next.keySet().stream().map(String::new).sorted().collect(Collectors.toList()));
+    Assert.assertEquals(4, chainbase.getValuesNext("a".getBytes(), 10).size());
+
+    Map<String, String> prefix = chainbase.prefixQuery("a".getBytes()).entrySet().stream()
+        .collect(Collectors.toMap(e -> new String(e.getKey().getBytes()),
+            e -> new String(e.getValue())));
+    Assert.assertEquals(2, prefix.size());
+    Assert.assertEquals("layer1", prefix.get("a2"));
+    Assert.assertEquals("layer1", prefix.get("a3"));
+  }
+}
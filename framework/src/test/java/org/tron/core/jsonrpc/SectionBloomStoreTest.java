@@ -46,6 +46,19 @@ public class SectionBloomStoreTest extends BaseTest {
     }
   }
 
+  @Test
+  public void testGetWordsAfterPut() throws EventBloomException {
+    Assert.assertEquals(0, sectionBloomStore.getWords(200, 201).length);
+    BitSet bitSet = new BitSet(SectionBloomStore.BLOCK_PER_SECTION);
+    bitSet.set(1);
+    sectionBloomStore.put(200, 201, bitSet);
+    Assert.assertArrayEquals(bitSet.toLongArray(), sectionBloomStore.getWords(200, 201));
+    // the cached words are dropped by the next write
+    bitSet.set(2000);
+    sectionBloomStore.put(200, 201, bitSet);
+    Assert.assertArrayEquals(bitSet.toLongArray(), sectionBloomStore.getWords(200, 201));
+  }
+
   private byte[] bytesToAddress(byte[] address) {
     byte[] data = new byte[20];
     System.arraycopy(address, 0, data, 20 - address.length, address.length);
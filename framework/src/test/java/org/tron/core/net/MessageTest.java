@@ -1,5 +1,6 @@
 package org.tron.core.net;
 
+import com.google.protobuf.ByteString;
 import java.util.ArrayList;
 import org.junit.Assert;
 import org.junit.Test;
@@ -8,11 +9,13 @@ import org.tron.core.exception.P2pException;
 import org.tron.core.net.message.MessageTypes;
 import org.tron.core.net.message.adv.FetchInvDataMessage;
 import org.tron.core.net.message.adv.InventoryMessage;
+import org.tron.core.net.message.adv.TransactionMessage;
 import org.tron.core.net.message.adv.TransactionsMessage;
 import org.tron.core.net.message.base.DisconnectMessage;
 import org.tron.core.net.service.statistics.MessageStatistics;
 import org.tron.protos.Protocol.Inventory.InventoryType;
 import org.tron.protos.Protocol.ReasonCode;
+import org.tron.protos.Protocol.Transaction;
 
 public class MessageTest {
 
@@ -129,4 +132,24 @@ public class MessageTest {
     Assert.assertEquals(11, messageStatistics.tronOutMessage.getTotalCount());
   }
 
+  @Test
+  public void testTransactionMessageData() throws Exception {
+    Transaction trx = Transaction.newBuilder()
+        .setRawData(Transaction.raw.newBuilder().setTimestamp(1))
+        .addSignature(ByteString.copyFrom(new byte[65])).build();
+    TransactionMessage message1 = new TransactionMessage(trx);
+    TransactionMessage message2 = new TransactionMessage(trx);
+    Assert.assertEquals(message1, message2);
+    Assert.assertEquals(message1.hashCode(), message2.hashCode());
+    Assert.assertArrayEquals(trx.toByteArray(), message1.getData());
+    Assert.assertEquals(trx.getSerializedSize() + 1, message1.getSendBytes().length);
+
+    // equal either way to a received message, before it is encoded
+    Message received = new TransactionMessage(trx.toByteArray());
+    TransactionMessage built = new TransactionMessage(trx);
+    Assert.assertEquals(received, built);
+    Assert.assertEquals(built, received);
+    Assert.assertEquals(received.hashCode(), new TransactionMessage(trx).hashCode());
+  }
+
 }
@@ -186,6 +186,24 @@ public class PeerConnectionTest {
     Assert.assertTrue(!f);
   }
 
+  @Test
+  public void testIsInvKnown() {
+    PeerConnection peerConnection = new PeerConnection();
+    Item received = new Item(Sha256Hash.ZERO_HASH, Protocol.Inventory.InventoryType.TRX);
+    Item spread = new Item(Sha256Hash.of(true, new byte[] {1}),
+        Protocol.Inventory.InventoryType.TRX);
+    Assert.assertFalse(peerConnection.isInvKnown(received));
+
+    peerConnection.markInvReceived(received, System.currentTimeMillis());
+    peerConnection.markInvSpread(spread, System.currentTimeMillis());
+    Assert.assertTrue(peerConnection.isInvKnown(received));
+    Assert.assertTrue(peerConnection.isInvKnown(spread));
+
+    // the bloom filter is confirmed by the caches
+    peerConnection.getAdvInvSpread().invalidate(spread);
+    Assert.assertFalse(peerConnection.isInvKnown(spread));
+  }
+
   @Test
   public void testEquals() {
     List<InetSocketAddress> relayNodes = new ArrayList<>();
@@ -0,0 +1,83 @@
+package org.tron.core.net.services;
+
+import static org.mockito.Mockito.mock;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.tron.common.utils.ReflectUtils;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.exception.P2pException;
+import org.tron.core.net.message.TronMessageFactory;
+import org.tron.core.net.message.adv.BlockTxnMessage;
+import org.tron.core.net.message.adv.CompactBlockMessage;
+import org.tron.core.net.peer.Item;
+import org.tron.core.net.peer.PeerConnection;
+import org.tron.core.net.service.adv.AdvService;
+import org.tron.core.net.service.compactblock.CompactBlockService;
+import org.tron.core.net.service.compactblock.PartialBlock;
+import org.tron.protos.Protocol.Block;
+import org.tron.protos.Protocol.BlockHeader;
+import org.tron.protos.Protocol.Inventory.InventoryType;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Result.contractResult;
+
+public class CompactBlockServiceTest {
+
+  @Test
+  public void testReconstruct() throws Exception {
+    List<Transaction> trxs = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      trxs.add(Transaction.newBuilder()
+          .setRawData(Transaction.raw.newBuilder().setTimestamp(i))
+          .addRet(Transaction.Result.newBuilder().setContractRet(contractResult.SUCCESS))
+          .build());
+    }
+    BlockCapsule block = new BlockCapsule(Block.newBuilder()
+        .setBlockHeader(BlockHeader.newBuilder().setRawData(
+            BlockHeader.raw.newBuilder().setNumber(1)))
+        .addAllTransactions(trxs).build());
+    block.setMerkleRoot();
+    List<TransactionCapsule> capsules = block.getTransactions();
+
+    // the peer knows the first two transactions, but only caches the first one without results
+    PeerConnection peer = mock(PeerConnection.class);
+    Cache<Item, Long> received = CacheBuilder.newBuilder().build();
+    received.put(new Item(capsules.get(0).getTransactionId(), InventoryType.TRX), 0L);
+    received.put(new Item(capsules.get(1).getTransactionId(), InventoryType.TRX), 0L);
+    Mockito.when(peer.getAdvInvReceive()).thenReturn(received);
+    Mockito.when(peer.getAdvInvSpread()).thenReturn(CacheBuilder.newBuilder().build());
+    AdvService advService = mock(AdvService.class);
+    Mockito.when(advService.getCachedTransactions()).thenReturn(Collections.singletonMap(
+        capsules.get(0).getTransactionId(), trxs.get(0).toBuilder().clearRet().build()));
+    CompactBlockService service = new CompactBlockService();
+    ReflectUtils.setFieldValue(service, "advService", advService);
+
+    CompactBlockMessage compact = service.compact(block, peer);
+    Assert.assertEquals(2, compact.getCompactBlock().getTransactionsCount());
+    Assert.assertEquals(2, compact.getCompactBlock().getPrefilled(0).getIndex());
+    compact = (CompactBlockMessage) TronMessageFactory.create(compact.getSendBytes());
+    Assert.assertEquals(block.getBlockId(), compact.getBlockId());
+
+    PartialBlock partial = service.reconstruct(compact);
+    Assert.assertEquals(Collections.singletonList(1), partial.getMissing());
+    try {
+      service.fill(partial, new BlockTxnMessage(block.getBlockId(), new ArrayList<>()));
+      Assert.fail();
+    } catch (P2pException e) {
+      Assert.assertEquals(P2pException.TypeEnum.BAD_MESSAGE, e.getType());
+    }
+    service.fill(partial, new BlockTxnMessage(block.getBlockId(),
+        Collections.singletonList(trxs.get(1))));
+    Assert.assertTrue(partial.isComplete());
+    BlockCapsule rebuilt = partial.toBlock();
+    Assert.assertEquals(block.getMerkleRoot(), rebuilt.calcMerkleRoot());
+    Assert.assertEquals(block.getInstance(), rebuilt.getInstance());
+  }
+}
@@ -9,6 +9,8 @@ import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -22,6 +24,7 @@ import org.tron.common.utils.ReflectUtils;
 import org.tron.core.Constant;
 import org.tron.core.capsule.BlockCapsule;
 import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.Parameter.NetConstants;
 import org.tron.core.config.args.Args;
 import org.tron.core.net.P2pEventHandlerImpl;
 import org.tron.core.net.message.adv.BlockMessage;
@@ -112,6 +115,38 @@ public class SyncServiceTest {
     Assert.assertTrue(handleFlag);
   }
 
+  @Test
+  public void testDuplicateBlock() {
+    Map<BlockMessage, PeerConnection> blockJustReceived =
+        (Map<BlockMessage, PeerConnection>)
+            ReflectUtils.getFieldObject(service, "blockJustReceived");
+    Map<BlockCapsule.BlockId, Future<?>> blockInPrepare =
+        (Map<BlockCapsule.BlockId, Future<?>>)
+            ReflectUtils.getFieldObject(service, "blockInPrepare");
+    BlockCapsule blockCapsule = new BlockCapsule(Protocol.Block.newBuilder()
+        .setBlockHeader(Protocol.BlockHeader.newBuilder().setRawData(
+            Protocol.BlockHeader.raw.newBuilder().setNumber(100000))).build());
+    BlockCapsule.BlockId blockId = blockCapsule.getBlockId();
+
+    PeerConnection first = context.getBean(PeerConnection.class);
+    PeerConnection second = context.getBean(PeerConnection.class);
+    for (PeerConnection p : new PeerConnection[] {first, second}) {
+      Channel c = mock(Channel.class);
+      Mockito.when(c.getInetSocketAddress()).thenReturn(inetSocketAddress);
+      Mockito.when(c.getInetAddress()).thenReturn(inetSocketAddress.getAddress());
+      p.setChannel(c);
+      p.getSyncBlockInProcess().add(blockId);
+    }
+    service.processBlock(first, new BlockMessage(blockCapsule));
+    service.processBlock(second, new BlockMessage(blockCapsule));
+
+    Assert.assertTrue(blockInPrepare.containsKey(blockId));
+    Assert.assertEquals(Collections.singletonList(first),
+        new ArrayList<>(blockJustReceived.values()));
+    Assert.assertTrue(first.getSyncBlockInProcess().contains(blockId));
+    Assert.assertFalse(second.getSyncBlockInProcess().contains(blockId));
+  }
+
   @Test
   public void testOnDisconnect() {
     Cache<BlockCapsule.BlockId, PeerConnection> requestBlockIds =
@@ -177,6 +212,50 @@ public class SyncServiceTest {
     Assert.assertTrue(peer.getSyncBlockRequested().get(blockId) == null);
   }
 
+  @Test
+  public void testRefetchStraggler() throws Exception {
+    Field field = PeerManager.class.getDeclaredField("peers");
+    field.setAccessible(true);
+    field.set(PeerManager.class, Collections.synchronizedList(new ArrayList<>()));
+
+    Method method = service.getClass().getDeclaredMethod("startFetchSyncBlock");
+    method.setAccessible(true);
+    Cache<BlockCapsule.BlockId, PeerConnection> requestBlockIds =
+        (Cache<BlockCapsule.BlockId, PeerConnection>)
+            ReflectUtils.getFieldObject(service, "requestBlockIds");
+
+    InetSocketAddress a2 = new InetSocketAddress("127.0.0.3", 10001);
+    Channel c1 = mock(Channel.class);
+    Mockito.when(c1.getInetSocketAddress()).thenReturn(inetSocketAddress);
+    Mockito.when(c1.getInetAddress()).thenReturn(inetSocketAddress.getAddress());
+    Channel c2 = mock(Channel.class);
+    Mockito.when(c2.getInetSocketAddress()).thenReturn(a2);
+    Mockito.when(c2.getInetAddress()).thenReturn(a2.getAddress());
+    PeerManager.add(ctx, c1);
+    PeerManager.add(ctx, c2);
+    PeerConnection slow = PeerManager.getPeers().get(0);
+    PeerConnection fast = PeerManager.getPeers().get(1);
+
+    BlockCapsule.BlockId blockId = new BlockCapsule.BlockId();
+    for (PeerConnection p : PeerManager.getPeers()) {
+      p.setFetchAble(true);
+      p.getSyncBlockToFetch().add(blockId);
+    }
+    requestBlockIds.put(blockId, slow);
+    slow.getSyncBlockRequested().put(blockId, System.currentTimeMillis());
+    method.invoke(service);
+    Assert.assertNull(fast.getSyncBlockRequested().get(blockId));
+
+    // late, but not yet disconnected by the status check
+    long stragglerTimeout = (long) ReflectUtils.getFieldObject(service, "STRAGGLER_TIMEOUT");
+    Assert.assertTrue(stragglerTimeout < NetConstants.SYNC_TIME_OUT);
+    slow.getSyncBlockRequested().put(blockId,
+        System.currentTimeMillis() - (stragglerTimeout + NetConstants.SYNC_TIME_OUT) / 2);
+    method.invoke(service);
+    Assert.assertNotNull(fast.getSyncBlockRequested().get(blockId));
+    Assert.assertEquals(fast, requestBlockIds.getIfPresent(blockId));
+  }
+
   @Test
   public void testHandleSyncBlock() throws Exception {
 
@@ -226,4 +305,44 @@ public class SyncServiceTest {
 
     Assert.assertTrue(requestBlockIds.getIfPresent(blockId) == null);
   }
+
+  @Test
+  public void testReleaseUnneededBlock() throws Exception {
+    Field field = PeerManager.class.getDeclaredField("peers");
+    field.setAccessible(true);
+    field.set(PeerManager.class, Collections.synchronizedList(new ArrayList<>()));
+
+    Method method = service.getClass().getDeclaredMethod("handleSyncBlock");
+    method.setAccessible(true);
+    Map<BlockMessage, PeerConnection> blockJustReceived =
+        (Map<BlockMessage, PeerConnection>)
+            ReflectUtils.getFieldObject(service, "blockJustReceived");
+    Map<BlockMessage, PeerConnection> blockWaitToProcess =
+        (Map<BlockMessage, PeerConnection>)
+            ReflectUtils.getFieldObject(service, "blockWaitToProcess");
+    Map<BlockCapsule.BlockId, Future<?>> blockInPrepare =
+        (Map<BlockCapsule.BlockId, Future<?>>)
+            ReflectUtils.getFieldObject(service, "blockInPrepare");
+
+    BlockCapsule blockCapsule = new BlockCapsule(Protocol.Block.newBuilder()
+        .setBlockHeader(Protocol.BlockHeader.newBuilder().setRawData(
+            Protocol.BlockHeader.raw.newBuilder().setNumber(100000))).build());
+    BlockCapsule.BlockId blockId = blockCapsule.getBlockId();
+
+    Channel c1 = mock(Channel.class);
+    Mockito.when(c1.getInetSocketAddress()).thenReturn(inetSocketAddress);
+    Mockito.when(c1.getInetAddress()).thenReturn(inetSocketAddress.getAddress());
+    PeerManager.add(ctx, c1);
+    peer = PeerManager.getPeers().get(0);
+
+    // the peer's chain was trimmed after the block was received
+    peer.getSyncBlockInProcess().add(blockId);
+    blockInPrepare.put(blockId, CompletableFuture.completedFuture(null));
+    blockJustReceived.put(new BlockMessage(blockCapsule), peer);
+    method.invoke(service);
+
+    Assert.assertTrue(blockWaitToProcess.isEmpty());
+    Assert.assertFalse(blockInPrepare.containsKey(blockId));
+    Assert.assertFalse(peer.getSyncBlockInProcess().contains(blockId));
+  }
 }